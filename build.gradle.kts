@@ -1,6 +1,7 @@
 plugins {
     id("org.openrewrite.build.recipe-library") version "latest.release"
     id("org.openrewrite.build.moderne-source-available-license") version "latest.release"
+    id("me.champeau.jmh") version "0.7.3"
 }
 
 group = "org.openrewrite.recipe"
@@ -11,4 +12,99 @@ dependencies {
     implementation("org.openrewrite:rewrite-yaml:${rewriteVersion}")
     runtimeOnly("com.fasterxml.jackson.core:jackson-core")
     testImplementation("org.openrewrite:rewrite-test:${rewriteVersion}")
+    testImplementation("org.openjdk.jol:jol-core:0.17")
+}
+
+jmh {
+    // Allocation per operation matters as much as time for the table and parse benchmarks
+    profilers.add("gc")
+}
+
+val compileKnownActionShas by tasks.registering {
+    description = "Compiles known-action-shas.properties into the tables read by KnownActionShas and OfficialActionVersions."
+    val source = layout.projectDirectory.file("src/main/resources/META-INF/rewrite/known-action-shas.properties")
+    val outputDir = layout.buildDirectory.dir("generated/resources/known-action-shas")
+    inputs.file(source).withPathSensitivity(PathSensitivity.RELATIVE)
+    outputs.dir(outputDir)
+    doLast {
+        val props = java.util.Properties()
+        source.asFile.inputStream().use { props.load(it) }
+        val unsigned = Comparator<ByteArray> { a, b -> java.util.Arrays.compareUnsigned(a, b) }
+        val byAction = java.util.TreeMap<ByteArray, java.util.TreeMap<ByteArray, String>>(unsigned)
+        val distinctRefs = java.util.TreeSet<ByteArray>(unsigned)
+        for (key in props.stringPropertyNames()) {
+            val sha = props.getProperty(key)
+            require(key.contains('@')) { "$key is not an owner/repo@tag reference" }
+            require(sha.matches(Regex("[0-9a-f]{40}"))) { "$key maps to an invalid commit SHA: $sha" }
+            val ref = key.substringAfter('@').toByteArray(Charsets.UTF_8)
+            distinctRefs.add(ref)
+            byAction.getOrPut(key.substringBefore('@').toByteArray(Charsets.UTF_8)) { java.util.TreeMap(unsigned) }[ref] = sha
+        }
+        val refs = distinctRefs.toList()
+
+        val out = outputDir.get().file("META-INF/rewrite/known-action-shas.bin").asFile
+        out.parentFile.mkdirs()
+        java.io.DataOutputStream(out.outputStream().buffered()).use { data ->
+            // Layout documented on org.openrewrite.github.KnownActionShas
+            data.writeInt(0x4b415348)
+            data.writeInt(2)
+            data.writeInt(byAction.size)
+            for (action in byAction.keys) {
+                data.writeShort(action.size)
+                data.write(action)
+            }
+            data.writeInt(refs.size)
+            for (ref in refs) {
+                data.writeShort(ref.size)
+                data.write(ref)
+            }
+            data.writeInt(byAction.values.sumOf { it.size })
+            var first = 0
+            for (entries in byAction.values) {
+                data.writeInt(first)
+                first += entries.size
+            }
+            for (entries in byAction.values) {
+                for (ref in entries.keys) {
+                    data.writeInt(java.util.Collections.binarySearch(refs, ref, unsigned))
+                }
+            }
+            for (entries in byAction.values) {
+                for (sha in entries.values) {
+                    sha.chunked(2).forEach { data.writeByte(it.toInt(16)) }
+                }
+            }
+        }
+
+        // The newest major, minor and patch tag of every action, so upgrades need no version comparison at run time
+        val precisions = listOf(Regex("v?\\d+"), Regex("v?\\d+\\.\\d+"), Regex("v?\\d+\\.\\d+\\.\\d+"))
+        val versionOrder = Comparator<String> { a, b ->
+            val x = a.removePrefix("v").split('.').map { it.toBigInteger() }
+            val y = b.removePrefix("v").split('.').map { it.toBigInteger() }
+            x.zip(y).map { (p, q) -> p.compareTo(q) }.firstOrNull { it != 0 } ?: x.size.compareTo(y.size)
+        }
+        val newest = java.util.TreeMap<String, Array<String?>>()
+        for (key in props.stringPropertyNames().sorted()) {
+            val ref = key.substringAfter('@')
+            val precision = precisions.indexOfFirst { it.matches(ref) }
+            if (precision >= 0) {
+                val versions = newest.getOrPut(key.substringBefore('@')) { arrayOfNulls(3) }
+                val current = versions[precision]
+                if (current == null || versionOrder.compare(ref, current) > 0) {
+                    versions[precision] = ref
+                }
+            }
+        }
+        outputDir.get().file("META-INF/rewrite/known-action-versions.properties").asFile.printWriter().use { writer ->
+            for ((action, versions) in newest) {
+                writer.println("$action=${versions.joinToString(",") { it ?: "" }}")
+            }
+        }
+    }
+}
+
+sourceSets {
+    main {
+        resources.srcDir(compileKnownActionShas)
+    }
 }
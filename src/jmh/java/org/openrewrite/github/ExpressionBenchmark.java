@@ -0,0 +1,129 @@
+/*
+ * Copyright 2026 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.github;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static java.util.Collections.singletonList;
+
+/**
+ * Compares the regular expressions each audit used to run over the same {@code run:} and {@code if:}
+ * values with parsing them once, with or without the cache shared by the audits.
+ * <p>
+ * Run with {@code ./gradlew jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExpressionBenchmark {
+
+    private static final Pattern EXPRESSION_PATTERN = Pattern.compile("\\$\\{\\{([^}]+)\\}\\}");
+    private static final Pattern STEPS_OUTPUT_PATTERN = Pattern.compile("steps\\.[^.]+\\.outputs\\.[^\\s}]+");
+    private static final Pattern OBFUSCATED_EXPRESSION_PATTERN = Pattern.compile("\\$\\{\\{[^}]*['\"]}|['\"]{2,}|\\{\\{[^}]*\\$");
+    private static final Pattern GITHUB_EXPRESSION_PATTERN = Pattern.compile("\\$\\{\\{.*?\\}\\}");
+    private static final Pattern INPUT_USAGE_PATTERN = Pattern.compile("(?:github *[.] *event *[.] *inputs *[.] *([A-Za-z_][A-Za-z0-9_-]*)|inputs *[.] *([A-Za-z_][A-Za-z0-9_-]*))");
+    private static final Pattern[] BOT_PATTERNS = {
+            Pattern.compile("github\\.actor\\s*==\\s*['\"][^'\"]*\\[bot\\]['\"]"),
+            Pattern.compile("github\\.triggering_actor\\s*==\\s*['\"][^'\"]*\\[bot\\]['\"]"),
+            Pattern.compile("github\\.event\\.pull_request\\.sender\\.login\\s*==\\s*['\"][^'\"]*\\[bot\\]['\"]"),
+            Pattern.compile("github\\.actor\\s*==\\s*['\"]dependabot\\[bot\\]['\"]"),
+            Pattern.compile("github\\.actor\\s*==\\s*['\"]renovate\\[bot\\]['\"]"),
+            Pattern.compile("github\\.actor\\s*==\\s*['\"][^'\"]*bot[^'\"]*['\"]"),
+            Pattern.compile("contains\\s*\\(\\s*github\\.[^,]+,\\s*['\"]bot['\"]\\s*\\)"),
+            Pattern.compile("github\\.(actor_id|event\\.pull_request\\.sender\\.id)\\s*==\\s*['\"]\\d+['\"]")
+    };
+
+    private static final String[] RUNS = {
+            "npm ci\nnpm test -- --coverage",
+            "echo \"Building ${{ github.ref_name }} at ${{ github.sha }}\"\n./gradlew build -Pversion=${{ inputs.version }}",
+            "echo \"title=${{ github.event.pull_request.title }}\" >> $GITHUB_OUTPUT",
+            "docker build -t ${{ format('{0}/{1}:{2}', env.REGISTRY, github.repository, steps.meta.outputs.version) }} .",
+            "if [ \"${{ contains(github.event.head_commit.message, '[skip ci]') }}\" = \"true\" ]; then exit 0; fi\necho \"\""
+    };
+
+    private static final String[] CONDITIONS = {
+            "github.actor == 'dependabot[bot]' && github.event_name == 'pull_request'",
+            "${{ success() && github.ref == 'refs/heads/main' }}",
+            "contains(github.event.pull_request.labels.*.name, 'release') || inputs.force"
+    };
+
+    @Benchmark
+    public void regexes(Blackhole bh) {
+        for (String run : RUNS) {
+            Matcher expressions = EXPRESSION_PATTERN.matcher(run);
+            while (expressions.find()) {
+                bh.consume(STEPS_OUTPUT_PATTERN.matcher(expressions.group(1)).find());
+            }
+            bh.consume(OBFUSCATED_EXPRESSION_PATTERN.matcher(run).find());
+            bh.consume(GITHUB_EXPRESSION_PATTERN.matcher(run).find());
+            inputs(run, bh);
+        }
+        for (String condition : CONDITIONS) {
+            for (Pattern pattern : BOT_PATTERNS) {
+                bh.consume(pattern.matcher(condition).find());
+            }
+            inputs(condition, bh);
+        }
+    }
+
+    @Benchmark
+    public void parse(Blackhole bh) {
+        for (String run : RUNS) {
+            for (Expression expression : ExpressionParser.parseEmbedded(run)) {
+                bh.consume(expression.getContexts());
+            }
+        }
+        for (String condition : CONDITIONS) {
+            for (Expression expression : condition.contains("${{") ?
+                    ExpressionParser.parseEmbedded(condition) :
+                    singletonList(ExpressionParser.parse(condition))) {
+                bh.consume(expression.getContexts());
+            }
+        }
+    }
+
+    /**
+     * As the audits see it: every audit after the first finds each value already parsed.
+     */
+    @Benchmark
+    public void parseCached(Blackhole bh) {
+        for (String run : RUNS) {
+            for (Expression expression : ExpressionTemplate.parse(run).getExpressions()) {
+                bh.consume(expression.getContexts());
+            }
+        }
+        for (String condition : CONDITIONS) {
+            for (Expression expression : ExpressionTemplate.parseCondition(condition).getExpressions()) {
+                bh.consume(expression.getContexts());
+            }
+        }
+    }
+
+    private static void inputs(String value, Blackhole bh) {
+        Matcher matcher = INPUT_USAGE_PATTERN.matcher(value);
+        while (matcher.find()) {
+            bh.consume(matcher.group(1) != null ? matcher.group(1) : matcher.group(2));
+        }
+    }
+}
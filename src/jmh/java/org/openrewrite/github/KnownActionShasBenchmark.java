@@ -0,0 +1,70 @@
+/*
+ * Copyright 2026 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.github;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares what each recipe run used to pay to get at the known-action SHAs, parsing
+ * {@code known-action-shas.properties} into a {@link Properties} and copying it into a
+ * {@link LinkedHashMap}, with reading the {@link KnownActionShas#bundled()} table loaded once per JVM.
+ * <p>
+ * Run with {@code ./gradlew jmh}; the {@code gc.alloc.rate.norm} rows of the gc profiler give the
+ * bytes allocated per run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class KnownActionShasBenchmark {
+
+    @Benchmark
+    public Map<String, String> propertiesPerRun() throws IOException {
+        try (InputStream is = KnownActionShasBenchmark.class.getResourceAsStream(KnownActionShas.RESOURCE)) {
+            Properties props = new Properties();
+            props.load(is);
+            Map<String, String> map = new LinkedHashMap<>();
+            for (String key : props.stringPropertyNames()) {
+                map.put(key, props.getProperty(key));
+            }
+            return map;
+        }
+    }
+
+    @Benchmark
+    public KnownActionShas bundledPerRun() {
+        return KnownActionShas.bundled();
+    }
+
+    /**
+     * The table as the first run in a JVM sees it, read from the compiled resource.
+     */
+    @Benchmark
+    public KnownActionShas compiledFirstRun() throws IOException {
+        try (InputStream is = KnownActionShasBenchmark.class.getResourceAsStream(KnownActionShas.COMPILED_RESOURCE)) {
+            return KnownActionShas.read(KnownActionShas.readAll(is));
+        }
+    }
+}
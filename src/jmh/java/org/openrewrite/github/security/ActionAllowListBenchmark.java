@@ -0,0 +1,100 @@
+/*
+ * Copyright 2026 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.github.security;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openrewrite.github.UsesReference;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Compares scanning the trusted owners and {@code includedActions} patterns one at a time, as
+ * {@link PinGitHubActionsToSha} used to, with the {@link ActionAllowList} it compiles them into. The
+ * compiled lookup should cost the same per action however long the lists are.
+ * <p>
+ * Run with {@code ./gradlew jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ActionAllowListBenchmark {
+
+    private static final UsesReference[] USES = {
+            UsesReference.parse("org-7/repo/subpath@v1"),
+            UsesReference.parse("org-3/anything@v2"),
+            UsesReference.parse("trusted-42/action@v3"),
+            UsesReference.parse("unknown-org/action@v4")
+    };
+
+    @Param({"16", "1000", "10000"})
+    int patternCount;
+
+    private List<String> owners;
+    private List<String> patterns;
+    private ActionAllowList allowList;
+
+    @Setup
+    public void setup() {
+        owners = new ArrayList<>();
+        patterns = new ArrayList<>();
+        for (int i = 0; i < patternCount; i++) {
+            owners.add("trusted-" + i);
+            patterns.add(i % 3 == 0 ? "org-" + i + "/*" : i % 3 == 1 ? "org-" + i + "/repo" : "org-" + i + "/repo/subpath");
+        }
+        allowList = new ActionAllowList(owners, patterns);
+    }
+
+    @Benchmark
+    public void loop(Blackhole bh) {
+        for (UsesReference uses : USES) {
+            bh.consume(owners.contains(uses.getOwner()) || matchesAllowList(uses));
+        }
+    }
+
+    @Benchmark
+    public void compiled(Blackhole bh) {
+        for (UsesReference uses : USES) {
+            bh.consume(allowList.isTrustedOwner(requireNonNull(uses.getOwner())) || allowList.allows(uses));
+        }
+    }
+
+    private boolean matchesAllowList(UsesReference uses) {
+        String actionPath = uses.getActionPath();
+        for (String pattern : patterns) {
+            String p = pattern.trim();
+            if (p.endsWith("/*")) {
+                if (p.substring(0, p.length() - 2).equals(uses.getOwner())) {
+                    return true;
+                }
+            } else if (p.indexOf('/') != p.lastIndexOf('/')) {
+                if (p.equals(actionPath)) {
+                    return true;
+                }
+            } else if (p.equals(uses.getOwnerRepo())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2026 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.github.security;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares matching a {@code uses:} value against a growing list of suspicious patterns one pattern at a
+ * time, as {@link ForbiddenUses} used to, with the {@link KeywordMatcher} it compiles them into. The
+ * automaton should cost the same per value however many patterns there are.
+ * <p>
+ * Run with {@code ./gradlew jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ForbiddenUsesBenchmark {
+
+    private static final String[] USES = {
+            "actions/checkout@v4",
+            "some-org/deploy-action@8f4b7f84864484a7bf31766abe9204da3cbe65b3",
+            "docker/build-push-action@v6",
+            "Some-Org/Download-And-Run@v1"
+    };
+
+    @Param({"16", "256", "2000"})
+    int patternCount;
+
+    private List<String> patterns;
+    private KeywordMatcher matcher;
+
+    @Setup
+    public void setup() {
+        patterns = new ArrayList<>();
+        for (int i = 0; i < patternCount; i++) {
+            patterns.add("threat-feed-" + Integer.toHexString(i * 7919) + "/");
+        }
+        patterns.add("download-and-run");
+        matcher = new KeywordMatcher(patterns);
+    }
+
+    @Benchmark
+    public void loop(Blackhole bh) {
+        for (String uses : USES) {
+            String longestMatch = null;
+            for (String pattern : patterns) {
+                if (uses.toLowerCase().contains(pattern.toLowerCase())) {
+                    if (longestMatch == null || pattern.length() > longestMatch.length()) {
+                        longestMatch = pattern;
+                    }
+                }
+            }
+            bh.consume(longestMatch);
+        }
+    }
+
+    @Benchmark
+    public void automaton(Blackhole bh) {
+        for (String uses : USES) {
+            bh.consume(matcher.longestIn(uses));
+        }
+    }
+}
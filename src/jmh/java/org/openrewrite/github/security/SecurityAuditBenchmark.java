@@ -0,0 +1,144 @@
+/*
+ * Copyright 2026 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.github.security;
+
+import org.openjdk.jmh.annotations.*;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.Recipe;
+import org.openrewrite.SourceFile;
+import org.openrewrite.config.Environment;
+import org.openrewrite.internal.InMemoryLargeSourceSet;
+import org.openrewrite.yaml.YamlParser;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares running every security audit as its own recipe, each walking every workflow, with
+ * {@link GitHubActionsSecurityAudit} walking each workflow once for all of them.
+ * <p>
+ * Run with {@code ./gradlew jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SecurityAuditBenchmark {
+
+    private static final String INSECURE_WORKFLOW = String.join("\n",
+            "on:",
+            "  pull_request_target:",
+            "  push:",
+            "    tags: ['v*']",
+            "permissions: write-all",
+            "jobs:",
+            "  build:",
+            "    runs-on: self-hosted",
+            "    container:",
+            "      image: node:18",
+            "      credentials:",
+            "        username: user",
+            "        password: hunter2",
+            "    env:",
+            "      ACTIONS_ALLOW_UNSECURE_COMMANDS: true",
+            "    steps:",
+            "      - uses: actions/checkout@v2",
+            "      - uses: actions/setup-node@v4",
+            "        with:",
+            "          registry-url: https://registry.npmjs.org",
+            "          always-auth: true",
+            "      - uses: actions/upload-artifact@v4",
+            "        with:",
+            "          path: ~/.ssh",
+            "      - uses: actions/github-script@v7",
+            "        with:",
+            "          script: console.log(\"${{ github.event.pull_request.title }}\")",
+            "      - uses: owner/./repo@v1",
+            "      - uses: a/action@v1",
+            "      - uses: docker://alpine:3.8",
+            "      - uses: actions/checkout@8ade135a41bc03ea155e62e844d188df1ea18608 # v3.0.0",
+            "      - run: |",
+            "          echo \"${{ github.event.issue.title }}\" >> $GITHUB_ENV",
+            "          npm publish",
+            "      - uses: pypa/gh-action-pypi-publish@release/v1",
+            "        with:",
+            "          password: ${{ secrets.PYPI }}",
+            "          repository-url: https://upload.pypi.org/legacy/",
+            "      - uses: actions/cache@v4",
+            "  call:",
+            "    if: github.actor == 'dependabot[bot]'",
+            "    uses: org/repo/.github/workflows/reusable.yml@main",
+            "    secrets: inherit"
+    );
+
+    private static final String ORDINARY_WORKFLOW = String.join("\n",
+            "on: push",
+            "permissions:",
+            "  contents: read",
+            "jobs:",
+            "  test:",
+            "    runs-on: ubuntu-latest",
+            "    steps:",
+            "      - uses: actions/checkout@v4",
+            "      - uses: actions/cache@v4",
+            "      - run: echo \"${{ github.head_ref }}\" >> $GITHUB_ENV"
+    );
+
+    @Param({"10", "250"})
+    int workflowCount;
+
+    private List<SourceFile> workflows;
+    private Recipe composite;
+    private Recipe singlePass;
+
+    @Setup
+    public void setup() {
+        InMemoryExecutionContext ctx = new InMemoryExecutionContext();
+        workflows = new ArrayList<>();
+        for (int i = 0; i < workflowCount; i++) {
+            String workflow = i % 2 == 0 ?
+                    INSECURE_WORKFLOW.replace("build:", "build-" + i + ":") :
+                    ORDINARY_WORKFLOW.replace("test:", "test-" + i + ":");
+            workflows.add(YamlParser.builder().build().parse(ctx, workflow)
+                    .findFirst().orElseThrow(IllegalStateException::new)
+                    .withSourcePath(Paths.get(".github/workflows/workflow-" + i + ".yml")));
+        }
+        composite = Environment.builder()
+                .scanRuntimeClasspath()
+                .build()
+                .activateRecipes("org.openrewrite.github.security.GitHubActionsSecurity");
+        singlePass = new GitHubActionsSecurityAudit();
+    }
+
+    @Benchmark
+    public int composite() {
+        return run(composite);
+    }
+
+    @Benchmark
+    public int singlePass() {
+        return run(singlePass);
+    }
+
+    private int run(Recipe recipe) {
+        return recipe.run(new InMemoryLargeSourceSet(workflows), new InMemoryExecutionContext())
+                .getChangeset().getAllResults().size();
+    }
+}
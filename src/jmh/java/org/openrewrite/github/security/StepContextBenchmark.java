@@ -0,0 +1,116 @@
+/*
+ * Copyright 2026 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.github.security;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.yaml.JsonPathMatcher;
+import org.openrewrite.yaml.YamlIsoVisitor;
+import org.openrewrite.yaml.YamlParser;
+import org.openrewrite.yaml.tree.Yaml;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares telling which entries are step keys and inputs by matching the cursor path of every entry
+ * against {@link JsonPathMatcher}s, as the audits used to, with keeping track of the current step in
+ * a {@link StepContext}.
+ * <p>
+ * Run with {@code ./gradlew jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StepContextBenchmark {
+
+    private static final JsonPathMatcher STEP_RUN_MATCHER = new JsonPathMatcher("$..steps[*].run");
+    private static final JsonPathMatcher STEP_USES_MATCHER = new JsonPathMatcher("$..steps[*].uses");
+    private static final JsonPathMatcher STEP_SCRIPT_MATCHER = new JsonPathMatcher("$..steps[*].with.script");
+
+    @Param({"50", "500"})
+    int stepsPerJob;
+
+    private Yaml.Documents workflow;
+
+    @Setup
+    public void setup() {
+        workflow = (Yaml.Documents) YamlParser.builder().build()
+                .parse(new InMemoryExecutionContext(), workflowWithSteps(stepsPerJob))
+                .findFirst()
+                .orElseThrow(IllegalStateException::new);
+    }
+
+    @Benchmark
+    public void jsonPathMatchers(Blackhole bh) {
+        new YamlIsoVisitor<ExecutionContext>() {
+            @Override
+            public Yaml.Mapping.Entry visitMappingEntry(Yaml.Mapping.Entry entry, ExecutionContext ctx) {
+                Yaml.Mapping.Entry e = super.visitMappingEntry(entry, ctx);
+                bh.consume(STEP_RUN_MATCHER.matches(getCursor()) ||
+                           STEP_USES_MATCHER.matches(getCursor()) ||
+                           STEP_SCRIPT_MATCHER.matches(getCursor()));
+                return e;
+            }
+        }.visit(workflow, new InMemoryExecutionContext());
+    }
+
+    @Benchmark
+    public void stepContext(Blackhole bh) {
+        new SecurityCheck("run", "uses", "script") {
+            @Override
+            Yaml.Mapping.Entry checkEntry(Yaml.Mapping.Entry entry, ExecutionContext ctx) {
+                bh.consume("script".equals(entry.getKey().getValue()) ?
+                        getSteps().isStepInput(getCursor()) :
+                        getSteps().isStepKey(getCursor()));
+                return entry;
+            }
+        }.visit(workflow, new InMemoryExecutionContext());
+    }
+
+    /**
+     * Three jobs of the given number of steps each, every step with a handful of inputs.
+     */
+    private static String workflowWithSteps(int steps) {
+        StringBuilder yaml = new StringBuilder("on: push\njobs:\n");
+        for (int job = 0; job < 3; job++) {
+            yaml.append("  job-").append(job).append(":\n")
+                    .append("    runs-on: ubuntu-latest\n")
+                    .append("    steps:\n");
+            for (int step = 0; step < steps; step++) {
+                if (step % 3 == 0) {
+                    yaml.append("      - run: echo ").append(step).append('\n')
+                            .append("        env:\n")
+                            .append("          STEP: ").append(step).append('\n');
+                } else if (step % 3 == 1) {
+                    yaml.append("      - uses: actions/setup-node@v4\n")
+                            .append("        with:\n")
+                            .append("          node-version: 20\n")
+                            .append("          cache: npm\n");
+                } else {
+                    yaml.append("      - uses: actions/github-script@v7\n")
+                            .append("        with:\n")
+                            .append("          script: console.log(").append(step).append(")\n");
+                }
+            }
+        }
+        return yaml.toString();
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright 2026 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.github;
+
+import lombok.Value;
+import org.jspecify.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+
+/**
+ * An expression in the <a href="https://docs.github.com/en/actions/reference/evaluate-expressions-in-workflows-and-actions">GitHub
+ * Actions expression language</a>, such as the {@code github.event.issue.title} in
+ * {@code ${{ github.event.issue.title }}}.
+ * <p>
+ * Chains of property dereferences and constant indices from a named context are folded into a single
+ * {@link Context}, e.g. {@code github.event['commits'][0].message} is the context path
+ * {@code github.event.commits[0].message}, so that recipes can compare paths without caring how they
+ * were written. Use {@link ExpressionTemplate} to find the expressions in a workflow value.
+ */
+public interface Expression {
+
+    /**
+     * @return the expressions directly within this one, in the order they are written.
+     */
+    List<Expression> getChildren();
+
+    /**
+     * Calls the action with this expression and then everything within it, depth first in the order
+     * they are written.
+     */
+    default void forEach(Consumer<? super Expression> action) {
+        action.accept(this);
+        for (Expression child : getChildren()) {
+            child.forEach(action);
+        }
+    }
+
+    /**
+     * @return whether this expression or anything within it matches the predicate.
+     */
+    default boolean anyMatch(Predicate<? super Expression> predicate) {
+        if (predicate.test(this)) {
+            return true;
+        }
+        for (Expression child : getChildren()) {
+            if (child.anyMatch(predicate)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return every context path in this expression, in the order they are written.
+     */
+    default List<Context> getContexts() {
+        List<Context> contexts = new ArrayList<>();
+        forEach(e -> {
+            if (e instanceof Context) {
+                contexts.add((Context) e);
+            }
+        });
+        return contexts;
+    }
+
+    /**
+     * Parses an expression written without the surrounding {@code ${{ }}}, as in an {@code if:} condition.
+     *
+     * @return the expression, or {@link Invalid} when it is not well-formed.
+     */
+    static Expression parse(String source) {
+        return ExpressionParser.parse(source);
+    }
+
+    /**
+     * A string, number, boolean or {@code null} literal.
+     */
+    @Value
+    class Literal implements Expression {
+        /**
+         * A {@link String}, {@link Double}, {@link Boolean}, or {@code null}.
+         */
+        @Nullable
+        Object value;
+
+        public boolean isString() {
+            return value instanceof String;
+        }
+
+        @Override
+        public List<Expression> getChildren() {
+            return emptyList();
+        }
+    }
+
+    /**
+     * A path into one of the contexts, like {@code github.event.pull_request.title} or {@code steps.build.outputs.*}.
+     */
+    @Value
+    class Context implements Expression {
+        /**
+         * The path with every dereference written with a dot and every index in brackets, e.g.
+         * {@code github.event.commits[0].message}, keeping the case of each name as written.
+         */
+        String path;
+
+        /**
+         * The names, {@code *} wildcards and indices of the path, starting with the context.
+         */
+        List<String> segments;
+
+        /**
+         * @return whether this is the given path. Names in contexts are not case-sensitive.
+         */
+        public boolean is(String path) {
+            return this.path.equalsIgnoreCase(path);
+        }
+
+        @Override
+        public List<Expression> getChildren() {
+            return emptyList();
+        }
+    }
+
+    /**
+     * An index that cannot be folded into a context path, like {@code matrix[inputs.os]} or
+     * {@code fromJSON(steps.meta.outputs.json).tags}.
+     */
+    @Value
+    class Index implements Expression {
+        Expression target;
+        Expression index;
+
+        @Override
+        public List<Expression> getChildren() {
+            return asList(target, index);
+        }
+    }
+
+    @Value
+    class Call implements Expression {
+        String function;
+        List<Expression> arguments;
+
+        /**
+         * @return whether this calls the given function. Function names are not case-sensitive.
+         */
+        public boolean is(String function) {
+            return this.function.equalsIgnoreCase(function);
+        }
+
+        @Override
+        public List<Expression> getChildren() {
+            return arguments;
+        }
+    }
+
+    @Value
+    class Not implements Expression {
+        Expression operand;
+
+        @Override
+        public List<Expression> getChildren() {
+            return singletonList(operand);
+        }
+    }
+
+    /**
+     * One of the comparison operators or {@code &&} and {@code ||}.
+     */
+    @Value
+    class Binary implements Expression {
+        String operator;
+        Expression left;
+        Expression right;
+
+        @Override
+        public List<Expression> getChildren() {
+            return asList(left, right);
+        }
+    }
+
+    /**
+     * Text in an expression position that is not a well-formed expression. GitHub refuses to run a
+     * workflow with one, so recipes can only look at its text for what it was meant to refer to.
+     */
+    @Value
+    class Invalid implements Expression {
+        String source;
+
+        @Override
+        public List<Expression> getChildren() {
+            return emptyList();
+        }
+    }
+}
@@ -0,0 +1,370 @@
+/*
+ * Copyright 2026 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.github;
+
+import org.jspecify.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static java.util.Collections.unmodifiableList;
+
+/**
+ * A recursive descent parser for the GitHub Actions expression language, reading directly from the
+ * characters of the source without a separate token stream. From lowest to highest precedence:
+ * <pre>
+ * or         = and ("||" and)*
+ * and        = equality ("&amp;&amp;" equality)*
+ * equality   = comparison (("==" | "!=") comparison)*
+ * comparison = unary (("&lt;" | "&lt;=" | "&gt;" | "&gt;=") unary)*
+ * unary      = "!" unary | postfix
+ * postfix    = primary ("." (name | "*") | "[" (or | "*") "]")*
+ * primary    = literal | name "(" (or ("," or)*)? ")" | name | "(" or ")"
+ * </pre>
+ */
+final class ExpressionParser {
+
+    /**
+     * Deeper nesting than any real workflow needs, but shallow enough that nesting can never exhaust the stack.
+     */
+    private static final int MAX_DEPTH = 100;
+
+    private final String source;
+    private int pos;
+    private int depth;
+
+    private ExpressionParser(String source, int pos) {
+        this.source = source;
+        this.pos = pos;
+    }
+
+    static Expression parse(String source) {
+        ExpressionParser parser = new ExpressionParser(source, 0);
+        try {
+            Expression expression = parser.or();
+            parser.skipWhitespace();
+            if (parser.pos == source.length()) {
+                return expression;
+            }
+        } catch (ParseException ignored) {
+            // Not well-formed
+        }
+        return new Expression.Invalid(source.trim());
+    }
+
+    /**
+     * @return every {@code ${{ }}} in the value in the order they are written, each of which is
+     * {@link Expression.Invalid} when it is not well-formed.
+     */
+    static List<Expression> parseEmbedded(String value) {
+        int start = value.indexOf("${{");
+        if (start < 0) {
+            return emptyList();
+        }
+        List<Expression> expressions = new ArrayList<>();
+        while (start >= 0) {
+            ExpressionParser parser = new ExpressionParser(value, start + 3);
+            int next;
+            try {
+                Expression expression = parser.or();
+                parser.skipWhitespace();
+                if (!value.startsWith("}}", parser.pos)) {
+                    throw new ParseException();
+                }
+                expressions.add(expression);
+                next = parser.pos + 2;
+            } catch (ParseException e) {
+                // Resume after the first closing braces, where GitHub would give up on it too
+                int close = value.indexOf("}}", start + 3);
+                next = close < 0 ? value.length() : close + 2;
+                expressions.add(new Expression.Invalid(value.substring(start + 3, close < 0 ? value.length() : close).trim()));
+            }
+            start = value.indexOf("${{", next);
+        }
+        return expressions.size() == 1 ? singletonList(expressions.get(0)) : unmodifiableList(expressions);
+    }
+
+    private Expression or() {
+        Expression left = and();
+        while (consume("||")) {
+            left = new Expression.Binary("||", left, and());
+        }
+        return left;
+    }
+
+    private Expression and() {
+        Expression left = equality();
+        while (consume("&&")) {
+            left = new Expression.Binary("&&", left, equality());
+        }
+        return left;
+    }
+
+    private Expression equality() {
+        Expression left = comparison();
+        while (true) {
+            if (consume("==")) {
+                left = new Expression.Binary("==", left, comparison());
+            } else if (consume("!=")) {
+                left = new Expression.Binary("!=", left, comparison());
+            } else {
+                return left;
+            }
+        }
+    }
+
+    private Expression comparison() {
+        Expression left = unary();
+        while (true) {
+            String operator;
+            if (consume("<=")) {
+                operator = "<=";
+            } else if (consume(">=")) {
+                operator = ">=";
+            } else if (consume("<")) {
+                operator = "<";
+            } else if (consume(">")) {
+                operator = ">";
+            } else {
+                return left;
+            }
+            left = new Expression.Binary(operator, left, unary());
+        }
+    }
+
+    private Expression unary() {
+        if (++depth > MAX_DEPTH) {
+            throw new ParseException();
+        }
+        try {
+            skipWhitespace();
+            if (peek() == '!' && peek(1) != '=') {
+                pos++;
+                return new Expression.Not(unary());
+            }
+            return postfix(primary());
+        } finally {
+            depth--;
+        }
+    }
+
+    /**
+     * Folds dereferences and constant indices of a context into one path, so {@code github.event['issue']}
+     * is {@code github.event.issue}, until an index can only be known when the workflow runs.
+     */
+    private Expression postfix(Expression primary) {
+        Expression target = primary;
+        StringBuilder path = null;
+        List<String> segments = null;
+        if (primary instanceof Expression.Context) {
+            path = new StringBuilder(((Expression.Context) primary).getPath());
+            segments = new ArrayList<>(((Expression.Context) primary).getSegments());
+        }
+        while (true) {
+            Expression key;
+            if (consume(".")) {
+                skipWhitespace();
+                key = new Expression.Literal(peek() == '*' ? String.valueOf(source.charAt(pos++)) : name());
+            } else if (consume("[")) {
+                key = consume("*") ? new Expression.Literal("*") : or();
+                expect(']');
+            } else {
+                break;
+            }
+
+            Object constant = key instanceof Expression.Literal ? ((Expression.Literal) key).getValue() : null;
+            if (path != null && constant instanceof String) {
+                path.append('.').append(constant);
+                segments.add((String) constant);
+            } else if (path != null && isArrayIndex(constant)) {
+                String index = Long.toString(((Double) constant).longValue());
+                path.append('[').append(index).append(']');
+                segments.add(index);
+            } else {
+                if (path != null) {
+                    target = new Expression.Context(path.toString(), unmodifiableList(segments));
+                    path = null;
+                }
+                target = new Expression.Index(target, key);
+            }
+        }
+        return path == null ? target : new Expression.Context(path.toString(), unmodifiableList(segments));
+    }
+
+    private static boolean isArrayIndex(@Nullable Object value) {
+        return value instanceof Double && (Double) value >= 0 && (Double) value == Math.floor((Double) value) &&
+               !Double.isInfinite((Double) value);
+    }
+
+    private Expression primary() {
+        skipWhitespace();
+        char c = peek();
+        if (c == '(') {
+            pos++;
+            Expression grouped = or();
+            expect(')');
+            return grouped;
+        }
+        if (c == '\'') {
+            return new Expression.Literal(string());
+        }
+        if (isDigit(c) || ((c == '-' || c == '.') && (isDigit(peek(1)) || peek(1) == '.'))) {
+            return new Expression.Literal(number());
+        }
+
+        String name = name();
+        switch (name) {
+            case "true":
+                return new Expression.Literal(true);
+            case "false":
+                return new Expression.Literal(false);
+            case "null":
+                return new Expression.Literal(null);
+            case "NaN":
+                return new Expression.Literal(Double.NaN);
+            case "Infinity":
+                return new Expression.Literal(Double.POSITIVE_INFINITY);
+            default:
+                break;
+        }
+        if (consume("(")) {
+            List<Expression> arguments = new ArrayList<>();
+            if (!consume(")")) {
+                do {
+                    arguments.add(or());
+                } while (consume(","));
+                expect(')');
+            }
+            return new Expression.Call(name, unmodifiableList(arguments));
+        }
+        return new Expression.Context(name, singletonList(name));
+    }
+
+    private String name() {
+        int start = pos;
+        char c = peek();
+        if (!(Character.isLetter(c) || c == '_')) {
+            throw new ParseException();
+        }
+        while (pos < source.length() && (Character.isLetterOrDigit(c = source.charAt(pos)) || c == '_' || c == '-')) {
+            pos++;
+        }
+        return source.substring(start, pos);
+    }
+
+    private String string() {
+        StringBuilder value = new StringBuilder();
+        pos++;
+        while (true) {
+            int quote = source.indexOf('\'', pos);
+            if (quote < 0) {
+                throw new ParseException();
+            }
+            value.append(source, pos, quote);
+            pos = quote + 1;
+            // A quote is escaped by doubling it
+            if (peek() != '\'') {
+                return value.toString();
+            }
+            value.append('\'');
+            pos++;
+        }
+    }
+
+    private Double number() {
+        int start = pos;
+        if (peek() == '-') {
+            pos++;
+        }
+        if (peek() == '0' && (peek(1) == 'x' || peek(1) == 'X')) {
+            pos += 2;
+            int digits = pos;
+            while (Character.digit(peek(), 16) >= 0) {
+                pos++;
+            }
+            if (pos == digits) {
+                throw new ParseException();
+            }
+            try {
+                double value = Long.parseLong(source.substring(digits, pos), 16);
+                return source.charAt(start) == '-' ? -value : value;
+            } catch (NumberFormatException e) {
+                throw new ParseException();
+            }
+        }
+        while (isDigit(peek()) || peek() == '.') {
+            pos++;
+        }
+        if ((peek() == 'e' || peek() == 'E') &&
+            (isDigit(peek(1)) || ((peek(1) == '+' || peek(1) == '-') && isDigit(peek(2))))) {
+            pos += 2;
+            while (isDigit(peek())) {
+                pos++;
+            }
+        }
+        try {
+            return Double.valueOf(source.substring(start, pos));
+        } catch (NumberFormatException e) {
+            throw new ParseException();
+        }
+    }
+
+    private boolean consume(String token) {
+        skipWhitespace();
+        if (source.startsWith(token, pos)) {
+            pos += token.length();
+            return true;
+        }
+        return false;
+    }
+
+    private void expect(char c) {
+        skipWhitespace();
+        if (peek() != c) {
+            throw new ParseException();
+        }
+        pos++;
+    }
+
+    private void skipWhitespace() {
+        while (pos < source.length() && Character.isWhitespace(source.charAt(pos))) {
+            pos++;
+        }
+    }
+
+    private char peek() {
+        return peek(0);
+    }
+
+    private char peek(int ahead) {
+        return pos + ahead < source.length() ? source.charAt(pos + ahead) : '\0';
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * Thrown to unwind the parse of an expression that is not well-formed, without the cost of a stack trace.
+     */
+    private static class ParseException extends RuntimeException {
+        ParseException() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2026 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.github;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+import java.util.List;
+
+import static java.util.Collections.singletonList;
+
+/**
+ * A workflow value with the {@link Expression}s it embeds, such as a {@code run:} command with
+ * {@code ${{ github.event.issue.title }}} in it.
+ * <p>
+ * Values are parsed at most once while they stay in a small cache shared by every recipe, so the
+ * audits that all look at the same {@code run:} or {@code if:} work from the same parse.
+ */
+@Value
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class ExpressionTemplate {
+
+    private static final ParseCache<ExpressionTemplate> CACHE = new ParseCache<>(ExpressionTemplate::getValue,
+            value -> new ExpressionTemplate(value, ExpressionParser.parseEmbedded(value)));
+    private static final ParseCache<ExpressionTemplate> CONDITION_CACHE = new ParseCache<>(ExpressionTemplate::getValue,
+            value -> new ExpressionTemplate(value, value.contains("${{") ?
+                    ExpressionParser.parseEmbedded(value) :
+                    singletonList(ExpressionParser.parse(value))));
+
+    /**
+     * The value as written.
+     */
+    String value;
+
+    /**
+     * The expressions in the value, in the order they are written.
+     */
+    List<Expression> expressions;
+
+    /**
+     * @return the {@code ${{ }}} expressions in a value.
+     */
+    public static ExpressionTemplate parse(String value) {
+        return CACHE.get(value);
+    }
+
+    /**
+     * @return the expressions in an {@code if:} condition, which GitHub evaluates as an expression
+     * even without the surrounding {@code ${{ }}}.
+     */
+    public static ExpressionTemplate parseCondition(String value) {
+        return CONDITION_CACHE.get(value);
+    }
+
+    public boolean hasExpressions() {
+        return !expressions.isEmpty();
+    }
+}
@@ -21,9 +21,7 @@ import org.openrewrite.Preconditions;
 import org.openrewrite.Recipe;
 import org.openrewrite.TreeVisitor;
 import org.openrewrite.marker.SearchResult;
-import org.openrewrite.yaml.JsonPathMatcher;
 import org.openrewrite.yaml.YamlIsoVisitor;
-import org.openrewrite.yaml.search.FindKey;
 import org.openrewrite.yaml.tree.Yaml;
 
 public class FindMissingTimeout extends Recipe {
@@ -38,12 +36,24 @@ public class FindMissingTimeout extends Recipe {
         return Preconditions.check(new IsGitHubActionsWorkflow(), new YamlIsoVisitor<ExecutionContext>() {
             @Override
             public Yaml.Mapping.Entry visitMappingEntry(Yaml.Mapping.Entry entry, ExecutionContext ctx) {
-                Yaml.Mapping.Entry job = super.visitMappingEntry(entry, ctx);
-                if (new JsonPathMatcher("$.jobs.*").matches(getCursor()) &&
-                        FindKey.find(job, "$..timeout-minutes").isEmpty()) {
-                    return SearchResult.found(job, "missing: $.jobs.*.timeout-minutes");
+                Yaml.Mapping.Entry e = super.visitMappingEntry(entry, ctx);
+                Workflow.Job job = Workflow.of(getCursor(), ctx).jobDefinedAt(getCursor());
+                if (job != null && !hasTimeout(job)) {
+                    return SearchResult.found(e, "missing: $.jobs.*.timeout-minutes");
                 }
-                return job;
+                return e;
+            }
+
+            private boolean hasTimeout(Workflow.Job job) {
+                if (job.getTimeoutMinutes() != null) {
+                    return true;
+                }
+                for (Workflow.Step step : job.getSteps()) {
+                    if (step.getTimeoutMinutes() != null) {
+                        return true;
+                    }
+                }
+                return false;
             }
         });
     }
@@ -0,0 +1,420 @@
+/*
+ * Copyright 2026 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.github;
+
+import org.jspecify.annotations.Nullable;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.regex.Pattern;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * The bundled {@code known-action-shas.properties} table of GitHub Action tag-to-commit mappings
+ * (e.g. {@code codecov/codecov-action@v4.6.0 -> b9fd7d16f6d7d1b5d2bec1a2887e65ceed900238}).
+ * <p>
+ * The build compiles the properties file into {@code known-action-shas.bin}, which is bulk-read into
+ * a single byte array and searched in place, so loading it creates no per-entry objects. Each action
+ * path and each distinct ref is stored once, and each commit SHA is stored as 20 raw bytes. The table
+ * is loaded lazily on first use and then shared, immutable, by every recipe in the JVM. Reverse
+ * lookups, from a commit SHA to the tags pointing at it, go through a hash index built on first use.
+ */
+public final class KnownActionShas {
+
+    static final String RESOURCE = "/META-INF/rewrite/known-action-shas.properties";
+    static final String COMPILED_RESOURCE = "/META-INF/rewrite/known-action-shas.bin";
+
+    /**
+     * The compiled table is laid out as follows, with all ints big-endian and all names UTF-8 with a
+     * 2-byte length prefix. Keep in sync with the {@code compileKnownActionShas} task in
+     * {@code build.gradle.kts}.
+     * <ol>
+     *     <li>{@code "KASH"} and the format version.</li>
+     *     <li>The number of action paths, followed by the action paths in unsigned byte order.</li>
+     *     <li>The number of distinct refs, followed by the refs in unsigned byte order.</li>
+     *     <li>The number of entries, followed by the index of the first entry of each action path.</li>
+     *     <li>The ref index of each entry, grouped by action path and ascending within each group.</li>
+     *     <li>The 20-byte commit SHA of each entry, in the same order.</li>
+     * </ol>
+     */
+    static final int MAGIC = 0x4b415348;
+    static final int FORMAT_VERSION = 2;
+    static final int SHA_LENGTH = 20;
+
+    private static final Pattern SHA = Pattern.compile("[0-9a-f]{40}");
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final byte[] table;
+
+    /**
+     * The offset into {@link #table} of each action path, in sorted order.
+     */
+    private final int[] actions;
+
+    /**
+     * The offset into {@link #table} of each distinct ref, in sorted order.
+     */
+    private final int[] refs;
+
+    /**
+     * The entries of action {@code a} are {@code firstEntry[a]} (inclusive) to {@code firstEntry[a + 1]}.
+     */
+    private final int[] firstEntry;
+
+    private final int entryRefsOffset;
+    private final int shasOffset;
+
+    /**
+     * An open-addressing hash table from commit SHA to entry, built on the first reverse lookup. Each
+     * slot holds an entry index plus one, or zero when empty. Commit SHAs are uniformly distributed,
+     * so their leading four bytes serve as the hash.
+     */
+    private volatile int @Nullable [] shaIndex;
+
+    private KnownActionShas(byte[] table, int[] actions, int[] refs, int[] firstEntry, int entryRefsOffset, int shasOffset) {
+        this.table = table;
+        this.actions = actions;
+        this.refs = refs;
+        this.firstEntry = firstEntry;
+        this.entryRefsOffset = entryRefsOffset;
+        this.shasOffset = shasOffset;
+    }
+
+    /**
+     * @return the table bundled with this module, loaded on the first call.
+     */
+    public static KnownActionShas bundled() {
+        return Bundled.INSTANCE;
+    }
+
+    /**
+     * Compile a table from {@code owner/repo[/subpath]@tag=sha} pairs, such as a user-supplied
+     * properties file. Entries whose value is not a 40-character commit SHA are skipped.
+     */
+    public static KnownActionShas of(Map<String, String> shas) {
+        Comparator<byte[]> unsigned = KnownActionShas::compareUnsigned;
+        Map<byte[], Map<byte[], String>> byAction = new TreeMap<>(unsigned);
+        Set<byte[]> distinctRefs = new TreeSet<>(unsigned);
+        for (Map.Entry<String, String> e : shas.entrySet()) {
+            int at = e.getKey().indexOf('@');
+            if (at < 0 || e.getValue() == null || !SHA.matcher(e.getValue()).matches()) {
+                continue;
+            }
+            byte[] ref = e.getKey().substring(at + 1).getBytes(UTF_8);
+            distinctRefs.add(ref);
+            byAction.computeIfAbsent(e.getKey().substring(0, at).getBytes(UTF_8), k -> new TreeMap<>(unsigned))
+                    .put(ref, e.getValue());
+        }
+        List<byte[]> sortedRefs = new ArrayList<>(distinctRefs);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(byAction.size());
+            for (byte[] action : byAction.keySet()) {
+                out.writeShort(action.length);
+                out.write(action);
+            }
+            out.writeInt(sortedRefs.size());
+            for (byte[] ref : sortedRefs) {
+                out.writeShort(ref.length);
+                out.write(ref);
+            }
+            int entryCount = 0;
+            for (Map<byte[], String> entries : byAction.values()) {
+                entryCount += entries.size();
+            }
+            out.writeInt(entryCount);
+            int first = 0;
+            for (Map<byte[], String> entries : byAction.values()) {
+                out.writeInt(first);
+                first += entries.size();
+            }
+            for (Map<byte[], String> entries : byAction.values()) {
+                for (byte[] ref : entries.keySet()) {
+                    out.writeInt(Collections.binarySearch(sortedRefs, ref, unsigned));
+                }
+            }
+            for (Map<byte[], String> entries : byAction.values()) {
+                for (String sha : entries.values()) {
+                    for (int c = 0; c < sha.length(); c += 2) {
+                        out.writeByte(Character.digit(sha.charAt(c), 16) << 4 | Character.digit(sha.charAt(c + 1), 16));
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return read(bytes.toByteArray());
+    }
+
+    /**
+     * @param actionPath an action path such as {@code actions/checkout} or {@code github/codeql-action/init}
+     * @param ref        a tag such as {@code v4} or {@code v4.1.2}
+     * @return the commit SHA the tag pointed at when the table was generated, or {@code null} when unknown.
+     */
+    public @Nullable String get(String actionPath, String ref) {
+        int action = search(actions, actionPath.getBytes(UTF_8));
+        if (action < 0) {
+            return null;
+        }
+        int refIndex = search(refs, ref.getBytes(UTF_8));
+        if (refIndex < 0) {
+            return null;
+        }
+        int low = firstEntry[action];
+        int high = firstEntry[action + 1] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = Integer.compare(refIndexOf(mid), refIndex);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return shaAt(mid);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param actionPath an action path such as {@code actions/checkout} or {@code github/codeql-action/init}
+     * @param sha        a 40-character commit SHA
+     * @return the tags of {@code actionPath} that pointed at {@code sha} when the table was generated,
+     * in ascending order, or an empty list when the commit is unknown.
+     */
+    public List<String> refsPointingAt(String actionPath, String sha) {
+        if (!SHA.matcher(sha).matches()) {
+            return Collections.emptyList();
+        }
+        int action = search(actions, actionPath.getBytes(UTF_8));
+        if (action < 0) {
+            return Collections.emptyList();
+        }
+        byte[] target = new byte[SHA_LENGTH];
+        for (int i = 0; i < SHA_LENGTH; i++) {
+            target[i] = (byte) (Character.digit(sha.charAt(i * 2), 16) << 4 | Character.digit(sha.charAt(i * 2 + 1), 16));
+        }
+
+        int[] index = shaIndex();
+        int mask = index.length - 1;
+        int matches = 0;
+        int[] entries = new int[4];
+        for (int slot = hash(target, 0) & mask; index[slot] != 0; slot = (slot + 1) & mask) {
+            int entry = index[slot] - 1;
+            if (entry >= firstEntry[action] && entry < firstEntry[action + 1] && shaEquals(entry, target)) {
+                if (matches == entries.length) {
+                    entries = Arrays.copyOf(entries, matches * 2);
+                }
+                entries[matches++] = entry;
+            }
+        }
+        if (matches == 0) {
+            return Collections.emptyList();
+        }
+        // Entries of an action are in ref order, so sorting them sorts the refs
+        Arrays.sort(entries, 0, matches);
+        List<String> refsAtSha = new ArrayList<>(matches);
+        for (int i = 0; i < matches; i++) {
+            refsAtSha.add(nameAt(refs[refIndexOf(entries[i])]));
+        }
+        return refsAtSha;
+    }
+
+    public int size() {
+        return firstEntry[firstEntry.length - 1];
+    }
+
+    /**
+     * Visit every entry, grouped by action path. Keys and SHAs are materialized as strings on the
+     * fly, so this is meant for one-off indexing rather than lookups.
+     */
+    public void forEach(BiConsumer<String, String> action) {
+        for (int a = 0; a < actions.length; a++) {
+            String actionPath = nameAt(actions[a]);
+            for (int e = firstEntry[a]; e < firstEntry[a + 1]; e++) {
+                action.accept(actionPath + '@' + nameAt(refs[refIndexOf(e)]), shaAt(e));
+            }
+        }
+    }
+
+    private int search(int[] names, byte[] name) {
+        int low = 0;
+        int high = names.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compareNameAt(names[mid], name);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private int compareNameAt(int offset, byte[] name) {
+        int length = nameLength(offset);
+        int start = offset + 2;
+        for (int i = 0, n = Math.min(length, name.length); i < n; i++) {
+            int cmp = (table[start + i] & 0xff) - (name[i] & 0xff);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return length - name.length;
+    }
+
+    private int nameLength(int offset) {
+        return (table[offset] & 0xff) << 8 | table[offset + 1] & 0xff;
+    }
+
+    private String nameAt(int offset) {
+        return new String(table, offset + 2, nameLength(offset), UTF_8);
+    }
+
+    private int refIndexOf(int entry) {
+        int offset = entryRefsOffset + entry * 4;
+        return (table[offset] & 0xff) << 24 | (table[offset + 1] & 0xff) << 16 |
+               (table[offset + 2] & 0xff) << 8 | table[offset + 3] & 0xff;
+    }
+
+    private String shaAt(int entry) {
+        int start = shasOffset + entry * SHA_LENGTH;
+        char[] hex = new char[SHA_LENGTH * 2];
+        for (int i = 0; i < SHA_LENGTH; i++) {
+            int b = table[start + i] & 0xff;
+            hex[i * 2] = HEX[b >>> 4];
+            hex[i * 2 + 1] = HEX[b & 0xf];
+        }
+        return new String(hex);
+    }
+
+    private int[] shaIndex() {
+        int[] index = shaIndex;
+        if (index == null) {
+            int entries = size();
+            // A power of two of at least twice the number of entries keeps probe sequences short
+            index = new int[Integer.highestOneBit(Math.max(1, entries) * 4 - 1)];
+            int mask = index.length - 1;
+            for (int e = 0; e < entries; e++) {
+                int slot = hash(table, shasOffset + e * SHA_LENGTH) & mask;
+                while (index[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                index[slot] = e + 1;
+            }
+            shaIndex = index;
+        }
+        return index;
+    }
+
+    private static int hash(byte[] bytes, int offset) {
+        return (bytes[offset] & 0xff) << 24 | (bytes[offset + 1] & 0xff) << 16 |
+               (bytes[offset + 2] & 0xff) << 8 | bytes[offset + 3] & 0xff;
+    }
+
+    private boolean shaEquals(int entry, byte[] sha) {
+        int start = shasOffset + entry * SHA_LENGTH;
+        for (int i = 0; i < SHA_LENGTH; i++) {
+            if (table[start + i] != sha[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int compareUnsigned(byte[] a, byte[] b) {
+        for (int i = 0, n = Math.min(a.length, b.length); i < n; i++) {
+            int cmp = (a[i] & 0xff) - (b[i] & 0xff);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return a.length - b.length;
+    }
+
+    static KnownActionShas read(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+            throw new IllegalStateException("Unsupported known-action-shas table format");
+        }
+        int[] actions = readNameOffsets(buffer);
+        int[] refs = readNameOffsets(buffer);
+        int entryCount = buffer.getInt();
+        int[] firstEntry = new int[actions.length + 1];
+        for (int a = 0; a < actions.length; a++) {
+            firstEntry[a] = buffer.getInt();
+        }
+        firstEntry[actions.length] = entryCount;
+        int entryRefsOffset = buffer.position();
+        return new KnownActionShas(bytes, actions, refs, firstEntry, entryRefsOffset, entryRefsOffset + entryCount * 4);
+    }
+
+    private static int[] readNameOffsets(ByteBuffer buffer) {
+        int[] offsets = new int[buffer.getInt()];
+        for (int i = 0; i < offsets.length; i++) {
+            offsets[i] = buffer.position();
+            buffer.position(buffer.position() + 2 + (buffer.getShort() & 0xffff));
+        }
+        return offsets;
+    }
+
+    private static KnownActionShas load() {
+        try (InputStream is = KnownActionShas.class.getResourceAsStream(COMPILED_RESOURCE)) {
+            if (is != null) {
+                return read(readAll(is));
+            }
+        } catch (IOException ignored) {
+        }
+
+        // Not compiled by the build, e.g. when running from an IDE without delegating to Gradle
+        try (InputStream is = KnownActionShas.class.getResourceAsStream(RESOURCE)) {
+            if (is != null) {
+                Properties props = new Properties();
+                props.load(is);
+                Map<String, String> map = new HashMap<>();
+                for (String key : props.stringPropertyNames()) {
+                    map.put(key, props.getProperty(key));
+                }
+                return of(map);
+            }
+        } catch (IOException ignored) {
+        }
+        return of(Collections.emptyMap());
+    }
+
+    static byte[] readAll(InputStream is) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(1 << 18);
+        byte[] buffer = new byte[8192];
+        int n;
+        while ((n = is.read(buffer)) != -1) {
+            out.write(buffer, 0, n);
+        }
+        return out.toByteArray();
+    }
+
+    private static final class Bundled {
+        static final KnownActionShas INSTANCE = load();
+    }
+}
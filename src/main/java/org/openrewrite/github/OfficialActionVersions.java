@@ -18,22 +18,27 @@ package org.openrewrite.github;
 import org.jspecify.annotations.Nullable;
 import org.openrewrite.semver.LatestRelease;
 
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Set;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
 import java.util.regex.Pattern;
 
 import static java.util.Arrays.asList;
 import static java.util.Collections.unmodifiableSet;
 
 /**
- * Resolves the newest known version of an official GitHub Action from the static
- * {@code known-action-shas.properties} mapping, without contacting the network. Only actions in
- * the {@code actions} and {@code github} organizations are indexed; everything else is ignored.
+ * Resolves the newest known version of a GitHub Action from the static
+ * {@code known-action-shas.properties} mapping, without contacting the network. Every action in
+ * the mapping is indexed, but only those in the {@code actions} and {@code github} organizations
+ * are upgraded unless third-party actions are asked for explicitly.
+ * <p>
+ * For the bundled mapping, the newest major, minor, and patch tag of every action is precomputed
+ * by the build into {@code known-action-versions.properties}, so nothing is compared at load time.
  */
 final class OfficialActionVersions {
 
+    static final String COMPILED_RESOURCE = "/META-INF/rewrite/known-action-versions.properties";
+
     static final Set<String> OFFICIAL_ORGS = unmodifiableSet(new HashSet<>(asList("actions", "github")));
 
     private static final LatestRelease LATEST_RELEASE = new LatestRelease(null);
@@ -44,9 +49,18 @@ final class OfficialActionVersions {
     private static final Pattern PATCH = Pattern.compile("v?\\d+\\.\\d+\\.\\d+");
 
     private final Map<String, Versions> byAction;
+    private final KnownActionShas knownShas;
 
-    private OfficialActionVersions(Map<String, Versions> byAction) {
+    private OfficialActionVersions(Map<String, Versions> byAction, KnownActionShas knownShas) {
         this.byAction = byAction;
+        this.knownShas = knownShas;
+    }
+
+    /**
+     * @return the versions indexed from the bundled {@link KnownActionShas} table, computed once per JVM.
+     */
+    static OfficialActionVersions bundled() {
+        return Bundled.INSTANCE;
     }
 
     static boolean isOfficial(String actionPath) {
@@ -56,60 +70,79 @@ final class OfficialActionVersions {
 
     static OfficialActionVersions fromProperties(Map<String, String> knownShas) {
         Map<String, Versions> byAction = new HashMap<>();
-        for (Map.Entry<String, String> e : knownShas.entrySet()) {
-            String key = e.getKey();
-            int at = key.indexOf('@');
-            if (at < 0) {
-                continue;
-            }
-            String actionPath = key.substring(0, at);
-            if (!isOfficial(actionPath)) {
-                continue;
-            }
-            String ref = key.substring(at + 1);
-            Versions versions = byAction.computeIfAbsent(actionPath, k -> new Versions());
-            if (PATCH.matcher(ref).matches()) {
-                versions.patch = max(versions.patch, ref);
-            } else if (MINOR.matcher(ref).matches()) {
-                versions.minor = max(versions.minor, ref);
-            } else if (MAJOR.matcher(ref).matches()) {
-                if (ref.equals(max(versions.major, ref))) {
-                    versions.major = ref;
-                    versions.majorSha = e.getValue();
-                }
+        knownShas.forEach((key, sha) -> index(byAction, key, sha));
+        return new OfficialActionVersions(byAction, KnownActionShas.of(knownShas));
+    }
+
+    static OfficialActionVersions fromKnownShas(KnownActionShas knownShas) {
+        Map<String, Versions> byAction = new HashMap<>();
+        knownShas.forEach((key, sha) -> index(byAction, key, sha));
+        return new OfficialActionVersions(byAction, knownShas);
+    }
+
+    private static void index(Map<String, Versions> byAction, String key, String sha) {
+        int at = key.indexOf('@');
+        if (at < 0) {
+            return;
+        }
+        String actionPath = key.substring(0, at);
+        String ref = key.substring(at + 1);
+        Versions versions = byAction.computeIfAbsent(actionPath, k -> new Versions());
+        if (PATCH.matcher(ref).matches()) {
+            versions.patch = max(versions.patch, ref);
+        } else if (MINOR.matcher(ref).matches()) {
+            versions.minor = max(versions.minor, ref);
+        } else if (MAJOR.matcher(ref).matches()) {
+            if (ref.equals(max(versions.major, ref))) {
+                versions.major = ref;
+                versions.majorSha = sha;
             }
         }
-        return new OfficialActionVersions(byAction);
     }
 
     /**
      * @return the newest version to upgrade {@code currentRef} to, matching its precision (major,
      * minor, patch, or commit SHA) and preserving any {@code v} prefix, or {@code null} when the
-     * action is unknown, the ref is not an upgradeable version, or it is already up to date.
+     * action is unknown, the ref is not an upgradeable version, or it is already up to date. A commit
+     * SHA is left alone when a tag pointing at it is on the newest major, such as {@code v3.2.1} when
+     * {@code v3} is the newest major, and otherwise moves to the newest major's commit. A commit no
+     * tag is known for moves to the newest major's commit as well.
      */
     @Nullable String upgrade(String actionPath, String currentRef) {
+        return upgrade(actionPath, currentRef, false);
+    }
+
+    /**
+     * @param includeThirdParty whether to upgrade actions outside the {@code actions} and {@code github} organizations
+     * @see #upgrade(String, String)
+     */
+    @Nullable String upgrade(String actionPath, String currentRef, boolean includeThirdParty) {
+        if (!includeThirdParty && !isOfficial(actionPath)) {
+            return null;
+        }
         Versions versions = byAction.get(actionPath);
         if (versions == null) {
             return null;
         }
         if (SHA.matcher(currentRef).matches()) {
-            return versions.majorSha != null && !versions.majorSha.equals(currentRef) ? versions.majorSha : null;
+            if (versions.majorSha == null || versions.majorSha.equals(currentRef)) {
+                return null;
+            }
+            for (String tag : knownShas.refsPointingAt(actionPath, currentRef)) {
+                if (versions.major != null && versions.newest(tag) != null &&
+                    majorOf(tag).equals(majorOf(versions.major))) {
+                    return null;
+                }
+            }
+            return versions.majorSha;
         }
 
-        String target;
-        if (PATCH.matcher(currentRef).matches()) {
-            target = versions.patch;
-        } else if (MINOR.matcher(currentRef).matches()) {
-            target = versions.minor;
-        } else if (MAJOR.matcher(currentRef).matches()) {
-            target = versions.major;
-        } else {
-            return null;
-        }
+        String target = versions.newest(currentRef);
         if (target == null || compare(target, currentRef) <= 0) {
             return null;
         }
-        return currentRef.startsWith("v") ? target : target.substring(1);
+        // Third-party tags are not always prefixed, so the prefix of the current ref is what counts
+        return currentRef.startsWith("v") ? "v" + unprefixed(target) : unprefixed(target);
     }
 
     private static String max(@Nullable String current, String candidate) {
@@ -120,14 +153,70 @@ final class OfficialActionVersions {
         return LATEST_RELEASE.compare(unprefixed(a), unprefixed(b));
     }
 
+    /**
+     * @return the major component of a version, without any {@code v} prefix.
+     */
+    private static String majorOf(String version) {
+        String unprefixed = unprefixed(version);
+        int dot = unprefixed.indexOf('.');
+        return dot < 0 ? unprefixed : unprefixed.substring(0, dot);
+    }
+
     private static String unprefixed(String version) {
         return version.startsWith("v") ? version.substring(1) : version;
     }
 
+    /**
+     * Read the newest versions precomputed by the {@code compileKnownActionShas} build task, each line
+     * an {@code owner/repo[/subpath]=major,minor,patch} triple with empty values where no such tag
+     * exists. Falls back to indexing the SHA table when the build has not produced the resource.
+     */
+    private static OfficialActionVersions loadBundled() {
+        KnownActionShas knownShas = KnownActionShas.bundled();
+        try (InputStream is = OfficialActionVersions.class.getResourceAsStream(COMPILED_RESOURCE)) {
+            if (is != null) {
+                Properties props = new Properties();
+                props.load(is);
+                Map<String, Versions> byAction = new HashMap<>();
+                for (String actionPath : props.stringPropertyNames()) {
+                    String[] newest = props.getProperty(actionPath).split(",", -1);
+                    Versions versions = new Versions();
+                    versions.major = newest[0].isEmpty() ? null : newest[0];
+                    versions.majorSha = versions.major == null ? null : knownShas.get(actionPath, versions.major);
+                    versions.minor = newest[1].isEmpty() ? null : newest[1];
+                    versions.patch = newest[2].isEmpty() ? null : newest[2];
+                    byAction.put(actionPath, versions);
+                }
+                return new OfficialActionVersions(byAction, knownShas);
+            }
+        } catch (IOException ignored) {
+        }
+        return fromKnownShas(knownShas);
+    }
+
+    private static final class Bundled {
+        static final OfficialActionVersions INSTANCE = loadBundled();
+    }
+
     private static final class Versions {
         @Nullable String major;
         @Nullable String majorSha;
         @Nullable String minor;
         @Nullable String patch;
+
+        /**
+         * @return the newest version with the same precision as {@code ref}, or {@code null} when
+         * there is none or {@code ref} is not a version.
+         */
+        @Nullable String newest(String ref) {
+            if (PATCH.matcher(ref).matches()) {
+                return patch;
+            } else if (MINOR.matcher(ref).matches()) {
+                return minor;
+            } else if (MAJOR.matcher(ref).matches()) {
+                return major;
+            }
+            return null;
+        }
     }
 }
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2026 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.github;
+
+import org.jspecify.annotations.Nullable;
+
+import java.util.function.Function;
+
+/**
+ * A small direct-mapped cache of values parsed from strings, shared by every recipe. Racing
+ * threads may overwrite each other's slots, but every cached value is immutable, so the worst case
+ * is parsing a string again.
+ *
+ * @param <T> the immutable parsed value
+ */
+final class ParseCache<T> {
+
+    private static final int SIZE = 1024;
+
+    private final @Nullable Object[] slots = new Object[SIZE];
+    private final Function<T, String> source;
+    private final Function<String, T> parser;
+
+    /**
+     * @param source the string a cached value was parsed from
+     * @param parser parses a string that is not in the cache
+     */
+    ParseCache(Function<T, String> source, Function<String, T> parser) {
+        this.source = source;
+        this.parser = parser;
+    }
+
+    T get(String value) {
+        int slot = (value.hashCode() ^ (value.hashCode() >>> 16)) & (SIZE - 1);
+        @SuppressWarnings("unchecked")
+        @Nullable T cached = (T) slots[slot];
+        if (cached != null && source.apply(cached).equals(value)) {
+            return cached;
+        }
+        T parsed = parser.apply(value);
+        slots[slot] = parsed;
+        return parsed;
+    }
+}
@@ -17,6 +17,7 @@ package org.openrewrite.github;
 
 import lombok.Getter;
 import org.jspecify.annotations.Nullable;
+import org.openrewrite.Cursor;
 import org.openrewrite.ExecutionContext;
 import org.openrewrite.Preconditions;
 import org.openrewrite.Recipe;
@@ -28,8 +29,10 @@ import org.openrewrite.yaml.tree.Yaml;
 
 import java.time.Duration;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -38,7 +41,8 @@ import static org.openrewrite.Tree.randomId;
 
 public class RemoveUnusedWorkflowDispatchInputs extends Recipe {
 
-    private static final Pattern INPUT_USAGE_PATTERN = Pattern.compile("(?:github *[.] *event *[.] *inputs *[.] *([A-Za-z_][A-Za-z0-9_-]*)|inputs *[.] *([A-Za-z_][A-Za-z0-9_-]*))");
+    private static final Pattern SCRIPT_PAYLOAD_INPUT_PATTERN = Pattern.compile("\\bpayload\\s*\\.\\s*inputs\\s*\\.\\s*([A-Za-z_][A-Za-z0-9_-]*)");
+    private static final Pattern EVENT_FILE_INPUT_PATTERN = Pattern.compile("\\.inputs\\.([A-Za-z_][A-Za-z0-9_-]*)");
     private static final JsonPathMatcher WORKFLOW_DISPATCH_INPUTS_MATCHER = new JsonPathMatcher("$.on.workflow_dispatch.inputs");
 
     @Getter
@@ -57,6 +61,7 @@ public class RemoveUnusedWorkflowDispatchInputs extends Recipe {
             public Yaml.Document visitDocument(Yaml.Document document, ExecutionContext ctx) {
                 Set<String> definedInputs = new HashSet<>();
                 Set<String> usedInputs = new HashSet<>();
+                AtomicBoolean allInputsUsed = new AtomicBoolean();
 
                 new YamlIsoVisitor<ExecutionContext>() {
                     @Override
@@ -78,15 +83,46 @@ public class RemoveUnusedWorkflowDispatchInputs extends Recipe {
 
                     @Override
                     public Yaml.Scalar visitScalar(Yaml.Scalar scalar, ExecutionContext ctx) {
-                        String value = scalar.getValue();
-
-                        // This might have some false negatives as one can use a string like this, but this should be rare
-                        // and no harm is done in such a case.
-                        Matcher matcher = INPUT_USAGE_PATTERN.matcher(value);
-                        while (matcher.find()) {
-                            String inputName = matcher.group(1) != null ? matcher.group(1) : matcher.group(2);
-                            if (inputName != null) {
-                                usedInputs.add(inputName);
+                        Cursor parent = getCursor().getParentTreeCursor();
+                        String key = parent.getValue() instanceof Yaml.Mapping.Entry &&
+                                     ((Yaml.Mapping.Entry) parent.getValue()).getValue() == scalar ?
+                                ((Yaml.Mapping.Entry) parent.getValue()).getKey().getValue() : null;
+                        boolean condition = "if".equals(key);
+                        ExpressionTemplate template = condition ?
+                                ExpressionTemplate.parseCondition(scalar.getValue()) :
+                                ExpressionTemplate.parse(scalar.getValue());
+                        for (Expression expression : template.getExpressions()) {
+                            if (expression.anyMatch(e -> e instanceof Expression.Invalid)) {
+                                // Whatever it refers to cannot be known, so nothing can be safely removed
+                                allInputsUsed.set(true);
+                            }
+                            for (Expression.Context context : expression.getContexts()) {
+                                List<String> path = context.getSegments();
+                                int name = inputNameIndex(path);
+                                if (name < 0) {
+                                    continue;
+                                }
+                                if (name < path.size() && !"*".equals(path.get(name))) {
+                                    usedInputs.add(path.get(name));
+                                } else {
+                                    // All the inputs at once, as in toJSON(inputs) or inputs[matrix.input]
+                                    allInputsUsed.set(true);
+                                }
+                            }
+                        }
+
+                        // Scripts can also read the inputs from the event payload, as in context.payload.inputs.name
+                        // in actions/github-script or jq .inputs.name "$GITHUB_EVENT_PATH" in a run command
+                        Pattern payloadInput = null;
+                        if ("script".equals(key) && isGitHubScriptInput(parent)) {
+                            payloadInput = SCRIPT_PAYLOAD_INPUT_PATTERN;
+                        } else if ("run".equals(key) && scalar.getValue().contains("GITHUB_EVENT_PATH")) {
+                            payloadInput = EVENT_FILE_INPUT_PATTERN;
+                        }
+                        if (payloadInput != null) {
+                            Matcher matcher = payloadInput.matcher(scalar.getValue());
+                            while (matcher.find()) {
+                                usedInputs.add(matcher.group(1));
                             }
                         }
 
@@ -94,7 +130,7 @@ public class RemoveUnusedWorkflowDispatchInputs extends Recipe {
                     }
                 }.visit(document, ctx);
 
-                if (definedInputs.size() == usedInputs.size() || definedInputs.isEmpty()) {
+                if (allInputsUsed.get() || definedInputs.size() == usedInputs.size() || definedInputs.isEmpty()) {
                     return document;
                 }
 
@@ -141,4 +177,41 @@ public class RemoveUnusedWorkflowDispatchInputs extends Recipe {
             }
         });
     }
+
+    /**
+     * @return whether the entry is the {@code script} input of an {@code actions/github-script} step.
+     */
+    private static boolean isGitHubScriptInput(Cursor scriptEntry) {
+        Cursor with = scriptEntry.getParentTreeCursor().getParentTreeCursor();
+        if (!(with.getValue() instanceof Yaml.Mapping.Entry) ||
+            !"with".equals(((Yaml.Mapping.Entry) with.getValue()).getKey().getValue())) {
+            return false;
+        }
+        Object step = with.getParentTreeCursor().getValue();
+        if (step instanceof Yaml.Mapping) {
+            for (Yaml.Mapping.Entry entry : ((Yaml.Mapping) step).getEntries()) {
+                if ("uses".equals(entry.getKey().getValue()) && entry.getValue() instanceof Yaml.Scalar) {
+                    return ((Yaml.Scalar) entry.getValue()).getValue().startsWith("actions/github-script@");
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return where the input name is in a path to the inputs, like {@code inputs.name} or
+     * {@code github.event.inputs.name}, which is past the end of a path to an object containing all
+     * of them, like {@code github.event}, or -1 for any other path.
+     */
+    private static int inputNameIndex(List<String> path) {
+        if ("inputs".equalsIgnoreCase(path.get(0))) {
+            return 1;
+        }
+        if ("github".equalsIgnoreCase(path.get(0)) &&
+            (path.size() == 1 || ("event".equalsIgnoreCase(path.get(1)) &&
+                                  (path.size() == 2 || "inputs".equalsIgnoreCase(path.get(2)))))) {
+            return 3;
+        }
+        return -1;
+    }
 }
@@ -24,6 +24,8 @@ import org.openrewrite.yaml.YamlIsoVisitor;
 import org.openrewrite.yaml.tree.Yaml;
 
 import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
 import java.util.regex.Pattern;
 
 @EqualsAndHashCode(callSuper = false)
@@ -117,11 +119,11 @@ public class SetupPythonToUv extends Recipe {
     private static class SetupPythonToUvVisitor extends YamlIsoVisitor<ExecutionContext> {
 
         private static final Pattern SETUP_PYTHON_PATTERN = Pattern.compile("^actions/setup-python(@.*)?$");
-        private static final Pattern PIP_INSTALL_REQUIREMENTS = Pattern.compile("^pip install -r requirements\\.txt$");
-        private static final Pattern PIP_INSTALL_DEV = Pattern.compile("^pip install \\.$");
-        private static final Pattern PIP_INSTALL_EDITABLE = Pattern.compile("^pip install -e \\.$");
-        private static final Pattern PIP_UPGRADE = Pattern.compile("^python -m pip install --upgrade pip$");
-        private static final Pattern PYTHON_MODULE_PATTERN = Pattern.compile("^python -m (.+)$");
+        private static final List<String> PIP_INSTALL_REQUIREMENTS = Arrays.asList("pip", "install", "-r", "requirements.txt");
+        private static final List<String> PIP_INSTALL_DEV = Arrays.asList("pip", "install", ".");
+        private static final List<String> PIP_INSTALL_EDITABLE = Arrays.asList("pip", "install", "-e", ".");
+        private static final List<String> PIP_UPGRADE = Arrays.asList("python", "-m", "pip", "install", "--upgrade", "pip");
+        private static final String PYTHON_MODULE_PREFIX = "python -m ";
 
         private final String uvVersion;
         private final String syncStrategy;
@@ -171,22 +173,23 @@ public class SetupPythonToUv extends Recipe {
             }
 
             if (transformPipCommands && "run".equals(entry.getKey().getValue()) && entry.getValue() instanceof Yaml.Scalar) {
-                String runCommand = ((Yaml.Scalar) entry.getValue()).getValue();
+                ShellScript.Command command = onlyCommand(((Yaml.Scalar) entry.getValue()).getValue());
 
-                if (PIP_UPGRADE.matcher(runCommand).matches()) {
+                if (runs(command, PIP_UPGRADE)) {
                     return null;
                 }
 
-                if (PIP_INSTALL_REQUIREMENTS.matcher(runCommand).matches()) {
+                if (runs(command, PIP_INSTALL_REQUIREMENTS)) {
                     return entry.withValue(((Yaml.Scalar) entry.getValue()).withValue("uv " + syncStrategy));
                 }
 
-                if (PIP_INSTALL_DEV.matcher(runCommand).matches() || PIP_INSTALL_EDITABLE.matcher(runCommand).matches()) {
+                if (runs(command, PIP_INSTALL_DEV) || runs(command, PIP_INSTALL_EDITABLE)) {
                     return entry.withValue(((Yaml.Scalar) entry.getValue()).withValue("uv " + syncStrategy));
                 }
 
-                if (PYTHON_MODULE_PATTERN.matcher(runCommand).matches()) {
-                    String module = PYTHON_MODULE_PATTERN.matcher(runCommand).replaceFirst("$1");
+                if (command != null && command.getSource().startsWith(PYTHON_MODULE_PREFIX)) {
+                    // Keep the module's arguments exactly as written, quotes and all
+                    String module = command.getSource().substring(PYTHON_MODULE_PREFIX.length()).trim();
                     return entry.withValue(((Yaml.Scalar) entry.getValue()).withValue("uv run " + module));
                 }
             }
@@ -205,7 +208,7 @@ public class SetupPythonToUv extends Recipe {
 
                         String runCommand = ((Yaml.Scalar) mappingEntry.getValue()).getValue();
 
-                        if (PIP_UPGRADE.matcher(runCommand).matches()) {
+                        if (runs(onlyCommand(runCommand), PIP_UPGRADE)) {
                             return null;
                         }
                     }
@@ -214,5 +217,17 @@ public class SetupPythonToUv extends Recipe {
 
             return super.visitSequenceEntry(entry, ctx);
         }
+
+        /**
+         * @return the command a run script consists of, or {@code null} if it runs more than one.
+         */
+        private static ShellScript.@Nullable Command onlyCommand(String runCommand) {
+            List<ShellScript.Command> commands = ShellScript.parse(runCommand).getCommands();
+            return commands.size() == 1 ? commands.get(0) : null;
+        }
+
+        private static boolean runs(ShellScript.@Nullable Command command, List<String> words) {
+            return command != null && command.getRedirections().isEmpty() && command.getWords().equals(words);
+        }
     }
 }
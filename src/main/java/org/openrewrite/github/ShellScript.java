@@ -0,0 +1,137 @@
+/*
+ * Copyright 2026 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.github;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+import org.jspecify.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * The commands in a {@code run:} script, for audits that need to know what a step runs rather than
+ * whether some text appears somewhere in it.
+ * <p>
+ * This is not a full shell parser. It knows enough of bash, and of PowerShell where the two agree, to
+ * find where commands end and to handle quoting, redirections, expansions and here-documents. Everything
+ * else, keywords like {@code if} included, is just a word. Each character of the script is read once,
+ * so no script can make it slow.
+ * <p>
+ * Scripts are parsed at most once while they stay in a small cache shared by every recipe, so the
+ * audits that all look at the same {@code run:} work from the same parse.
+ * <p>
+ * GitHub substitutes {@code ${{ }}} expressions into the script before any shell reads it, in comments
+ * and quoted strings alike, so they are kept whole in words but are not expansions. Use
+ * {@link ExpressionTemplate} to find them.
+ */
+@Value
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class ShellScript {
+
+    private static final ParseCache<ShellScript> CACHE = new ParseCache<>(ShellScript::getSource,
+            script -> new ShellScript(script, ShellScriptParser.parse(script)));
+
+    /**
+     * The script as written.
+     */
+    String source;
+
+    /**
+     * The commands in the order they are written. Each part of a pipeline is a command of its own.
+     */
+    List<Command> commands;
+
+    public static ShellScript parse(String script) {
+        return CACHE.get(script);
+    }
+
+    @Value
+    public static class Command {
+
+        /**
+         * The command as written, from its first word or redirection to its last.
+         */
+        String source;
+
+        /**
+         * The command name and its arguments, with quotes and escapes removed.
+         */
+        List<String> words;
+
+        List<Redirection> redirections;
+
+        /**
+         * The expansions in the words and redirections of the command, in the order they are written.
+         */
+        List<Expansion> expansions;
+
+        /**
+         * @return the first word, or {@code null} for a command that is only redirections.
+         */
+        public @Nullable String getName() {
+            return words.isEmpty() ? null : words.get(0);
+        }
+    }
+
+    @Value
+    public static class Redirection {
+
+        /**
+         * Such as {@code >}, {@code >>}, {@code &>} or {@code <<}, without any file descriptor number.
+         */
+        String operator;
+
+        /**
+         * The file, the file descriptor of {@code >&}, or the delimiter of a here-document.
+         */
+        String target;
+    }
+
+    /**
+     * Something the shell replaces with a value when it runs the command, which a workflow cannot know
+     * from the script alone.
+     */
+    @Value
+    public static class Expansion {
+
+        Kind kind;
+
+        /**
+         * The expansion as written, such as {@code ${GITHUB_ENV}} or {@code $(git rev-parse HEAD)}.
+         */
+        String source;
+
+        /**
+         * The name of the variable, such as {@code GITHUB_ENV} for {@code $GITHUB_ENV},
+         * {@code ${GITHUB_ENV:-}} or {@code $env:GITHUB_ENV}, or {@code null} for a command substitution.
+         */
+        @Nullable
+        String variable;
+
+        public enum Kind {
+            /**
+             * A variable or parameter, as in {@code $HOME}, {@code ${1}} or {@code $env:HOME}.
+             */
+            VARIABLE,
+
+            /**
+             * A command or arithmetic substitution, as in {@code $(date)}, {@code `date`} or {@code $((1 + 2))}.
+             */
+            COMMAND
+        }
+    }
+}
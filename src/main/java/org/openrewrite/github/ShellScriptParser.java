@@ -0,0 +1,324 @@
+/*
+ * Copyright 2026 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.github;
+
+import org.jspecify.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.unmodifiableList;
+
+/**
+ * Splits a script into {@link ShellScript.Command}s in one pass over its characters. Anything left
+ * open at the end of the script, such as a quote or a here-document, runs to the end of the script,
+ * much as the shell would read it before reporting the error.
+ */
+final class ShellScriptParser {
+
+    private final String source;
+    private int pos;
+
+    private final List<ShellScript.Command> commands = new ArrayList<>();
+    private List<String> words = new ArrayList<>();
+    private List<ShellScript.Redirection> redirections = new ArrayList<>();
+    private List<ShellScript.Expansion> expansions = new ArrayList<>();
+    private int commandStart = -1;
+    private int commandEnd;
+
+    /**
+     * Delimiters of the here-documents whose bodies begin on the next line.
+     */
+    private final List<String> hereDocuments = new ArrayList<>();
+
+    private ShellScriptParser(String source) {
+        this.source = source;
+    }
+
+    static List<ShellScript.Command> parse(String source) {
+        ShellScriptParser parser = new ShellScriptParser(source);
+        parser.script();
+        return parser.commands.isEmpty() ? emptyList() : unmodifiableList(parser.commands);
+    }
+
+    private void script() {
+        while (pos < source.length()) {
+            char c = source.charAt(pos);
+            if (c == '\n') {
+                pos++;
+                endCommand();
+                skipHereDocuments();
+            } else if (c == ' ' || c == '\t' || c == '\r') {
+                pos++;
+            } else if (isLineContinuation()) {
+                pos += peek(1) == '\r' ? 3 : 2;
+            } else if (c == '#') {
+                int end = source.indexOf('\n', pos);
+                pos = end < 0 ? source.length() : end;
+            } else if (isOperator(c) && !(c == '&' && peek(1) == '>')) {
+                pos++;
+                endCommand();
+            } else {
+                if (commandStart < 0) {
+                    commandStart = pos;
+                }
+                if (c == '&' || c == '>' || c == '<') {
+                    redirection();
+                } else {
+                    String word = word();
+                    // The file descriptor of a redirection such as 2>/dev/null
+                    if (!isFileDescriptor(word) || (peek() != '>' && peek() != '<')) {
+                        words.add(word);
+                    }
+                }
+                commandEnd = pos;
+            }
+        }
+        endCommand();
+    }
+
+    private void redirection() {
+        int start = pos;
+        if (peek() == '&') {
+            pos++;
+        }
+        char c = source.charAt(pos++);
+        if (c == '<' && peek() == '<') {
+            pos++;
+            if (peek() == '<' || peek() == '-') {
+                pos++;
+            }
+        } else if (peek() == c || peek() == '&' || peek() == '|' || (c == '<' && peek() == '>')) {
+            pos++;
+        }
+        String operator = source.substring(start, pos);
+
+        while (peek() == ' ' || peek() == '\t') {
+            pos++;
+        }
+        String target = atWordBoundary() ? "" : word();
+        if ("<<".equals(operator) || "<<-".equals(operator)) {
+            hereDocuments.add(target);
+        }
+        redirections.add(new ShellScript.Redirection(operator, target));
+    }
+
+    private String word() {
+        StringBuilder text = new StringBuilder();
+        while (!atWordBoundary()) {
+            char c = source.charAt(pos);
+            if (c == '\\') {
+                if (pos + 1 < source.length() && peek(1) != '\n') {
+                    text.append(peek(1));
+                }
+                pos = Math.min(pos + 2, source.length());
+            } else if (c == '\'') {
+                int end = source.indexOf('\'', pos + 1);
+                end = end < 0 ? source.length() : end;
+                text.append(source, pos + 1, end);
+                pos = Math.min(end + 1, source.length());
+            } else if (c == '"') {
+                doubleQuoted(text);
+            } else if (c == '$') {
+                dollar(text);
+            } else if (c == '`') {
+                int end = source.indexOf('`', pos + 1);
+                end = end < 0 ? source.length() : end + 1;
+                expand(text, ShellScript.Expansion.Kind.COMMAND, end, null);
+            } else {
+                text.append(c);
+                pos++;
+            }
+        }
+        return text.toString();
+    }
+
+    private void doubleQuoted(StringBuilder text) {
+        pos++;
+        while (pos < source.length()) {
+            char c = source.charAt(pos);
+            if (c == '"') {
+                pos++;
+                return;
+            }
+            if (c == '\\' && pos + 1 < source.length() && "\"\\$`\n".indexOf(peek(1)) >= 0) {
+                if (peek(1) != '\n') {
+                    text.append(peek(1));
+                }
+                pos += 2;
+            } else if (c == '$') {
+                dollar(text);
+            } else {
+                text.append(c);
+                pos++;
+            }
+        }
+    }
+
+    /**
+     * An expression, substitution or variable, or just a dollar sign when it is none of these.
+     */
+    private void dollar(StringBuilder text) {
+        char next = peek(1);
+        if (source.startsWith("${{", pos)) {
+            expression(text);
+        } else if (next == '(') {
+            substitution(text);
+        } else if (next == '{') {
+            int end = source.indexOf('}', pos + 2);
+            end = end < 0 ? source.length() : end + 1;
+            int name = pos + 2;
+            while (name < end && (source.charAt(name) == '!' || source.charAt(name) == '#')) {
+                name++;
+            }
+            expand(text, ShellScript.Expansion.Kind.VARIABLE, end, source.substring(name, nameEnd(name, end)));
+        } else if (source.regionMatches(true, pos + 1, "env:", 0, 4) && isNameStart(peek(5))) {
+            int end = nameEnd(pos + 5, source.length());
+            expand(text, ShellScript.Expansion.Kind.VARIABLE, end, source.substring(pos + 5, end));
+        } else if (isNameStart(next)) {
+            int end = nameEnd(pos + 1, source.length());
+            expand(text, ShellScript.Expansion.Kind.VARIABLE, end, source.substring(pos + 1, end));
+        } else if ((next >= '0' && next <= '9') || "@*#?$!-".indexOf(next) >= 0) {
+            expand(text, ShellScript.Expansion.Kind.VARIABLE, pos + 2, String.valueOf(next));
+        } else {
+            text.append('$');
+            pos++;
+        }
+    }
+
+    private void expand(StringBuilder text, ShellScript.Expansion.Kind kind, int end, @Nullable String variable) {
+        String expansion = source.substring(pos, end);
+        expansions.add(new ShellScript.Expansion(kind, expansion, variable));
+        text.append(expansion);
+        pos = end;
+    }
+
+    /**
+     * A GitHub Actions expression, which is replaced before the shell ever sees the script, so is kept
+     * whole whatever it contains.
+     */
+    private void expression(StringBuilder text) {
+        int end = source.indexOf("}}", pos + 3);
+        end = end < 0 ? source.length() : end + 2;
+        text.append(source, pos, end);
+        pos = end;
+    }
+
+    /**
+     * A command or arithmetic substitution, kept as written up to its balancing parenthesis.
+     */
+    private void substitution(StringBuilder text) {
+        int start = pos;
+        pos++;
+        int depth = 0;
+        do {
+            char c = source.charAt(pos);
+            if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+            } else if (c == '\'' || c == '"') {
+                // Parentheses inside a quoted string do not count
+                int end = source.indexOf(c, pos + 1);
+                pos = end < 0 ? source.length() - 1 : end;
+            }
+            pos++;
+        } while (depth > 0 && pos < source.length());
+        int end = pos;
+        pos = start;
+        expand(text, ShellScript.Expansion.Kind.COMMAND, end, null);
+    }
+
+    private void skipHereDocuments() {
+        for (String delimiter : hereDocuments) {
+            while (pos < source.length()) {
+                int end = source.indexOf('\n', pos);
+                end = end < 0 ? source.length() : end;
+                String line = source.substring(pos, end);
+                pos = Math.min(end + 1, source.length());
+                if (line.trim().equals(delimiter)) {
+                    break;
+                }
+            }
+        }
+        hereDocuments.clear();
+    }
+
+    private void endCommand() {
+        if (!words.isEmpty() || !redirections.isEmpty()) {
+            commands.add(new ShellScript.Command(source.substring(commandStart, commandEnd),
+                    unmodifiableList(words), unmodifiableList(redirections), unmodifiableList(expansions)));
+            words = new ArrayList<>();
+            redirections = new ArrayList<>();
+            expansions = new ArrayList<>();
+        }
+        commandStart = -1;
+    }
+
+    private boolean atWordBoundary() {
+        if (pos >= source.length()) {
+            return true;
+        }
+        char c = source.charAt(pos);
+        return c == ' ' || c == '\t' || c == '\r' || c == '\n' || c == '>' || c == '<' || isOperator(c) ||
+               (c == '`' && isLineContinuation());
+    }
+
+    /**
+     * A backslash in bash, or a backtick in PowerShell, at the end of a line.
+     */
+    private boolean isLineContinuation() {
+        char c = peek();
+        return (c == '\\' || c == '`') && (peek(1) == '\n' || (peek(1) == '\r' && peek(2) == '\n'));
+    }
+
+    private static boolean isOperator(char c) {
+        return c == ';' || c == '|' || c == '&' || c == '(' || c == ')';
+    }
+
+    private int nameEnd(int start, int limit) {
+        int end = start;
+        while (end < limit && (isNameStart(source.charAt(end)) || (source.charAt(end) >= '0' && source.charAt(end) <= '9'))) {
+            end++;
+        }
+        return end;
+    }
+
+    private static boolean isNameStart(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_';
+    }
+
+    private static boolean isFileDescriptor(String word) {
+        if (word.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < word.length(); i++) {
+            if (word.charAt(i) < '0' || word.charAt(i) > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private char peek() {
+        return peek(0);
+    }
+
+    private char peek(int ahead) {
+        return pos + ahead < source.length() ? source.charAt(pos + ahead) : '\0';
+    }
+}
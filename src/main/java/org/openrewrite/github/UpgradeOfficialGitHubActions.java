@@ -15,56 +15,74 @@
  */
 package org.openrewrite.github;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
 import lombok.EqualsAndHashCode;
 import lombok.Value;
+import org.jspecify.annotations.Nullable;
 import org.openrewrite.ExecutionContext;
+import org.openrewrite.Option;
 import org.openrewrite.Preconditions;
 import org.openrewrite.ScanningRecipe;
 import org.openrewrite.TreeVisitor;
 import org.openrewrite.yaml.YamlIsoVisitor;
 import org.openrewrite.yaml.tree.Yaml;
 
-import java.io.IOException;
-import java.io.InputStream;
 import java.util.*;
 
 import static java.util.Arrays.asList;
-import static java.util.Collections.emptyMap;
 import static java.util.Collections.unmodifiableSet;
+import static java.util.Objects.requireNonNull;
 
 @Value
 @EqualsAndHashCode(callSuper = false)
 public class UpgradeOfficialGitHubActions extends ScanningRecipe<UpgradeOfficialGitHubActions.Accumulator> {
 
+    @Option(displayName = "Include third-party actions",
+            description = "Also upgrade actions outside the `actions` and `github` organizations to the newest version " +
+                    "in the built-in table of known action tags. Defaults to `false`.",
+            required = false,
+            example = "true")
+    @Nullable
+    Boolean includeThirdPartyActions;
+
     String displayName = "Upgrade official GitHub Actions to their latest versions";
 
     String description = "Upgrades actions from the official `actions` and `github` organizations to the newest " +
             "known version, working entirely offline. Each reference is upgraded while preserving its existing " +
             "precision: a major version (`v4`) moves to the newest major, a full version (`v4.1.2`) to the newest " +
-            "full version, and a commit SHA to the latest known commit. Actions that are not official, not known, " +
-            "or already up to date are left untouched.";
+            "full version, and a commit SHA to the latest known commit. Actions that are not official (unless " +
+            "third-party actions are included), not known, or already up to date are left untouched.";
 
     Set<String> tags = unmodifiableSet(new HashSet<>(asList("github", "actions")));
 
+    public UpgradeOfficialGitHubActions() {
+        this(null);
+    }
+
+    @JsonCreator
+    public UpgradeOfficialGitHubActions(@Nullable Boolean includeThirdPartyActions) {
+        this.includeThirdPartyActions = includeThirdPartyActions;
+    }
+
     @Override
     public Accumulator getInitialValue(ExecutionContext ctx) {
-        return new Accumulator(OfficialActionVersions.fromProperties(loadKnownShas()));
+        return new Accumulator(OfficialActionVersions.bundled());
     }
 
     @Override
     public TreeVisitor<?, ExecutionContext> getScanner(Accumulator acc) {
+        boolean includeThirdParty = Boolean.TRUE.equals(includeThirdPartyActions);
         return Preconditions.check(workflowOrActionDefinition(), new YamlIsoVisitor<ExecutionContext>() {
             @Override
             public Yaml.Mapping.Entry visitMappingEntry(Yaml.Mapping.Entry entry, ExecutionContext ctx) {
                 if (entry.getKey() instanceof Yaml.Scalar &&
                         "uses".equals(((Yaml.Scalar) entry.getKey()).getValue()) &&
                         entry.getValue() instanceof Yaml.Scalar) {
-                    String uses = ((Yaml.Scalar) entry.getValue()).getValue();
-                    int at = uses.indexOf('@');
-                    if (at > 0) {
-                        String action = uses.substring(0, at);
-                        String currentRef = uses.substring(at + 1);
-                        String target = acc.getVersions().upgrade(action, currentRef);
+                    UsesReference uses = UsesReference.parse(((Yaml.Scalar) entry.getValue()).getValue());
+                    if (uses.isRepository() && uses.getRef() != null) {
+                        String action = requireNonNull(uses.getActionPath());
+                        String currentRef = uses.getRef();
+                        String target = acc.getVersions().upgrade(action, currentRef, includeThirdParty);
                         if (target != null) {
                             acc.getTargets().add(new UpgradeTarget(action, currentRef, target));
                         }
@@ -113,23 +131,6 @@ public class UpgradeOfficialGitHubActions extends ScanningRecipe<UpgradeOfficial
                 new IsGitHubActionDefinition().getVisitor());
     }
 
-    private static Map<String, String> loadKnownShas() {
-        try (InputStream is = UpgradeOfficialGitHubActions.class
-                .getResourceAsStream("/META-INF/rewrite/known-action-shas.properties")) {
-            if (is != null) {
-                Properties props = new Properties();
-                props.load(is);
-                Map<String, String> map = new LinkedHashMap<>();
-                for (String key : props.stringPropertyNames()) {
-                    map.put(key, props.getProperty(key));
-                }
-                return map;
-            }
-        } catch (IOException ignored) {
-        }
-        return emptyMap();
-    }
-
     @Value
     public static class Accumulator {
         OfficialActionVersions versions;
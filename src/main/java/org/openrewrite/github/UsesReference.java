@@ -0,0 +1,153 @@
+/*
+ * Copyright 2026 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.github;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A parsed GitHub Actions {@code uses:} value, in one of three forms:
+ * <ul>
+ *     <li>{@link Kind#LOCAL} — an action in the same repository, e.g. {@code ./.github/actions/build}</li>
+ *     <li>{@link Kind#DOCKER} — a container image, e.g. {@code docker://alpine:3.8}</li>
+ *     <li>{@link Kind#REPOSITORY} — anything else, e.g. {@code owner/repo/subpath@ref}</li>
+ * </ul>
+ * References are parsed at most once while they stay in a small cache shared by every recipe, so
+ * recipes that all look at the same {@code uses:} entry share one instance. Owners and repositories
+ * are interned, since a handful of them account for most references.
+ * <p>
+ * Parsing is purely syntactic: a repository reference with empty or missing components, such as
+ * {@code owner//repo} or {@code owner}, is kept as written for recipes that look for such oddities.
+ */
+@Value
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class UsesReference {
+
+    private static final ParseCache<UsesReference> CACHE = new ParseCache<>(UsesReference::getValue, UsesReference::doParse);
+
+    public enum Kind {
+        LOCAL,
+        DOCKER,
+        REPOSITORY
+    }
+
+    /**
+     * The {@code uses:} value as written.
+     */
+    String value;
+
+    Kind kind;
+
+    /**
+     * Everything before the first {@code @} of a repository reference, e.g. {@code owner/repo/subpath}.
+     */
+    @Nullable
+    String actionPath;
+
+    /**
+     * {@code owner/repo} of a repository reference, without any subpath.
+     */
+    @Nullable
+    String ownerRepo;
+
+    @Nullable
+    String owner;
+
+    @Nullable
+    String repo;
+
+    /**
+     * The path of the action within its repository, without a leading slash, or {@code null} when
+     * the action is at the root of the repository.
+     */
+    @Nullable
+    String subpath;
+
+    /**
+     * Everything after the first {@code @}, in any form of reference, or {@code null} when there is none.
+     */
+    @Nullable
+    String ref;
+
+    /**
+     * Whether the ref is a full 40-character commit SHA.
+     */
+    boolean sha;
+
+    public static UsesReference parse(String value) {
+        return CACHE.get(value);
+    }
+
+    private static UsesReference doParse(String value) {
+        int at = value.indexOf('@');
+        String ref = at < 0 ? null : value.substring(at + 1);
+        boolean sha = ref != null && isSha(ref);
+        if (value.startsWith("./")) {
+            return new UsesReference(value, Kind.LOCAL, null, null, null, null, null, ref, sha);
+        }
+        if (value.startsWith("docker://")) {
+            return new UsesReference(value, Kind.DOCKER, null, null, null, null, null, ref, sha);
+        }
+
+        String actionPath = at < 0 ? value : value.substring(0, at);
+        int firstSlash = actionPath.indexOf('/');
+        if (firstSlash < 0) {
+            return new UsesReference(value, Kind.REPOSITORY, actionPath, actionPath, actionPath.intern(), null, null, ref, sha);
+        }
+        int secondSlash = actionPath.indexOf('/', firstSlash + 1);
+        String owner = actionPath.substring(0, firstSlash).intern();
+        String repo = (secondSlash < 0 ? actionPath.substring(firstSlash + 1) : actionPath.substring(firstSlash + 1, secondSlash)).intern();
+        String ownerRepo = secondSlash < 0 ? actionPath : actionPath.substring(0, secondSlash);
+        String subpath = secondSlash < 0 ? null : actionPath.substring(secondSlash + 1);
+        return new UsesReference(value, Kind.REPOSITORY, actionPath, ownerRepo, owner, repo, subpath, ref, sha);
+    }
+
+    private static boolean isSha(String ref) {
+        if (ref.length() != 40) {
+            return false;
+        }
+        for (int i = 0; i < ref.length(); i++) {
+            char c = ref.charAt(i);
+            if ((c < '0' || c > '9') && (c < 'a' || c > 'f')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean isLocal() {
+        return kind == Kind.LOCAL;
+    }
+
+    public boolean isDocker() {
+        return kind == Kind.DOCKER;
+    }
+
+    public boolean isRepository() {
+        return kind == Kind.REPOSITORY;
+    }
+
+    /**
+     * @return whether this is a repository reference with a non-empty owner, repository and (if
+     * present) subpath, e.g. {@code owner/repo} or {@code owner/repo/subpath} with any or no ref.
+     */
+    public boolean isWellFormed() {
+        return kind == Kind.REPOSITORY && owner != null && !owner.isEmpty() &&
+               repo != null && !repo.isEmpty() && (subpath == null || !subpath.isEmpty());
+    }
+}
@@ -17,28 +17,15 @@ package org.openrewrite.github;
 
 import org.jspecify.annotations.Nullable;
 
-import java.util.regex.Pattern;
-
 /**
  * Helpers for the ref portion of a GitHub Actions {@code uses:} reference
  * (e.g. the {@code v4} or commit SHA in {@code owner/repo@v4}).
  */
 final class UsesRefs {
 
-    private static final Pattern SHA_PATTERN = Pattern.compile("^[a-f0-9]{40}$");
-
     private UsesRefs() {
     }
 
-    /**
-     * @return the ref after the first {@code @} in a {@code uses:} value, or {@code null} when the
-     * value has no {@code @}.
-     */
-    static @Nullable String refOf(String usesValue) {
-        int at = usesValue.indexOf('@');
-        return at < 0 ? null : usesValue.substring(at + 1);
-    }
-
     /**
      * Decide whether a {@code uses:} value should be changed, given an {@code oldSha} sentinel that
      * mirrors the Docker {@code ChangeFrom} {@code oldDigest} option:
@@ -50,13 +37,13 @@ final class UsesRefs {
      * </ul>
      */
     static boolean matchesOldSha(@Nullable String oldSha, String usesValue) {
-        String ref = refOf(usesValue);
         if (oldSha == null) {
             return true;
         }
+        UsesReference uses = UsesReference.parse(usesValue);
         if (oldSha.isEmpty()) {
-            return ref == null || !SHA_PATTERN.matcher(ref).matches();
+            return !uses.isSha();
         }
-        return ref != null && ref.equals(oldSha);
+        return oldSha.equals(uses.getRef());
     }
 }
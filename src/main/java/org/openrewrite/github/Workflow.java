@@ -0,0 +1,546 @@
+/*
+ * Copyright 2026 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.github;
+
+import lombok.Value;
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.Cursor;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.yaml.tree.Yaml;
+
+import java.util.*;
+
+import static java.util.Collections.*;
+
+/**
+ * A read-only view of what a GitHub Actions workflow declares: its triggers, permissions, environment,
+ * and jobs with their runners, steps, containers and services. Only scalar values are kept, so an expression
+ * such as {@code ${{ matrix.image }}} appears as written, and anything that is not shaped as GitHub
+ * expects is left out rather than guessed at.
+ * <p>
+ * Recipes that need more than the entry they are looking at should get the model with
+ * {@link #of(Yaml.Document, ExecutionContext)} rather than walking the document again. It is built
+ * on first use and shared by every recipe looking at the same document instance; a document changed
+ * by an earlier recipe is a new instance, so the model never lags behind the tree.
+ */
+@Value
+public class Workflow {
+
+    private static final String LAST_BUILT = Workflow.class.getName() + ".lastBuilt";
+
+    /**
+     * The events under {@code on:}, in the order they are declared.
+     */
+    List<Trigger> triggers;
+
+    /**
+     * The top-level {@code permissions:}, or {@code null} when the workflow does not declare any.
+     */
+    @Nullable
+    Permissions permissions;
+
+    Map<String, String> env;
+
+    List<Job> jobs;
+
+    public static Workflow of(Cursor cursor, ExecutionContext ctx) {
+        return of(cursor.firstEnclosingOrThrow(Yaml.Document.class), ctx);
+    }
+
+    public static Workflow of(Yaml.Document document, ExecutionContext ctx) {
+        // Documents are visited one after another by every recipe in turn, so remembering the
+        // last one is enough to build each model once
+        Built last = ctx.getMessage(LAST_BUILT);
+        if (last != null && last.document == document) {
+            return last.workflow;
+        }
+        Workflow workflow = of(document);
+        ctx.putMessage(LAST_BUILT, new Built(document, workflow));
+        return workflow;
+    }
+
+    public static Workflow of(Yaml.Document document) {
+        List<Trigger> triggers = emptyList();
+        Permissions permissions = null;
+        Map<String, String> env = emptyMap();
+        List<Job> jobs = emptyList();
+        if (document.getBlock() instanceof Yaml.Mapping) {
+            Set<String> seen = new HashSet<>();
+            for (Yaml.Mapping.Entry entry : ((Yaml.Mapping) document.getBlock()).getEntries()) {
+                String key = entry.getKey().getValue();
+                if (!seen.add(key)) {
+                    // Only the first of duplicated keys counts
+                    continue;
+                }
+                if ("on".equals(key)) {
+                    triggers = triggers(entry.getValue());
+                } else if ("permissions".equals(key)) {
+                    permissions = Permissions.of(entry.getValue());
+                } else if ("env".equals(key)) {
+                    env = scalars(entry.getValue());
+                } else if ("jobs".equals(key)) {
+                    jobs = jobs(entry.getValue());
+                }
+            }
+        }
+        return new Workflow(triggers, permissions, env, jobs);
+    }
+
+    public boolean hasTrigger(String event) {
+        for (Trigger trigger : triggers) {
+            if (trigger.getEvent().equals(event)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public @Nullable Job getJob(String id) {
+        for (Job job : jobs) {
+            if (job.getId().equals(id)) {
+                return job;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the job the cursor is somewhere inside of, or {@code null} when it is not inside any job.
+     */
+    public @Nullable Job jobAt(Cursor cursor) {
+        return jobAt(keyPath(cursor));
+    }
+
+    /**
+     * @return the job whose own entry under {@code jobs:} the cursor is on, or {@code null} for any
+     * other entry.
+     */
+    public @Nullable Job jobDefinedAt(Cursor cursor) {
+        List<@Nullable String> path = keyPath(cursor);
+        return path.size() == 2 ? jobAt(path) : null;
+    }
+
+    /**
+     * @return the job that the entry the cursor is on is a key of, such as its {@code runs-on:}, or
+     * {@code null} for an entry that is not directly in a job.
+     */
+    public @Nullable Job jobDeclaring(Cursor cursor) {
+        List<@Nullable String> path = keyPath(cursor);
+        return path.size() == 3 ? jobAt(path) : null;
+    }
+
+    /**
+     * @return the job container or service that the entry the cursor is on is a key of, such as its
+     * {@code image:} or {@code credentials:}, or {@code null} for an entry that is not directly in one.
+     */
+    public @Nullable Container containerDeclaring(Cursor cursor) {
+        List<@Nullable String> path = keyPath(cursor);
+        Job job = jobAt(path);
+        if (job == null) {
+            return null;
+        }
+        if (path.size() == 4 && "container".equals(path.get(2))) {
+            return job.getContainer();
+        }
+        if (path.size() == 5 && "services".equals(path.get(2))) {
+            return job.getServices().get(path.get(3));
+        }
+        return null;
+    }
+
+    /**
+     * @return the permissions declared by the {@code permissions:} entry the cursor is on, when it is
+     * the entry of the workflow or of one of its jobs, or {@code null} for any other entry.
+     */
+    public @Nullable Permissions permissionsAt(Cursor cursor) {
+        List<@Nullable String> path = keyPath(cursor);
+        if (path.size() == 1 && "permissions".equals(path.get(0))) {
+            return permissions;
+        }
+        String jobId = path.size() == 3 && "jobs".equals(path.get(0)) && "permissions".equals(path.get(2)) ? path.get(1) : null;
+        if (jobId != null) {
+            Job job = getJob(jobId);
+            return job == null ? null : job.getPermissions();
+        }
+        return null;
+    }
+
+    private @Nullable Job jobAt(List<@Nullable String> path) {
+        String jobId = path.size() >= 2 && "jobs".equals(path.get(0)) ? path.get(1) : null;
+        return jobId == null ? null : getJob(jobId);
+    }
+
+    /**
+     * @return the keys of the mapping entries from the document down to the cursor, with {@code null}
+     * standing in for each sequence entry along the way.
+     */
+    private static List<@Nullable String> keyPath(Cursor cursor) {
+        List<@Nullable String> path = new ArrayList<>();
+        for (Iterator<Object> it = cursor.getPath(); it.hasNext(); ) {
+            Object value = it.next();
+            if (value instanceof Yaml.Mapping.Entry) {
+                path.add(((Yaml.Mapping.Entry) value).getKey().getValue());
+            } else if (value instanceof Yaml.Sequence.Entry) {
+                path.add(null);
+            }
+        }
+        reverse(path);
+        return path;
+    }
+
+    @Value
+    public static class Trigger {
+        String event;
+
+        /**
+         * The filters of the event in the order they are declared, such as {@code branches} or
+         * {@code types}, each with its values. Empty for events listed without any configuration.
+         */
+        Map<String, List<String>> filters;
+    }
+
+    @Value
+    public static class Permissions {
+        /**
+         * A permission set granted as a whole, such as {@code read-all} or {@code write-all}, or
+         * {@code null} when permissions are granted per scope.
+         */
+        @Nullable
+        String all;
+
+        /**
+         * The access granted to each scope, such as {@code contents: read}, in the order they are declared.
+         */
+        Map<String, String> scopes;
+
+        static @Nullable Permissions of(Yaml.Block block) {
+            if (block instanceof Yaml.Scalar) {
+                return new Permissions(((Yaml.Scalar) block).getValue(), emptyMap());
+            }
+            if (block instanceof Yaml.Mapping) {
+                return new Permissions(null, scalars(block));
+            }
+            return null;
+        }
+    }
+
+    @Value
+    public static class Job {
+        String id;
+
+        @Nullable
+        String name;
+
+        /**
+         * The runner labels under {@code runs-on:}, in the order they are declared, or a single
+         * expression such as {@code ${{ matrix.os }}}. Empty for runner groups and reusable workflow calls.
+         */
+        List<String> runsOn;
+
+        /**
+         * The values of each dimension under {@code strategy.matrix}, leaving out {@code include} and
+         * {@code exclude}, which are not lists of scalars.
+         */
+        Map<String, List<String>> matrix;
+
+        @Nullable
+        Permissions permissions;
+
+        Map<String, String> env;
+
+        @Nullable
+        String timeoutMinutes;
+
+        @Nullable
+        Container container;
+
+        Map<String, Container> services;
+
+        /**
+         * The reusable workflow the job calls, or {@code null} for a job that runs steps of its own.
+         */
+        @Nullable
+        String uses;
+
+        /**
+         * The {@code secrets:} of a reusable workflow call when given as a scalar, which can only be
+         * {@code inherit}, or {@code null} when secrets are passed one by one or not at all.
+         */
+        @Nullable
+        String secrets;
+
+        List<Step> steps;
+    }
+
+    @Value
+    public static class Step {
+        @Nullable
+        String id;
+
+        @Nullable
+        String name;
+
+        @Nullable
+        String uses;
+
+        @Nullable
+        String run;
+
+        Map<String, String> with;
+
+        Map<String, String> env;
+
+        @Nullable
+        String timeoutMinutes;
+
+        /**
+         * @param step the mapping of a single entry in a job's {@code steps} sequence.
+         */
+        public static Step of(Yaml.Mapping step) {
+            String id = null;
+            String name = null;
+            String uses = null;
+            String run = null;
+            Map<String, String> with = emptyMap();
+            Map<String, String> env = emptyMap();
+            String timeoutMinutes = null;
+            for (Yaml.Mapping.Entry entry : step.getEntries()) {
+                String key = entry.getKey().getValue();
+                // The first scalar of each key wins, so a malformed duplicate cannot mask it
+                if ("id".equals(key) && id == null) {
+                    id = scalar(entry.getValue());
+                } else if ("name".equals(key) && name == null) {
+                    name = scalar(entry.getValue());
+                } else if ("uses".equals(key) && uses == null) {
+                    uses = scalar(entry.getValue());
+                } else if ("run".equals(key) && run == null) {
+                    run = scalar(entry.getValue());
+                } else if ("with".equals(key) && with.isEmpty()) {
+                    with = scalars(entry.getValue());
+                } else if ("env".equals(key) && env.isEmpty()) {
+                    env = scalars(entry.getValue());
+                } else if ("timeout-minutes".equals(key) && timeoutMinutes == null) {
+                    timeoutMinutes = scalar(entry.getValue());
+                }
+            }
+            return new Step(id, name, uses, run, with, env, timeoutMinutes);
+        }
+    }
+
+    @Value
+    public static class Container {
+        @Nullable
+        String image;
+
+        Map<String, String> credentials;
+
+        Map<String, String> env;
+    }
+
+    private static List<Trigger> triggers(Yaml.Block on) {
+        List<Trigger> triggers = new ArrayList<>();
+        if (on instanceof Yaml.Mapping) {
+            for (Yaml.Mapping.Entry event : ((Yaml.Mapping) on).getEntries()) {
+                Map<String, List<String>> filters = new LinkedHashMap<>();
+                if (event.getValue() instanceof Yaml.Mapping) {
+                    for (Yaml.Mapping.Entry filter : ((Yaml.Mapping) event.getValue()).getEntries()) {
+                        filters.putIfAbsent(filter.getKey().getValue(), scalarList(filter.getValue()));
+                    }
+                }
+                triggers.add(new Trigger(event.getKey().getValue(), unmodifiableMap(filters)));
+            }
+        } else {
+            for (String event : scalarList(on)) {
+                triggers.add(new Trigger(event, emptyMap()));
+            }
+        }
+        return unmodifiableList(triggers);
+    }
+
+    private static List<Job> jobs(Yaml.Block block) {
+        if (!(block instanceof Yaml.Mapping)) {
+            return emptyList();
+        }
+        List<Job> jobs = new ArrayList<>();
+        for (Yaml.Mapping.Entry job : ((Yaml.Mapping) block).getEntries()) {
+            if (!(job.getValue() instanceof Yaml.Mapping)) {
+                continue;
+            }
+            String name = null;
+            List<String> runsOn = emptyList();
+            Map<String, List<String>> matrix = emptyMap();
+            Permissions permissions = null;
+            Map<String, String> env = emptyMap();
+            String timeoutMinutes = null;
+            Container container = null;
+            Map<String, Container> services = emptyMap();
+            String uses = null;
+            String secrets = null;
+            List<Step> steps = emptyList();
+            Set<String> seen = new HashSet<>();
+            for (Yaml.Mapping.Entry entry : ((Yaml.Mapping) job.getValue()).getEntries()) {
+                String key = entry.getKey().getValue();
+                if (!seen.add(key)) {
+                    continue;
+                }
+                if ("name".equals(key)) {
+                    name = scalar(entry.getValue());
+                } else if ("runs-on".equals(key)) {
+                    runsOn = scalarList(entry.getValue());
+                } else if ("strategy".equals(key)) {
+                    matrix = matrix(entry.getValue());
+                } else if ("permissions".equals(key)) {
+                    permissions = Permissions.of(entry.getValue());
+                } else if ("env".equals(key)) {
+                    env = scalars(entry.getValue());
+                } else if ("timeout-minutes".equals(key)) {
+                    timeoutMinutes = scalar(entry.getValue());
+                } else if ("container".equals(key)) {
+                    container = container(entry.getValue());
+                } else if ("services".equals(key)) {
+                    services = services(entry.getValue());
+                } else if ("uses".equals(key)) {
+                    uses = scalar(entry.getValue());
+                } else if ("secrets".equals(key)) {
+                    secrets = scalar(entry.getValue());
+                } else if ("steps".equals(key)) {
+                    steps = steps(entry.getValue());
+                }
+            }
+            jobs.add(new Job(job.getKey().getValue(), name, runsOn, matrix, permissions, env, timeoutMinutes, container, services, uses, secrets, steps));
+        }
+        return unmodifiableList(jobs);
+    }
+
+    private static Map<String, List<String>> matrix(Yaml.Block strategy) {
+        if (!(strategy instanceof Yaml.Mapping)) {
+            return emptyMap();
+        }
+        for (Yaml.Mapping.Entry entry : ((Yaml.Mapping) strategy).getEntries()) {
+            if ("matrix".equals(entry.getKey().getValue()) && entry.getValue() instanceof Yaml.Mapping) {
+                Map<String, List<String>> matrix = new LinkedHashMap<>();
+                for (Yaml.Mapping.Entry dimension : ((Yaml.Mapping) entry.getValue()).getEntries()) {
+                    String key = dimension.getKey().getValue();
+                    if (!"include".equals(key) && !"exclude".equals(key)) {
+                        matrix.putIfAbsent(key, scalarList(dimension.getValue()));
+                    }
+                }
+                return unmodifiableMap(matrix);
+            }
+        }
+        return emptyMap();
+    }
+
+    private static List<Step> steps(Yaml.Block block) {
+        if (!(block instanceof Yaml.Sequence)) {
+            return emptyList();
+        }
+        List<Step> steps = new ArrayList<>();
+        for (Yaml.Sequence.Entry step : ((Yaml.Sequence) block).getEntries()) {
+            if (!(step.getBlock() instanceof Yaml.Mapping)) {
+                continue;
+            }
+            steps.add(Step.of((Yaml.Mapping) step.getBlock()));
+        }
+        return unmodifiableList(steps);
+    }
+
+    private static Map<String, Container> services(Yaml.Block block) {
+        if (!(block instanceof Yaml.Mapping)) {
+            return emptyMap();
+        }
+        Map<String, Container> services = new LinkedHashMap<>();
+        for (Yaml.Mapping.Entry service : ((Yaml.Mapping) block).getEntries()) {
+            Container container = container(service.getValue());
+            if (container != null) {
+                services.putIfAbsent(service.getKey().getValue(), container);
+            }
+        }
+        return unmodifiableMap(services);
+    }
+
+    private static @Nullable Container container(Yaml.Block block) {
+        if (block instanceof Yaml.Scalar) {
+            return new Container(((Yaml.Scalar) block).getValue(), emptyMap(), emptyMap());
+        }
+        if (!(block instanceof Yaml.Mapping)) {
+            return null;
+        }
+        String image = null;
+        Map<String, String> credentials = emptyMap();
+        Map<String, String> env = emptyMap();
+        for (Yaml.Mapping.Entry entry : ((Yaml.Mapping) block).getEntries()) {
+            String key = entry.getKey().getValue();
+            if ("image".equals(key) && image == null) {
+                image = scalar(entry.getValue());
+            } else if ("credentials".equals(key) && credentials.isEmpty()) {
+                credentials = scalars(entry.getValue());
+            } else if ("env".equals(key) && env.isEmpty()) {
+                env = scalars(entry.getValue());
+            }
+        }
+        return new Container(image, credentials, env);
+    }
+
+    private static @Nullable String scalar(Yaml.Block block) {
+        return block instanceof Yaml.Scalar ? ((Yaml.Scalar) block).getValue() : null;
+    }
+
+    /**
+     * @return a scalar as a list of one, or the scalars of a sequence.
+     */
+    private static List<String> scalarList(Yaml.Block block) {
+        if (block instanceof Yaml.Scalar) {
+            return singletonList(((Yaml.Scalar) block).getValue());
+        }
+        if (!(block instanceof Yaml.Sequence)) {
+            return emptyList();
+        }
+        List<String> values = new ArrayList<>();
+        for (Yaml.Sequence.Entry entry : ((Yaml.Sequence) block).getEntries()) {
+            if (entry.getBlock() instanceof Yaml.Scalar) {
+                values.add(((Yaml.Scalar) entry.getBlock()).getValue());
+            }
+        }
+        return unmodifiableList(values);
+    }
+
+    /**
+     * @return the entries of a mapping that have scalar values, in the order they are declared.
+     */
+    private static Map<String, String> scalars(Yaml.Block block) {
+        if (!(block instanceof Yaml.Mapping)) {
+            return emptyMap();
+        }
+        Map<String, String> values = new LinkedHashMap<>();
+        for (Yaml.Mapping.Entry entry : ((Yaml.Mapping) block).getEntries()) {
+            if (entry.getValue() instanceof Yaml.Scalar) {
+                values.putIfAbsent(entry.getKey().getValue(), ((Yaml.Scalar) entry.getValue()).getValue());
+            }
+        }
+        return unmodifiableMap(values);
+    }
+
+    private static final class Built {
+        final Yaml.Document document;
+        final Workflow workflow;
+
+        Built(Yaml.Document document, Workflow workflow) {
+            this.document = document;
+            this.workflow = workflow;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2026 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.github.security;
+
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.github.UsesReference;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The {@code trustedOwners} and {@code includedActions} options of {@link PinGitHubActionsToSha},
+ * compiled once per run into hashed sets so that matching an action costs at most three lookups
+ * no matter how many owners and patterns are configured.
+ * <p>
+ * Allow-list patterns are sorted by shape when compiled: {@code owner/*} into a set of owners,
+ * {@code owner/repo} into a set of repositories (matching any subpath of the repository), and
+ * {@code owner/repo/subpath} into a set of exact action paths.
+ */
+final class ActionAllowList {
+
+    private final Set<String> trustedOwners;
+    private final boolean allowListed;
+    private final Set<String> allowedOwners = new HashSet<>();
+    private final Set<String> allowedRepos = new HashSet<>();
+    private final Set<String> allowedPaths = new HashSet<>();
+
+    ActionAllowList(@Nullable List<String> trustedOwners, @Nullable List<String> includedActions) {
+        this.trustedOwners = new HashSet<>();
+        if (trustedOwners != null) {
+            for (String owner : trustedOwners) {
+                if (owner != null) {
+                    this.trustedOwners.add(owner);
+                }
+            }
+        }
+
+        // An allow-list of only blank patterns still means "pin nothing" rather than "pin everything"
+        this.allowListed = includedActions != null && !includedActions.isEmpty();
+        if (includedActions != null) {
+            for (String pattern : includedActions) {
+                if (pattern == null) {
+                    continue;
+                }
+                String p = pattern.trim();
+                if (p.isEmpty()) {
+                    continue;
+                }
+                if (p.endsWith("/*")) {
+                    allowedOwners.add(p.substring(0, p.length() - 2));
+                } else if (p.indexOf('/') != p.lastIndexOf('/')) {
+                    allowedPaths.add(p);
+                } else {
+                    allowedRepos.add(p);
+                }
+            }
+        }
+    }
+
+    boolean isTrustedOwner(String owner) {
+        return trustedOwners.contains(owner);
+    }
+
+    /**
+     * @return whether an {@code includedActions} allow-list was configured at all.
+     */
+    boolean isAllowListed() {
+        return allowListed;
+    }
+
+    /**
+     * @param uses a repository reference such as {@code owner/repo@v1} or {@code owner/repo/subpath@v1}
+     */
+    boolean allows(UsesReference uses) {
+        return allowedOwners.contains(uses.getOwner()) ||
+               allowedPaths.contains(uses.getActionPath()) ||
+               allowedRepos.contains(uses.getOwnerRepo());
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2026 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.github.security;
+
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.regex.Pattern;
+
+/**
+ * Commit SHAs resolved through the GitHub API, persisted across recipe runs. Each
+ * {@code owner/repo@ref} is stored in its own file named after a hash of the reference, and
+ * entries expire based on the file's modification time. Branch refs move, so they are kept for
+ * at most {@link #MAX_BRANCH_TTL} regardless of the configured time-to-live.
+ * <p>
+ * Several processes may share one directory: entries are written to a temporary file and moved
+ * into place atomically, so a reader sees either a complete entry or none at all.
+ */
+final class ActionRefDiskCache {
+
+    static final Duration DEFAULT_TTL = Duration.ofDays(30);
+    static final Duration MAX_BRANCH_TTL = Duration.ofHours(1);
+
+    private static final Pattern SHA_PATTERN = Pattern.compile("^[a-f0-9]{40}$");
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final Path directory;
+    private final Duration tagTtl;
+    private final Duration branchTtl;
+
+    ActionRefDiskCache(Path directory, Duration ttl) {
+        this.directory = directory;
+        this.tagTtl = ttl;
+        this.branchTtl = ttl.compareTo(MAX_BRANCH_TTL) < 0 ? ttl : MAX_BRANCH_TTL;
+    }
+
+    /**
+     * @return the cached commit SHA, or {@code null} when there is no entry or it has expired.
+     */
+    @Nullable String get(String ownerRepo, String ref, boolean tag) {
+        Path entry = entryPath(ownerRepo, ref);
+        try {
+            long age = System.currentTimeMillis() - Files.getLastModifiedTime(entry).toMillis();
+            if (age > (tag ? tagTtl : branchTtl).toMillis()) {
+                return null;
+            }
+            String sha = new String(Files.readAllBytes(entry), StandardCharsets.UTF_8).trim();
+            return SHA_PATTERN.matcher(sha).matches() ? sha : null;
+        } catch (IOException e) {
+            // Missing, or removed by another process since we looked
+            return null;
+        }
+    }
+
+    /**
+     * @return the cached commit SHA whether or not it has expired, or {@code null} when there is no entry.
+     */
+    @Nullable String peek(String ownerRepo, String ref) {
+        try {
+            String sha = new String(Files.readAllBytes(entryPath(ownerRepo, ref)), StandardCharsets.UTF_8).trim();
+            return SHA_PATTERN.matcher(sha).matches() ? sha : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    void put(String ownerRepo, String ref, String sha) {
+        Path entry = entryPath(ownerRepo, ref);
+        Path temp = null;
+        try {
+            Files.createDirectories(directory);
+            temp = Files.createTempFile(directory, entry.getFileName().toString(), ".tmp");
+            Files.write(temp, sha.getBytes(StandardCharsets.UTF_8));
+            try {
+                Files.move(temp, entry, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, entry, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            // The cache is an optimization only, so a failed write just means we resolve again next run
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+
+    private Path entryPath(String ownerRepo, String ref) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest((ownerRepo + '@' + ref).getBytes(StandardCharsets.UTF_8));
+            char[] name = new char[digest.length * 2];
+            for (int i = 0; i < digest.length; i++) {
+                name[i * 2] = HEX[(digest[i] >> 4) & 0xf];
+                name[i * 2 + 1] = HEX[digest[i] & 0xf];
+            }
+            return directory.resolve(new String(name));
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+}
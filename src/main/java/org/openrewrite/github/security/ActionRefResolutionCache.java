@@ -0,0 +1,106 @@
+/*
+ * Copyright 2026 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.github.security;
+
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.ExecutionContext;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Supplier;
+
+/**
+ * Commit SHAs resolved for {@code owner/repo@ref} references during a recipe run, shared by every
+ * source file through the {@link ExecutionContext}. Refs that could not be resolved are remembered
+ * as well, so each distinct reference is looked up at most once per run.
+ */
+final class ActionRefResolutionCache {
+
+    private static final String CTX_KEY = ActionRefResolutionCache.class.getName();
+
+    /**
+     * One lookup per reference, completed with {@code null} when it failed. The lookup itself runs outside
+     * the map, so a slow request only holds up callers waiting on that same reference.
+     */
+    private final ConcurrentMap<String, CompletableFuture<@Nullable String>> resolutions = new ConcurrentHashMap<>();
+
+    /**
+     * The tags each resolved commit SHA was reached from, keyed by {@code owner/repo@sha}.
+     */
+    private final ConcurrentMap<String, Set<String>> refsBySha = new ConcurrentHashMap<>();
+
+    static ActionRefResolutionCache get(ExecutionContext ctx) {
+        return ctx.computeMessageIfAbsent(CTX_KEY, k -> new ActionRefResolutionCache());
+    }
+
+    /**
+     * @param ownerRepo the repository hosting the action, without any subpath
+     * @param ref       the tag or branch to resolve
+     * @param resolver  performs the lookup when this reference has not been resolved yet in this run. It runs
+     *                  at most once per reference; concurrent callers for the same reference wait for its result.
+     * @return the resolved commit SHA, or {@code null} when this or an earlier lookup failed.
+     */
+    @Nullable String resolve(String ownerRepo, String ref, Supplier<@Nullable String> resolver) {
+        String key = ownerRepo + '@' + ref;
+        CompletableFuture<@Nullable String> lookup = resolutions.get(key);
+        if (lookup == null) {
+            CompletableFuture<@Nullable String> started = new CompletableFuture<>();
+            lookup = resolutions.putIfAbsent(key, started);
+            if (lookup == null) {
+                String sha = null;
+                try {
+                    sha = resolver.get();
+                    if (sha != null && PinGitHubActionsToSha.isTagRef(ref)) {
+                        refsBySha.computeIfAbsent(ownerRepo + '@' + sha, s -> new ConcurrentSkipListSet<>()).add(ref);
+                    }
+                } finally {
+                    started.complete(sha);
+                }
+                return sha;
+            }
+        }
+        return lookup.join();
+    }
+
+    /**
+     * @return the tags of {@code ownerRepo} resolved to {@code sha} so far in this run, in ascending order.
+     */
+    Set<String> refsPointingAt(String ownerRepo, String sha) {
+        Set<String> refs = refsBySha.get(ownerRepo + '@' + sha);
+        return refs == null ? Collections.emptySet() : refs;
+    }
+
+    /**
+     * @return the commit SHA resolved for this reference so far in this run, or {@code null} when it
+     * has not been looked up or could not be resolved.
+     */
+    @Nullable String get(String ownerRepo, String ref) {
+        CompletableFuture<@Nullable String> lookup = resolutions.get(ownerRepo + '@' + ref);
+        return lookup == null ? null : lookup.getNow(null);
+    }
+
+    boolean contains(String ownerRepo, String ref) {
+        return resolutions.containsKey(ownerRepo + '@' + ref);
+    }
+
+    int size() {
+        return resolutions.size();
+    }
+}
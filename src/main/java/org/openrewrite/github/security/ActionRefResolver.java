@@ -0,0 +1,38 @@
+/*
+ * Copyright 2026 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.github.security;
+
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.ExecutionContext;
+
+/**
+ * Resolves action references to commit SHAs for {@link PinGitHubActionsToSha} without going
+ * through the GitHub API. Besides the git mirror resolver configured with the recipe's
+ * {@code gitMirrorDirectory} option, implementations registered in
+ * {@code META-INF/services/org.openrewrite.github.security.ActionRefResolver} are discovered with
+ * {@link java.util.ServiceLoader}. Resolvers are consulted in that order, after the built-in known
+ * SHAs and before the GitHub API.
+ */
+public interface ActionRefResolver {
+
+    /**
+     * @param ownerRepo the repository hosting the action, without any subpath, e.g. {@code codecov/codecov-action}
+     * @param ref       the tag or branch to resolve, e.g. {@code v4.6.0} or {@code main}
+     * @param ctx       the execution context of the recipe run, for any state worth keeping for the run
+     * @return the commit SHA the reference points at, or {@code null} when this resolver does not know it.
+     */
+    @Nullable String resolve(String ownerRepo, String ref, ExecutionContext ctx);
+}
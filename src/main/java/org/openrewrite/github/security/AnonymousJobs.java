@@ -17,8 +17,12 @@ package org.openrewrite.github.security;
 
 import lombok.EqualsAndHashCode;
 import lombok.Value;
-import org.openrewrite.*;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.Preconditions;
+import org.openrewrite.Recipe;
+import org.openrewrite.TreeVisitor;
 import org.openrewrite.github.IsGitHubActionsWorkflow;
+import org.openrewrite.github.Workflow;
 import org.openrewrite.marker.SearchResult;
 import org.openrewrite.yaml.YamlIsoVisitor;
 import org.openrewrite.yaml.tree.Yaml;
@@ -47,69 +51,14 @@ public class AnonymousJobs extends Recipe {
         public Yaml.Mapping.Entry visitMappingEntry(Yaml.Mapping.Entry entry, ExecutionContext ctx) {
             Yaml.Mapping.Entry mappingEntry = super.visitMappingEntry(entry, ctx);
 
-            // Check if this entry is inside a "jobs" mapping
-            if (isInsideJobsMapping() && mappingEntry.getValue() instanceof Yaml.Mapping) {
-                Yaml.Mapping jobMapping = (Yaml.Mapping) mappingEntry.getValue();
-
-                boolean hasName = jobMapping.getEntries().stream()
-                        .anyMatch(jobProp -> {
-                            if (jobProp.getKey() instanceof Yaml.Scalar) {
-                                Yaml.Scalar scalar = (Yaml.Scalar) jobProp.getKey();
-                                return "name".equals(scalar.getValue());
-                            }
-                            return false;
-                        });
-
-                // Skip reusable workflow calls (jobs that have "uses" instead of typical job properties)
-                boolean isReusableWorkflowCall = jobMapping.getEntries().stream()
-                        .anyMatch(jobProp -> {
-                            if (jobProp.getKey() instanceof Yaml.Scalar) {
-                                Yaml.Scalar scalar = (Yaml.Scalar) jobProp.getKey();
-                                return "uses".equals(scalar.getValue());
-                            }
-                            return false;
-                        });
-
-                if (!hasName && !isReusableWorkflowCall) {
-                    return SearchResult.found(mappingEntry,
-                            "Job has no name. Add a descriptive name to make it easier to identify in workflow runs.");
-                }
+            Workflow.Job job = Workflow.of(getCursor(), ctx).jobDefinedAt(getCursor());
+            // Skip reusable workflow calls (jobs that have "uses" instead of typical job properties)
+            if (job != null && job.getName() == null && job.getUses() == null) {
+                return SearchResult.found(mappingEntry,
+                        "Job has no name. Add a descriptive name to make it easier to identify in workflow runs.");
             }
 
             return mappingEntry;
         }
-
-        private boolean isInsideJobsMapping() {
-            // Check if this entry is directly under a "jobs" mapping
-            // We want to avoid matching the "jobs" entry itself, only its children
-            Cursor current = getCursor();
-            Cursor parent = current.getParent();
-
-            if (parent == null) {
-                return false;
-            }
-
-            Object parentValue = parent.getValue();
-            if (!(parentValue instanceof Yaml.Mapping)) {
-                return false;
-            }
-
-            // Now check if this mapping is the value of a "jobs" entry
-            Cursor grandParent = parent.getParent();
-            if (grandParent == null) {
-                return false;
-            }
-
-            Object grandParentValue = grandParent.getValue();
-            if (grandParentValue instanceof Yaml.Mapping.Entry) {
-                Yaml.Mapping.Entry grandParentEntry = (Yaml.Mapping.Entry) grandParentValue;
-                if (grandParentEntry.getKey() instanceof Yaml.Scalar) {
-                    Yaml.Scalar key = (Yaml.Scalar) grandParentEntry.getKey();
-                    return "jobs".equals(key.getValue());
-                }
-            }
-
-            return false;
-        }
     }
 }
@@ -17,18 +17,17 @@ package org.openrewrite.github.security;
 
 import lombok.EqualsAndHashCode;
 import lombok.Value;
-import org.jspecify.annotations.Nullable;
 import org.openrewrite.*;
 import org.openrewrite.github.IsGitHubActionsWorkflow;
+import org.openrewrite.github.Workflow;
 import org.openrewrite.marker.SearchResult;
-import org.openrewrite.yaml.JsonPathMatcher;
-import org.openrewrite.yaml.YamlIsoVisitor;
 import org.openrewrite.yaml.tree.Yaml;
 
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
-import java.util.concurrent.atomic.AtomicBoolean;
+
+import static java.util.Objects.requireNonNull;
 
 @Value
 @EqualsAndHashCode(callSuper = false)
@@ -69,40 +68,30 @@ public class ArtifactSecurity extends Recipe {
     public TreeVisitor<?, ExecutionContext> getVisitor() {
         return Preconditions.check(
                 new IsGitHubActionsWorkflow(),
-                new ArtifactSecurityVisitor()
+                securityCheck()
         );
     }
 
-    private static class ArtifactSecurityVisitor extends YamlIsoVisitor<ExecutionContext> {
-
-        private static final JsonPathMatcher STEP_USES_MATCHER = new JsonPathMatcher("$..steps[*].uses");
-
-        @Override
-        public Yaml.Document visitDocument(Yaml.Document document, ExecutionContext ctx) {
-            // Analyze the entire workflow for credential persistence patterns
-            Yaml.Document d = super.visitDocument(document, ctx);
+    SecurityCheck securityCheck() {
+        return new ArtifactSecurityVisitor();
+    }
 
-            // Check if this workflow has both vulnerable checkouts and uploads
-            if (d.getBlock() instanceof Yaml.Mapping) {
-                checkWorkflowForCredentialPersistence((Yaml.Mapping) d.getBlock());
-            }
+    private static class ArtifactSecurityVisitor extends SecurityCheck {
 
-            return d;
+        ArtifactSecurityVisitor() {
+            super("uses");
         }
 
         @Override
-        public Yaml.Mapping.Entry visitMappingEntry(Yaml.Mapping.Entry entry, ExecutionContext ctx) {
-            Yaml.Mapping.Entry mappingEntry = super.visitMappingEntry(entry, ctx);
-
-            if (STEP_USES_MATCHER.matches(getCursor())) {
-                return checkUsesEntry(mappingEntry);
+        Yaml.Mapping.Entry checkEntry(Yaml.Mapping.Entry mappingEntry, ExecutionContext ctx) {
+            if (getSteps().isStepKey(getCursor())) {
+                return checkUsesEntry(mappingEntry, ctx);
             }
 
             return mappingEntry;
         }
 
-
-        private Yaml.Mapping.Entry checkUsesEntry(Yaml.Mapping.Entry entry) {
+        private Yaml.Mapping.Entry checkUsesEntry(Yaml.Mapping.Entry entry, ExecutionContext ctx) {
             String usesValue = YamlHelper.getScalarValue(entry.getValue());
             if (usesValue == null) {
                 return entry;
@@ -110,7 +99,7 @@ public class ArtifactSecurity extends Recipe {
 
             // Check for checkout actions
             if (usesValue.startsWith("actions/checkout")) {
-                return checkCheckoutAction(entry);
+                return checkCheckoutAction(entry, ctx);
             }
 
             // Check for upload-artifact actions
@@ -121,24 +110,19 @@ public class ArtifactSecurity extends Recipe {
             return entry;
         }
 
-        private Yaml.Mapping.Entry checkCheckoutAction(Yaml.Mapping.Entry entry) {
-            // Look for 'with' section in the parent step
-            Yaml.Mapping stepMapping = findParentStepMapping();
-            if (stepMapping == null) {
-                return entry;
-            }
-
-            String persistCredentials = YamlHelper.findNestedScalarValue(stepMapping, "with", "persist-credentials");
+        private Yaml.Mapping.Entry checkCheckoutAction(Yaml.Mapping.Entry entry, ExecutionContext ctx) {
+            // Look for 'with' section in the step
+            String persistCredentials = requireNonNull(getSteps().current()).getWith().get("persist-credentials");
 
             if (persistCredentials == null) {
                 // No 'with' section or no persist-credentials means default behavior (persist-credentials: true)
-                if (workflowHasArtifactUpload()) {
+                if (workflowHasArtifactUpload(ctx)) {
                     return SearchResult.found(entry,
                             "Checkout step does not disable credential persistence, which may expose credentials in artifacts.");
                 }
             } else if ("true".equals(persistCredentials)) {
                 // Check persist-credentials setting
-                if (workflowHasArtifactUpload()) {
+                if (workflowHasArtifactUpload(ctx)) {
                     return SearchResult.found(entry,
                             "Checkout step explicitly enables credential persistence, which may expose credentials in artifacts.");
                 }
@@ -149,12 +133,7 @@ public class ArtifactSecurity extends Recipe {
 
         private Yaml.Mapping.Entry checkUploadArtifactAction(Yaml.Mapping.Entry entry) {
             // Look for 'with' section to check the path
-            Yaml.Mapping stepMapping = findParentStepMapping();
-            if (stepMapping == null) {
-                return entry;
-            }
-
-            String pathValue = YamlHelper.findNestedScalarValue(stepMapping, "with", "path");
+            String pathValue = requireNonNull(getSteps().current()).getWith().get("path");
             if (pathValue != null && hasDangerousArtifactPaths(pathValue)) {
                 return SearchResult.found(entry,
                         "Uploading potentially sensitive paths that may contain credentials or configuration files.");
@@ -163,54 +142,18 @@ public class ArtifactSecurity extends Recipe {
             return entry;
         }
 
-        private void checkWorkflowForCredentialPersistence(Yaml.Mapping workflowMapping) {
-            // Implement workflow-level validation using document visitor pattern
-            new YamlIsoVisitor<Void>() {
-                @Override
-                public Yaml.Mapping.Entry visitMappingEntry(Yaml.Mapping.Entry entry, Void ctx) {
-                    if ("uses".equals(entry.getKey().getValue()) && entry.getValue() instanceof Yaml.Scalar) {
-                        String usesValue = ((Yaml.Scalar) entry.getValue()).getValue();
-                        if (usesValue.startsWith("actions/checkout") || usesValue.startsWith("actions/upload-artifact")) {
-                            // Additional workflow-level analysis can be added here
-                        }
+        private boolean workflowHasArtifactUpload(ExecutionContext ctx) {
+            for (Workflow.Job job : Workflow.of(getCursor(), ctx).getJobs()) {
+                for (Workflow.Step step : job.getSteps()) {
+                    String uses = step.getUses();
+                    if (uses != null && uses.startsWith("actions/upload-artifact")) {
+                        return true;
                     }
-                    return super.visitMappingEntry(entry, ctx);
-                }
-            }.visit(workflowMapping, null);
-        }
-
-        private boolean workflowHasArtifactUpload() {
-            // Walk up to find the document and check if it has upload-artifact actions
-            Cursor current = getCursor();
-            while (current != null) {
-                Object value = current.getValue();
-                if (value instanceof Yaml.Document) {
-                    Yaml.Document doc = (Yaml.Document) value;
-                    return containsUploadArtifact(doc);
                 }
-                current = current.getParent();
             }
             return false;
         }
 
-        private boolean containsUploadArtifact(Yaml.Document document) {
-            AtomicBoolean found = new AtomicBoolean(false);
-            new YamlIsoVisitor<Void>() {
-                @Override
-                public Yaml.Mapping.Entry visitMappingEntry(Yaml.Mapping.Entry entry, Void ctx) {
-                    if ("uses".equals(entry.getKey().getValue()) &&
-                        entry.getValue() instanceof Yaml.Scalar) {
-                        String usesValue = ((Yaml.Scalar) entry.getValue()).getValue();
-                        if (usesValue.startsWith("actions/upload-artifact")) {
-                            found.set(true);
-                        }
-                    }
-                    return super.visitMappingEntry(entry, ctx);
-                }
-            }.visit(document, null);
-            return found.get();
-        }
-
         private boolean hasDangerousArtifactPaths(String pathValue) {
             // Check for exact matches
             for (String dangerousPath : DANGEROUS_PATHS) {
@@ -230,25 +173,5 @@ public class ArtifactSecurity extends Recipe {
             // Check for current directory or home directory uploads
             return ".".equals(pathValue.trim()) || "~".equals(pathValue.trim()) || "/".equals(pathValue.trim());
         }
-
-        private Yaml.@Nullable Mapping findParentStepMapping() {
-            // Walk up cursor to find the step mapping that contains this 'uses' entry
-            Cursor current = getCursor();
-            while (current != null) {
-                Object value = current.getValue();
-                if (value instanceof Yaml.Mapping) {
-                    Yaml.Mapping mapping = (Yaml.Mapping) value;
-                    // Check if this mapping has 'uses'
-                    boolean hasUses = mapping.getEntries().stream()
-                            .anyMatch(entry -> "uses".equals(entry.getKey().getValue()));
-
-                    if (hasUses) {
-                        return mapping;
-                    }
-                }
-                current = current.getParent();
-            }
-            return null;
-        }
     }
 }
@@ -17,19 +17,21 @@ package org.openrewrite.github.security;
 
 import lombok.EqualsAndHashCode;
 import lombok.Value;
+import org.jspecify.annotations.Nullable;
 import org.openrewrite.ExecutionContext;
 import org.openrewrite.Preconditions;
 import org.openrewrite.Recipe;
 import org.openrewrite.TreeVisitor;
+import org.openrewrite.github.Expression;
+import org.openrewrite.github.ExpressionTemplate;
 import org.openrewrite.github.IsGitHubActionsWorkflow;
 import org.openrewrite.marker.SearchResult;
-import org.openrewrite.yaml.YamlIsoVisitor;
 import org.openrewrite.yaml.tree.Yaml;
 
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
-import java.util.regex.Pattern;
 
 @Value
 @EqualsAndHashCode(callSuper = false)
@@ -43,25 +45,18 @@ public class BotConditions extends Recipe {
             "29139614"  // renovate[bot]
     ));
 
-    // Patterns to detect spoofable actor name contexts
-    private static final Pattern[] SPOOFABLE_ACTOR_NAME_PATTERNS = {
-            Pattern.compile("github\\.actor\\s*==\\s*['\"][^'\"]*\\[bot\\]['\"]"),
-            Pattern.compile("github\\.triggering_actor\\s*==\\s*['\"][^'\"]*\\[bot\\]['\"]"),
-            Pattern.compile("github\\.event\\.pull_request\\.sender\\.login\\s*==\\s*['\"][^'\"]*\\[bot\\]['\"]"),
-            Pattern.compile("github\\.actor\\s*==\\s*['\"]dependabot\\[bot\\]['\"]"),
-            Pattern.compile("github\\.actor\\s*==\\s*['\"]renovate\\[bot\\]['\"]"),
-            Pattern.compile("github\\.actor\\s*==\\s*['\"][^'\"]*bot[^'\"]*['\"]")
-    };
-
-    // Pattern to detect contains() checks which are unreliable
-    private static final Pattern CONTAINS_BOT_PATTERN = Pattern.compile(
-            "contains\\s*\\(\\s*github\\.[^,]+,\\s*['\"]bot['\"]\\s*\\)"
-    );
-
-    // Pattern to detect actor_id string comparisons
-    private static final Pattern ACTOR_ID_STRING_PATTERN = Pattern.compile(
-            "github\\.(actor_id|event\\.pull_request\\.sender\\.id)\\s*==\\s*['\"]\\d+['\"]"
-    );
+    // Contexts holding an actor's login, which anyone can register with a bot-like name
+    private static final Set<String> ACTOR_NAME_CONTEXTS = new HashSet<>(Arrays.asList(
+            "github.actor",
+            "github.triggering_actor",
+            "github.event.pull_request.sender.login"
+    ));
+
+    // Contexts holding an actor's numeric ID
+    private static final Set<String> ACTOR_ID_CONTEXTS = new HashSet<>(Arrays.asList(
+            "github.actor_id",
+            "github.event.pull_request.sender.id"
+    ));
 
     String displayName = "Find spoofable bot actor checks";
 
@@ -74,16 +69,22 @@ public class BotConditions extends Recipe {
     public TreeVisitor<?, ExecutionContext> getVisitor() {
         return Preconditions.check(
                 new IsGitHubActionsWorkflow(),
-                new BotConditionsVisitor()
+                securityCheck()
         );
     }
 
-    private static class BotConditionsVisitor extends YamlIsoVisitor<ExecutionContext> {
+    SecurityCheck securityCheck() {
+        return new BotConditionsVisitor();
+    }
 
-        @Override
-        public Yaml.Mapping.Entry visitMappingEntry(Yaml.Mapping.Entry entry, ExecutionContext ctx) {
-            Yaml.Mapping.Entry mappingEntry = super.visitMappingEntry(entry, ctx);
+    private static class BotConditionsVisitor extends SecurityCheck {
+
+        BotConditionsVisitor() {
+            super("if");
+        }
 
+        @Override
+        Yaml.Mapping.Entry checkEntry(Yaml.Mapping.Entry mappingEntry, ExecutionContext ctx) {
             if (isIfEntry(mappingEntry)) {
                 return checkIfCondition(mappingEntry);
             }
@@ -104,34 +105,98 @@ public class BotConditions extends Recipe {
                 return entry;
             }
 
-            String condition = ((Yaml.Scalar) entry.getValue()).getValue();
+            List<Expression> conditions = ExpressionTemplate.parseCondition(((Yaml.Scalar) entry.getValue()).getValue()).getExpressions();
 
-            // Check for spoofable actor name patterns
-            for (Pattern pattern : SPOOFABLE_ACTOR_NAME_PATTERNS) {
-                if (pattern.matcher(condition).find()) {
+            // Check for spoofable actor name comparisons
+            for (Expression condition : conditions) {
+                if (condition.anyMatch(this::isSpoofableActorNameCheck)) {
                     return SearchResult.found(entry,
                             "Bot actor name check is spoofable. Consider using actor_id instead for more secure bot validation.");
                 }
             }
 
             // Check for unreliable contains() checks
-            if (CONTAINS_BOT_PATTERN.matcher(condition).find()) {
-                return SearchResult.found(entry,
-                        "Bot actor check using contains() is unreliable and spoofable. Use exact actor_id comparison instead.");
+            for (Expression condition : conditions) {
+                if (condition.anyMatch(this::isContainsBotCheck)) {
+                    return SearchResult.found(entry,
+                            "Bot actor check using contains() is unreliable and spoofable. Use exact actor_id comparison instead.");
+                }
             }
 
-            // Check for actor_id string comparisons
-            if (ACTOR_ID_STRING_PATTERN.matcher(condition).find()) {
-                // Check if it's a known bot actor ID
-                for (String botId : KNOWN_BOT_ACTOR_IDS) {
-                    if (condition.contains("'" + botId + "'") || condition.contains("\"" + botId + "\"")) {
-                        return SearchResult.found(entry,
-                                "Using string comparison for actor_id. Consider using numeric comparison for better reliability.");
-                    }
+            // Check for actor_id string comparisons with a known bot actor ID
+            for (Expression condition : conditions) {
+                if (condition.anyMatch(this::isActorIdStringCheck)) {
+                    return SearchResult.found(entry,
+                            "Using string comparison for actor_id. Consider using numeric comparison for better reliability.");
                 }
             }
 
             return entry;
         }
+
+        /**
+         * E.g. {@code github.actor == 'dependabot[bot]'}, comparing a login with a bot-like name.
+         */
+        private boolean isSpoofableActorNameCheck(Expression expression) {
+            StringComparison comparison = StringComparison.of(expression);
+            if (comparison == null || !ACTOR_NAME_CONTEXTS.contains(comparison.getContext())) {
+                return false;
+            }
+            String login = comparison.getValue();
+            return login.endsWith("[bot]") || ("github.actor".equals(comparison.getContext()) && login.contains("bot"));
+        }
+
+        /**
+         * E.g. {@code contains(github.actor, 'bot')}.
+         */
+        private boolean isContainsBotCheck(Expression expression) {
+            if (!(expression instanceof Expression.Call) || !((Expression.Call) expression).is("contains")) {
+                return false;
+            }
+            List<Expression> arguments = ((Expression.Call) expression).getArguments();
+            return arguments.size() == 2 &&
+                   arguments.get(0) instanceof Expression.Context &&
+                   "github".equalsIgnoreCase(((Expression.Context) arguments.get(0)).getSegments().get(0)) &&
+                   arguments.get(1) instanceof Expression.Literal &&
+                   "bot".equalsIgnoreCase(String.valueOf(((Expression.Literal) arguments.get(1)).getValue()));
+        }
+
+        /**
+         * E.g. {@code github.actor_id == '49699333'}, which compares as a string rather than a number.
+         */
+        private boolean isActorIdStringCheck(Expression expression) {
+            StringComparison comparison = StringComparison.of(expression);
+            return comparison != null && ACTOR_ID_CONTEXTS.contains(comparison.getContext()) &&
+                   KNOWN_BOT_ACTOR_IDS.contains(comparison.getValue());
+        }
+    }
+
+    /**
+     * A {@code ==} comparison between a context and a string, written either way around, both in lower
+     * case since comparisons of strings are not case-sensitive.
+     */
+    @Value
+    private static class StringComparison {
+        String context;
+        String value;
+
+        static @Nullable StringComparison of(Expression expression) {
+            if (!(expression instanceof Expression.Binary) || !"==".equals(((Expression.Binary) expression).getOperator())) {
+                return null;
+            }
+            Expression left = ((Expression.Binary) expression).getLeft();
+            Expression right = ((Expression.Binary) expression).getRight();
+            if (right instanceof Expression.Context) {
+                Expression swap = left;
+                left = right;
+                right = swap;
+            }
+            if (!(left instanceof Expression.Context) || !(right instanceof Expression.Literal) ||
+                !((Expression.Literal) right).isString()) {
+                return null;
+            }
+            return new StringComparison(((Expression.Context) left).getPath().toLowerCase(),
+                    ((String) ((Expression.Literal) right).getValue()).toLowerCase());
+        }
     }
 }
@@ -22,13 +22,11 @@ import org.openrewrite.Preconditions;
 import org.openrewrite.Recipe;
 import org.openrewrite.TreeVisitor;
 import org.openrewrite.github.IsGitHubActionsWorkflow;
+import org.openrewrite.github.Workflow;
 import org.openrewrite.marker.SearchResult;
-import org.openrewrite.yaml.YamlIsoVisitor;
 import org.openrewrite.yaml.tree.Yaml;
 
-import java.util.Arrays;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.*;
 import java.util.regex.Pattern;
 
 @Value
@@ -83,149 +81,61 @@ public class CachePoisoning extends Recipe {
 
     @Override
     public TreeVisitor<?, ExecutionContext> getVisitor() {
-        return Preconditions.check(new IsGitHubActionsWorkflow(), new YamlIsoVisitor<ExecutionContext>() {
-            private boolean isPublishingWorkflow = false;
-            private boolean hasPublisherAction = false;
+        return Preconditions.check(new IsGitHubActionsWorkflow(), securityCheck());
+    }
 
+    SecurityCheck securityCheck() {
+        return new SecurityCheck("uses") {
             @Override
-            public Yaml.Document visitDocument(Yaml.Document document, ExecutionContext ctx) {
-                // Reset state for each document
-                isPublishingWorkflow = false;
-                hasPublisherAction = false;
-
-                // First pass: determine if this is a publishing workflow
-                analyzeWorkflow(document);
-
-                // Second pass: if it's a publishing workflow, look for cache usage
-                if (isPublishingWorkflow || hasPublisherAction) {
-                    return super.visitDocument(document, ctx);
-                }
-
-                return document;
-            }
-
-            private void analyzeWorkflow(Yaml.Document document) {
-                if (document.getBlock() instanceof Yaml.Mapping) {
-                    Yaml.Mapping workflowMapping = (Yaml.Mapping) document.getBlock();
-
-                    for (Yaml.Mapping.Entry entry : workflowMapping.getEntries()) {
-                        if (entry.getKey() instanceof Yaml.Scalar) {
-                            String key = ((Yaml.Scalar) entry.getKey()).getValue();
-
-                            if ("on".equals(key)) {
-                                isPublishingWorkflow = isPublishingTrigger(entry.getValue());
-                            } else if ("jobs".equals(key)) {
-                                hasPublisherAction = hasPublisherActions(entry.getValue());
-                            }
-                        }
-                    }
-                }
+            boolean startDocument(Yaml.Document document, ExecutionContext ctx) {
+                // Only a publishing workflow is worth looking for cache usage in
+                Workflow workflow = Workflow.of(document, ctx);
+                return isPublishingTrigger(workflow) || hasPublisherActions(workflow);
             }
 
-            private boolean isPublishingTrigger(Yaml.Block onValue) {
-                String scalarTrigger = YamlHelper.getScalarValue(onValue);
-                if (scalarTrigger != null) {
-                    return "release".equals(scalarTrigger);
-                }
-                if (onValue instanceof Yaml.Sequence) {
-                    Yaml.Sequence sequence = (Yaml.Sequence) onValue;
-                    for (Yaml.Sequence.Entry seqEntry : sequence.getEntries()) {
-                        String trigger = YamlHelper.getScalarValue(seqEntry.getBlock());
-                        if ("release".equals(trigger)) {
-                            return true;
-                        }
+            private boolean isPublishingTrigger(Workflow workflow) {
+                for (Workflow.Trigger trigger : workflow.getTriggers()) {
+                    if ("release".equals(trigger.getEvent())) {
+                        return true;
                     }
-                } else if (onValue instanceof Yaml.Mapping) {
-                    Yaml.Mapping mapping = (Yaml.Mapping) onValue;
-                    for (Yaml.Mapping.Entry triggerEntry : mapping.getEntries()) {
-                        String trigger = triggerEntry.getKey().getValue();
-                        if ("release".equals(trigger)) {
+                    if ("push".equals(trigger.getEvent())) {
+                        // Check for release branches or tags
+                        if (isReleasePush(trigger)) {
                             return true;
                         }
-                        if ("push".equals(trigger)) {
-                            // Check for release branches or tags
-                            if (isReleasePush(triggerEntry.getValue())) {
-                                return true;
-                            }
-                        }
                     }
                 }
                 return false;
             }
 
-            private boolean isReleasePush(Yaml.Block pushConfig) {
-                if (pushConfig instanceof Yaml.Mapping) {
-                    Yaml.Mapping mapping = (Yaml.Mapping) pushConfig;
-                    for (Yaml.Mapping.Entry entry : mapping.getEntries()) {
-                        if (entry.getKey() instanceof Yaml.Scalar) {
-                            String key = ((Yaml.Scalar) entry.getKey()).getValue();
-                            if ("tags".equals(key)) {
-                                return true; // Pushing tags suggests release
-                            }
-                            if ("branches".equals(key)) {
-                                // Check if any branch name suggests release
-                                return hasReleaseBranches(entry.getValue());
-                            }
-                        }
-                    }
-                }
-                return false;
-            }
-
-            private boolean hasReleaseBranches(Yaml.Block branchesValue) {
-                if (branchesValue instanceof Yaml.Sequence) {
-                    Yaml.Sequence sequence = (Yaml.Sequence) branchesValue;
-                    for (Yaml.Sequence.Entry entry : sequence.getEntries()) {
-                        String branch = YamlHelper.getScalarValue(entry.getBlock());
-                        if (branch != null && RELEASE_BRANCH_PATTERN.matcher(branch).matches()) {
-                            return true;
-                        }
+            private boolean isReleasePush(Workflow.Trigger push) {
+                for (Map.Entry<String, List<String>> filter : push.getFilters().entrySet()) {
+                    if ("tags".equals(filter.getKey())) {
+                        return true; // Pushing tags suggests release
                     }
-                }
-                return false;
-            }
-
-            private boolean hasPublisherActions(Yaml.Block jobsValue) {
-                if (jobsValue instanceof Yaml.Mapping) {
-                    Yaml.Mapping jobsMapping = (Yaml.Mapping) jobsValue;
-                    for (Yaml.Mapping.Entry jobEntry : jobsMapping.getEntries()) {
-                        if (jobEntry.getValue() instanceof Yaml.Mapping) {
-                            Yaml.Mapping jobMapping = (Yaml.Mapping) jobEntry.getValue();
-                            if (jobHasPublisherAction(jobMapping)) {
-                                return true;
-                            }
-                        }
+                    if ("branches".equals(filter.getKey())) {
+                        // Check if any branch name suggests release
+                        return hasReleaseBranches(filter.getValue());
                     }
                 }
                 return false;
             }
 
-            private boolean jobHasPublisherAction(Yaml.Mapping jobMapping) {
-                for (Yaml.Mapping.Entry entry : jobMapping.getEntries()) {
-                    if (entry.getKey() instanceof Yaml.Scalar && "steps".equals(((Yaml.Scalar) entry.getKey()).getValue())) {
-                        if (entry.getValue() instanceof Yaml.Sequence) {
-                            Yaml.Sequence stepsSequence = (Yaml.Sequence) entry.getValue();
-                            for (Yaml.Sequence.Entry stepEntry : stepsSequence.getEntries()) {
-                                if (stepEntry.getBlock() instanceof Yaml.Mapping) {
-                                    Yaml.Mapping stepMapping = (Yaml.Mapping) stepEntry.getBlock();
-                                    if (stepUsesPublisherAction(stepMapping)) {
-                                        return true;
-                                    }
-                                }
-                            }
-                        }
+            private boolean hasReleaseBranches(List<String> branches) {
+                for (String branch : branches) {
+                    if (RELEASE_BRANCH_PATTERN.matcher(branch).matches()) {
+                        return true;
                     }
                 }
                 return false;
             }
 
-            private boolean stepUsesPublisherAction(Yaml.Mapping stepMapping) {
-                for (Yaml.Mapping.Entry entry : stepMapping.getEntries()) {
-                    if ("uses".equals(entry.getKey().getValue())) {
-                        String uses = YamlHelper.getScalarValue(entry.getValue());
-                        if (uses != null) {
-                            String actionName = extractActionName(uses);
-                            return PUBLISHER_ACTIONS.contains(actionName);
+            private boolean hasPublisherActions(Workflow workflow) {
+                for (Workflow.Job job : workflow.getJobs()) {
+                    for (Workflow.Step step : job.getSteps()) {
+                        String uses = step.getUses();
+                        if (uses != null && PUBLISHER_ACTIONS.contains(extractActionName(uses))) {
+                            return true;
                         }
                     }
                 }
@@ -233,9 +143,7 @@ public class CachePoisoning extends Recipe {
             }
 
             @Override
-            public Yaml.Mapping.Entry visitMappingEntry(Yaml.Mapping.Entry entry, ExecutionContext ctx) {
-                Yaml.Mapping.Entry mappingEntry = super.visitMappingEntry(entry, ctx);
-
+            Yaml.Mapping.Entry checkEntry(Yaml.Mapping.Entry mappingEntry, ExecutionContext ctx) {
                 // Look for cache-aware actions in steps
                 if (isCacheAwareActionStep(mappingEntry)) {
                     String actionName = getActionName(mappingEntry);
@@ -275,7 +183,7 @@ public class CachePoisoning extends Recipe {
                 }
                 return uses;
             }
-        });
+        };
     }
 
 }
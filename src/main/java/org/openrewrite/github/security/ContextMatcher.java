@@ -0,0 +1,115 @@
+/*
+ * Copyright 2026 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.github.security;
+
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.github.Expression;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A set of context paths, such as {@code github.event.issue.title}, compiled once per run into a trie
+ * over their segments, so that matching a path in an expression costs one step per segment no matter
+ * how many paths there are.
+ * <p>
+ * A path matches when it is one of the set or lies beneath one, so {@code github.event.client_payload}
+ * matches every field of a repository dispatch payload. A {@code *} segment, as in
+ * {@code github.event.commits.*.message}, matches any single name or index, and a {@code *} in the
+ * expression matches anything the set has at that position. Names are not case-sensitive.
+ */
+final class ContextMatcher {
+
+    private static final String WILDCARD = "*";
+
+    // Anything that could be a context path, with each dereference or index starting with its own character
+    private static final Pattern CANDIDATE_PATH = Pattern.compile(
+            "[A-Za-z_][A-Za-z0-9_-]*(?:\\s*\\.\\s*(?:[A-Za-z_][A-Za-z0-9_-]*|\\*)|\\[[^\\[\\]]*])*");
+
+    private final Node root = new Node();
+
+    /**
+     * @param paths context paths in any form the expression language accepts, such as
+     *              {@code github.event.commits[0].message} or {@code github.event['issue'].title}.
+     *              Anything else is ignored.
+     */
+    ContextMatcher(Collection<String> paths) {
+        for (String path : paths) {
+            Expression parsed = Expression.parse(path);
+            if (parsed instanceof Expression.Context) {
+                Node node = root;
+                for (String segment : ((Expression.Context) parsed).getSegments()) {
+                    node = node.children.computeIfAbsent(segment.toLowerCase(), s -> new Node());
+                }
+                node.terminal = true;
+            }
+        }
+    }
+
+    boolean matches(Expression.Context context) {
+        return matches(root, context.getSegments(), 0);
+    }
+
+    /**
+     * Look for a path in text that is not a well-formed expression, such as {@link Expression.Invalid}
+     * source, where no parse says which words are contexts.
+     *
+     * @return the first context in the text that matches, or {@code null} if there is none.
+     */
+    Expression.@Nullable Context findIn(String text) {
+        Matcher candidate = CANDIDATE_PATH.matcher(text);
+        while (candidate.find()) {
+            Expression parsed = Expression.parse(candidate.group());
+            if (parsed instanceof Expression.Context && matches((Expression.Context) parsed)) {
+                return (Expression.Context) parsed;
+            }
+        }
+        return null;
+    }
+
+    private static boolean matches(Node node, List<String> segments, int i) {
+        if (node.terminal) {
+            return true;
+        }
+        if (i == segments.size()) {
+            return false;
+        }
+        String segment = segments.get(i).toLowerCase();
+        if (WILDCARD.equals(segment)) {
+            for (Node child : node.children.values()) {
+                if (matches(child, segments, i + 1)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        Node child = node.children.get(segment);
+        if (child != null && matches(child, segments, i + 1)) {
+            return true;
+        }
+        Node wildcard = node.children.get(WILDCARD);
+        return wildcard != null && matches(wildcard, segments, i + 1);
+    }
+
+    private static class Node {
+        final Map<String, Node> children = new HashMap<>();
+        boolean terminal;
+    }
+}
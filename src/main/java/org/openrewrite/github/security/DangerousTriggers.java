@@ -22,8 +22,8 @@ import org.openrewrite.Preconditions;
 import org.openrewrite.Recipe;
 import org.openrewrite.TreeVisitor;
 import org.openrewrite.github.IsGitHubActionsWorkflow;
+import org.openrewrite.github.Workflow;
 import org.openrewrite.marker.SearchResult;
-import org.openrewrite.yaml.YamlIsoVisitor;
 import org.openrewrite.yaml.tree.Yaml;
 
 import java.util.Arrays;
@@ -48,14 +48,16 @@ public class DangerousTriggers extends Recipe {
 
     @Override
     public TreeVisitor<?, ExecutionContext> getVisitor() {
-        return Preconditions.check(new IsGitHubActionsWorkflow(), new YamlIsoVisitor<ExecutionContext>() {
-            @Override
-            public Yaml.Mapping.Entry visitMappingEntry(Yaml.Mapping.Entry entry, ExecutionContext ctx) {
-                Yaml.Mapping.Entry mappingEntry = super.visitMappingEntry(entry, ctx);
+        return Preconditions.check(new IsGitHubActionsWorkflow(), securityCheck());
+    }
 
-                // Look for "on" key - simple pattern matching
-                if (isOnEntry(mappingEntry)) {
-                    return checkTriggersInOnEntry(mappingEntry);
+    SecurityCheck securityCheck() {
+        return new SecurityCheck("on") {
+            @Override
+            Yaml.Mapping.Entry checkEntry(Yaml.Mapping.Entry mappingEntry, ExecutionContext ctx) {
+                // Look for the workflow's own "on" key
+                if (isOnEntry(mappingEntry) && isWorkflowLevel()) {
+                    return checkTriggersInOnEntry(mappingEntry, Workflow.of(getCursor(), ctx));
                 }
 
                 return mappingEntry;
@@ -70,39 +72,16 @@ public class DangerousTriggers extends Recipe {
                 return "on".equals(key);
             }
 
-            private Yaml.Mapping.Entry checkTriggersInOnEntry(Yaml.Mapping.Entry onEntry) {
-                Yaml.Block onValue = onEntry.getValue();
+            private boolean isWorkflowLevel() {
+                // entry -> workflow mapping -> document
+                return getCursor().getParentTreeCursor().getParentTreeCursor().getValue() instanceof Yaml.Document;
+            }
 
-                if (onValue instanceof Yaml.Scalar) {
-                    // Single trigger: "on: push"
-                    String trigger = ((Yaml.Scalar) onValue).getValue();
-                    if (DANGEROUS_TRIGGERS.contains(trigger)) {
-                        String message = getDangerousTriggersMessage(trigger);
-                        return SearchResult.found(onEntry, message);
-                    }
-                } else if (onValue instanceof Yaml.Sequence) {
-                    // Array of triggers: "on: [push, pull_request]"
-                    Yaml.Sequence sequence = (Yaml.Sequence) onValue;
-                    for (Yaml.Sequence.Entry seqEntry : sequence.getEntries()) {
-                        if (seqEntry.getBlock() instanceof Yaml.Scalar) {
-                            String trigger = ((Yaml.Scalar) seqEntry.getBlock()).getValue();
-                            if (DANGEROUS_TRIGGERS.contains(trigger)) {
-                                String message = getDangerousTriggersMessage(trigger);
-                                return SearchResult.found(onEntry, message);
-                            }
-                        }
-                    }
-                } else if (onValue instanceof Yaml.Mapping) {
-                    // Object of triggers: "on: { push: {...}, pull_request: {...} }"
-                    Yaml.Mapping mapping = (Yaml.Mapping) onValue;
-                    for (Yaml.Mapping.Entry triggerEntry : mapping.getEntries()) {
-                        if (triggerEntry.getKey() instanceof Yaml.Scalar) {
-                            String trigger = ((Yaml.Scalar) triggerEntry.getKey()).getValue();
-                            if (DANGEROUS_TRIGGERS.contains(trigger)) {
-                                String message = getDangerousTriggersMessage(trigger);
-                                return SearchResult.found(onEntry, message);
-                            }
-                        }
+            private Yaml.Mapping.Entry checkTriggersInOnEntry(Yaml.Mapping.Entry onEntry, Workflow workflow) {
+                // Triggers in whichever form they are written: "on: push", "on: [push, pull_request]" or a mapping of triggers
+                for (Workflow.Trigger trigger : workflow.getTriggers()) {
+                    if (DANGEROUS_TRIGGERS.contains(trigger.getEvent())) {
+                        return SearchResult.found(onEntry, getDangerousTriggersMessage(trigger.getEvent()));
                     }
                 }
 
@@ -124,7 +103,7 @@ public class DangerousTriggers extends Recipe {
                         return String.format("The '%s' trigger is considered insecure and should be avoided.", trigger);
                 }
             }
-        });
+        };
     }
 
 }
@@ -22,8 +22,8 @@ import org.openrewrite.Preconditions;
 import org.openrewrite.Recipe;
 import org.openrewrite.TreeVisitor;
 import org.openrewrite.github.IsGitHubActionsWorkflow;
+import org.openrewrite.github.Workflow;
 import org.openrewrite.marker.SearchResult;
-import org.openrewrite.yaml.YamlIsoVisitor;
 import org.openrewrite.yaml.tree.Yaml;
 
 import java.util.*;
@@ -52,18 +52,27 @@ public class ExcessivePermissions extends Recipe {
     public TreeVisitor<?, ExecutionContext> getVisitor() {
         return Preconditions.check(
                 new IsGitHubActionsWorkflow(),
-                new ExcessivePermissionsVisitor()
+                securityCheck()
         );
     }
 
-    private static class ExcessivePermissionsVisitor extends YamlIsoVisitor<ExecutionContext> {
+    SecurityCheck securityCheck() {
+        return new ExcessivePermissionsVisitor();
+    }
 
-        @Override
-        public Yaml.Mapping.Entry visitMappingEntry(Yaml.Mapping.Entry entry, ExecutionContext ctx) {
-            Yaml.Mapping.Entry mappingEntry = super.visitMappingEntry(entry, ctx);
+    private static class ExcessivePermissionsVisitor extends SecurityCheck {
 
+        ExcessivePermissionsVisitor() {
+            super("permissions");
+        }
+
+        @Override
+        Yaml.Mapping.Entry checkEntry(Yaml.Mapping.Entry mappingEntry, ExecutionContext ctx) {
             if (isPermissionsEntry(mappingEntry)) {
-                return checkPermissions(mappingEntry);
+                Workflow.Permissions permissions = Workflow.of(getCursor(), ctx).permissionsAt(getCursor());
+                if (permissions != null) {
+                    return checkPermissions(mappingEntry, permissions);
+                }
             }
 
             return mappingEntry;
@@ -73,16 +82,12 @@ public class ExcessivePermissions extends Recipe {
             return "permissions".equals(entry.getKey().getValue());
         }
 
-        private Yaml.Mapping.Entry checkPermissions(Yaml.Mapping.Entry entry) {
-            String scalarPermissionValue = YamlHelper.getScalarValue(entry.getValue());
-            if (scalarPermissionValue != null) {
-                return checkScalarPermissions(entry, scalarPermissionValue);
-            }
-            if (entry.getValue() instanceof Yaml.Mapping) {
-                return checkMappingPermissions(entry, (Yaml.Mapping) entry.getValue());
+        private Yaml.Mapping.Entry checkPermissions(Yaml.Mapping.Entry entry, Workflow.Permissions permissions) {
+            String all = permissions.getAll();
+            if (all != null) {
+                return checkScalarPermissions(entry, all);
             }
-
-            return entry;
+            return checkMappingPermissions(entry, permissions.getScopes());
         }
 
         private Yaml.Mapping.Entry checkScalarPermissions(Yaml.Mapping.Entry entry, String permissionValue) {
@@ -100,20 +105,16 @@ public class ExcessivePermissions extends Recipe {
             }
         }
 
-        private Yaml.Mapping.Entry checkMappingPermissions(Yaml.Mapping.Entry entry, Yaml.Mapping permissionsMapping) {
+        private Yaml.Mapping.Entry checkMappingPermissions(Yaml.Mapping.Entry entry, Map<String, String> scopes) {
             List<String> issues = new ArrayList<>();
 
-            for (Yaml.Mapping.Entry permEntry : permissionsMapping.getEntries()) {
-                String permissionName = permEntry.getKey().getValue();
-                String permissionValue = YamlHelper.getScalarValue(permEntry.getValue());
-                if (permissionName != null && permissionValue != null) {
-
-                    if ("write".equals(permissionValue)) {
-                        if (HIGH_RISK_PERMISSIONS.contains(permissionName)) {
-                            issues.add(permissionName + ": write (high risk)");
-                        } else if (MEDIUM_RISK_PERMISSIONS.contains(permissionName)) {
-                            issues.add(permissionName + ": write (medium risk)");
-                        }
+            for (Map.Entry<String, String> scope : scopes.entrySet()) {
+                String permissionName = scope.getKey();
+                if ("write".equals(scope.getValue())) {
+                    if (HIGH_RISK_PERMISSIONS.contains(permissionName)) {
+                        issues.add(permissionName + ": write (high risk)");
+                    } else if (MEDIUM_RISK_PERMISSIONS.contains(permissionName)) {
+                        issues.add(permissionName + ": write (medium risk)");
                     }
                 }
             }
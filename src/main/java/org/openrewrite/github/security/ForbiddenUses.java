@@ -17,13 +17,12 @@ package org.openrewrite.github.security;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import lombok.EqualsAndHashCode;
-import lombok.RequiredArgsConstructor;
 import lombok.Value;
 import org.jspecify.annotations.Nullable;
 import org.openrewrite.*;
 import org.openrewrite.github.IsGitHubActionsWorkflow;
+import org.openrewrite.github.UsesReference;
 import org.openrewrite.marker.SearchResult;
-import org.openrewrite.yaml.YamlIsoVisitor;
 import org.openrewrite.yaml.tree.Yaml;
 
 import java.util.Arrays;
@@ -110,20 +109,27 @@ public class ForbiddenUses extends Recipe {
     public TreeVisitor<?, ExecutionContext> getVisitor() {
         return Preconditions.check(
                 new IsGitHubActionsWorkflow(),
-                new ForbiddenUsesVisitor(allDangerousActions, allSuspiciousPatterns)
+                securityCheck()
         );
     }
 
-    @RequiredArgsConstructor
-    private static class ForbiddenUsesVisitor extends YamlIsoVisitor<ExecutionContext> {
+    SecurityCheck securityCheck() {
+        return new ForbiddenUsesVisitor(allDangerousActions, new KeywordMatcher(allSuspiciousPatterns));
+    }
+
+    private static class ForbiddenUsesVisitor extends SecurityCheck {
 
         private final Set<String> dangerousActions;
-        private final Set<String> suspiciousPatterns;
+        private final KeywordMatcher suspiciousPatterns;
 
-        @Override
-        public Yaml.Mapping.Entry visitMappingEntry(Yaml.Mapping.Entry entry, ExecutionContext ctx) {
-            Yaml.Mapping.Entry mappingEntry = super.visitMappingEntry(entry, ctx);
+        ForbiddenUsesVisitor(Set<String> dangerousActions, KeywordMatcher suspiciousPatterns) {
+            super("uses");
+            this.dangerousActions = dangerousActions;
+            this.suspiciousPatterns = suspiciousPatterns;
+        }
 
+        @Override
+        Yaml.Mapping.Entry checkEntry(Yaml.Mapping.Entry mappingEntry, ExecutionContext ctx) {
             if (isUsesEntry(mappingEntry)) {
                 String usesValue = getUsesValue(mappingEntry);
                 if (usesValue != null) {
@@ -152,27 +158,19 @@ public class ForbiddenUses extends Recipe {
 
         private @Nullable String checkForForbiddenAction(String usesValue) {
             // Skip local actions and Docker actions
-            if (usesValue.startsWith("./") || usesValue.startsWith("docker://")) {
+            UsesReference uses = UsesReference.parse(usesValue);
+            if (!uses.isRepository()) {
                 return null;
             }
 
             // Check against known dangerous actions
-            for (String dangerous : dangerousActions) {
-                if (usesValue.equals(dangerous)) {
-                    return "Action '" + usesValue + "' is known to have security vulnerabilities. " +
-                            "Consider upgrading to a more recent version or using an alternative.";
-                }
+            if (dangerousActions.contains(usesValue)) {
+                return "Action '" + usesValue + "' is known to have security vulnerabilities. " +
+                        "Consider upgrading to a more recent version or using an alternative.";
             }
 
             // Check for suspicious patterns (longest match first to avoid partial matches)
-            String longestMatch = null;
-            for (String pattern : suspiciousPatterns) {
-                if (usesValue.toLowerCase().contains(pattern.toLowerCase())) {
-                    if (longestMatch == null || pattern.length() > longestMatch.length()) {
-                        longestMatch = pattern;
-                    }
-                }
-            }
+            String longestMatch = suspiciousPatterns.longestIn(usesValue);
 
             if (longestMatch != null) {
                 return "Action '" + usesValue + "' contains suspicious pattern '" + longestMatch + "'. " +
@@ -180,15 +178,12 @@ public class ForbiddenUses extends Recipe {
             }
 
             // Check for actions from unverified sources
-            if (usesValue.contains("/") && !usesValue.startsWith("actions/")) {
-                String[] parts = usesValue.split("/", 2);
-                if (parts.length == 2) {
-                    String owner = parts[0];
-                    // Flag actions from single-character owners (often suspicious)
-                    if (owner.length() == 1) {
-                        return "Action '" + usesValue + "' is from a single-character organization '" +
-                                owner + "' which may be suspicious. Verify the action's authenticity.";
-                    }
+            String owner = uses.getOwner();
+            if (uses.getRepo() != null && owner != null && !"actions".equals(owner)) {
+                // Flag actions from single-character owners (often suspicious)
+                if (owner.length() == 1) {
+                    return "Action '" + usesValue + "' is from a single-character organization '" +
+                            owner + "' which may be suspicious. Verify the action's authenticity.";
                 }
             }
 
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2026 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.github.security;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import lombok.EqualsAndHashCode;
+import lombok.Value;
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.*;
+import org.openrewrite.github.IsGitHubActionsWorkflow;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Value
+@EqualsAndHashCode(callSuper = false)
+public class GitHubActionsSecurityAudit extends Recipe {
+
+    @Option(displayName = "Additional dangerous contexts",
+            description = "Additional user-controllable contexts for the template injection audit to flag, beyond the " +
+                    "built-in list. A context also covers every field beneath it, and `*` matches any single field or index.",
+            required = false,
+            example = "[\"github.event.client_payload\", \"github.event.commits.*.message\"]")
+    @Nullable
+    List<String> additionalDangerousContexts;
+
+    @Option(displayName = "Additional dangerous actions",
+            description = "Additional actions for the forbidden uses audit to flag as dangerous, beyond the built-in list.",
+            required = false,
+            example = "[\"some-org/dangerous-action@v1\", \"another-org/risky-action@v2\"]")
+    @Nullable
+    List<String> additionalDangerousActions;
+
+    @Option(displayName = "Additional suspicious patterns",
+            description = "Additional patterns for the forbidden uses audit to flag as suspicious, beyond the built-in patterns.",
+            required = false,
+            example = "[\"malware\", \"crypto-miner\", \"backdoor\"]")
+    @Nullable
+    List<String> additionalSuspiciousPatterns;
+
+    String displayName = "GitHub Actions security insights in a single pass";
+
+    String description = "Finds the same potential security issues in GitHub Actions workflows as " +
+                "`org.openrewrite.github.security.GitHubActionsSecurity`, but walks each workflow once " +
+                "for all audits rather than once per audit.";
+
+    public GitHubActionsSecurityAudit() {
+        this(null, null, null);
+    }
+
+    @JsonCreator
+    public GitHubActionsSecurityAudit(@Nullable List<String> additionalDangerousContexts,
+                                      @Nullable List<String> additionalDangerousActions,
+                                      @Nullable List<String> additionalSuspiciousPatterns) {
+        this.additionalDangerousContexts = additionalDangerousContexts;
+        this.additionalDangerousActions = additionalDangerousActions;
+        this.additionalSuspiciousPatterns = additionalSuspiciousPatterns;
+    }
+
+    @Override
+    public TreeVisitor<?, ExecutionContext> getVisitor() {
+        return Preconditions.check(new IsGitHubActionsWorkflow(),
+                new SecurityAuditEngine(new ArrayList<>(securityChecks().values())));
+    }
+
+    /**
+     * @return the check of each audit, keyed by the recipe it comes from, in the order of the
+     * {@code GitHubActionsSecurity} recipe list so that results line up exactly.
+     */
+    Map<Class<? extends Recipe>, SecurityCheck> securityChecks() {
+        Map<Class<? extends Recipe>, SecurityCheck> checks = new LinkedHashMap<>();
+        checks.put(ArtifactSecurity.class, new ArtifactSecurity().securityCheck());
+        checks.put(BotConditions.class, new BotConditions().securityCheck());
+        checks.put(CachePoisoning.class, new CachePoisoning().securityCheck());
+        checks.put(DangerousTriggers.class, new DangerousTriggers().securityCheck());
+        checks.put(ExcessivePermissions.class, new ExcessivePermissions().securityCheck());
+        checks.put(ForbiddenUses.class, new ForbiddenUses(additionalDangerousActions, additionalSuspiciousPatterns).securityCheck());
+        checks.put(GitHubEnv.class, new GitHubEnv().securityCheck());
+        checks.put(HardcodedCredentials.class, new HardcodedCredentials().securityCheck());
+        checks.put(InsecureCommands.class, new InsecureCommands().securityCheck());
+        checks.put(Obfuscation.class, new Obfuscation().securityCheck());
+        checks.put(RefVersionMismatch.class, new RefVersionMismatch().securityCheck());
+        checks.put(SecretsInherit.class, new SecretsInherit().securityCheck());
+        checks.put(SelfHostedRunner.class, new SelfHostedRunner().securityCheck());
+        checks.put(TemplateInjection.class, new TemplateInjection(additionalDangerousContexts).securityCheck());
+        checks.put(TrustedPublishing.class, new TrustedPublishing().securityCheck());
+        checks.put(UndocumentedPermissions.class, new UndocumentedPermissions().securityCheck());
+        checks.put(UnpinnedActions.class, new UnpinnedActions().securityCheck());
+        checks.put(UnpinnedDockerImages.class, new UnpinnedDockerImages().securityCheck());
+        return checks;
+    }
+}
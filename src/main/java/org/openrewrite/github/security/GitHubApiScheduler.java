@@ -0,0 +1,222 @@
+/*
+ * Copyright 2026 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.github.security;
+
+import lombok.ToString;
+import lombok.Value;
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.ipc.http.HttpSender;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Paces the GitHub API requests of a recipe run and retries those that are rate limited, all
+ * within a fixed time budget that starts with the first request.
+ * <p>
+ * Requests draw from a token bucket refilled at {@link #PERMITS_PER_SECOND}. A 429, or a 403
+ * whose body mentions the rate limit, pauses every requester: until the primary limit resets
+ * when {@code /rate_limit} reports it exhausted, otherwise (for secondary limits) with exponential
+ * backoff. {@link HttpSender.Response} does not expose response headers, which is why the reset
+ * time comes from {@code /rate_limit} rather than {@code X-RateLimit-Reset} or {@code Retry-After}.
+ * A request that cannot be retried before the budget runs out is dropped.
+ * <p>
+ * Recipes sharing a run share a scheduler only when they send with the same {@link HttpSender} and
+ * token and have the same budget, since GitHub limits each token separately.
+ */
+final class GitHubApiScheduler {
+
+    static final Duration DEFAULT_BUDGET = Duration.ofSeconds(60);
+
+    private static final String CTX_KEY = GitHubApiScheduler.class.getName();
+    private static final String RATE_LIMIT_URL = "https://api.github.com/rate_limit";
+    private static final double PERMITS_PER_SECOND = 10;
+    private static final int BURST = 10;
+    private static final long INITIAL_BACKOFF_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final long MAX_BACKOFF_NANOS = TimeUnit.MINUTES.toNanos(1);
+    private static final Pattern CORE_RATE_LIMIT = rateLimitPattern("core");
+    private static final Pattern GRAPHQL_RATE_LIMIT = rateLimitPattern("graphql");
+
+    private final HttpSender httpSender;
+    private final @Nullable String apiToken;
+    private final long deadline;
+    private final Queue<RateLimitedLookup> rateLimited = new ConcurrentLinkedQueue<>();
+
+    private double permits = BURST;
+    private long lastRefill;
+    private long pausedUntil;
+
+    private GitHubApiScheduler(HttpSender httpSender, @Nullable String apiToken, Duration budget) {
+        this.httpSender = httpSender;
+        this.apiToken = apiToken;
+        this.lastRefill = System.nanoTime();
+        this.pausedUntil = lastRefill;
+        this.deadline = lastRefill + budget.toNanos();
+    }
+
+    static GitHubApiScheduler get(ExecutionContext ctx, HttpSender httpSender, @Nullable String apiToken, Duration budget) {
+        Map<Key, GitHubApiScheduler> schedulers = ctx.computeMessageIfAbsent(CTX_KEY, k -> new ConcurrentHashMap<>());
+        return schedulers.computeIfAbsent(new Key(httpSender, apiToken, budget),
+                key -> new GitHubApiScheduler(httpSender, apiToken, budget));
+    }
+
+    HttpSender getHttpSender() {
+        return httpSender;
+    }
+
+    /**
+     * @param lookup   describes the request in the {@link #drainRateLimited() rate-limited lookups}
+     * @param resource the {@code /rate_limit} resource the request counts against, {@code core} or {@code graphql}
+     * @return the body of a successful response, an empty body for {@code 304 Not Modified}, or
+     * {@code null} when the request failed or was dropped.
+     */
+    byte @Nullable [] send(HttpSender.Request request, String lookup, String resource) {
+        int attempts = 0;
+        try {
+            while (acquire()) {
+                try (HttpSender.Response response = httpSender.send(request)) {
+                    int code = response.getCode();
+                    if (code != 403 && code != 429) {
+                        if (attempts > 0) {
+                            rateLimited.add(new RateLimitedLookup(lookup, attempts, false));
+                        }
+                        if (code == 304) {
+                            return new byte[0];
+                        }
+                        return response.isSuccessful() ? response.getBodyAsBytes() : null;
+                    }
+                    if (code == 403 && !new String(response.getBodyAsBytes(), StandardCharsets.UTF_8)
+                            .toLowerCase(Locale.ROOT).contains("rate limit")) {
+                        return null;
+                    }
+                }
+                long backoff = Math.min(MAX_BACKOFF_NANOS, INITIAL_BACKOFF_NANOS << Math.min(attempts, 16));
+                attempts++;
+                pause(Math.max(backoff, untilReset(resource)));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            if (attempts == 0) {
+                throw e;
+            }
+        }
+        rateLimited.add(new RateLimitedLookup(lookup, attempts, true));
+        return null;
+    }
+
+    /**
+     * @return the lookups that were rate limited since the last call, whether they eventually went through or not.
+     */
+    List<RateLimitedLookup> drainRateLimited() {
+        List<RateLimitedLookup> drained = new ArrayList<>();
+        for (RateLimitedLookup lookup; (lookup = rateLimited.poll()) != null; ) {
+            drained.add(lookup);
+        }
+        return drained;
+    }
+
+    /**
+     * Wait for a permit, giving up when none becomes available before the budget runs out.
+     */
+    private boolean acquire() throws InterruptedException {
+        while (true) {
+            long wait;
+            synchronized (this) {
+                long now = System.nanoTime();
+                permits = Math.min(BURST, permits + (now - lastRefill) * PERMITS_PER_SECOND / TimeUnit.SECONDS.toNanos(1));
+                lastRefill = now;
+                if (pausedUntil - now <= 0 && permits >= 1) {
+                    permits--;
+                    return true;
+                }
+                wait = Math.max(pausedUntil - now, (long) ((1 - permits) / PERMITS_PER_SECOND * TimeUnit.SECONDS.toNanos(1)));
+                if (now + wait - deadline > 0) {
+                    return false;
+                }
+            }
+            TimeUnit.NANOSECONDS.sleep(wait);
+        }
+    }
+
+    private synchronized void pause(long nanos) {
+        long until = System.nanoTime() + nanos;
+        if (until - pausedUntil > 0) {
+            pausedUntil = until;
+        }
+        permits = 0;
+    }
+
+    /**
+     * @return how long until the primary rate limit of {@code resource} resets, or zero when
+     * requests remain and the limit that was hit must have been a secondary one. The
+     * {@code /rate_limit} request draws a permit like any other, and is skipped when the budget has run out.
+     */
+    private long untilReset(String resource) throws InterruptedException {
+        if (!acquire()) {
+            return 0;
+        }
+        HttpSender.Request.Builder request = httpSender.get(RATE_LIMIT_URL)
+                .withHeader("Accept", "application/vnd.github+json")
+                .withAuthentication("Bearer", apiToken);
+        try (HttpSender.Response response = httpSender.send(request.build())) {
+            if (response.isSuccessful()) {
+                Matcher m = ("graphql".equals(resource) ? GRAPHQL_RATE_LIMIT : CORE_RATE_LIMIT)
+                        .matcher(new String(response.getBodyAsBytes(), StandardCharsets.UTF_8));
+                if (m.find() && Long.parseLong(m.group(1)) == 0) {
+                    long millis = TimeUnit.SECONDS.toMillis(Long.parseLong(m.group(2))) - System.currentTimeMillis();
+                    return TimeUnit.MILLISECONDS.toNanos(Math.max(0, millis));
+                }
+            }
+        } catch (RuntimeException e) {
+            // Fall back to backing off
+        }
+        return 0;
+    }
+
+    private static Pattern rateLimitPattern(String resource) {
+        return Pattern.compile("\"" + resource + "\"\\s*:\\s*\\{[^}]*?\"remaining\"\\s*:\\s*(\\d+)[^}]*?\"reset\"\\s*:\\s*(\\d+)");
+    }
+
+    @Value
+    private static class Key {
+        HttpSender httpSender;
+
+        @ToString.Exclude
+        @Nullable
+        String apiToken;
+
+        Duration budget;
+    }
+
+    @Value
+    static class RateLimitedLookup {
+        String lookup;
+        int attempts;
+        boolean dropped;
+    }
+}
@@ -17,19 +17,21 @@ package org.openrewrite.github.security;
 
 import lombok.EqualsAndHashCode;
 import lombok.Value;
+import org.jspecify.annotations.Nullable;
 import org.openrewrite.ExecutionContext;
 import org.openrewrite.Preconditions;
 import org.openrewrite.Recipe;
 import org.openrewrite.TreeVisitor;
+import org.openrewrite.github.ExpressionTemplate;
 import org.openrewrite.github.IsGitHubActionsWorkflow;
+import org.openrewrite.github.ShellScript;
+import org.openrewrite.github.Workflow;
 import org.openrewrite.marker.SearchResult;
-import org.openrewrite.yaml.YamlIsoVisitor;
 import org.openrewrite.yaml.tree.Yaml;
 
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
-import java.util.regex.Pattern;
 
 @Value
 @EqualsAndHashCode(callSuper = false)
@@ -41,23 +43,17 @@ public class GitHubEnv extends Recipe {
             "workflow_run"
     ));
 
-    // Pattern to detect GITHUB_ENV and GITHUB_PATH usage in various shells
-    private static final Pattern GITHUB_ENV_WRITE_PATTERN = Pattern.compile(
-            "(?i)(>>?\\s*[\"']?\\$\\{?GITHUB_ENV\\}?[\"']?|" +        // bash: >> $GITHUB_ENV
-                    ">>?\\s*[\"']?%GITHUB_ENV%[\"']?|" +                     // cmd: >> %GITHUB_ENV%
-                    ">>?\\s*[\"']?\\$env:GITHUB_ENV[\"']?|" +                // pwsh: >> $env:GITHUB_ENV
-                    "Out-File.*\\$env:GITHUB_ENV|" +                         // pwsh: Out-File
-                    "Add-Content.*\\$env:GITHUB_ENV|" +                      // pwsh: Add-Content
-                    "Set-Content.*\\$env:GITHUB_ENV|" +                      // pwsh: Set-Content
-                    "Tee-Object.*\\$env:GITHUB_ENV|" +                       // pwsh: Tee-Object
-                    "\\|\\s*tee\\s+[\"']?\\$\\{?GITHUB_ENV\\}?[\"']?)" +     // bash: | tee $GITHUB_ENV
-                    "|GITHUB_PATH"                                            // Any GITHUB_PATH usage
-    );
-
-    // Pattern to detect simple static content (likely safe)
-    private static final Pattern STATIC_ECHO_PATTERN = Pattern.compile(
-            "^\\s*echo\\s+[\"']?[^$`]*[\"']?\\s*>>", Pattern.MULTILINE
-    );
+    // Environment files that a step can write to
+    private static final String[] ENVIRONMENT_FILES = {"GITHUB_ENV", "GITHUB_PATH"};
+
+    // Commands that write to a file named in their arguments, in bash and PowerShell
+    private static final Set<String> FILE_WRITING_COMMANDS = new HashSet<>(Arrays.asList(
+            "tee",
+            "out-file",
+            "add-content",
+            "set-content",
+            "tee-object"
+    ));
 
     String displayName = "Find dangerous GITHUB_ENV usage";
 
@@ -68,67 +64,30 @@ public class GitHubEnv extends Recipe {
 
     @Override
     public TreeVisitor<?, ExecutionContext> getVisitor() {
-        return Preconditions.check(new IsGitHubActionsWorkflow(), new YamlIsoVisitor<ExecutionContext>() {
+        return Preconditions.check(new IsGitHubActionsWorkflow(), securityCheck());
+    }
+
+    SecurityCheck securityCheck() {
+        return new SecurityCheck("run") {
             private boolean hasDangerousTriggers = false;
 
             @Override
-            public Yaml.Document visitDocument(Yaml.Document document, ExecutionContext ctx) {
+            boolean startDocument(Yaml.Document document, ExecutionContext ctx) {
                 // Reset state for each document
                 hasDangerousTriggers = false;
-
-                // First pass: check if workflow has dangerous triggers
-                analyzeTriggers(document);
-
-                // Only analyze run steps if we have dangerous triggers
-                if (hasDangerousTriggers) {
-                    return super.visitDocument(document, ctx);
-                }
-
-                return document;
-            }
-
-            private void analyzeTriggers(Yaml.Document document) {
-                if (document.getBlock() instanceof Yaml.Mapping) {
-                    Yaml.Mapping workflowMapping = (Yaml.Mapping) document.getBlock();
-
-                    for (Yaml.Mapping.Entry entry : workflowMapping.getEntries()) {
-                        if (entry.getKey() instanceof Yaml.Scalar && "on".equals(((Yaml.Scalar) entry.getKey()).getValue())) {
-                            hasDangerousTriggers = checkForDangerousTriggers(entry.getValue());
-                            break;
-                        }
+                for (Workflow.Trigger trigger : Workflow.of(document, ctx).getTriggers()) {
+                    if (DANGEROUS_TRIGGERS.contains(trigger.getEvent())) {
+                        hasDangerousTriggers = true;
+                        break;
                     }
                 }
-            }
 
-            private boolean checkForDangerousTriggers(Yaml.Block onValue) {
-                String scalarTrigger = YamlHelper.getScalarValue(onValue);
-                if (scalarTrigger != null) {
-                    return DANGEROUS_TRIGGERS.contains(scalarTrigger);
-                }
-                if (onValue instanceof Yaml.Sequence) {
-                    Yaml.Sequence sequence = (Yaml.Sequence) onValue;
-                    for (Yaml.Sequence.Entry seqEntry : sequence.getEntries()) {
-                        String trigger = YamlHelper.getScalarValue(seqEntry.getBlock());
-                        if (trigger != null && DANGEROUS_TRIGGERS.contains(trigger)) {
-                            return true;
-                        }
-                    }
-                } else if (onValue instanceof Yaml.Mapping) {
-                    Yaml.Mapping mapping = (Yaml.Mapping) onValue;
-                    for (Yaml.Mapping.Entry triggerEntry : mapping.getEntries()) {
-                        String trigger = triggerEntry.getKey().getValue();
-                        if (DANGEROUS_TRIGGERS.contains(trigger)) {
-                            return true;
-                        }
-                    }
-                }
-                return false;
+                // Only analyze run steps if we have dangerous triggers
+                return hasDangerousTriggers;
             }
 
             @Override
-            public Yaml.Mapping.Entry visitMappingEntry(Yaml.Mapping.Entry entry, ExecutionContext ctx) {
-                Yaml.Mapping.Entry mappingEntry = super.visitMappingEntry(entry, ctx);
-
+            Yaml.Mapping.Entry checkEntry(Yaml.Mapping.Entry mappingEntry, ExecutionContext ctx) {
                 // Only check if we have dangerous triggers
                 if (!hasDangerousTriggers) {
                     return mappingEntry;
@@ -137,8 +96,8 @@ public class GitHubEnv extends Recipe {
                 // Look for run steps that write to GITHUB_ENV or GITHUB_PATH
                 if (isRunStepEntry(mappingEntry)) {
                     String runContent = getRunContent(mappingEntry);
-                    if (runContent != null && usesGitHubEnv(runContent)) {
-                        String envVar = getEnvironmentVariable(runContent);
+                    String envVar = runContent == null ? null : findEnvironmentFileWrite(runContent);
+                    if (envVar != null) {
                         return SearchResult.found(mappingEntry,
                                 String.format("Write to %s may allow code execution in a workflow with dangerous triggers. " +
                                         "This can lead to code injection when the written content includes user-controlled data. " +
@@ -158,39 +117,94 @@ public class GitHubEnv extends Recipe {
                 return YamlHelper.getScalarValue(entry.getValue());
             }
 
-            private boolean usesGitHubEnv(String runContent) {
+            private @Nullable String findEnvironmentFileWrite(String runContent) {
                 // Check if the run content writes to GITHUB_ENV or GITHUB_PATH
-                if (!GITHUB_ENV_WRITE_PATTERN.matcher(runContent).find()) {
-                    return false;
+                ShellScript script = ShellScript.parse(runContent);
+                String envVar = null;
+                for (ShellScript.Command command : script.getCommands()) {
+                    envVar = findEnvironmentFileWrite(command);
+                    if (envVar != null) {
+                        break;
+                    }
+                }
+                if (envVar == null) {
+                    return null;
                 }
 
                 // If it's just static echo content, it's likely safe
-                if (isStaticEcho(runContent)) {
-                    return false;
+                if (isStaticEcho(script, runContent)) {
+                    return null;
                 }
 
-                return true;
+                return envVar;
             }
 
-            private boolean isStaticEcho(String runContent) {
-                // Simple heuristic: if all GITHUB_ENV writes are from static echo commands, consider it safe
-                // This is a simplified version of the complex tree-sitter analysis in zizmor
-                return STATIC_ECHO_PATTERN.matcher(runContent).find() &&
-                        !runContent.contains("$") &&
-                        !runContent.contains("`") &&
-                        !runContent.contains("$(");
+            private @Nullable String findEnvironmentFileWrite(ShellScript.Command command) {
+                // bash, cmd and pwsh redirections: >> $GITHUB_ENV, >> %GITHUB_ENV%, >> $env:GITHUB_ENV
+                for (ShellScript.Redirection redirection : command.getRedirections()) {
+                    if (redirection.getOperator().contains(">")) {
+                        String envVar = environmentFile(redirection.getTarget());
+                        if (envVar != null) {
+                            return envVar;
+                        }
+                    }
+                }
+
+                // tee $GITHUB_ENV, Out-File -FilePath $env:GITHUB_ENV and the like
+                String name = command.getName();
+                if (name != null && FILE_WRITING_COMMANDS.contains(name.toLowerCase())) {
+                    for (String argument : command.getWords().subList(1, command.getWords().size())) {
+                        String envVar = environmentFile(argument);
+                        if (envVar != null) {
+                            return envVar;
+                        }
+                    }
+                }
+                return null;
             }
 
-            private String getEnvironmentVariable(String runContent) {
-                if (runContent.toUpperCase().contains("GITHUB_ENV")) {
-                    return "GITHUB_ENV";
+            private @Nullable String environmentFile(String word) {
+                for (String file : ENVIRONMENT_FILES) {
+                    if (word.equalsIgnoreCase("$" + file) ||
+                        word.equalsIgnoreCase("${" + file + "}") ||
+                        word.equalsIgnoreCase("%" + file + "%") ||
+                        word.equalsIgnoreCase("$env:" + file)) {
+                        return file;
+                    }
                 }
-                if (runContent.toUpperCase().contains("GITHUB_PATH")) {
-                    return "GITHUB_PATH";
+                return null;
+            }
+
+            private boolean isStaticEcho(ShellScript script, String runContent) {
+                // If every write to an environment file is an echo, and nothing in the script other than
+                // the environment files written to is expanded when it runs, the written content is fixed and so safe
+                for (ShellScript.Command command : script.getCommands()) {
+                    boolean writes = findEnvironmentFileWrite(command) != null;
+                    if (writes && !"echo".equals(command.getName())) {
+                        return false;
+                    }
+                    for (ShellScript.Expansion expansion : command.getExpansions()) {
+                        if (!writes || !isEnvironmentFileTarget(command, expansion)) {
+                            return false;
+                        }
+                    }
                 }
-                return "environment file";
+                return !ExpressionTemplate.parse(runContent).hasExpressions();
+            }
+
+            private boolean isEnvironmentFileTarget(ShellScript.Command command, ShellScript.Expansion expansion) {
+                if (environmentFile(expansion.getSource()) == null) {
+                    return false;
+                }
+                for (ShellScript.Redirection redirection : command.getRedirections()) {
+                    if (redirection.getOperator().contains(">") &&
+                        redirection.getTarget().equalsIgnoreCase(expansion.getSource())) {
+                        return true;
+                    }
+                }
+                return false;
             }
-        });
+        };
     }
 
 }
@@ -0,0 +1,323 @@
+/*
+ * Copyright 2026 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.github.security;
+
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.ExecutionContext;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Resolves references from bare mirrors of action repositories, laid out as
+ * {@code <directory>/<owner>/<repo>.git} (as created by {@code git clone --mirror}) or
+ * {@code <directory>/<owner>/<repo>}. Refs are read straight from {@code packed-refs} and the loose
+ * files under {@code refs/}, without spawning git or touching the network, and each repository is
+ * indexed at most once per run.
+ * <p>
+ * Annotated tags are peeled to their commit through the {@code ^} lines git writes into
+ * {@code packed-refs}, or by reading the tag object, loose or from a pack. A tag whose object cannot
+ * be read is left to the next resolver rather than pinned to the tag object. As with
+ * {@code git rev-parse}, a tag takes precedence over a branch of the same name.
+ */
+final class GitMirrorActionRefResolver implements ActionRefResolver {
+
+    private static final Pattern SHA_PATTERN = Pattern.compile("^[a-f0-9]{40}$");
+    private static final int MAX_TAG_DEPTH = 8;
+    private static final int PACK_INDEX_SIGNATURE = 0xff744f63;
+    private static final String[] PACKED_OBJECT_TYPES = {"", "commit", "tree", "blob", "tag"};
+
+    private final Path directory;
+
+    GitMirrorActionRefResolver(Path directory) {
+        this.directory = directory;
+    }
+
+    @Override
+    public @Nullable String resolve(String ownerRepo, String ref, ExecutionContext ctx) {
+        Map<String, Map<String, String>> index = ctx.computeMessageIfAbsent(
+                GitMirrorActionRefResolver.class.getName() + '.' + directory, k -> new ConcurrentHashMap<>());
+        Map<String, String> refs = index.computeIfAbsent(ownerRepo, this::readRefs);
+        String sha = refs.get("refs/tags/" + ref);
+        return sha != null ? sha : refs.get("refs/heads/" + ref);
+    }
+
+    /**
+     * @return every tag and branch of the mirror, peeled to commit SHAs, keyed by full ref name.
+     */
+    private Map<String, String> readRefs(String ownerRepo) {
+        if (ownerRepo.contains("..")) {
+            return new HashMap<>();
+        }
+        Path gitDir = directory.resolve(ownerRepo + ".git");
+        if (!Files.isDirectory(gitDir)) {
+            gitDir = directory.resolve(ownerRepo);
+            if (!Files.isDirectory(gitDir)) {
+                return new HashMap<>();
+            }
+        }
+
+        Map<String, String> refs = new HashMap<>();
+        Map<String, String> peeled = new HashMap<>();
+        Path packedRefs = gitDir.resolve("packed-refs");
+        if (Files.isRegularFile(packedRefs)) {
+            try (BufferedReader reader = Files.newBufferedReader(packedRefs, StandardCharsets.UTF_8)) {
+                String lastRef = null;
+                boolean tagsPeeled = false;
+                for (String line; (line = reader.readLine()) != null; ) {
+                    if (line.startsWith("# pack-refs with:")) {
+                        // Either trait means every annotated tag is followed by its ^ line
+                        tagsPeeled = line.contains(" peeled") || line.contains("fully-peeled");
+                    } else if (line.startsWith("^") && lastRef != null) {
+                        peeled.put(lastRef, line.substring(1).trim());
+                    } else if (!line.startsWith("#") && line.length() > 41 && line.charAt(40) == ' ') {
+                        lastRef = line.substring(41).trim();
+                        refs.put(lastRef, line.substring(0, 40));
+                    }
+                }
+                if (tagsPeeled) {
+                    for (Map.Entry<String, String> ref : refs.entrySet()) {
+                        if (ref.getKey().startsWith("refs/tags/")) {
+                            peeled.putIfAbsent(ref.getKey(), ref.getValue());
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                // Fall through to whatever loose refs exist
+            }
+        }
+        readLooseRefs(gitDir, "refs/tags", refs, peeled);
+        readLooseRefs(gitDir, "refs/heads", refs, peeled);
+
+        Map<String, String> commits = new HashMap<>(refs.size());
+        for (Map.Entry<String, String> ref : refs.entrySet()) {
+            String commit = peeled.get(ref.getKey());
+            if (commit == null) {
+                commit = ref.getKey().startsWith("refs/tags/") ? peelTag(gitDir, ref.getValue()) : ref.getValue();
+            }
+            if (commit != null && SHA_PATTERN.matcher(commit).matches()) {
+                commits.put(ref.getKey(), commit);
+            }
+        }
+        return commits;
+    }
+
+    /**
+     * Loose refs are newer than their packed counterparts, so they replace them along with any
+     * peeled SHA recorded in {@code packed-refs}.
+     */
+    private static void readLooseRefs(Path gitDir, String namespace, Map<String, String> refs, Map<String, String> peeled) {
+        Path root = gitDir.resolve(namespace);
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(root)) {
+            files.filter(Files::isRegularFile).forEach(file -> {
+                try {
+                    String sha = new String(Files.readAllBytes(file), StandardCharsets.UTF_8).trim();
+                    if (SHA_PATTERN.matcher(sha).matches()) {
+                        String name = namespace + '/' + root.relativize(file).toString().replace('\\', '/');
+                        refs.put(name, sha);
+                        peeled.remove(name);
+                    }
+                } catch (IOException ignored) {
+                    // Removed while we were walking
+                }
+            });
+        } catch (IOException ignored) {
+        }
+    }
+
+    /**
+     * @return the commit an object id ultimately points at when it is an annotated tag, the id itself
+     * when it is any other object, or {@code null} when the object cannot be found or read.
+     */
+    private static @Nullable String peelTag(Path gitDir, String sha) {
+        String current = sha;
+        for (int depth = 0; depth < MAX_TAG_DEPTH; depth++) {
+            String content = readLooseObject(gitDir, current);
+            if (content == null) {
+                content = readPackedObject(gitDir, current);
+            }
+            if (content == null) {
+                return null;
+            }
+            if (!content.startsWith("tag ")) {
+                return current;
+            }
+            // "tag <size>\0object <sha>\ntype <type>\n..."
+            int objectAt = content.indexOf("\0object ");
+            if (objectAt < 0 || content.length() < objectAt + 48) {
+                return null;
+            }
+            current = content.substring(objectAt + 8, objectAt + 48);
+            if (content.startsWith("\ntype commit\n", objectAt + 48)) {
+                // No need to read the commit, which may well be stored as a delta
+                return current;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the start of a loose object, header included, or {@code null} when it is not stored loose.
+     */
+    private static @Nullable String readLooseObject(Path gitDir, String sha) {
+        Path object = gitDir.resolve("objects").resolve(sha.substring(0, 2)).resolve(sha.substring(2));
+        if (!Files.isRegularFile(object)) {
+            return null;
+        }
+        try (InputStream in = new InflaterInputStream(Files.newInputStream(object))) {
+            return readStart(in);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Look an object up in the version 2 pack indexes, as {@code git clone --mirror} leaves nearly
+     * every object packed.
+     *
+     * @return the start of the object in the same form as a loose one, though with only the type for
+     * anything but a tag, or {@code null} when no pack has it or it is stored as a delta.
+     */
+    private static @Nullable String readPackedObject(Path gitDir, String sha) {
+        Path packs = gitDir.resolve("objects").resolve("pack");
+        if (!Files.isDirectory(packs)) {
+            return null;
+        }
+        byte[] id = new byte[20];
+        for (int i = 0; i < id.length; i++) {
+            id[i] = (byte) Integer.parseInt(sha.substring(2 * i, 2 * i + 2), 16);
+        }
+        try (DirectoryStream<Path> indexes = Files.newDirectoryStream(packs, "*.idx")) {
+            for (Path index : indexes) {
+                long offset = packOffset(index, id);
+                if (offset >= 0) {
+                    String name = index.getFileName().toString();
+                    return readPackEntry(index.resolveSibling(name.substring(0, name.length() - 4) + ".pack"), offset);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // A corrupt or truncated pack, which git would refuse too
+        }
+        return null;
+    }
+
+    /**
+     * Binary search the object ids of a pack index between the bounds its fan-out table gives for
+     * the first byte of the id.
+     *
+     * @return the offset of the object in the pack, or -1 when the index does not have it.
+     */
+    private static long packOffset(Path index, byte[] id) throws IOException {
+        try (RandomAccessFile idx = new RandomAccessFile(index.toFile(), "r")) {
+            if (idx.readInt() != PACK_INDEX_SIGNATURE || idx.readInt() != 2) {
+                return -1;
+            }
+            int first = id[0] & 0xff;
+            int low = 0;
+            if (first > 0) {
+                idx.seek(8 + 4L * (first - 1));
+                low = idx.readInt();
+            }
+            idx.seek(8 + 4L * first);
+            int high = idx.readInt();
+            idx.seek(8 + 4L * 255);
+            int count = idx.readInt();
+
+            byte[] candidate = new byte[20];
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                idx.seek(1032 + 20L * mid);
+                idx.readFully(candidate);
+                int comparison = compareIds(candidate, id);
+                if (comparison == 0) {
+                    idx.seek(1032 + 24L * count + 4L * mid);
+                    int offset = idx.readInt();
+                    if (offset < 0) {
+                        // The offset is too large for 31 bits, so is kept in a table of 64-bit ones
+                        idx.seek(1032 + 28L * count + 8L * (offset & 0x7fffffff));
+                        return idx.readLong();
+                    }
+                    return offset;
+                } else if (comparison < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return -1;
+        }
+    }
+
+    private static @Nullable String readPackEntry(Path pack, long offset) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(pack.toFile(), "r")) {
+            file.seek(offset);
+            int c = file.read();
+            int type = (c >> 4) & 7;
+            // Skip the rest of the variable length size
+            while (c >= 0 && (c & 0x80) != 0) {
+                c = file.read();
+            }
+            if (c < 0 || type == 0 || type >= PACKED_OBJECT_TYPES.length) {
+                return null;
+            }
+            if (type != 4) {
+                return PACKED_OBJECT_TYPES[type] + " ";
+            }
+            // The channel reads on from where the entry header ends
+            InputStream in = new InflaterInputStream(Channels.newInputStream(file.getChannel()));
+            return "tag 0\0" + readStart(in);
+        }
+    }
+
+    private static int compareIds(byte[] a, byte[] b) {
+        for (int i = 0; i < a.length; i++) {
+            int comparison = (a[i] & 0xff) - (b[i] & 0xff);
+            if (comparison != 0) {
+                return comparison;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Enough of an object to read the header of a tag.
+     */
+    private static String readStart(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        for (int n; (n = in.read(buffer)) > 0 && out.size() < 4096; ) {
+            out.write(buffer, 0, n);
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2026 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.github.security;
+
+import org.openrewrite.ipc.http.HttpSender;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Resolves many {@code owner/repo@ref} references with a single GitHub GraphQL request per chunk,
+ * giving each lookup its own alias:
+ * <pre>
+ * query {
+ *   r0: repository(owner: "codecov", name: "codecov-action") {
+ *     object(expression: "v4.6.0") { ... on Commit { oid } ... on Tag { target { ... on Commit { oid } } } }
+ *   }
+ *   r1: ...
+ * }
+ * </pre>
+ * Annotated tags are peeled to the commit they point at. Anything that does not come back as a
+ * commit, such as a missing repository, a missing ref or a tag of a tag, is simply absent from
+ * the result so the caller can fall back to the REST API for it.
+ */
+final class GraphQlRefResolver {
+
+    static final int CHUNK_SIZE = 50;
+
+    private static final String GRAPHQL_URL = "https://api.github.com/graphql";
+    private static final Pattern ALIAS_RESPONSE_PATTERN = Pattern.compile(
+            "\"r(\\d+)\"\\s*:\\s*\\{\\s*\"object\"\\s*:\\s*\\{\\s*(?:\"target\"\\s*:\\s*\\{\\s*)?\"oid\"\\s*:\\s*\"([a-f0-9]{40})\"");
+
+    private final GitHubApiScheduler api;
+    private final String apiToken;
+
+    GraphQlRefResolver(GitHubApiScheduler api, String apiToken) {
+        this.api = api;
+        this.apiToken = apiToken;
+    }
+
+    /**
+     * @return the commit SHA of each reference that could be resolved, keyed by reference.
+     */
+    Map<PinGitHubActionsToSha.ActionRef, String> resolve(List<PinGitHubActionsToSha.ActionRef> refs) {
+        Map<PinGitHubActionsToSha.ActionRef, String> shas = new HashMap<>();
+        for (int from = 0; from < refs.size(); from += CHUNK_SIZE) {
+            resolveChunk(refs.subList(from, Math.min(refs.size(), from + CHUNK_SIZE)), shas);
+        }
+        return shas;
+    }
+
+    private void resolveChunk(List<PinGitHubActionsToSha.ActionRef> chunk, Map<PinGitHubActionsToSha.ActionRef, String> shas) {
+        HttpSender.Request request = api.getHttpSender().post(GRAPHQL_URL)
+                .withHeader("Accept", "application/json")
+                .withAuthentication("Bearer", apiToken)
+                .withContent("application/json", ("{\"query\":" + jsonString(query(chunk)) + "}")
+                        .getBytes(StandardCharsets.UTF_8))
+                .build();
+        try {
+            byte[] body = api.send(request, "GraphQL query of " + chunk.size() + " refs", "graphql");
+            if (body == null) {
+                return;
+            }
+            // Partial failures come back as null aliases next to an "errors" array, so keep whatever resolved
+            Matcher m = ALIAS_RESPONSE_PATTERN.matcher(new String(body, StandardCharsets.UTF_8));
+            while (m.find()) {
+                int alias = Integer.parseInt(m.group(1));
+                if (alias < chunk.size()) {
+                    shas.put(chunk.get(alias), m.group(2));
+                }
+            }
+        } catch (RuntimeException e) {
+            // Leave the whole chunk to the REST fallback
+        }
+    }
+
+    private static String query(List<PinGitHubActionsToSha.ActionRef> chunk) {
+        StringBuilder query = new StringBuilder("query {");
+        for (int i = 0; i < chunk.size(); i++) {
+            PinGitHubActionsToSha.ActionRef actionRef = chunk.get(i);
+            String ownerRepo = actionRef.getOwnerRepo();
+            int slash = ownerRepo.indexOf('/');
+            query.append(" r").append(i)
+                    .append(": repository(owner: ").append(graphQlString(ownerRepo.substring(0, slash)))
+                    .append(", name: ").append(graphQlString(ownerRepo.substring(slash + 1)))
+                    .append(") { object(expression: ").append(graphQlString(actionRef.getRef()))
+                    .append(") { ... on Commit { oid } ... on Tag { target { ... on Commit { oid } } } } }");
+        }
+        return query.append(" }").toString();
+    }
+
+    private static String graphQlString(String value) {
+        return '"' + value.replace("\\", "\\\\").replace("\"", "\\\"") + '"';
+    }
+
+    private static String jsonString(String value) {
+        StringBuilder json = new StringBuilder(value.length() + 16).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < 0x20) {
+                json.append(String.format("\\u%04x", (int) c));
+            } else {
+                json.append(c);
+            }
+        }
+        return json.append('"').toString();
+    }
+}
@@ -17,23 +17,21 @@ package org.openrewrite.github.security;
 
 import lombok.EqualsAndHashCode;
 import lombok.Value;
+import org.openrewrite.Cursor;
 import org.openrewrite.ExecutionContext;
 import org.openrewrite.Preconditions;
 import org.openrewrite.Recipe;
 import org.openrewrite.TreeVisitor;
+import org.openrewrite.github.ExpressionTemplate;
 import org.openrewrite.github.IsGitHubActionsWorkflow;
+import org.openrewrite.github.Workflow;
 import org.openrewrite.marker.SearchResult;
-import org.openrewrite.yaml.YamlIsoVisitor;
 import org.openrewrite.yaml.tree.Yaml;
 
-import java.util.regex.Pattern;
-
 @Value
 @EqualsAndHashCode(callSuper = false)
 public class HardcodedCredentials extends Recipe {
 
-    private static final Pattern GITHUB_EXPRESSION_PATTERN = Pattern.compile("\\$\\{\\{.*?\\}\\}");
-
     String displayName = "Find hardcoded container credentials";
 
     String description = "Detects hardcoded credentials in GitHub Actions container configurations. " +
@@ -44,48 +42,43 @@ public class HardcodedCredentials extends Recipe {
     public TreeVisitor<?, ExecutionContext> getVisitor() {
         return Preconditions.check(
                 new IsGitHubActionsWorkflow(),
-                new HardcodedCredentialsVisitor()
+                securityCheck()
         );
     }
 
-    private static class HardcodedCredentialsVisitor extends YamlIsoVisitor<ExecutionContext> {
-
-        @Override
-        public Yaml.Mapping.Entry visitMappingEntry(Yaml.Mapping.Entry entry, ExecutionContext ctx) {
-            Yaml.Mapping.Entry mappingEntry = super.visitMappingEntry(entry, ctx);
+    SecurityCheck securityCheck() {
+        return new HardcodedCredentialsVisitor();
+    }
 
-            // Look for password entries - simple pattern matching
-            if (isPasswordEntry(mappingEntry)) {
-                String passwordValue = getPasswordValue(mappingEntry);
-                if (passwordValue != null && isHardcodedPassword(passwordValue)) {
-                    return SearchResult.found(mappingEntry,
-                            "Container registry password '" + passwordValue + "' appears to be hardcoded. " +
-                                    "Use secrets (e.g., ${{ secrets.REGISTRY_PASSWORD }}) instead.");
-                }
-            }
+    private static class HardcodedCredentialsVisitor extends SecurityCheck {
 
-            return mappingEntry;
+        HardcodedCredentialsVisitor() {
+            super("password");
         }
 
-        private boolean isPasswordEntry(Yaml.Mapping.Entry entry) {
-            if (!(entry.getKey() instanceof Yaml.Scalar)) {
-                return false;
+        @Override
+        Yaml.Mapping.Entry checkEntry(Yaml.Mapping.Entry mappingEntry, ExecutionContext ctx) {
+            // password -> credentials mapping -> credentials
+            Cursor credentials = getCursor().getParentTreeCursor().getParentTreeCursor();
+            if (!(credentials.getValue() instanceof Yaml.Mapping.Entry) ||
+                !"credentials".equals(((Yaml.Mapping.Entry) credentials.getValue()).getKey().getValue())) {
+                return mappingEntry;
             }
 
-            String key = ((Yaml.Scalar) entry.getKey()).getValue();
-            return "password".equals(key);
-        }
-
-        private String getPasswordValue(Yaml.Mapping.Entry entry) {
-            if (entry.getValue() instanceof Yaml.Scalar) {
-                return ((Yaml.Scalar) entry.getValue()).getValue();
+            Workflow.Container container = Workflow.of(getCursor(), ctx).containerDeclaring(credentials);
+            String passwordValue = container == null ? null : container.getCredentials().get("password");
+            if (passwordValue != null && isHardcodedPassword(passwordValue)) {
+                return SearchResult.found(mappingEntry,
+                        "Container registry password '" + passwordValue + "' appears to be hardcoded. " +
+                                "Use secrets (e.g., ${{ secrets.REGISTRY_PASSWORD }}) instead.");
             }
-            return null;
+
+            return mappingEntry;
         }
 
         private boolean isHardcodedPassword(String passwordValue) {
             // If the password doesn't contain GitHub expression syntax, it's hardcoded
-            return !GITHUB_EXPRESSION_PATTERN.matcher(passwordValue).find();
+            return !ExpressionTemplate.parse(passwordValue).hasExpressions();
         }
     }
 }
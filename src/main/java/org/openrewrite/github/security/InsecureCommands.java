@@ -17,15 +17,21 @@ package org.openrewrite.github.security;
 
 import lombok.EqualsAndHashCode;
 import lombok.Value;
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.Cursor;
 import org.openrewrite.ExecutionContext;
 import org.openrewrite.Preconditions;
 import org.openrewrite.Recipe;
 import org.openrewrite.TreeVisitor;
 import org.openrewrite.github.IsGitHubActionsWorkflow;
+import org.openrewrite.github.Workflow;
 import org.openrewrite.marker.SearchResult;
-import org.openrewrite.yaml.YamlIsoVisitor;
 import org.openrewrite.yaml.tree.Yaml;
 
+import java.util.Map;
+
+import static java.util.Objects.requireNonNull;
+
 @Value
 @EqualsAndHashCode(callSuper = false)
 public class InsecureCommands extends Recipe {
@@ -40,39 +46,50 @@ public class InsecureCommands extends Recipe {
 
     @Override
     public TreeVisitor<?, ExecutionContext> getVisitor() {
-        return Preconditions.check(new IsGitHubActionsWorkflow(), new YamlIsoVisitor<ExecutionContext>() {
-            @Override
-            public Yaml.Mapping.Entry visitMappingEntry(Yaml.Mapping.Entry entry, ExecutionContext ctx) {
-                Yaml.Mapping.Entry mappingEntry = super.visitMappingEntry(entry, ctx);
+        return Preconditions.check(new IsGitHubActionsWorkflow(), securityCheck());
+    }
 
-                // Look for ACTIONS_ALLOW_UNSECURE_COMMANDS - simple pattern matching
-                if (isInsecureCommandsEntry(mappingEntry)) {
-                    String value = getEnvironmentValue(mappingEntry);
-                    if (value != null && isTruthyValue(value)) {
-                        return SearchResult.found(mappingEntry,
-                                "Insecure commands are enabled via ACTIONS_ALLOW_UNSECURE_COMMANDS. " +
-                                        "This allows dangerous workflow commands that can lead to code injection. " +
-                                        "Remove this environment variable to disable insecure commands.");
-                    }
+    SecurityCheck securityCheck() {
+        return new SecurityCheck(INSECURE_COMMANDS_VAR) {
+            @Override
+            Yaml.Mapping.Entry checkEntry(Yaml.Mapping.Entry mappingEntry, ExecutionContext ctx) {
+                Map<String, String> env = getEnvironment(ctx);
+                String value = env == null ? null : env.get(INSECURE_COMMANDS_VAR);
+                if (value != null && isTruthyValue(value)) {
+                    return SearchResult.found(mappingEntry,
+                            "Insecure commands are enabled via ACTIONS_ALLOW_UNSECURE_COMMANDS. " +
+                                    "This allows dangerous workflow commands that can lead to code injection. " +
+                                    "Remove this environment variable to disable insecure commands.");
                 }
 
                 return mappingEntry;
             }
 
-            private boolean isInsecureCommandsEntry(Yaml.Mapping.Entry entry) {
-                if (!(entry.getKey() instanceof Yaml.Scalar)) {
-                    return false;
+            /**
+             * @return the {@code env:} of the workflow, job, step or container the variable is set in, or
+             * {@code null} when the entry is not in an {@code env:} at all.
+             */
+            private @Nullable Map<String, String> getEnvironment(ExecutionContext ctx) {
+                // variable -> env mapping -> env
+                Cursor env = getCursor().getParentTreeCursor().getParentTreeCursor();
+                if (!(env.getValue() instanceof Yaml.Mapping.Entry) ||
+                    !"env".equals(((Yaml.Mapping.Entry) env.getValue()).getKey().getValue())) {
+                    return null;
                 }
 
-                String key = ((Yaml.Scalar) entry.getKey()).getValue();
-                return INSECURE_COMMANDS_VAR.equals(key);
-            }
-
-            private String getEnvironmentValue(Yaml.Mapping.Entry entry) {
-                if (entry.getValue() instanceof Yaml.Scalar) {
-                    return ((Yaml.Scalar) entry.getValue()).getValue();
+                if (getSteps().isStepKey(env)) {
+                    return requireNonNull(getSteps().current()).getEnv();
+                }
+                Workflow workflow = Workflow.of(getCursor(), ctx);
+                if (env.getParentTreeCursor().getParentTreeCursor().getValue() instanceof Yaml.Document) {
+                    return workflow.getEnv();
+                }
+                Workflow.Job job = workflow.jobDeclaring(env);
+                if (job != null) {
+                    return job.getEnv();
                 }
-                return null;
+                Workflow.Container container = workflow.containerDeclaring(env);
+                return container == null ? null : container.getEnv();
             }
 
             private boolean isTruthyValue(String value) {
@@ -87,7 +104,7 @@ public class InsecureCommands extends Recipe {
                         "yes".equals(lowerValue) ||
                         "on".equals(lowerValue);
             }
-        });
+        };
     }
 
 }
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2026 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.github.security;
+
+import org.jspecify.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * A set of keywords compiled once per run into an Aho-Corasick automaton, which finds the longest
+ * keyword occurring anywhere in a value in a single pass over the value, no matter how many keywords
+ * there are. Keywords are not case-sensitive.
+ */
+final class KeywordMatcher {
+
+    private final Node root = new Node();
+
+    KeywordMatcher(Collection<String> keywords) {
+        for (String keyword : keywords) {
+            if (keyword.isEmpty()) {
+                continue;
+            }
+            Node node = root;
+            for (int i = 0; i < keyword.length(); i++) {
+                node = node.next.computeIfAbsent(fold(keyword.charAt(i)), c -> new Node());
+            }
+            if (node.keyword == null) {
+                node.keyword = keyword;
+            }
+        }
+        link();
+    }
+
+    /**
+     * @return the longest keyword in the value, as it was given, or {@code null} if there is none.
+     * Of keywords equally long, the one that ends first in the value wins.
+     */
+    @Nullable
+    String longestIn(String value) {
+        Node node = root;
+        String longest = null;
+        for (int i = 0; i < value.length(); i++) {
+            char c = fold(value.charAt(i));
+            Node next;
+            while ((next = node.next.get(c)) == null && node != root) {
+                node = node.fail;
+            }
+            node = next == null ? root : next;
+            if (node.longest != null && (longest == null || node.longest.length() > longest.length())) {
+                longest = node.longest;
+            }
+        }
+        return longest;
+    }
+
+    /**
+     * Links every node to the node for the longest proper suffix of its keyword prefix, breadth first
+     * so that the suffix is always linked before the nodes that fall back to it, and records the
+     * longest keyword that ends at each node, whether its own or one of its suffixes.
+     */
+    private void link() {
+        Queue<Node> queue = new ArrayDeque<>();
+        root.fail = root;
+        for (Node child : root.next.values()) {
+            child.fail = root;
+            child.longest = child.keyword;
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            Node node = queue.remove();
+            for (Map.Entry<Character, Node> edge : node.next.entrySet()) {
+                Node child = edge.getValue();
+                Node fail = node.fail;
+                Node target;
+                while ((target = fail.next.get(edge.getKey())) == null && fail != root) {
+                    fail = fail.fail;
+                }
+                child.fail = target == null ? root : target;
+                // A node's own keyword is always longer than any keyword ending at its suffix
+                child.longest = child.keyword != null ? child.keyword : child.fail.longest;
+                queue.add(child);
+            }
+        }
+    }
+
+    private static char fold(char c) {
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+
+    private static class Node {
+        final Map<Character, Node> next = new HashMap<>();
+        Node fail;
+
+        @Nullable
+        String keyword;
+
+        @Nullable
+        String longest;
+    }
+}
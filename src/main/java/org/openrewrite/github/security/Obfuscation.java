@@ -17,25 +17,32 @@ package org.openrewrite.github.security;
 
 import lombok.EqualsAndHashCode;
 import lombok.Value;
+import org.jspecify.annotations.Nullable;
 import org.openrewrite.ExecutionContext;
 import org.openrewrite.Preconditions;
 import org.openrewrite.Recipe;
 import org.openrewrite.TreeVisitor;
+import org.openrewrite.github.Expression;
+import org.openrewrite.github.ExpressionTemplate;
 import org.openrewrite.github.IsGitHubActionsWorkflow;
+import org.openrewrite.github.UsesReference;
 import org.openrewrite.marker.SearchResult;
-import org.openrewrite.yaml.YamlIsoVisitor;
 import org.openrewrite.yaml.tree.Yaml;
 
-import java.util.regex.Pattern;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import static java.util.Objects.requireNonNull;
 
 @Value
 @EqualsAndHashCode(callSuper = false)
 public class Obfuscation extends Recipe {
 
-    // Pattern to detect potentially obfuscated expressions
-    private static final Pattern OBFUSCATED_EXPRESSION_PATTERN = Pattern.compile(
-            "\\$\\{\\{[^}]*['\"]}|['\"]{2,}|\\{\\{[^}]*\\$"
-    );
+    // Functions whose result depends on nothing but their arguments
+    private static final Set<String> PURE_FUNCTIONS = new HashSet<>(Arrays.asList(
+            "contains", "startswith", "endswith", "format", "join", "tojson", "fromjson"
+    ));
 
     String displayName = "Find obfuscated GitHub Actions features";
 
@@ -48,16 +55,22 @@ public class Obfuscation extends Recipe {
     public TreeVisitor<?, ExecutionContext> getVisitor() {
         return Preconditions.check(
                 new IsGitHubActionsWorkflow(),
-                new ObfuscationVisitor()
+                securityCheck()
         );
     }
 
-    private static class ObfuscationVisitor extends YamlIsoVisitor<ExecutionContext> {
+    SecurityCheck securityCheck() {
+        return new ObfuscationVisitor();
+    }
+
+    private static class ObfuscationVisitor extends SecurityCheck {
 
-        @Override
-        public Yaml.Mapping.Entry visitMappingEntry(Yaml.Mapping.Entry entry, ExecutionContext ctx) {
-            Yaml.Mapping.Entry mappingEntry = super.visitMappingEntry(entry, ctx);
+        ObfuscationVisitor() {
+            super("uses", "run");
+        }
 
+        @Override
+        Yaml.Mapping.Entry checkEntry(Yaml.Mapping.Entry mappingEntry, ExecutionContext ctx) {
             if (isUsesEntry(mappingEntry)) {
                 return checkUsesEntry(mappingEntry);
             }
@@ -90,15 +103,15 @@ public class Obfuscation extends Recipe {
                 return entry;
             }
 
-            String usesValue = ((Yaml.Scalar) entry.getValue()).getValue();
+            UsesReference uses = UsesReference.parse(((Yaml.Scalar) entry.getValue()).getValue());
 
             // Skip local actions (start with ./) and docker actions
-            if (usesValue.startsWith("./") || usesValue.startsWith("docker://")) {
+            if (!uses.isRepository()) {
                 return entry;
             }
 
             // Check for obfuscated repository actions
-            if (hasObfuscatedPath(usesValue)) {
+            if (hasObfuscatedPath(uses)) {
                 return SearchResult.found(entry,
                         "Action reference contains obfuscated path components that may hide the actual action being used.");
             }
@@ -122,41 +135,44 @@ public class Obfuscation extends Recipe {
             return entry;
         }
 
-        private boolean hasObfuscatedPath(String usesValue) {
-            // Parse the action reference (format: owner/repo[/path]@ref)
-            String[] parts = usesValue.split("@", 2);
-            if (parts.length < 2) {
+        private boolean hasObfuscatedPath(UsesReference uses) {
+            // The action reference has the format owner/repo[/path]@ref
+            if (uses.getRef() == null) {
                 return false; // No version specified
             }
 
-            String actionPath = parts[0];
-
             // Check for double slashes (which create empty components)
-            if (actionPath.contains("//")) {
+            if (requireNonNull(uses.getActionPath()).contains("//")) {
                 return true;
             }
 
-            // Split by '/' and check components
-            String[] pathParts = actionPath.split("/");
+            // Check the owner, repository and every subpath component for current (.) or parent (..) directory references
+            if (isDotComponent(uses.getOwner()) || isDotComponent(uses.getRepo())) {
+                return true;
+            }
+            String subpath = uses.getSubpath();
+            return subpath != null && (("/" + subpath + "/").contains("/./") || ("/" + subpath + "/").contains("/../"));
+        }
 
-            // Check all path components for obfuscation patterns
-            for (String component : pathParts) {
-                // Check for obfuscation patterns
-                if (".".equals(component)) {
-                    return true; // Current directory reference
-                }
+        private boolean isDotComponent(@Nullable String component) {
+            return ".".equals(component) || "..".equals(component);
+        }
 
-                if ("..".equals(component)) {
-                    return true; // Parent directory reference
+        private boolean hasObfuscatedExpressions(String content) {
+            // An expression that refers to no context always evaluates to the same value, so the only
+            // reason to write it is to disguise that value, e.g. ${{ '}}' }} or ${{ format('{0}{1}', 'cu', 'rl') }}
+            for (Expression expression : ExpressionTemplate.parse(content).getExpressions()) {
+                if (!(expression instanceof Expression.Invalid) && !expression.anyMatch(this::dependsOnTheRun)) {
+                    return true;
                 }
             }
-
             return false;
         }
 
-        private boolean hasObfuscatedExpressions(String content) {
-            // Check for potentially obfuscated GitHub Actions expressions
-            return OBFUSCATED_EXPRESSION_PATTERN.matcher(content).find();
+        private boolean dependsOnTheRun(Expression expression) {
+            return expression instanceof Expression.Context ||
+                   (expression instanceof Expression.Call &&
+                    !PURE_FUNCTIONS.contains(((Expression.Call) expression).getFunction().toLowerCase()));
         }
     }
 }
@@ -15,37 +15,45 @@
  */
 package org.openrewrite.github.security;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+import lombok.AccessLevel;
 import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.Value;
 import org.jspecify.annotations.Nullable;
 import org.openrewrite.*;
 import org.openrewrite.github.IsGitHubActionsWorkflow;
+import org.openrewrite.github.KnownActionShas;
+import org.openrewrite.github.UsesReference;
+import org.openrewrite.github.table.RateLimitedGitHubApiLookups;
 import org.openrewrite.ipc.http.HttpSender;
 import org.openrewrite.yaml.YamlIsoVisitor;
 import org.openrewrite.yaml.tree.Yaml;
 
-import java.io.IOException;
-import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.ZoneOffset;
 import java.util.*;
-import java.util.regex.Matcher;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.regex.Pattern;
 
 import static java.util.Collections.emptyList;
-import static java.util.Collections.emptyMap;
-import static java.util.Collections.unmodifiableMap;
 import static java.util.Collections.unmodifiableSet;
+import static java.util.Objects.requireNonNull;
 
 @Value
 @EqualsAndHashCode(callSuper = false)
-public class PinGitHubActionsToSha extends ScanningRecipe<Map<String, String>> {
+public class PinGitHubActionsToSha extends ScanningRecipe<PinGitHubActionsToSha.Accumulator> {
 
     private static final Pattern SHA_PATTERN = Pattern.compile("^[a-f0-9]{40}$");
-    private static final Pattern USES_PATTERN = Pattern.compile("^([^/@]+/[^/@]+(?:/[^@]+)?)@(.+)$");
-    private static final Pattern SHA_RESPONSE_PATTERN = Pattern.compile("\\A\\s*\\{\\s*\"sha\"\\s*:\\s*\"([a-f0-9]{40})\"");
     private static final Pattern TAG_REF_PATTERN = Pattern.compile("^v?\\d.*");
+    private static final int DEFAULT_MAX_CONCURRENT_REQUESTS = 8;
 
     /**
      * Official GitHub-maintained action organizations.
@@ -91,6 +99,67 @@ public class PinGitHubActionsToSha extends ScanningRecipe<Map<String, String>> {
     @Nullable
     List<String> includedActions;
 
+    @Option(displayName = "Resolution cache directory",
+            description = "Optional directory in which commit SHAs resolved through the GitHub API are cached " +
+                    "between recipe runs. The directory may be shared by several processes. When omitted, " +
+                    "resolutions are only reused within a single run.",
+            required = false,
+            example = "/var/cache/rewrite/action-shas")
+    @Nullable
+    String resolutionCacheDirectory;
+
+    @Option(displayName = "Resolution cache TTL (hours)",
+            description = "How long a cached resolution of a tag ref remains valid. Branch refs are cached for " +
+                    "at most one hour. Defaults to 720 hours (30 days).",
+            required = false,
+            example = "168")
+    @Nullable
+    Integer resolutionCacheTtlHours;
+
+    @Option(displayName = "Maximum concurrent requests",
+            description = "How many GitHub API requests may be in flight at once while resolving references " +
+                    "that are not in the built-in static mapping. Defaults to 8.",
+            required = false,
+            example = "4")
+    @Nullable
+    Integer maxConcurrentRequests;
+
+    @Option(displayName = "Use GraphQL API",
+            description = "When set to `true` and a `githubApiToken` is provided, references that are not in the " +
+                    "built-in static mapping are resolved in batches through the GitHub GraphQL API. Any reference " +
+                    "the batch could not resolve is retried through the REST API. Defaults to `false`.",
+            required = false)
+    @Nullable
+    Boolean useGraphQlApi;
+
+    @Option(displayName = "API time budget (seconds)",
+            description = "How long GitHub API requests may keep waiting out rate limits over the whole run. " +
+                    "Rate-limited requests are retried with backoff, or after the limit resets, until the budget " +
+                    "runs out; those that cannot be retried in time are dropped and reported in a data table. " +
+                    "Defaults to 60 seconds.",
+            required = false,
+            example = "300")
+    @Nullable
+    Integer apiTimeBudgetSeconds;
+
+    @Option(displayName = "Git mirror directory",
+            description = "Optional directory of bare git mirrors of action repositories, laid out as " +
+                    "`<owner>/<repo>.git` or `<owner>/<repo>`. References that are not in the built-in static mapping " +
+                    "are resolved from the mirrors' refs. When set, the GitHub API is not used at all.",
+            required = false,
+            example = "/srv/git/mirrors")
+    @Nullable
+    String gitMirrorDirectory;
+
+    transient RateLimitedGitHubApiLookups rateLimitedLookups = new RateLimitedGitHubApiLookups(this);
+
+    /**
+     * {@code trustedOwners} and {@code includedActions}, compiled on first use since the options are
+     * only assigned after field initializers have run.
+     */
+    @Getter(AccessLevel.NONE)
+    transient AtomicReference<@Nullable ActionAllowList> allowList = new AtomicReference<>();
+
     String displayName = "Pin GitHub Actions to commit SHAs";
 
     String description = "Replaces mutable tag or branch references in GitHub Actions `uses:` declarations with " +
@@ -98,38 +167,148 @@ public class PinGitHubActionsToSha extends ScanningRecipe<Map<String, String>> {
                 "the action is not found, the GitHub API is used to resolve the reference at recipe " +
                 "run time. By default only third-party actions are pinned; set `pinOfficialActions` " +
                 "to include actions from the `actions` and `github` organizations. To pin only a " +
-                "specific allow-list of actions, set `includedActions`.";
+                "specific allow-list of actions, set `includedActions`. Set `resolutionCacheDirectory` to " +
+                "reuse API resolutions across runs, and `useGraphQlApi` to resolve them in batches. In environments " +
+                "without access to GitHub, set `gitMirrorDirectory` to resolve references from local bare mirrors instead.";
 
     Set<String> tags = unmodifiableSet( new HashSet<>( Arrays.asList( "github", "actions", "security", "supply-chain" ) ) );
 
+    public PinGitHubActionsToSha(@Nullable Boolean pinOfficialActions, @Nullable String githubApiToken,
+                                 @Nullable List<String> trustedOwners, @Nullable List<String> includedActions) {
+        this(pinOfficialActions, githubApiToken, trustedOwners, includedActions,
+                null, null, null, null, null, null);
+    }
+
+    @JsonCreator
+    public PinGitHubActionsToSha(@Nullable Boolean pinOfficialActions, @Nullable String githubApiToken,
+                                 @Nullable List<String> trustedOwners, @Nullable List<String> includedActions,
+                                 @Nullable String resolutionCacheDirectory, @Nullable Integer resolutionCacheTtlHours,
+                                 @Nullable Integer maxConcurrentRequests, @Nullable Boolean useGraphQlApi,
+                                 @Nullable Integer apiTimeBudgetSeconds, @Nullable String gitMirrorDirectory) {
+        this.pinOfficialActions = pinOfficialActions;
+        this.githubApiToken = githubApiToken;
+        this.trustedOwners = trustedOwners;
+        this.includedActions = includedActions;
+        this.resolutionCacheDirectory = resolutionCacheDirectory;
+        this.resolutionCacheTtlHours = resolutionCacheTtlHours;
+        this.maxConcurrentRequests = maxConcurrentRequests;
+        this.useGraphQlApi = useGraphQlApi;
+        this.apiTimeBudgetSeconds = apiTimeBudgetSeconds;
+        this.gitMirrorDirectory = gitMirrorDirectory;
+    }
+
     @Override
-    public Map<String, String> getInitialValue(ExecutionContext ctx) {
-        try (InputStream is = PinGitHubActionsToSha.class
-                .getResourceAsStream("/META-INF/rewrite/known-action-shas.properties")) {
-            if (is != null) {
-                Properties props = new Properties();
-                props.load(is);
-                Map<String, String> map = new LinkedHashMap<>();
-                for (String key : props.stringPropertyNames()) {
-                    map.put(key, props.getProperty(key));
+    public Accumulator getInitialValue(ExecutionContext ctx) {
+        return new Accumulator();
+    }
+
+    @Override
+    public TreeVisitor<?, ExecutionContext> getScanner(Accumulator acc) {
+        KnownActionShas knownShas = KnownActionShas.bundled();
+        ActionAllowList allowList = allowList();
+        return Preconditions.check(new IsGitHubActionsWorkflow(), new YamlIsoVisitor<ExecutionContext>() {
+            @Override
+            public Yaml.Mapping.Entry visitMappingEntry(Yaml.Mapping.Entry entry, ExecutionContext ctx) {
+                if (entry.getKey() instanceof Yaml.Scalar &&
+                        "uses".equals(((Yaml.Scalar) entry.getKey()).getValue()) &&
+                        entry.getValue() instanceof Yaml.Scalar) {
+                    UsesReference uses = pinnableUses(((Yaml.Scalar) entry.getValue()).getValue(), allowList);
+                    if (uses != null && knownShas.get(uses.getActionPath(), uses.getRef()) == null) {
+                        acc.getUnresolved().add(new ActionRef(uses.getOwnerRepo(), uses.getRef()));
+                    }
                 }
-                return unmodifiableMap(map);
+                return super.visitMappingEntry(entry, ctx);
             }
-        } catch (IOException ignored) {
-        }
-        return emptyMap();
+        });
     }
 
+    /**
+     * Resolve every reference the scanner could not find in the known SHAs, locally or through the
+     * GitHub API, before any file is edited, issuing up to {@code maxConcurrentRequests} requests at
+     * a time. Resolutions are recorded in the accumulator for the edit phase.
+     */
     @Override
-    public TreeVisitor<?, ExecutionContext> getScanner(Map<String, String> acc) {
-        return TreeVisitor.noop();
+    public Collection<? extends SourceFile> generate(Accumulator acc, ExecutionContext ctx) {
+        ActionRefResolutionCache resolutions = ActionRefResolutionCache.get(ctx);
+        List<ActionRefResolver> resolvers = resolvers();
+        List<ActionRef> pending = new ArrayList<>();
+        for (ActionRef actionRef : acc.getUnresolved()) {
+            if (resolutions.contains(actionRef.getOwnerRepo(), actionRef.getRef())) {
+                continue;
+            }
+            String sha = resolveLocally(actionRef.getOwnerRepo(), actionRef.getRef(), resolvers, ctx);
+            if (sha != null) {
+                acc.getResolved().put(actionRef.getOwnerRepo() + '@' + actionRef.getRef(), sha);
+            } else {
+                pending.add(actionRef);
+            }
+        }
+        if (!pending.isEmpty() && gitMirrorDirectory == null) {
+            GitHubApiScheduler api = scheduler(ctx);
+            ActionRefDiskCache diskCache = diskCache();
+            try {
+                if (Boolean.TRUE.equals(useGraphQlApi) && githubApiToken != null) {
+                    pending = resolveViaGraphQl(pending, resolutions, diskCache, api);
+                }
+                prefetchViaGitHubApi(pending, resolutions, diskCache, api);
+            } finally {
+                reportRateLimited(api, ctx);
+            }
+        }
+        for (ActionRef actionRef : acc.getUnresolved()) {
+            String sha = resolutions.get(actionRef.getOwnerRepo(), actionRef.getRef());
+            if (sha != null) {
+                acc.getResolved().put(actionRef.getOwnerRepo() + '@' + actionRef.getRef(), sha);
+            }
+        }
+        return emptyList();
+    }
+
+    private void prefetchViaGitHubApi(List<ActionRef> pending, ActionRefResolutionCache resolutions,
+                                      @Nullable ActionRefDiskCache diskCache, GitHubApiScheduler api) {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        int parallelism = Math.min(pending.size(),
+                maxConcurrentRequests == null ? DEFAULT_MAX_CONCURRENT_REQUESTS : Math.max(1, maxConcurrentRequests));
+        if (parallelism == 1) {
+            for (ActionRef actionRef : pending) {
+                resolveViaGitHubApi(actionRef.getOwnerRepo(), actionRef.getRef(), resolutions, diskCache, api);
+            }
+            return;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "pin-github-actions-to-sha");
+            thread.setDaemon(true);
+            return thread;
+        });
+        List<Future<?>> futures = new ArrayList<>(pending.size());
+        for (ActionRef actionRef : pending) {
+            futures.add(executor.submit(() -> resolveViaGitHubApi(
+                    actionRef.getOwnerRepo(), actionRef.getRef(), resolutions, diskCache, api)));
+        }
+        executor.shutdown();
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                // Anything left unresolved is retried by the edit phase, the other lookups carry on
+            } catch (InterruptedException e) {
+                executor.shutdownNow();
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
     }
 
     @Override
-    public TreeVisitor<?, ExecutionContext> getVisitor(Map<String, String> knownShas) {
-        boolean pinOfficial = Boolean.TRUE.equals(pinOfficialActions);
-        String apiToken = githubApiToken;
-        List<String> allowList = includedActions == null ? emptyList() : includedActions;
+    public TreeVisitor<?, ExecutionContext> getVisitor(Accumulator acc) {
+        KnownActionShas knownShas = KnownActionShas.bundled();
+        ActionAllowList allowList = allowList();
+        List<ActionRefResolver> resolvers = resolvers();
+        ActionRefDiskCache diskCache = diskCache();
         return Preconditions.check(
                 new IsGitHubActionsWorkflow(),
                 new YamlIsoVisitor<ExecutionContext>() {
@@ -191,45 +370,28 @@ public class PinGitHubActionsToSha extends ScanningRecipe<Map<String, String>> {
                         if (!(e.getValue() instanceof Yaml.Scalar)) {
                             return null;
                         }
-                        String usesValue = ((Yaml.Scalar) e.getValue()).getValue();
-
-                        // Skip local actions and docker references
-                        if (usesValue.startsWith("./") || usesValue.startsWith("docker://")) {
+                        UsesReference uses = pinnableUses(((Yaml.Scalar) e.getValue()).getValue(), allowList);
+                        if (uses == null) {
                             return null;
                         }
+                        String actionPath = requireNonNull(uses.getActionPath());   // e.g. "actions/checkout" or "owner/repo/subpath"
+                        String ownerRepo = requireNonNull(uses.getOwnerRepo());
+                        String ref = requireNonNull(uses.getRef());                 // e.g. "v4" or "main"
 
-                        Matcher m = USES_PATTERN.matcher(usesValue);
-                        if (!m.matches()) {
-                            return null;
+                        // Resolve SHA: static map, then what generate() resolved, then local resolvers and the API
+                        String sha = knownShas.get(actionPath, ref);
+                        if (sha == null) {
+                            sha = acc.getResolved().get(ownerRepo + '@' + ref);
                         }
-
-                        String actionPath = m.group(1);   // e.g. "actions/checkout" or "owner/repo/subpath"
-                        String ref = m.group(2);           // e.g. "v4" or "main"
-
-                        // Already pinned to a SHA
-                        if (SHA_PATTERN.matcher(ref).matches()) {
-                            return null;
+                        if (sha == null) {
+                            sha = resolveLocally(ownerRepo, ref, resolvers, ctx);
                         }
-
-                        // Determine the org from the action path
-                        String org = actionPath.contains("/") ? actionPath.substring(0, actionPath.indexOf('/')) : actionPath;
-                        if (trustedOwners != null && trustedOwners.contains(org)) {
-                            // Do not pin SHA for trusted orgs
-                            return null;
+                        if (sha == null && gitMirrorDirectory == null) {
+                            GitHubApiScheduler api = scheduler(ctx);
+                            sha = resolveViaGitHubApi(ownerRepo, ref, ActionRefResolutionCache.get(ctx),
+                                    diskCache, api);
+                            reportRateLimited(api, ctx);
                         }
-                        if (!allowList.isEmpty()) {
-                            // Allow-list mode: only pin actions matching an entry in the list.
-                            // pinOfficialActions is bypassed — explicit allow always wins.
-                            if (!matchesAllowList(actionPath, allowList)) {
-                                return null;
-                            }
-                        } else if (!pinOfficial && OFFICIAL_ORGS.contains(org)) {
-                            // Default mode: skip official actions unless opted in
-                            return null;
-                        }
-
-                        // Resolve SHA: static map first, then API fallback
-                        String sha = resolveToSha(actionPath, ref, ctx);
                         if (sha == null) {
                             return null;
                         }
@@ -241,56 +403,178 @@ public class PinGitHubActionsToSha extends ScanningRecipe<Map<String, String>> {
                                 formatRefComment(ref)
                         );
                     }
+                }
+        );
+    }
+
+    /**
+     * @return the parsed {@code usesValue}, or {@code null} when the reference is local, a docker
+     * image, already pinned, or excluded by the recipe's options.
+     */
+    private @Nullable UsesReference pinnableUses(String usesValue, ActionAllowList allowList) {
+        // Skip local actions, docker references and anything that is not owner/repo[/subpath]@ref
+        UsesReference uses = UsesReference.parse(usesValue);
+        if (!uses.isWellFormed() || uses.getRef() == null || uses.getRef().isEmpty()) {
+            return null;
+        }
 
-                    private @Nullable String resolveToSha(String actionPath, String ref, ExecutionContext ctx) {
-                        String key = actionPath + "@" + ref;
+        // Already pinned to a SHA
+        if (uses.isSha()) {
+            return null;
+        }
 
-                        // 1. Check known SHAs map
-                        String sha = knownShas.get(key);
-                        if (sha != null) {
-                            return sha;
-                        }
+        String org = requireNonNull(uses.getOwner());
+        if (allowList.isTrustedOwner(org)) {
+            // Do not pin SHA for trusted orgs
+            return null;
+        }
+        if (allowList.isAllowListed()) {
+            // Allow-list mode: only pin actions matching an entry in the list.
+            // pinOfficialActions is bypassed — explicit allow always wins.
+            if (!allowList.allows(uses)) {
+                return null;
+            }
+        } else if (!Boolean.TRUE.equals(pinOfficialActions) && OFFICIAL_ORGS.contains(org)) {
+            // Default mode: skip official actions unless opted in
+            return null;
+        }
+        return uses;
+    }
 
-                        // 2. Fall back to GitHub API
-                        return resolveViaGitHubApi(actionPath, ref, ctx);
-                    }
+    private List<ActionRefResolver> resolvers() {
+        if (gitMirrorDirectory == null) {
+            return DiscoveredResolvers.INSTANCE;
+        }
+        List<ActionRefResolver> resolvers = new ArrayList<>(DiscoveredResolvers.INSTANCE.size() + 1);
+        resolvers.add(new GitMirrorActionRefResolver(Paths.get(gitMirrorDirectory)));
+        resolvers.addAll(DiscoveredResolvers.INSTANCE);
+        return resolvers;
+    }
 
-                    private @Nullable String resolveViaGitHubApi(String actionPath, String ref, ExecutionContext ctx) {
-                        // Extract owner/repo from the action path (strip subpath if present)
-                        String ownerRepo = actionPath;
-                        int thirdSlash = ownerRepo.indexOf('/', ownerRepo.indexOf('/') + 1);
-                        if (thirdSlash > 0) {
-                            ownerRepo = ownerRepo.substring(0, thirdSlash);
-                        }
+    private ActionAllowList allowList() {
+        ActionAllowList compiled = allowList.get();
+        if (compiled == null) {
+            // Threads racing here compile the same options, so whichever wins is as good as any
+            compiled = new ActionAllowList(trustedOwners, includedActions);
+            allowList.compareAndSet(null, compiled);
+        }
+        return compiled;
+    }
 
-                        String apiUrl = "https://api.github.com/repos/" + ownerRepo + "/commits/" + ref;
-
-                        HttpSender httpSender = HttpSenderExecutionContextView.view(ctx).getHttpSender();
-                        HttpSender.Request.Builder request = httpSender.get(apiUrl)
-                                .withHeader("Accept", "application/vnd.github+json")
-                                .withHeader("X-GitHub-Api-Version", "2022-11-28")
-                                .withAuthentication("Bearer", apiToken);
-
-                        try (HttpSender.Response response = httpSender.send(request.build())) {
-                            if (!response.isSuccessful()) {
-                                return null;
-                            }
-                            String responseBody = new String(response.getBodyAsBytes(), StandardCharsets.UTF_8);
-                            Matcher shaMatcher = SHA_RESPONSE_PATTERN.matcher(responseBody);
-                            if (shaMatcher.find()) {
-                                String sha = shaMatcher.group(1);
-                                if (SHA_PATTERN.matcher(sha).matches()) {
-                                    return sha;
-                                }
-                            }
-                        } catch (RuntimeException e) {
-                            // Silently skip actions we can't resolve — don't break the build
-                        }
+    private static @Nullable String resolveLocally(String ownerRepo, String ref, List<ActionRefResolver> resolvers,
+                                                   ExecutionContext ctx) {
+        for (ActionRefResolver resolver : resolvers) {
+            String sha = resolver.resolve(ownerRepo, ref, ctx);
+            if (sha != null && SHA_PATTERN.matcher(sha).matches()) {
+                return sha;
+            }
+        }
+        return null;
+    }
 
-                        return null;
-                    }
+    private GitHubApiScheduler scheduler(ExecutionContext ctx) {
+        return GitHubApiScheduler.get(ctx, HttpSenderExecutionContextView.view(ctx).getHttpSender(), githubApiToken,
+                apiTimeBudgetSeconds == null ? GitHubApiScheduler.DEFAULT_BUDGET : Duration.ofSeconds(apiTimeBudgetSeconds));
+    }
+
+    private void reportRateLimited(GitHubApiScheduler api, ExecutionContext ctx) {
+        for (GitHubApiScheduler.RateLimitedLookup lookup : api.drainRateLimited()) {
+            rateLimitedLookups.insertRow(ctx, new RateLimitedGitHubApiLookups.Row(
+                    lookup.getLookup(), lookup.getAttempts(), lookup.isDropped() ? "Dropped" : "Deferred"));
+        }
+    }
+
+    private @Nullable ActionRefDiskCache diskCache() {
+        return resolutionCacheDirectory == null ? null : new ActionRefDiskCache(
+                Paths.get(resolutionCacheDirectory),
+                resolutionCacheTtlHours == null ? ActionRefDiskCache.DEFAULT_TTL : Duration.ofHours(resolutionCacheTtlHours));
+    }
+
+    /**
+     * @return the references that neither the disk cache nor the GraphQL API could resolve.
+     */
+    private List<ActionRef> resolveViaGraphQl(List<ActionRef> pending, ActionRefResolutionCache resolutions,
+                                              @Nullable ActionRefDiskCache diskCache, GitHubApiScheduler api) {
+        List<ActionRef> uncached = new ArrayList<>(pending.size());
+        for (ActionRef actionRef : pending) {
+            String cached = diskCache == null ? null : diskCache.get(actionRef.getOwnerRepo(), actionRef.getRef(),
+                    isTagRef(actionRef.getRef()));
+            if (cached == null) {
+                uncached.add(actionRef);
+            } else {
+                resolutions.resolve(actionRef.getOwnerRepo(), actionRef.getRef(), () -> cached);
+            }
+        }
+
+        Map<ActionRef, String> shas = new GraphQlRefResolver(api, requireNonNull(githubApiToken)).resolve(uncached);
+        List<ActionRef> unresolved = new ArrayList<>();
+        for (ActionRef actionRef : uncached) {
+            String sha = shas.get(actionRef);
+            if (sha == null) {
+                unresolved.add(actionRef);
+                continue;
+            }
+            resolutions.resolve(actionRef.getOwnerRepo(), actionRef.getRef(), () -> sha);
+            if (diskCache != null) {
+                diskCache.put(actionRef.getOwnerRepo(), actionRef.getRef(), sha);
+            }
+        }
+        return unresolved;
+    }
+
+    private @Nullable String resolveViaGitHubApi(String ownerRepo, String ref, ActionRefResolutionCache resolutions,
+                                                 @Nullable ActionRefDiskCache diskCache, GitHubApiScheduler api) {
+        // Each distinct owner/repo@ref is requested at most once per run, whether it resolves or not
+        return resolutions.resolve(ownerRepo, ref, () -> {
+            if (diskCache == null) {
+                return fetchSha(ownerRepo, ref, api, null);
+            }
+            boolean tag = isTagRef(ref);
+            String sha = diskCache.get(ownerRepo, ref, tag);
+            if (sha == null) {
+                // An expired entry still lets GitHub answer with a 304 when the ref has not moved
+                sha = fetchSha(ownerRepo, ref, api, diskCache.peek(ownerRepo, ref));
+                if (sha != null) {
+                    diskCache.put(ownerRepo, ref, sha);
                 }
-        );
+            }
+            return sha;
+        });
+    }
+
+    /**
+     * Ask for the {@code sha} media type so the response body is just the 40 character commit SHA
+     * rather than the whole commit document. When a previously resolved SHA is known, it is sent as
+     * the entity tag, and GitHub answers {@code 304 Not Modified} if the ref still points at it.
+     */
+    private @Nullable String fetchSha(String ownerRepo, String ref, GitHubApiScheduler api, @Nullable String knownSha) {
+        String apiUrl = "https://api.github.com/repos/" + ownerRepo + "/commits/" + ref;
+
+        HttpSender.Request.Builder request = api.getHttpSender().get(apiUrl)
+                .withHeader("Accept", "application/vnd.github.sha")
+                .withHeader("X-GitHub-Api-Version", "2022-11-28")
+                .withAuthentication("Bearer", githubApiToken);
+        if (knownSha != null) {
+            request.withHeader("If-None-Match", '"' + knownSha + '"');
+        }
+
+        try {
+            byte[] body = api.send(request.build(), ownerRepo + '@' + ref, "core");
+            if (body == null) {
+                return null;
+            }
+            if (body.length == 0) {
+                return knownSha;
+            }
+            String sha = new String(body, StandardCharsets.UTF_8).trim();
+            if (SHA_PATTERN.matcher(sha).matches()) {
+                return sha;
+            }
+        } catch (RuntimeException e) {
+            // Silently skip actions we can't resolve — don't break the build
+        }
+
+        return null;
     }
 
     /**
@@ -314,6 +598,13 @@ public class PinGitHubActionsToSha extends ScanningRecipe<Map<String, String>> {
         return formatted + existingPrefix;
     }
 
+    /**
+     * @return whether {@code ref} looks like a version tag rather than a branch.
+     */
+    static boolean isTagRef(String ref) {
+        return TAG_REF_PATTERN.matcher(ref).matches();
+    }
+
     /**
      * Format the comment text that will be written next to the pinned SHA. Tag-like refs
      * (anything starting with {@code v?\d}, e.g. {@code v4}, {@code v1.2.3}, {@code 2.1.0}) are
@@ -322,48 +613,46 @@ public class PinGitHubActionsToSha extends ScanningRecipe<Map<String, String>> {
      * resolution date in UTC, since the SHA they point at can change at any time.
      */
     static String formatRefComment(String ref) {
-        if (TAG_REF_PATTERN.matcher(ref).matches()) {
+        if (isTagRef(ref)) {
             return ref;
         }
         return ref + " @ " + LocalDate.now(ZoneOffset.UTC);
     }
 
-    private static boolean matchesAllowList(String actionPath, List<String> allowList) {
-        // actionPath may be "owner/repo" or "owner/repo/subpath".
-        int firstSlash = actionPath.indexOf('/');
-        String owner = firstSlash > 0 ? actionPath.substring(0, firstSlash) : actionPath;
-        int secondSlash = actionPath.indexOf('/', firstSlash + 1);
-        String ownerRepo = secondSlash > 0 ? actionPath.substring(0, secondSlash) : actionPath;
+    @Value
+    public static class Accumulator {
+        /**
+         * Distinct references found by the scanner that are not in the known SHAs, which are
+         * looked up in the shared {@link KnownActionShas#bundled()} table instead of being carried here.
+         */
+        Set<ActionRef> unresolved = new LinkedHashSet<>();
+
+        /**
+         * Commit SHAs of the {@link #unresolved} references that {@code generate} could resolve,
+         * keyed by {@code owner/repo@ref}.
+         */
+        Map<String, String> resolved = new LinkedHashMap<>();
+    }
 
-        for (String pattern : allowList) {
-            if (pattern == null) {
-                continue;
-            }
-            String p = pattern.trim();
-            if (p.isEmpty()) {
-                continue;
-            }
-            // owner/* — match any repo within the org
-            if (p.endsWith("/*")) {
-                String allowedOwner = p.substring(0, p.length() - 2);
-                if (allowedOwner.equals(owner)) {
-                    return true;
-                }
-                continue;
-            }
-            // owner/repo/subpath — exact match against the full path
-            if (p.indexOf('/') != p.lastIndexOf('/')) {
-                if (p.equals(actionPath)) {
-                    return true;
-                }
-                continue;
-            }
-            // owner/repo — match against owner/repo, ignoring any subpath on the action
-            if (p.equals(ownerRepo)) {
-                return true;
+    @Value
+    public static class ActionRef {
+        String ownerRepo;
+        String ref;
+    }
+
+    /**
+     * {@link ActionRefResolver} implementations registered with {@link ServiceLoader}, discovered once per JVM.
+     */
+    private static class DiscoveredResolvers {
+        static final List<ActionRefResolver> INSTANCE;
+
+        static {
+            List<ActionRefResolver> resolvers = new ArrayList<>();
+            for (ActionRefResolver resolver : ServiceLoader.load(ActionRefResolver.class, PinGitHubActionsToSha.class.getClassLoader())) {
+                resolvers.add(resolver);
             }
+            INSTANCE = Collections.unmodifiableList(resolvers);
         }
-        return false;
     }
 
     private static class PinResult {
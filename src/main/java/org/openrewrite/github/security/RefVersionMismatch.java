@@ -17,20 +17,26 @@ package org.openrewrite.github.security;
 
 import lombok.EqualsAndHashCode;
 import lombok.Value;
+import org.jspecify.annotations.Nullable;
 import org.openrewrite.*;
 import org.openrewrite.github.IsGitHubActionsWorkflow;
+import org.openrewrite.github.KnownActionShas;
+import org.openrewrite.github.UsesReference;
 import org.openrewrite.marker.SearchResult;
-import org.openrewrite.yaml.YamlIsoVisitor;
 import org.openrewrite.yaml.tree.Yaml;
 
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import static java.util.Objects.requireNonNull;
+
 @Value
 @EqualsAndHashCode(callSuper = false)
 public class RefVersionMismatch extends Recipe {
 
-    private static final Pattern SHA_PATTERN = Pattern.compile("^[a-f0-9]{40}$");
-
     // Version comment patterns - matches various comment formats
     private static final Pattern[] VERSION_COMMENT_PATTERNS = {
             Pattern.compile("#\\s*tag\\s*=\\s*(v?\\d+(?:\\.\\d+)*(?:\\.\\d+)?)"),
@@ -41,27 +47,34 @@ public class RefVersionMismatch extends Recipe {
 
     String displayName = "Find commit SHAs with potentially mismatched version comments";
 
-    String description = "Find GitHub Actions that are pinned to commit SHAs but have version comments that may not match the actual pinned version. " +
+    String description = "Find GitHub Actions that are pinned to commit SHAs but have version comments that do not match the actual pinned version. " +
                 "This can lead to confusion about which version is actually being used and potential security issues if the comment " +
-                "misleads developers about the pinned version. " +
+                "misleads developers about the pinned version. The tags of a commit are looked up in the built-in table of known " +
+                "action SHAs and in any references resolved earlier in the same run, so pins to commits that are not known are not reported. " +
                 "Based on [zizmor's `ref-version-mismatch` audit](https://github.com/woodruffw/zizmor/blob/main/crates/zizmor/src/audit/ref_version_mismatch.rs).";
 
     @Override
     public TreeVisitor<?, ExecutionContext> getVisitor() {
         return Preconditions.check(
                 new IsGitHubActionsWorkflow(),
-                new RefVersionMismatchVisitor()
+                securityCheck()
         );
     }
 
-    private static class RefVersionMismatchVisitor extends YamlIsoVisitor<ExecutionContext> {
+    SecurityCheck securityCheck() {
+        return new RefVersionMismatchVisitor();
+    }
 
-        @Override
-        public Yaml.Mapping.Entry visitMappingEntry(Yaml.Mapping.Entry entry, ExecutionContext ctx) {
-            Yaml.Mapping.Entry mappingEntry = super.visitMappingEntry(entry, ctx);
+    private static class RefVersionMismatchVisitor extends SecurityCheck {
 
+        RefVersionMismatchVisitor() {
+            super("uses");
+        }
+
+        @Override
+        Yaml.Mapping.Entry checkEntry(Yaml.Mapping.Entry mappingEntry, ExecutionContext ctx) {
             if (isUsesEntry(mappingEntry)) {
-                return checkUsesEntry(mappingEntry);
+                return checkUsesEntry(mappingEntry, ctx);
             }
 
             return mappingEntry;
@@ -75,81 +88,156 @@ public class RefVersionMismatch extends Recipe {
             return "uses".equals(key.getValue());
         }
 
-        private Yaml.Mapping.Entry checkUsesEntry(Yaml.Mapping.Entry entry) {
+        private Yaml.Mapping.Entry checkUsesEntry(Yaml.Mapping.Entry entry, ExecutionContext ctx) {
             if (!(entry.getValue() instanceof Yaml.Scalar)) {
                 return entry;
             }
 
-            String usesValue = ((Yaml.Scalar) entry.getValue()).getValue();
+            UsesReference uses = UsesReference.parse(((Yaml.Scalar) entry.getValue()).getValue());
 
-            // Only check repository actions (not local or docker actions)
-            if (usesValue.startsWith("./") || usesValue.startsWith("docker://")) {
+            // Only check repository actions (not local or docker actions) pinned to a commit SHA
+            if (!uses.isRepository() || !uses.isSha()) {
                 return entry;
             }
 
-            // Check if it's pinned to a commit SHA
-            String[] parts = usesValue.split("@", 2);
-            if (parts.length < 2) {
-                return entry; // No version specified
+            // Look for version comments in the surrounding context
+            String comment = findVersionComment(entry);
+            if (comment == null) {
+                return entry;
             }
 
-            String version = parts[1];
-            if (!SHA_PATTERN.matcher(version).matches()) {
-                return entry; // Not a commit SHA
+            Set<String> tags = tagsPointingAt(uses, ctx);
+            if (tags.isEmpty() || matchesAnyTag(comment, tags)) {
+                // Either the comment is right, or nothing is known about the commit to say otherwise
+                return entry;
             }
+            return SearchResult.found(entry,
+                    "Version comment `" + comment + "` does not match the pinned commit, which is tagged " +
+                    String.join(", ", tags) + ".");
+        }
 
-            // Look for version comments in the surrounding context
-            if (hasVersionComment(entry)) {
-                return SearchResult.found(entry,
-                        "Action is pinned to a commit SHA but has a version comment that may not match. " +
-                                "Verify the comment reflects the actual pinned version.");
+        /**
+         * Look up the tags of a commit in the known SHAs and in whatever {@link PinGitHubActionsToSha}
+         * resolved earlier in this run, each in constant time.
+         */
+        private Set<String> tagsPointingAt(UsesReference uses, ExecutionContext ctx) {
+            String sha = requireNonNull(uses.getRef());
+            String ownerRepo = requireNonNull(uses.getOwnerRepo());
+            Set<String> tags = new TreeSet<>(KnownActionShas.bundled().refsPointingAt(requireNonNull(uses.getActionPath()), sha));
+            if (tags.isEmpty() && uses.getSubpath() != null) {
+                // Actions in a subpath share the tags of their repository
+                tags.addAll(KnownActionShas.bundled().refsPointingAt(ownerRepo, sha));
             }
+            tags.addAll(ActionRefResolutionCache.get(ctx).refsPointingAt(ownerRepo, sha));
+            return tags;
+        }
 
-            return entry;
+        /**
+         * A comment matches a tag of the same version, with or without the {@code v} prefix, or a
+         * less precise one, so {@code # v4} matches a commit tagged {@code v4.1.0}.
+         */
+        private boolean matchesAnyTag(String comment, Set<String> tags) {
+            String commented = unprefixed(comment);
+            for (String tag : tags) {
+                String tagged = unprefixed(tag);
+                if (tagged.equals(commented) || tagged.startsWith(commented + ".")) {
+                    return true;
+                }
+            }
+            return false;
         }
 
-        private boolean hasVersionComment(Yaml.Mapping.Entry entry) {
-            // Check for version comments in the current line or preceding lines
+        private String unprefixed(String version) {
+            return version.startsWith("v") || version.startsWith("V") ? version.substring(1) : version;
+        }
 
-            // Look at the entry's prefix for inline comments
-            String prefix = entry.getPrefix();
-            if (prefix != null && containsVersionComment(prefix)) {
-                return true;
+        private @Nullable String findVersionComment(Yaml.Mapping.Entry entry) {
+            // A comment on the same line as the action is the most specific
+            String comment = versionCommentIn(findInlineComment());
+            if (comment != null) {
+                return comment;
             }
 
-            // Check if there are preceding comments in the same step
-            return checkPrecedingComments(entry);
+            // Otherwise look at the lines just above the entry, or above the step it is in
+            comment = versionCommentIn(linesAfterFirst(entry.getPrefix()));
+            if (comment != null) {
+                return comment;
+            }
+            return findPrecedingComment();
         }
 
-        private boolean containsVersionComment(String text) {
-            for (Pattern pattern : VERSION_COMMENT_PATTERNS) {
-                if (pattern.matcher(text).find()) {
-                    return true;
+        /**
+         * A comment at the end of a line is parsed into the prefix of whatever comes next, so the
+         * comment after the {@code uses} value is the first line of the prefix of the next entry at
+         * the same or any enclosing level, or of the end of the document.
+         */
+        private @Nullable String findInlineComment() {
+            Cursor cursor = getCursor();
+            for (Cursor parent = cursor.getParentTreeCursor(); ; cursor = parent, parent = parent.getParentTreeCursor()) {
+                Object container = parent.getValue();
+                List<? extends Yaml> siblings;
+                if (container instanceof Yaml.Mapping) {
+                    siblings = ((Yaml.Mapping) container).getEntries();
+                } else if (container instanceof Yaml.Sequence) {
+                    siblings = ((Yaml.Sequence) container).getEntries();
+                } else if (container instanceof Yaml.Document) {
+                    return firstLine(((Yaml.Document) container).getEnd().getPrefix());
+                } else if (container instanceof Yaml.Documents || parent.isRoot()) {
+                    return null;
+                } else {
+                    continue;
+                }
+
+                Yaml node = cursor.getValue();
+                for (int i = 0; i < siblings.size() - 1; i++) {
+                    if (siblings.get(i).getId().equals(node.getId())) {
+                        return firstLine(siblings.get(i + 1).getPrefix());
+                    }
                 }
             }
-            return false;
         }
 
-        private boolean checkPrecedingComments(Yaml.Mapping.Entry entry) {
-            // In OpenRewrite, we can check the source lines around this entry
-            // This is a simplified version - in practice, you'd need to check
-            // the actual source text and comments more carefully
+        private String firstLine(String prefix) {
+            int newline = prefix.indexOf('\n');
+            return newline < 0 ? prefix : prefix.substring(0, newline);
+        }
 
+        /**
+         * The text of a prefix up to its first newline ends the line before, so is not about this node.
+         */
+        private String linesAfterFirst(String prefix) {
+            int newline = prefix.indexOf('\n');
+            return newline < 0 ? "" : prefix.substring(newline + 1);
+        }
+
+        private @Nullable String versionCommentIn(@Nullable String text) {
+            if (text == null) {
+                return null;
+            }
+            for (Pattern pattern : VERSION_COMMENT_PATTERNS) {
+                Matcher matcher = pattern.matcher(text);
+                if (matcher.find()) {
+                    return matcher.group(1);
+                }
+            }
+            return null;
+        }
+
+        private @Nullable String findPrecedingComment() {
             // Check if we're in a sequence entry (step) that might have comments
             Cursor current = getCursor();
             while (current != null) {
                 Object value = current.getValue();
                 if (value instanceof Yaml.Sequence.Entry) {
-                    Yaml.Sequence.Entry seqEntry = (Yaml.Sequence.Entry) value;
-                    String seqPrefix = seqEntry.getPrefix();
-                    if (seqPrefix != null && containsVersionComment(seqPrefix)) {
-                        return true;
+                    String comment = versionCommentIn(linesAfterFirst(((Yaml.Sequence.Entry) value).getPrefix()));
+                    if (comment != null) {
+                        return comment;
                     }
                 }
                 current = current.getParent();
             }
 
-            return false;
+            return null;
         }
     }
 }
@@ -22,8 +22,8 @@ import org.openrewrite.Preconditions;
 import org.openrewrite.Recipe;
 import org.openrewrite.TreeVisitor;
 import org.openrewrite.github.IsGitHubActionsWorkflow;
+import org.openrewrite.github.Workflow;
 import org.openrewrite.marker.SearchResult;
-import org.openrewrite.yaml.YamlIsoVisitor;
 import org.openrewrite.yaml.tree.Yaml;
 
 @Value
@@ -39,13 +39,15 @@ public class SecretsInherit extends Recipe {
 
     @Override
     public TreeVisitor<?, ExecutionContext> getVisitor() {
-        return Preconditions.check(new IsGitHubActionsWorkflow(), new YamlIsoVisitor<ExecutionContext>() {
-            @Override
-            public Yaml.Mapping.Entry visitMappingEntry(Yaml.Mapping.Entry entry, ExecutionContext ctx) {
-                Yaml.Mapping.Entry mappingEntry = super.visitMappingEntry(entry, ctx);
+        return Preconditions.check(new IsGitHubActionsWorkflow(), securityCheck());
+    }
 
-                // Look for "secrets: inherit" - simple pattern matching
-                if (isSecretsInheritEntry(mappingEntry)) {
+    SecurityCheck securityCheck() {
+        return new SecurityCheck("secrets") {
+            @Override
+            Yaml.Mapping.Entry checkEntry(Yaml.Mapping.Entry mappingEntry, ExecutionContext ctx) {
+                Workflow.Job job = Workflow.of(getCursor(), ctx).jobDeclaring(getCursor());
+                if (job != null && "inherit".equals(job.getSecrets())) {
                     return SearchResult.found(mappingEntry,
                             "This reusable workflow unconditionally inherits all parent secrets. " +
                                     "Consider explicitly passing only the required secrets to follow the principle of least privilege " +
@@ -54,26 +56,7 @@ public class SecretsInherit extends Recipe {
 
                 return mappingEntry;
             }
-
-            private boolean isSecretsInheritEntry(Yaml.Mapping.Entry entry) {
-                if (!(entry.getKey() instanceof Yaml.Scalar)) {
-                    return false;
-                }
-
-                String key = ((Yaml.Scalar) entry.getKey()).getValue();
-                if (!"secrets".equals(key)) {
-                    return false;
-                }
-
-                // Check if the value is "inherit"
-                if (!(entry.getValue() instanceof Yaml.Scalar)) {
-                    return false;
-                }
-
-                String value = ((Yaml.Scalar) entry.getValue()).getValue();
-                return "inherit".equals(value);
-            }
-        });
+        };
     }
 
 }
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2026 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.github.security;
+
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.yaml.YamlIsoVisitor;
+import org.openrewrite.yaml.tree.Yaml;
+
+import java.util.*;
+
+/**
+ * Runs any number of {@link SecurityCheck}s in a single walk of each workflow, producing the same
+ * search results as running them one after another.
+ * <p>
+ * Every entry is dispatched by its key to only the checks interested in it, in the order the checks
+ * were given, so that an entry flagged by several checks carries their markers in the same order
+ * as it would after running the checks as separate recipes.
+ */
+final class SecurityAuditEngine extends YamlIsoVisitor<ExecutionContext> {
+
+    private final SecurityCheck[] checks;
+    private final Map<String, int[]> checksByKey = new HashMap<>();
+    private final boolean[] active;
+    private final StepContext steps = new StepContext();
+
+    SecurityAuditEngine(List<SecurityCheck> checks) {
+        this.checks = checks.toArray(new SecurityCheck[0]);
+        this.active = new boolean[this.checks.length];
+        for (SecurityCheck check : this.checks) {
+            check.setSteps(steps);
+        }
+
+        Map<String, List<Integer>> indices = new HashMap<>();
+        for (int i = 0; i < this.checks.length; i++) {
+            for (String key : this.checks[i].getKeys()) {
+                indices.computeIfAbsent(key, k -> new ArrayList<>()).add(i);
+            }
+        }
+        for (Map.Entry<String, List<Integer>> byKey : indices.entrySet()) {
+            int[] interested = new int[byKey.getValue().size()];
+            for (int i = 0; i < interested.length; i++) {
+                interested[i] = byKey.getValue().get(i);
+            }
+            checksByKey.put(byKey.getKey(), interested);
+        }
+    }
+
+    @Override
+    public Yaml.Document visitDocument(Yaml.Document document, ExecutionContext ctx) {
+        boolean anyActive = false;
+        for (int i = 0; i < checks.length; i++) {
+            checks[i].setCursor(getCursor());
+            active[i] = checks[i].startDocument(document, ctx);
+            anyActive |= active[i];
+        }
+        if (!anyActive) {
+            return document;
+        }
+
+        Yaml.Document d = super.visitDocument(document, ctx);
+        for (int i = 0; i < checks.length; i++) {
+            if (active[i]) {
+                checks[i].setCursor(getCursor());
+                d = checks[i].finishDocument(d, ctx);
+            }
+        }
+        return d;
+    }
+
+    @Override
+    public Yaml.Sequence.Entry visitSequenceEntry(Yaml.Sequence.Entry entry, ExecutionContext ctx) {
+        Yaml.Mapping outer = steps.enter(getCursor());
+        try {
+            return super.visitSequenceEntry(entry, ctx);
+        } finally {
+            steps.leave(outer);
+        }
+    }
+
+    @Override
+    public Yaml.Mapping.Entry visitMappingEntry(Yaml.Mapping.Entry entry, ExecutionContext ctx) {
+        Yaml.Mapping.Entry mappingEntry = super.visitMappingEntry(entry, ctx);
+
+        int[] interested = checksByKey.get(mappingEntry.getKey().getValue());
+        if (interested != null) {
+            for (int i : interested) {
+                if (active[i]) {
+                    checks[i].setCursor(getCursor());
+                    mappingEntry = checks[i].checkEntry(mappingEntry, ctx);
+                }
+            }
+        }
+        return mappingEntry;
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2026 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.github.security;
+
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.yaml.YamlIsoVisitor;
+import org.openrewrite.yaml.tree.Yaml;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * A security audit that only looks at mapping entries with one of a handful of keys, such as
+ * {@code uses} or {@code run}, after their children have been visited.
+ * <p>
+ * Run on its own, a check is an ordinary visitor walking the whole workflow. Run as part of
+ * {@link GitHubActionsSecurityAudit}, the {@link SecurityAuditEngine} walks each workflow once and
+ * hands every check just the entries with the keys it registered interest in, with the cursor
+ * positioned on the entry exactly as it would be in a walk of its own.
+ */
+abstract class SecurityCheck extends YamlIsoVisitor<ExecutionContext> {
+
+    private final Set<String> keys;
+
+    private StepContext steps = new StepContext();
+
+    /**
+     * @param keys the mapping keys whose entries this check looks at.
+     */
+    SecurityCheck(String... keys) {
+        this.keys = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(keys)));
+    }
+
+    Set<String> getKeys() {
+        return keys;
+    }
+
+    /**
+     * The step the cursor is in, kept up to date by whichever visitor is doing the walk.
+     */
+    StepContext getSteps() {
+        return steps;
+    }
+
+    void setSteps(StepContext steps) {
+        this.steps = steps;
+    }
+
+    /**
+     * Called before a document is walked, with the cursor on the document.
+     *
+     * @return whether the document needs to be checked at all.
+     */
+    boolean startDocument(Yaml.Document document, ExecutionContext ctx) {
+        return true;
+    }
+
+    /**
+     * Called with the document after all of its entries have been checked.
+     */
+    Yaml.Document finishDocument(Yaml.Document document, ExecutionContext ctx) {
+        return document;
+    }
+
+    /**
+     * Check an entry with one of the registered keys, whose children have already been visited.
+     *
+     * @return the entry, possibly marked with a {@link org.openrewrite.marker.SearchResult}.
+     */
+    abstract Yaml.Mapping.Entry checkEntry(Yaml.Mapping.Entry entry, ExecutionContext ctx);
+
+    @Override
+    public Yaml.Document visitDocument(Yaml.Document document, ExecutionContext ctx) {
+        if (!startDocument(document, ctx)) {
+            return document;
+        }
+        return finishDocument(super.visitDocument(document, ctx), ctx);
+    }
+
+    @Override
+    public Yaml.Sequence.Entry visitSequenceEntry(Yaml.Sequence.Entry entry, ExecutionContext ctx) {
+        Yaml.Mapping outer = steps.enter(getCursor());
+        try {
+            return super.visitSequenceEntry(entry, ctx);
+        } finally {
+            steps.leave(outer);
+        }
+    }
+
+    @Override
+    public Yaml.Mapping.Entry visitMappingEntry(Yaml.Mapping.Entry entry, ExecutionContext ctx) {
+        Yaml.Mapping.Entry mappingEntry = super.visitMappingEntry(entry, ctx);
+        return keys.contains(mappingEntry.getKey().getValue()) ? checkEntry(mappingEntry, ctx) : mappingEntry;
+    }
+}
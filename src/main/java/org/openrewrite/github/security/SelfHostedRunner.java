@@ -19,10 +19,12 @@ import lombok.EqualsAndHashCode;
 import lombok.Value;
 import org.openrewrite.*;
 import org.openrewrite.github.IsGitHubActionsWorkflow;
+import org.openrewrite.github.Workflow;
 import org.openrewrite.marker.SearchResult;
-import org.openrewrite.yaml.YamlIsoVisitor;
 import org.openrewrite.yaml.tree.Yaml;
 
+import java.util.List;
+
 @Value
 @EqualsAndHashCode(callSuper = false)
 public class SelfHostedRunner extends Recipe {
@@ -38,105 +40,50 @@ public class SelfHostedRunner extends Recipe {
     public TreeVisitor<?, ExecutionContext> getVisitor() {
         return Preconditions.check(
                 new IsGitHubActionsWorkflow(),
-                new SelfHostedRunnerVisitor()
+                securityCheck()
         );
     }
 
-    private static class SelfHostedRunnerVisitor extends YamlIsoVisitor<ExecutionContext> {
+    SecurityCheck securityCheck() {
+        return new SelfHostedRunnerVisitor();
+    }
 
-        @Override
-        public Yaml.Mapping.Entry visitMappingEntry(Yaml.Mapping.Entry entry, ExecutionContext ctx) {
-            Yaml.Mapping.Entry mappingEntry = super.visitMappingEntry(entry, ctx);
+    private static class SelfHostedRunnerVisitor extends SecurityCheck {
 
-            if ("runs-on".equals(mappingEntry.getKey().getValue())) {
-                return checkRunsOn(mappingEntry);
-            }
-
-            return mappingEntry;
+        SelfHostedRunnerVisitor() {
+            super("runs-on");
         }
 
-
-        private Yaml.Mapping.Entry checkRunsOn(Yaml.Mapping.Entry entry) {
-            if (entry.getValue() instanceof Yaml.Scalar) {
-                Yaml.Scalar scalar = (Yaml.Scalar) entry.getValue();
-                return checkRunsOnValue(entry, scalar.getValue());
-            }
-            if (entry.getValue() instanceof Yaml.Sequence) {
-                return checkRunsOnSequence(entry, (Yaml.Sequence) entry.getValue());
+        @Override
+        Yaml.Mapping.Entry checkEntry(Yaml.Mapping.Entry mappingEntry, ExecutionContext ctx) {
+            Workflow.Job job = Workflow.of(getCursor(), ctx).jobDeclaring(getCursor());
+            if (job == null || job.getRunsOn().isEmpty()) {
+                return mappingEntry;
             }
-            return entry;
-        }
 
-        private Yaml.Mapping.Entry checkRunsOnValue(Yaml.Mapping.Entry entry, String runsOnValue) {
+            String runsOnValue = job.getRunsOn().get(0);
             if ("self-hosted".equals(runsOnValue)) {
-                return SearchResult.found(entry,
+                return SearchResult.found(mappingEntry,
                         "Uses self-hosted runner which may have security implications in public repositories. " +
                                 "Ensure runners are ephemeral and properly isolated.");
             }
-            if (runsOnValue.contains("${{") && containsSelfHostedInMatrix(runsOnValue)) {
-                return SearchResult.found(entry,
+            if (runsOnValue.contains("${{") && containsSelfHostedInMatrix(job, runsOnValue)) {
+                return SearchResult.found(mappingEntry,
                         "Expression may expand to self-hosted runner. Verify that self-hosted runners are properly secured.");
             }
 
-            return entry;
-        }
-
-        private Yaml.Mapping.Entry checkRunsOnSequence(Yaml.Mapping.Entry entry, Yaml.Sequence sequence) {
-            String firstValue = YamlHelper.getScalarValue(sequence.getEntries().get(0).getBlock());
-            if ("self-hosted".equals(firstValue)) {
-                return SearchResult.found(entry,
-                        "Uses self-hosted runner which may have security implications in public repositories. " +
-                                "Ensure runners are ephemeral and properly isolated.");
-            }
-
-            return entry;
+            return mappingEntry;
         }
 
-        private boolean containsSelfHostedInMatrix(String expression) {
+        private boolean containsSelfHostedInMatrix(Workflow.Job job, String expression) {
             // Simple check for matrix expressions that might expand to self-hosted
-            // Look for matrix.* expressions and check if there's a matrix with self-hosted
             if (!expression.contains("matrix.")) {
                 return false;
             }
 
-            // Walk up to find the job and look for strategy.matrix
-            Cursor current = getCursor();
-            while (current != null) {
-                Object value = current.getValue();
-                if (value instanceof Yaml.Mapping) {
-                    Yaml.Mapping mapping = (Yaml.Mapping) value;
-                    for (Yaml.Mapping.Entry matrixEntry : mapping.getEntries()) {
-                        if ("strategy".equals(matrixEntry.getKey().getValue()) && matrixEntry.getValue() instanceof Yaml.Mapping) {
-                            return hasMatrixWithSelfHosted((Yaml.Mapping) matrixEntry.getValue());
-                        }
-                    }
-                }
-                current = current.getParent();
-            }
-
-            return false;
-        }
-
-        private boolean hasMatrixWithSelfHosted(Yaml.Mapping strategyMapping) {
-            for (Yaml.Mapping.Entry strategyEntry : strategyMapping.getEntries()) {
-                if ("matrix".equals(strategyEntry.getKey().getValue()) && strategyEntry.getValue() instanceof Yaml.Mapping) {
-                    Yaml.Mapping matrixMapping = (Yaml.Mapping) strategyEntry.getValue();
-                    return containsSelfHostedInMatrixValues(matrixMapping);
-                }
-            }
-            return false;
-        }
-
-        private boolean containsSelfHostedInMatrixValues(Yaml.Mapping matrixMapping) {
-            for (Yaml.Mapping.Entry matrixEntry : matrixMapping.getEntries()) {
-                if (matrixEntry.getValue() instanceof Yaml.Sequence) {
-                    Yaml.Sequence sequence = (Yaml.Sequence) matrixEntry.getValue();
-                    for (Yaml.Sequence.Entry seqEntry : sequence.getEntries()) {
-                        String value = YamlHelper.getScalarValue(seqEntry.getBlock());
-                        if ("self-hosted".equals(value)) {
-                            return true;
-                        }
-                    }
+            for (List<String> values : job.getMatrix().values()) {
+                if (values.contains("self-hosted")) {
+                    return true;
                 }
             }
             return false;
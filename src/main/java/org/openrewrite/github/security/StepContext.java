@@ -0,0 +1,112 @@
+/*
+ * Copyright 2026 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.github.security;
+
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.Cursor;
+import org.openrewrite.github.Workflow;
+import org.openrewrite.yaml.tree.Yaml;
+
+/**
+ * Keeps track of the {@code jobs.*.steps[*]} step a visitor is in, as it enters and leaves the
+ * entries of each job's {@code steps:} sequence, so that telling whether an entry belongs to a step
+ * takes a couple of reference comparisons instead of matching the whole cursor path against a
+ * {@link org.openrewrite.yaml.JsonPathMatcher} such as {@code $..steps[*].run}.
+ */
+final class StepContext {
+
+    private Yaml.@Nullable Mapping step;
+
+    private Yaml.@Nullable Mapping analyzed;
+    private Workflow.@Nullable Step analysis;
+
+    /**
+     * Called before a sequence entry is visited, with the cursor on it.
+     *
+     * @return the step the visitor was in before, to hand back to {@link #leave(Yaml.Mapping)}.
+     */
+    Yaml.@Nullable Mapping enter(Cursor sequenceEntry) {
+        Yaml.Mapping outer = step;
+        Yaml.Sequence.Entry entry = sequenceEntry.getValue();
+        if (entry.getBlock() instanceof Yaml.Mapping && isJobSteps(sequenceEntry.getParentTreeCursor())) {
+            step = (Yaml.Mapping) entry.getBlock();
+        }
+        return outer;
+    }
+
+    void leave(Yaml.@Nullable Mapping outer) {
+        step = outer;
+    }
+
+    /**
+     * @return the {@code uses}, {@code run} and {@code with} of the current step, read once per step
+     * no matter how many of its entries ask, or {@code null} outside of a step.
+     */
+    Workflow.@Nullable Step current() {
+        if (step == null) {
+            return null;
+        }
+        if (analyzed != step) {
+            analysis = Workflow.Step.of(step);
+            analyzed = step;
+        }
+        return analysis;
+    }
+
+    /**
+     * @param entry a cursor on a mapping entry.
+     * @return whether the entry is a key of the current step, like {@code run} or {@code uses}.
+     */
+    boolean isStepKey(Cursor entry) {
+        return step != null && entry.getParentTreeCursor().getValue() == step;
+    }
+
+    /**
+     * @param entry a cursor on a mapping entry.
+     * @return whether the entry is an input in the {@code with} of the current step.
+     */
+    boolean isStepInput(Cursor entry) {
+        if (step == null) {
+            return false;
+        }
+        Cursor with = entry.getParentTreeCursor().getParentTreeCursor();
+        return with.getValue() instanceof Yaml.Mapping.Entry &&
+               "with".equals(((Yaml.Mapping.Entry) with.getValue()).getKey().getValue()) &&
+               with.getParentTreeCursor().getValue() == step;
+    }
+
+    /**
+     * Whether a sequence is the {@code steps} of a job: steps -> job -> jobs -> workflow -> document.
+     */
+    private static boolean isJobSteps(Cursor sequence) {
+        Cursor steps = sequence.getParentTreeCursor();
+        if (!isEntryWithKey(steps, "steps")) {
+            return false;
+        }
+        Cursor job = steps.getParentTreeCursor().getParentTreeCursor();
+        if (!(job.getValue() instanceof Yaml.Mapping.Entry)) {
+            return false;
+        }
+        Cursor jobs = job.getParentTreeCursor().getParentTreeCursor();
+        return isEntryWithKey(jobs, "jobs") &&
+               jobs.getParentTreeCursor().getParentTreeCursor().getValue() instanceof Yaml.Document;
+    }
+
+    private static boolean isEntryWithKey(Cursor cursor, String key) {
+        return cursor.getValue() instanceof Yaml.Mapping.Entry &&
+               key.equals(((Yaml.Mapping.Entry) cursor.getValue()).getKey().getValue());
+    }
+}
@@ -15,31 +15,36 @@
  */
 package org.openrewrite.github.security;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
 import lombok.EqualsAndHashCode;
 import lombok.Value;
 import org.jspecify.annotations.Nullable;
-import org.openrewrite.ExecutionContext;
-import org.openrewrite.Preconditions;
-import org.openrewrite.Recipe;
-import org.openrewrite.TreeVisitor;
+import org.openrewrite.*;
+import org.openrewrite.github.Expression;
+import org.openrewrite.github.ExpressionTemplate;
 import org.openrewrite.github.IsGitHubActionsWorkflow;
 import org.openrewrite.marker.SearchResult;
-import org.openrewrite.yaml.JsonPathMatcher;
-import org.openrewrite.yaml.YamlIsoVisitor;
 import org.openrewrite.yaml.tree.Yaml;
 
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 @Value
 @EqualsAndHashCode(callSuper = false)
 public class TemplateInjection extends Recipe {
 
+    @Option(displayName = "Additional dangerous contexts",
+            description = "Additional user-controllable contexts to flag, beyond the built-in list. " +
+                    "A context also covers every field beneath it, and `*` matches any single field or index.",
+            required = false,
+            example = "[\"github.event.client_payload\", \"github.event.commits.*.message\"]")
+    @Nullable
+    List<String> additionalDangerousContexts;
+
     // User-controllable contexts that can lead to injection vulnerabilities
-    private static final Set<String> DANGEROUS_CONTEXTS = new HashSet<>(Arrays.asList(
+    private static final List<String> DANGEROUS_CONTEXTS = Arrays.asList(
             "github.event.pull_request.title",
             "github.event.pull_request.body",
             "github.event.pull_request.head.ref",
@@ -56,11 +61,6 @@ public class TemplateInjection extends Recipe {
             "github.event.commits[0].author.name",
             "github.event.commits[0].author.email",
             "github.head_ref"
-    ));
-
-    // Contexts that reference user-controllable step outputs
-    private static final Pattern STEPS_OUTPUT_PATTERN = Pattern.compile(
-            "steps\\.[^.]+\\.outputs\\.[^\\s}]+"
     );
 
     // Actions known to have code injection sinks
@@ -71,10 +71,22 @@ public class TemplateInjection extends Recipe {
             "cardinalby/js-eval-action"
     ));
 
-    // Expression pattern to find GitHub Actions expressions
-    private static final Pattern EXPRESSION_PATTERN = Pattern.compile(
-            "\\$\\{\\{([^}]+)\\}\\}"
-    );
+    Set<String> allDangerousContexts;
+
+    public TemplateInjection() {
+        this(null);
+    }
+
+    @JsonCreator
+    public TemplateInjection(@Nullable List<String> additionalDangerousContexts) {
+        this.additionalDangerousContexts = additionalDangerousContexts;
+
+        // Merge the built-in contexts with provided options
+        this.allDangerousContexts = new HashSet<>(DANGEROUS_CONTEXTS);
+        if (additionalDangerousContexts != null) {
+            this.allDangerousContexts.addAll(additionalDangerousContexts);
+        }
+    }
 
     String displayName = "Find template injection vulnerabilities";
 
@@ -87,32 +99,39 @@ public class TemplateInjection extends Recipe {
     public TreeVisitor<?, ExecutionContext> getVisitor() {
         return Preconditions.check(
                 new IsGitHubActionsWorkflow(),
-                new TemplateInjectionVisitor()
+                securityCheck()
         );
     }
 
-    private static class TemplateInjectionVisitor extends YamlIsoVisitor<ExecutionContext> {
+    SecurityCheck securityCheck() {
+        return new TemplateInjectionVisitor(new ContextMatcher(allDangerousContexts));
+    }
+
+    private static class TemplateInjectionVisitor extends SecurityCheck {
 
-        private static final JsonPathMatcher STEP_RUN_MATCHER = new JsonPathMatcher("$..steps[*].run");
-        private static final JsonPathMatcher STEP_USES_MATCHER = new JsonPathMatcher("$..steps[*].uses");
-        private static final JsonPathMatcher STEP_SCRIPT_MATCHER = new JsonPathMatcher("$..steps[*].with.script");
+        private final ContextMatcher dangerousContexts;
+
+        TemplateInjectionVisitor(ContextMatcher dangerousContexts) {
+            super("run", "uses", "script");
+            this.dangerousContexts = dangerousContexts;
+        }
 
         @Override
-        public Yaml.Mapping.Entry visitMappingEntry(Yaml.Mapping.Entry entry, ExecutionContext ctx) {
-            Yaml.Mapping.Entry mappingEntry = super.visitMappingEntry(entry, ctx);
+        Yaml.Mapping.Entry checkEntry(Yaml.Mapping.Entry mappingEntry, ExecutionContext ctx) {
+            String key = mappingEntry.getKey().getValue();
 
             // Check run commands for injection vulnerabilities
-            if (STEP_RUN_MATCHER.matches(getCursor())) {
+            if ("run".equals(key) && getSteps().isStepKey(getCursor())) {
                 return checkRunEntry(mappingEntry);
             }
 
             // Check uses entries for code injection actions
-            if (STEP_USES_MATCHER.matches(getCursor())) {
+            if ("uses".equals(key) && getSteps().isStepKey(getCursor())) {
                 return checkUsesEntry(mappingEntry);
             }
 
             // Check script inputs for code injection actions
-            if (STEP_SCRIPT_MATCHER.matches(getCursor())) {
+            if ("script".equals(key) && getSteps().isStepInput(getCursor())) {
                 return checkScriptEntry(mappingEntry);
             }
 
@@ -181,49 +200,55 @@ public class TemplateInjection extends Recipe {
         }
 
         private @Nullable String findVulnerableContext(String content) {
-            // Find all expressions in the content
-            Matcher matcher = EXPRESSION_PATTERN.matcher(content);
+            for (Expression expression : ExpressionTemplate.parse(content).getExpressions()) {
+                if (expression instanceof Expression.Invalid) {
+                    // GitHub rejects it, but it may still be a mistyped use of user input
+                    Expression.Context context = dangerousContexts.findIn(((Expression.Invalid) expression).getSource());
+                    if (context != null) {
+                        return context.getPath().toLowerCase();
+                    }
+                    continue;
+                }
 
-            while (matcher.find()) {
-                String expression = matcher.group(1).trim();
+                List<Expression.Context> contexts = expression.getContexts();
+                String dangerousContext = null;
+                String stepsOutput = null;
+                for (Expression.Context context : contexts) {
+                    if (dangerousContext == null && dangerousContexts.matches(context)) {
+                        dangerousContext = context.getPath().toLowerCase();
+                    } else if (stepsOutput == null && isStepsOutput(context)) {
+                        stepsOutput = context.getPath();
+                    }
+                }
 
                 // Check for complex expressions containing dangerous contexts first
-                if (isComplexExpression(expression) && containsDangerousContextInExpression(expression)) {
+                if (dangerousContext != null && isComplexExpression(expression)) {
                     return "User-controlled input in complex expression";
                 }
 
                 // Check for directly dangerous contexts
-                for (String dangerousContext : DANGEROUS_CONTEXTS) {
-                    if (expression.contains(dangerousContext)) {
-                        return dangerousContext;
-                    }
+                if (dangerousContext != null) {
+                    return dangerousContext;
                 }
 
                 // Check for steps outputs (which may contain user input)
-                Matcher stepsMatcher = STEPS_OUTPUT_PATTERN.matcher(expression);
-                if (stepsMatcher.find()) {
-                    return stepsMatcher.group();
+                if (stepsOutput != null) {
+                    return stepsOutput;
                 }
             }
 
             return null;
         }
 
-        private boolean isComplexExpression(String expression) {
-            // Consider it complex if it contains function calls or multiple contexts
-            return expression.contains("(") && expression.contains(")");
+        private boolean isComplexExpression(Expression expression) {
+            // Consider it complex if it contains function calls
+            return expression.anyMatch(e -> e instanceof Expression.Call);
         }
 
-        private boolean containsDangerousContextInExpression(String expression) {
-            // Check for function calls or complex expressions that might contain dangerous contexts
-            for (String dangerousContext : DANGEROUS_CONTEXTS) {
-                if (expression.contains(dangerousContext)) {
-                    return true;
-                }
-            }
-
-            return false;
+        private boolean isStepsOutput(Expression.Context context) {
+            List<String> segments = context.getSegments();
+            return segments.size() > 3 && "steps".equalsIgnoreCase(segments.get(0)) &&
+                   "outputs".equalsIgnoreCase(segments.get(2));
         }
-
     }
 }
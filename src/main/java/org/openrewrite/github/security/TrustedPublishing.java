@@ -17,16 +17,21 @@ package org.openrewrite.github.security;
 
 import lombok.EqualsAndHashCode;
 import lombok.Value;
-import org.openrewrite.*;
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.Preconditions;
+import org.openrewrite.Recipe;
+import org.openrewrite.TreeVisitor;
 import org.openrewrite.github.IsGitHubActionsWorkflow;
+import org.openrewrite.github.ShellScript;
+import org.openrewrite.github.Workflow;
 import org.openrewrite.marker.SearchResult;
-import org.openrewrite.yaml.YamlIsoVisitor;
 import org.openrewrite.yaml.tree.Yaml;
 
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
-import java.util.regex.Pattern;
 
 @Value
 @EqualsAndHashCode(callSuper = false)
@@ -45,17 +50,17 @@ public class TrustedPublishing extends Recipe {
             "https://registry.npmjs.org"
     ));
 
-    // Regex patterns for manual publishing commands
-    private static final Pattern[] MANUAL_PUBLISH_PATTERNS = {
-            Pattern.compile("(?s)twine\\s+(.+\\s+)?upload"),
-            Pattern.compile("(?s)cargo\\s+(.+\\s+)?publish"),
-            Pattern.compile("(?s)npm\\s+(.+\\s+)?publish"),
-            Pattern.compile("(?s)yarn\\s+(.+\\s+)?npm\\s+publish"),
-            Pattern.compile("(?s)pnpm\\s+(.+\\s+)?publish"),
-            Pattern.compile("(?s)gem\\s+(.+\\s+)?push"),
-            Pattern.compile("(?s)uv\\s+(.+\\s+)?publish"),
-            Pattern.compile("(?s)hatch\\s+(.+\\s+)?publish"),
-            Pattern.compile("(?s)pdm\\s+(.+\\s+)?publish")
+    // Manual publishing commands, as the tool and the words that follow it in the same command
+    private static final String[][] MANUAL_PUBLISH_COMMANDS = {
+            {"twine", "upload"},
+            {"cargo", "publish"},
+            {"npm", "publish"},
+            {"yarn", "npm", "publish"},
+            {"pnpm", "publish"},
+            {"gem", "push"},
+            {"uv", "publish"},
+            {"hatch", "publish"},
+            {"pdm", "publish"}
     };
 
     String displayName = "Find manual credentials instead of trusted publishing";
@@ -69,241 +74,88 @@ public class TrustedPublishing extends Recipe {
     public TreeVisitor<?, ExecutionContext> getVisitor() {
         return Preconditions.check(
                 new IsGitHubActionsWorkflow(),
-                new TrustedPublishingVisitor()
+                securityCheck()
         );
     }
 
-    private static class TrustedPublishingVisitor extends YamlIsoVisitor<ExecutionContext> {
+    SecurityCheck securityCheck() {
+        return new TrustedPublishingVisitor();
+    }
+
+    private static class TrustedPublishingVisitor extends SecurityCheck {
+
+        TrustedPublishingVisitor() {
+            // Entries in the `with` of a publishing action are only ever flagged for these credential keys
+            super("uses", "run", "password", "setup-trusted-publisher", "always-auth", "api-token");
+        }
 
         @Override
-        public Yaml.Mapping.Entry visitMappingEntry(Yaml.Mapping.Entry entry, ExecutionContext ctx) {
-            Yaml.Mapping.Entry mappingEntry = super.visitMappingEntry(entry, ctx);
+        Yaml.Mapping.Entry checkEntry(Yaml.Mapping.Entry mappingEntry, ExecutionContext ctx) {
+            String key = mappingEntry.getKey().getValue();
 
             // Check for problematic actions
-            if (isUsesEntry(mappingEntry)) {
-                return checkUsesEntry(mappingEntry);
+            if ("uses".equals(key)) {
+                Workflow.Step step = getSteps().isStepKey(getCursor()) ? getSteps().current() : null;
+                return step != null && usesManualCredentials(step) ?
+                        SearchResult.found(mappingEntry,
+                                "Uses manual credentials instead of trusted publishing. Consider using OIDC trusted publishing for better security.") :
+                        mappingEntry;
             }
 
             // Check for problematic run commands
-            if (isRunEntry(mappingEntry)) {
+            if ("run".equals(key)) {
                 return checkRunEntry(mappingEntry);
             }
 
             // Check for problematic with entries
-            if (isWithinProblematicAction()) {
-                return checkWithEntry(mappingEntry);
+            if (getSteps().isStepInput(getCursor())) {
+                Workflow.Step step = getSteps().current();
+                if (step != null && isPublishingAction(step.getUses())) {
+                    return checkWithEntry(mappingEntry);
+                }
             }
 
             return mappingEntry;
         }
 
-        private boolean isUsesEntry(Yaml.Mapping.Entry entry) {
-            if (!(entry.getKey() instanceof Yaml.Scalar)) {
+        /**
+         * Whether a publishing action is configured with a long-lived credential, judged from the
+         * inputs of its step as a whole.
+         */
+        private boolean usesManualCredentials(Workflow.Step step) {
+            String uses = step.getUses();
+            if (uses == null) {
                 return false;
             }
-            Yaml.Scalar key = (Yaml.Scalar) entry.getKey();
-            return "uses".equals(key.getValue());
-        }
-
-        private boolean isRunEntry(Yaml.Mapping.Entry entry) {
-            if (!(entry.getKey() instanceof Yaml.Scalar)) {
-                return false;
-            }
-            Yaml.Scalar key = (Yaml.Scalar) entry.getKey();
-            return "run".equals(key.getValue());
-        }
-
-        private Yaml.Mapping.Entry checkUsesEntry(Yaml.Mapping.Entry entry) {
-            if (!(entry.getValue() instanceof Yaml.Scalar)) {
-                return entry;
-            }
-
-            String usesValue = ((Yaml.Scalar) entry.getValue()).getValue();
-
-            // Check for known problematic publishing actions
-            if (usesValue.startsWith("pypa/gh-action-pypi-publish")) {
-                return checkPyPIAction(entry);
-            }
-            if (usesValue.startsWith("rubygems/release-gem")) {
-                return checkRubyGemsAction(entry);
-            }
-            if (usesValue.startsWith("rubygems/configure-rubygems-credentials")) {
-                return checkRubyGemsCredentialsAction(entry);
-            }
-            if (usesValue.startsWith("actions/setup-node")) {
-                return checkSetupNodeAction(entry);
-            }
-
-            return entry;
-        }
-
-        private Yaml.Mapping.Entry checkPyPIAction(Yaml.Mapping.Entry entry) {
-            // Look for 'with' section in the parent step
-            Yaml.Mapping stepMapping = findParentStepMapping();
-            if (stepMapping == null) {
-                return entry;
-            }
-
-            Yaml.Mapping withMapping = findWithMapping(stepMapping);
-            if (withMapping == null) {
-                return entry;
-            }
-
-            // Check if it has password but is publishing to a trusted registry
-            boolean hasPassword = withMapping.getEntries().stream()
-                    .anyMatch(withEntry -> {
-                        if (withEntry.getKey() instanceof Yaml.Scalar) {
-                            Yaml.Scalar key = (Yaml.Scalar) withEntry.getKey();
-                            return "password".equals(key.getValue());
-                        }
-                        return false;
-                    });
-
-            boolean isTrustedRegistry = withMapping.getEntries().stream()
-                    .anyMatch(withEntry -> {
-                        if (withEntry.getKey() instanceof Yaml.Scalar) {
-                            Yaml.Scalar key = (Yaml.Scalar) withEntry.getKey();
-                            if ("repository-url".equals(key.getValue()) || "repository_url".equals(key.getValue())) {
-                                if (withEntry.getValue() instanceof Yaml.Scalar) {
-                                    String repoUrl = ((Yaml.Scalar) withEntry.getValue()).getValue();
-                                    return KNOWN_PYTHON_TP_REGISTRIES.contains(repoUrl);
-                                }
-                            }
-                        }
-                        return false;
-                    });
-
-            if (hasPassword && isTrustedRegistry) {
-                return SearchResult.found(entry,
-                        "Uses manual credentials instead of trusted publishing. Consider using OIDC trusted publishing for better security.");
-            }
-
-            return entry;
-        }
-
-        private Yaml.Mapping.Entry checkRubyGemsAction(Yaml.Mapping.Entry entry) {
-            Yaml.Mapping stepMapping = findParentStepMapping();
-            if (stepMapping == null) {
-                return entry;
-            }
+            Map<String, String> with = step.getWith();
 
-            Yaml.Mapping withMapping = findWithMapping(stepMapping);
-            if (withMapping == null) {
-                return entry;
+            // Has a password but is publishing to a registry that supports trusted publishing
+            if (uses.startsWith("pypa/gh-action-pypi-publish")) {
+                return with.containsKey("password") &&
+                       (KNOWN_PYTHON_TP_REGISTRIES.contains(with.get("repository-url")) ||
+                        KNOWN_PYTHON_TP_REGISTRIES.contains(with.get("repository_url")));
             }
-
-            // Check if setup-trusted-publisher is explicitly false
-            boolean explicitlyDisabled = withMapping.getEntries().stream()
-                    .anyMatch(withEntry -> {
-                        if (withEntry.getKey() instanceof Yaml.Scalar) {
-                            Yaml.Scalar key = (Yaml.Scalar) withEntry.getKey();
-                            if ("setup-trusted-publisher".equals(key.getValue())) {
-                                if (withEntry.getValue() instanceof Yaml.Scalar) {
-                                    String value = ((Yaml.Scalar) withEntry.getValue()).getValue();
-                                    return "false".equals(value);
-                                }
-                            }
-                        }
-                        return false;
-                    });
-
-            if (explicitlyDisabled) {
-                return SearchResult.found(entry,
-                        "Uses manual credentials instead of trusted publishing. Consider using OIDC trusted publishing for better security.");
+            // setup-trusted-publisher is explicitly false
+            if (uses.startsWith("rubygems/release-gem")) {
+                return "false".equals(with.get("setup-trusted-publisher"));
             }
-
-            return entry;
-        }
-
-        private Yaml.Mapping.Entry checkRubyGemsCredentialsAction(Yaml.Mapping.Entry entry) {
-            Yaml.Mapping stepMapping = findParentStepMapping();
-            if (stepMapping == null) {
-                return entry;
+            // Has an api-token for rubygems
+            if (uses.startsWith("rubygems/configure-rubygems-credentials")) {
+                return with.containsKey("api-token") && KNOWN_RUBY_TP_REGISTRIES.contains(with.get("gem-server"));
             }
-
-            Yaml.Mapping withMapping = findWithMapping(stepMapping);
-            if (withMapping == null) {
-                return entry;
-            }
-
-            // Check if it has api-token and gem-server for rubygems
-            boolean hasApiToken = withMapping.getEntries().stream()
-                    .anyMatch(withEntry -> {
-                        if (withEntry.getKey() instanceof Yaml.Scalar) {
-                            Yaml.Scalar key = (Yaml.Scalar) withEntry.getKey();
-                            return "api-token".equals(key.getValue());
-                        }
-                        return false;
-                    });
-
-            boolean isRubyGemsServer = withMapping.getEntries().stream()
-                    .anyMatch(withEntry -> {
-                        if (withEntry.getKey() instanceof Yaml.Scalar) {
-                            Yaml.Scalar key = (Yaml.Scalar) withEntry.getKey();
-                            if ("gem-server".equals(key.getValue())) {
-                                if (withEntry.getValue() instanceof Yaml.Scalar) {
-                                    String server = ((Yaml.Scalar) withEntry.getValue()).getValue();
-                                    return KNOWN_RUBY_TP_REGISTRIES.contains(server);
-                                }
-                            }
-                        }
-                        return false;
-                    });
-
-            if (hasApiToken && isRubyGemsServer) {
-                return SearchResult.found(entry,
-                        "Uses manual credentials instead of trusted publishing. Consider using OIDC trusted publishing for better security.");
+            // Has registry-url for npmjs and always-auth is true
+            if (uses.startsWith("actions/setup-node")) {
+                return KNOWN_NPM_TP_REGISTRIES.contains(with.get("registry-url")) && "true".equals(with.get("always-auth"));
             }
-
-            return entry;
+            return false;
         }
 
-        private Yaml.Mapping.Entry checkSetupNodeAction(Yaml.Mapping.Entry entry) {
-            Yaml.Mapping stepMapping = findParentStepMapping();
-            if (stepMapping == null) {
-                return entry;
-            }
-
-            Yaml.Mapping withMapping = findWithMapping(stepMapping);
-            if (withMapping == null) {
-                return entry;
-            }
-
-            // Check if it has registry-url for npmjs and always-auth is true
-            boolean isNpmRegistry = withMapping.getEntries().stream()
-                    .anyMatch(withEntry -> {
-                        if (withEntry.getKey() instanceof Yaml.Scalar) {
-                            Yaml.Scalar key = (Yaml.Scalar) withEntry.getKey();
-                            if ("registry-url".equals(key.getValue())) {
-                                if (withEntry.getValue() instanceof Yaml.Scalar) {
-                                    String registryUrl = ((Yaml.Scalar) withEntry.getValue()).getValue();
-                                    return KNOWN_NPM_TP_REGISTRIES.contains(registryUrl);
-                                }
-                            }
-                        }
-                        return false;
-                    });
-
-            boolean hasAlwaysAuth = withMapping.getEntries().stream()
-                    .anyMatch(withEntry -> {
-                        if (withEntry.getKey() instanceof Yaml.Scalar) {
-                            Yaml.Scalar key = (Yaml.Scalar) withEntry.getKey();
-                            if ("always-auth".equals(key.getValue())) {
-                                if (withEntry.getValue() instanceof Yaml.Scalar) {
-                                    String value = ((Yaml.Scalar) withEntry.getValue()).getValue();
-                                    return "true".equals(value);
-                                }
-                            }
-                        }
-                        return false;
-                    });
-
-            if (isNpmRegistry && hasAlwaysAuth) {
-                return SearchResult.found(entry,
-                        "Uses manual credentials instead of trusted publishing. Consider using OIDC trusted publishing for better security.");
-            }
-
-            return entry;
+        private boolean isPublishingAction(@Nullable String uses) {
+            return uses != null &&
+                   (uses.startsWith("pypa/gh-action-pypi-publish") ||
+                    uses.startsWith("rubygems/release-gem") ||
+                    uses.startsWith("rubygems/configure-rubygems-credentials") ||
+                    uses.startsWith("actions/setup-node"));
         }
 
         private Yaml.Mapping.Entry checkRunEntry(Yaml.Mapping.Entry entry) {
@@ -313,99 +165,30 @@ public class TrustedPublishing extends Recipe {
 
             String runCommand = ((Yaml.Scalar) entry.getValue()).getValue();
 
-            for (Pattern pattern : MANUAL_PUBLISH_PATTERNS) {
-                if (pattern.matcher(runCommand).find()) {
-                    return SearchResult.found(entry,
-                            "Manual publishing command detected. Consider using trusted publishing actions instead.");
-                }
-            }
-
-            return entry;
-        }
-
-        private Yaml.Mapping findParentStepMapping() {
-            // Walk up cursor to find the step mapping that contains this 'uses' entry
-            Cursor current = getCursor();
-            while (current != null) {
-                Object value = current.getValue();
-                if (value instanceof Yaml.Mapping) {
-                    Yaml.Mapping mapping = (Yaml.Mapping) value;
-                    // Check if this mapping has both 'uses' and potentially 'with'
-                    boolean hasUses = mapping.getEntries().stream()
-                            .anyMatch(mapEntry -> {
-                                if (mapEntry.getKey() instanceof Yaml.Scalar) {
-                                    Yaml.Scalar key = (Yaml.Scalar) mapEntry.getKey();
-                                    return "uses".equals(key.getValue());
-                                }
-                                return false;
-                            });
-
-                    if (hasUses) {
-                        return mapping;
-                    }
-                }
-                current = current.getParent();
-            }
-            return null;
-        }
-
-        private Yaml.Mapping findWithMapping(Yaml.Mapping stepMapping) {
-            for (Yaml.Mapping.Entry stepEntry : stepMapping.getEntries()) {
-                if (stepEntry.getKey() instanceof Yaml.Scalar) {
-                    Yaml.Scalar key = (Yaml.Scalar) stepEntry.getKey();
-                    if ("with".equals(key.getValue()) && stepEntry.getValue() instanceof Yaml.Mapping) {
-                        return (Yaml.Mapping) stepEntry.getValue();
+            for (ShellScript.Command command : ShellScript.parse(runCommand).getCommands()) {
+                for (String[] publish : MANUAL_PUBLISH_COMMANDS) {
+                    if (runs(command, publish)) {
+                        return SearchResult.found(entry,
+                                "Manual publishing command detected. Consider using trusted publishing actions instead.");
                     }
                 }
             }
-            return null;
-        }
 
-        private boolean isWithinProblematicAction() {
-            // Check if we're inside a 'with' mapping of a problematic action
-            Cursor current = getCursor();
-
-            // First, check if we're inside a 'with' mapping
-            while (current != null) {
-                Object value = current.getValue();
-                if (value instanceof Yaml.Mapping.Entry) {
-                    Yaml.Mapping.Entry parentEntry = (Yaml.Mapping.Entry) value;
-                    if (parentEntry.getKey() instanceof Yaml.Scalar) {
-                        Yaml.Scalar key = (Yaml.Scalar) parentEntry.getKey();
-                        if ("with".equals(key.getValue())) {
-                            // Now check if the parent step uses a problematic action
-                            return isProblematicActionStep(current);
-                        }
-                    }
-                }
-                current = current.getParent();
-            }
-            return false;
+            return entry;
         }
 
-        private boolean isProblematicActionStep(Cursor withCursor) {
-            // Go up to find the step mapping
-            Cursor stepCursor = withCursor.getParent();
-            while (stepCursor != null) {
-                Object value = stepCursor.getValue();
-                if (value instanceof Yaml.Mapping) {
-                    Yaml.Mapping stepMapping = (Yaml.Mapping) value;
-
-                    // Look for uses entry
-                    for (Yaml.Mapping.Entry stepEntry : stepMapping.getEntries()) {
-                        if (stepEntry.getKey() instanceof Yaml.Scalar) {
-                            Yaml.Scalar key = (Yaml.Scalar) stepEntry.getKey();
-                            if ("uses".equals(key.getValue()) && stepEntry.getValue() instanceof Yaml.Scalar) {
-                                String usesValue = ((Yaml.Scalar) stepEntry.getValue()).getValue();
-                                return usesValue.startsWith("pypa/gh-action-pypi-publish") ||
-                                        usesValue.startsWith("rubygems/release-gem") ||
-                                        usesValue.startsWith("rubygems/configure-rubygems-credentials") ||
-                                        usesValue.startsWith("actions/setup-node");
-                            }
-                        }
-                    }
+        /**
+         * Whether the words appear in order in the command, however it is invoked, as in
+         * {@code python -m twine upload} or {@code ~/.cargo/bin/cargo publish}, and whatever options
+         * come between them.
+         */
+        private boolean runs(ShellScript.Command command, String[] publish) {
+            int found = 0;
+            for (String word : command.getWords()) {
+                String name = found == 0 ? word.substring(word.lastIndexOf('/') + 1) : word;
+                if (name.equals(publish[found]) && ++found == publish.length) {
+                    return true;
                 }
-                stepCursor = stepCursor.getParent();
             }
             return false;
         }
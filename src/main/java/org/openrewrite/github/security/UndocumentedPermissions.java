@@ -19,8 +19,8 @@ import lombok.EqualsAndHashCode;
 import lombok.Value;
 import org.openrewrite.*;
 import org.openrewrite.github.IsGitHubActionsWorkflow;
+import org.openrewrite.github.Workflow;
 import org.openrewrite.marker.SearchResult;
-import org.openrewrite.yaml.YamlIsoVisitor;
 import org.openrewrite.yaml.tree.Yaml;
 
 @Value
@@ -38,23 +38,29 @@ public class UndocumentedPermissions extends Recipe {
     public TreeVisitor<?, ExecutionContext> getVisitor() {
         return Preconditions.check(
                 new IsGitHubActionsWorkflow(),
-                new UndocumentedPermissionsVisitor()
+                securityCheck()
         );
     }
 
-    private static class UndocumentedPermissionsVisitor extends YamlIsoVisitor<ExecutionContext> {
+    SecurityCheck securityCheck() {
+        return new UndocumentedPermissionsVisitor();
+    }
 
-        @Override
-        public Yaml.Mapping.Entry visitMappingEntry(Yaml.Mapping.Entry entry, ExecutionContext ctx) {
-            Yaml.Mapping.Entry mappingEntry = super.visitMappingEntry(entry, ctx);
+    private static class UndocumentedPermissionsVisitor extends SecurityCheck {
+
+        UndocumentedPermissionsVisitor() {
+            super("permissions");
+        }
 
+        @Override
+        Yaml.Mapping.Entry checkEntry(Yaml.Mapping.Entry mappingEntry, ExecutionContext ctx) {
             if (isPermissionsEntry(mappingEntry)) {
                 if (!hasDocumentationComment(mappingEntry)) {
-                    String context = getPermissionsContext();
+                    String context = getPermissionsContext(ctx);
                     return SearchResult.found(mappingEntry,
                             "Permissions block lacks documentation comment. " +
                                     "Consider adding a comment explaining why these permissions are needed" +
-                                    (context != null ? " for " + context : "") + ".");
+                                    " for " + context + ".");
                 }
             }
 
@@ -79,47 +85,8 @@ public class UndocumentedPermissions extends Recipe {
             return false;
         }
 
-        private String getPermissionsContext() {
-            // Walk up the tree to find if we're in a job or at workflow level
-            Cursor cursor = getCursor();
-
-            // Check if we're in a job by looking for a parent that has "jobs" as a key
-            while (cursor != null) {
-                if (cursor.getValue() instanceof Yaml.Mapping) {
-                    Yaml.Mapping mapping = (Yaml.Mapping) cursor.getValue();
-
-                    // Check if parent mapping has "jobs" key - indicates we're in workflow level
-                    for (Yaml.Mapping.Entry entry : mapping.getEntries()) {
-                        if (entry.getKey() instanceof Yaml.Scalar) {
-                            String key = ((Yaml.Scalar) entry.getKey()).getValue();
-                            if ("jobs".equals(key)) {
-                                return "workflow";
-                            }
-                        }
-                    }
-                }
-
-                // Check if we're inside a job by looking for a parent entry with key in jobs mapping
-                if (cursor.getParent() != null && cursor.getParent().getValue() instanceof Yaml.Mapping.Entry) {
-                    Yaml.Mapping.Entry parentEntry = (Yaml.Mapping.Entry) cursor.getParent().getValue();
-                    if (parentEntry.getKey() instanceof Yaml.Scalar) {
-                        // Check if the grandparent is the jobs mapping
-                        Cursor grandparent = cursor.getParent().getParent();
-                        if (grandparent != null && grandparent.getParent() != null &&
-                                grandparent.getParent().getValue() instanceof Yaml.Mapping.Entry) {
-                            Yaml.Mapping.Entry ggEntry = (Yaml.Mapping.Entry) grandparent.getParent().getValue();
-                            if (ggEntry.getKey() instanceof Yaml.Scalar &&
-                                    "jobs".equals(((Yaml.Scalar) ggEntry.getKey()).getValue())) {
-                                return "this job";
-                            }
-                        }
-                    }
-                }
-
-                cursor = cursor.getParent();
-            }
-
-            return null;
+        private String getPermissionsContext(ExecutionContext ctx) {
+            return Workflow.of(getCursor(), ctx).jobAt(getCursor()) == null ? "workflow" : "this job";
         }
     }
 }
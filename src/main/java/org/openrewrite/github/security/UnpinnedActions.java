@@ -22,8 +22,8 @@ import org.openrewrite.Preconditions;
 import org.openrewrite.Recipe;
 import org.openrewrite.TreeVisitor;
 import org.openrewrite.github.IsGitHubActionsWorkflow;
+import org.openrewrite.github.UsesReference;
 import org.openrewrite.marker.SearchResult;
-import org.openrewrite.yaml.YamlIsoVisitor;
 import org.openrewrite.yaml.tree.Yaml;
 
 import java.util.regex.Pattern;
@@ -36,8 +36,6 @@ public class UnpinnedActions extends Recipe {
             "^([^/@]+/[^/@]+)(@(main|master|HEAD|latest|v?\\d+(\\.\\d+)*(\\.\\d+)*))??$"
     );
 
-    private static final Pattern SHA_PATTERN = Pattern.compile("^[a-f0-9]{40}$");
-
     String displayName = "Pin GitHub Actions to specific commits";
 
     String description = "Pin GitHub Actions to specific commit SHAs for security and reproducibility. " +
@@ -49,16 +47,22 @@ public class UnpinnedActions extends Recipe {
     public TreeVisitor<?, ExecutionContext> getVisitor() {
         return Preconditions.check(
                 new IsGitHubActionsWorkflow(),
-                new UnpinnedActionsVisitor()
+                securityCheck()
         );
     }
 
-    private static class UnpinnedActionsVisitor extends YamlIsoVisitor<ExecutionContext> {
+    SecurityCheck securityCheck() {
+        return new UnpinnedActionsVisitor();
+    }
 
-        @Override
-        public Yaml.Mapping.Entry visitMappingEntry(Yaml.Mapping.Entry entry, ExecutionContext ctx) {
-            Yaml.Mapping.Entry mappingEntry = super.visitMappingEntry(entry, ctx);
+    private static class UnpinnedActionsVisitor extends SecurityCheck {
+
+        UnpinnedActionsVisitor() {
+            super("uses");
+        }
 
+        @Override
+        Yaml.Mapping.Entry checkEntry(Yaml.Mapping.Entry mappingEntry, ExecutionContext ctx) {
             if (isUsesEntry(mappingEntry)) {
                 String usesValue = getUsesValue(mappingEntry);
                 if (usesValue != null && isUnpinned(usesValue)) {
@@ -85,27 +89,19 @@ public class UnpinnedActions extends Recipe {
         }
 
         private boolean isUnpinned(String usesValue) {
-            // Skip local actions (start with ./)
-            if (usesValue.startsWith("./")) {
+            // Skip local actions (start with ./) and Docker actions (start with docker://)
+            UsesReference uses = UsesReference.parse(usesValue);
+            if (!uses.isRepository()) {
                 return false;
             }
 
-            // Skip Docker actions (start with docker://)
-            if (usesValue.startsWith("docker://")) {
-                return false;
-            }
-
-            // Check if it's a repository action
-            String[] parts = usesValue.split("@", 2);
-            if (parts.length < 2) {
-                // No @ symbol means no version specified at all
+            // No @ symbol means no version specified at all
+            if (uses.getRef() == null) {
                 return true;
             }
 
-            String version = parts[1];
-
             // If it's already a SHA, it's pinned
-            if (SHA_PATTERN.matcher(version).matches()) {
+            if (uses.isSha()) {
                 return false;
             }
 
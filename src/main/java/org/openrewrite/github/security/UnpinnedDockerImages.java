@@ -17,13 +17,14 @@ package org.openrewrite.github.security;
 
 import lombok.EqualsAndHashCode;
 import lombok.Value;
+import org.jspecify.annotations.Nullable;
 import org.openrewrite.ExecutionContext;
 import org.openrewrite.Preconditions;
 import org.openrewrite.Recipe;
 import org.openrewrite.TreeVisitor;
 import org.openrewrite.github.IsGitHubActionsWorkflow;
+import org.openrewrite.github.Workflow;
 import org.openrewrite.marker.SearchResult;
-import org.openrewrite.yaml.YamlIsoVisitor;
 import org.openrewrite.yaml.tree.Yaml;
 
 import java.util.regex.Pattern;
@@ -49,34 +50,39 @@ public class UnpinnedDockerImages extends Recipe {
     public TreeVisitor<?, ExecutionContext> getVisitor() {
         return Preconditions.check(
                 new IsGitHubActionsWorkflow(),
-                new UnpinnedDockerImagesVisitor()
+                securityCheck()
         );
     }
 
-    private static class UnpinnedDockerImagesVisitor extends YamlIsoVisitor<ExecutionContext> {
+    SecurityCheck securityCheck() {
+        return new UnpinnedDockerImagesVisitor();
+    }
+
+    private static class UnpinnedDockerImagesVisitor extends SecurityCheck {
+
+        UnpinnedDockerImagesVisitor() {
+            super("image");
+        }
 
         @Override
-        public Yaml.Mapping.Entry visitMappingEntry(Yaml.Mapping.Entry entry, ExecutionContext ctx) {
-            Yaml.Mapping.Entry mappingEntry = super.visitMappingEntry(entry, ctx);
-
-            if (isImageEntry(mappingEntry)) {
-                String imageValue = getImageValue(mappingEntry);
-                if (imageValue != null && isUnpinnedDockerImage(imageValue)) {
-                    return SearchResult.found(mappingEntry,
-                            "Docker image '" + imageValue + "' is not pinned to a digest. " +
-                                    "Consider pinning to a specific digest for security and reproducibility.");
-                }
+        Yaml.Mapping.Entry checkEntry(Yaml.Mapping.Entry mappingEntry, ExecutionContext ctx) {
+            String imageValue = getImageValue(mappingEntry, ctx);
+            if (imageValue != null && isUnpinnedDockerImage(imageValue)) {
+                return SearchResult.found(mappingEntry,
+                        "Docker image '" + imageValue + "' is not pinned to a digest. " +
+                                "Consider pinning to a specific digest for security and reproducibility.");
             }
 
             return mappingEntry;
         }
 
-        private boolean isImageEntry(Yaml.Mapping.Entry entry) {
-            return "image".equals(entry.getKey().getValue());
-        }
-
-        private String getImageValue(Yaml.Mapping.Entry entry) {
-            return YamlHelper.getScalarValue(entry.getValue());
+        private @Nullable String getImageValue(Yaml.Mapping.Entry entry, ExecutionContext ctx) {
+            Workflow.Container container = Workflow.of(getCursor(), ctx).containerDeclaring(getCursor());
+            if (container != null) {
+                return container.getImage();
+            }
+            // The model has no image for a step, so one put on a step is read from the entry itself
+            return getSteps().isStepKey(getCursor()) ? YamlHelper.getScalarValue(entry.getValue()) : null;
         }
 
         private boolean isUnpinnedDockerImage(String imageValue) {
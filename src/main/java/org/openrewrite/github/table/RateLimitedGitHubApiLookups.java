@@ -0,0 +1,48 @@
+/*
+ * Copyright 2026 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.github.table;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreType;
+import lombok.Value;
+import org.openrewrite.Column;
+import org.openrewrite.DataTable;
+import org.openrewrite.Recipe;
+
+@JsonIgnoreType
+public class RateLimitedGitHubApiLookups extends DataTable<RateLimitedGitHubApiLookups.Row> {
+
+    public RateLimitedGitHubApiLookups(Recipe recipe) {
+        super(recipe,
+                "Rate-limited GitHub API lookups",
+                "GitHub API lookups that were rate limited, and whether they were deferred until the limit " +
+                "allowed them or dropped because the time budget ran out.");
+    }
+
+    @Value
+    public static class Row {
+        @Column(displayName = "Lookup",
+                description = "The `owner/repo@ref` being resolved, or the size of a batched GraphQL query.")
+        String lookup;
+
+        @Column(displayName = "Rate-limited attempts",
+                description = "How many times the request was rejected by a rate limit.")
+        int attempts;
+
+        @Column(displayName = "Outcome",
+                description = "`Deferred` when the request eventually went through, `Dropped` when it was abandoned.")
+        String outcome;
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2026 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.github;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExpressionTest {
+
+    @Test
+    void parsesOperatorsByPrecedence() {
+        Expression expression = Expression.parse("!cancelled() && github.actor == 'octocat' || inputs.force");
+
+        assertThat(expression).isEqualTo(new Expression.Binary("||",
+          new Expression.Binary("&&",
+            new Expression.Not(new Expression.Call("cancelled", List.of())),
+            new Expression.Binary("==", context("github.actor", "github", "actor"), new Expression.Literal("octocat"))),
+          context("inputs.force", "inputs", "force")));
+    }
+
+    @Test
+    void parsesLiterals() {
+        assertThat(Expression.parse("'it''s'")).isEqualTo(new Expression.Literal("it's"));
+        assertThat(Expression.parse("-1.5e3")).isEqualTo(new Expression.Literal(-1500.0));
+        assertThat(Expression.parse("0xff")).isEqualTo(new Expression.Literal(255.0));
+        assertThat(Expression.parse("true")).isEqualTo(new Expression.Literal(true));
+        assertThat(Expression.parse("null")).isEqualTo(new Expression.Literal(null));
+    }
+
+    @Test
+    void foldsConstantIndicesIntoContextPaths() {
+        assertThat(Expression.parse("github.event['commits'][0].message"))
+          .isEqualTo(context("github.event.commits[0].message", "github", "event", "commits", "0", "message"));
+        assertThat(Expression.parse("inputs . dry-run")).isEqualTo(context("inputs.dry-run", "inputs", "dry-run"));
+        assertThat(Expression.parse("steps[*].outputs")).isEqualTo(context("steps.*.outputs", "steps", "*", "outputs"));
+        assertThat(((Expression.Context) Expression.parse("GitHub.Head_Ref")).is("github.head_ref")).isTrue();
+    }
+
+    @Test
+    void keepsIndicesOnlyKnownAtRunTime() {
+        Expression expression = Expression.parse("matrix[inputs.os].image");
+
+        assertThat(expression).isEqualTo(new Expression.Index(
+          new Expression.Index(context("matrix", "matrix"), context("inputs.os", "inputs", "os")),
+          new Expression.Literal("image")));
+        assertThat(expression.getContexts()).extracting(Expression.Context::getPath).containsExactly("matrix", "inputs.os");
+    }
+
+    @Test
+    void findsEmbeddedExpressions() {
+        ExpressionTemplate template = ExpressionTemplate.parse(
+          "echo '${{ format('{0}}', github.head_ref) }}' && echo ${{ bad ( }} ${{ 'done' }}");
+
+        assertThat(template.getExpressions()).containsExactly(
+          new Expression.Call("format", List.of(new Expression.Literal("{0}}"), context("github.head_ref", "github", "head_ref"))),
+          new Expression.Invalid("bad ("),
+          new Expression.Literal("done"));
+        assertThat(ExpressionTemplate.parse("npm test").hasExpressions()).isFalse();
+        assertThat(ExpressionTemplate.parse("npm test")).isSameAs(ExpressionTemplate.parse("npm test"));
+    }
+
+    @Test
+    void parsesConditionsWithOrWithoutBraces() {
+        Expression expected = new Expression.Binary("==", context("github.ref", "github", "ref"), new Expression.Literal("refs/heads/main"));
+
+        assertThat(ExpressionTemplate.parseCondition("github.ref == 'refs/heads/main'").getExpressions()).containsExactly(expected);
+        assertThat(ExpressionTemplate.parseCondition("${{ github.ref == 'refs/heads/main' }}").getExpressions()).containsExactly(expected);
+        assertThat(ExpressionTemplate.parse("github.ref == 'refs/heads/main'").hasExpressions()).isFalse();
+    }
+
+    @Test
+    void rejectsMalformedAndPathologicalInput() {
+        assertThat(Expression.parse("a ==")).isInstanceOf(Expression.Invalid.class);
+        assertThat(Expression.parse("'unterminated")).isInstanceOf(Expression.Invalid.class);
+        assertThat(Expression.parse("a b")).isInstanceOf(Expression.Invalid.class);
+        assertThat(Expression.parse("(".repeat(100_000))).isInstanceOf(Expression.Invalid.class);
+        assertThat(Expression.parse("a" + ".b".repeat(100_000))).isInstanceOf(Expression.Context.class);
+    }
+
+    private static Expression.Context context(String path, String... segments) {
+        return new Expression.Context(path, List.of(segments));
+    }
+}
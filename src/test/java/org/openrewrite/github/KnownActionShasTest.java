@@ -0,0 +1,101 @@
+/*
+ * Copyright 2026 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.github;
+
+import org.junit.jupiter.api.Test;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KnownActionShasTest {
+
+    @Test
+    void bundledTableIsLoadedOncePerJvm() {
+        assertThat(KnownActionShas.bundled()).isSameAs(KnownActionShas.bundled());
+        assertThat(OfficialActionVersions.bundled()).isSameAs(OfficialActionVersions.bundled());
+    }
+
+    @Test
+    void resolvesKnownTag() {
+        assertThat(KnownActionShas.bundled().get("codecov/codecov-action", "v4.6.0"))
+          .isEqualTo("b9fd7d16f6d7d1b5d2bec1a2887e65ceed900238");
+        assertThat(KnownActionShas.bundled().get("codecov/codecov-action", "not-a-tag")).isNull();
+    }
+
+    @Test
+    void bundledTableIsCompiledByTheBuild() {
+        assertThat(KnownActionShas.class.getResource(KnownActionShas.COMPILED_RESOURCE)).isNotNull();
+        assertThat(KnownActionShas.bundled().size()).isGreaterThan(10_000);
+    }
+
+    @Test
+    void compilesUserSuppliedTable() {
+        Map<String, String> shas = new LinkedHashMap<>();
+        shas.put("some-org/some-action@v2", "2222222222222222222222222222222222222222");
+        shas.put("some-org/some-action/sub@v1", "abcdef0123456789abcdef0123456789abcdef01");
+        shas.put("some-org/some-action@v1", "1111111111111111111111111111111111111111");
+        shas.put("some-org/some-action@broken", "not-a-sha");
+
+        KnownActionShas table = KnownActionShas.of(shas);
+
+        assertThat(table.size()).isEqualTo(3);
+        assertThat(table.get("some-org/some-action", "v1")).isEqualTo("1111111111111111111111111111111111111111");
+        assertThat(table.get("some-org/some-action/sub", "v1")).isEqualTo("abcdef0123456789abcdef0123456789abcdef01");
+        assertThat(table.get("some-org/some-action", "broken")).isNull();
+
+        List<String> keys = new ArrayList<>();
+        table.forEach((key, sha) -> keys.add(key));
+        assertThat(keys).containsExactly("some-org/some-action@v1", "some-org/some-action@v2", "some-org/some-action/sub@v1");
+    }
+
+    @Test
+    void findsTagsPointingAtCommit() {
+        Map<String, String> shas = new LinkedHashMap<>();
+        shas.put("some-org/some-action@v1", "1111111111111111111111111111111111111111");
+        shas.put("some-org/some-action@v1.2.0", "1111111111111111111111111111111111111111");
+        shas.put("some-org/some-action@v2", "2222222222222222222222222222222222222222");
+        shas.put("other-org/other-action@v1", "1111111111111111111111111111111111111111");
+
+        KnownActionShas table = KnownActionShas.of(shas);
+
+        assertThat(table.refsPointingAt("some-org/some-action", "1111111111111111111111111111111111111111"))
+          .containsExactly("v1", "v1.2.0");
+        assertThat(table.refsPointingAt("other-org/other-action", "1111111111111111111111111111111111111111"))
+          .containsExactly("v1");
+        assertThat(table.refsPointingAt("some-org/some-action", "3333333333333333333333333333333333333333")).isEmpty();
+        assertThat(KnownActionShas.bundled().refsPointingAt("actions/checkout", "8ade135a41bc03ea155e62e844d188df1ea18608"))
+          .containsExactly("v4.1.0");
+    }
+
+    @Test
+    void retainsAFractionOfTheEquivalentStringMap() {
+        // The map each PinGitHubActionsToSha accumulator used to hold, next to the same entries
+        // compiled into a fresh table whose reverse SHA index has not been built yet
+        Map<String, String> map = new LinkedHashMap<>();
+        KnownActionShas.bundled().forEach(map::put);
+        KnownActionShas table = KnownActionShas.of(map);
+
+        long mapSize = GraphLayout.parseInstance(map).totalSize();
+        long tableSize = GraphLayout.parseInstance(table).totalSize();
+
+        assertThat(tableSize).isLessThan(mapSize / 4);
+    }
+}
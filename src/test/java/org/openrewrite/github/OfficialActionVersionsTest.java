@@ -42,6 +42,8 @@ class OfficialActionVersionsTest {
         props.put("github/codeql-action/init@v3.1.0", "eeeeeeeeeeeeeeeeeeeeeeeeeeeeeeeeeeeeeeee");
         props.put("github/codeql-action/init@v3", "ffffffffffffffffffffffffffffffffffffffff");
         props.put("codecov/codecov-action@v4", "0000000000000000000000000000000000000000");
+        props.put("some-org/unprefixed-action@1.0.0", "1010101010101010101010101010101010101010");
+        props.put("some-org/unprefixed-action@1.1.0", "1111111111111111111111111111111111111110");
         return OfficialActionVersions.fromProperties(props);
     }
 
@@ -101,9 +103,41 @@ class OfficialActionVersionsTest {
     }
 
     @Test
-    void thirdPartyActionsAreNotIndexed() {
+    void commitShaOfTheNewestFullVersionIsLeftUntouched() {
+        OfficialActionVersions versions = versions();
+        assertThat(versions.upgrade("actions/checkout", "dddddddddddddddddddddddddddddddddddddddd")).isNull();
+    }
+
+    @Test
+    void commitShaOfAnOlderMajorUpgradesToLatestMajorSha() {
+        OfficialActionVersions versions = versions();
+        assertThat(versions.upgrade("actions/checkout", SHA_V2)).isEqualTo(SHA_V3);
+    }
+
+    @Test
+    void commitShaOfTheNewestMinorOfAnOlderMajorUpgradesToLatestMajorSha() {
+        OfficialActionVersions versions = versions();
+        assertThat(versions.upgrade("actions/checkout", "cccccccccccccccccccccccccccccccccccccccc")).isEqualTo(SHA_V3);
+    }
+
+    @Test
+    void unknownCommitShaIsUpgradedToTheLatestKnownCommit() {
+        OfficialActionVersions versions = versions();
+        assertThat(versions.upgrade("actions/checkout", "4444444444444444444444444444444444444444")).isEqualTo(SHA_V3);
+    }
+
+    @Test
+    void thirdPartyActionsAreOnlyUpgradedOnRequest() {
         OfficialActionVersions versions = versions();
         assertThat(versions.upgrade("codecov/codecov-action", "v3")).isNull();
+        assertThat(versions.upgrade("codecov/codecov-action", "v3", true)).isEqualTo("v4");
+        assertThat(versions.upgrade("codecov/codecov-action", "v4", true)).isNull();
+    }
+
+    @Test
+    void thirdPartyTagsWithoutVPrefixAreUpgraded() {
+        OfficialActionVersions versions = versions();
+        assertThat(versions.upgrade("some-org/unprefixed-action", "1.0.0", true)).isEqualTo("1.1.0");
     }
 
     @Test
@@ -125,4 +159,19 @@ class OfficialActionVersionsTest {
         assertThat(OfficialActionVersions.isOfficial("github/codeql-action/init")).isTrue();
         assertThat(OfficialActionVersions.isOfficial("codecov/codecov-action")).isFalse();
     }
+
+    @Test
+    void precomputedBundledVersionsMatchIndexingAtRunTime() {
+        assertThat(OfficialActionVersions.class.getResource(OfficialActionVersions.COMPILED_RESOURCE)).isNotNull();
+
+        OfficialActionVersions precomputed = OfficialActionVersions.bundled();
+        OfficialActionVersions indexed = OfficialActionVersions.fromKnownShas(KnownActionShas.bundled());
+        KnownActionShas.bundled().forEach((key, sha) -> {
+            String actionPath = key.substring(0, key.indexOf('@'));
+            String ref = key.substring(key.indexOf('@') + 1);
+            assertThat(precomputed.upgrade(actionPath, ref)).as(key).isEqualTo(indexed.upgrade(actionPath, ref));
+            assertThat(precomputed.upgrade(actionPath, sha)).as(key).isEqualTo(indexed.upgrade(actionPath, sha));
+            assertThat(precomputed.upgrade(actionPath, ref, true)).as(key).isEqualTo(indexed.upgrade(actionPath, ref, true));
+        });
+    }
 }
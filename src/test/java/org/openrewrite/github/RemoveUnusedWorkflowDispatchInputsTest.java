@@ -142,6 +142,167 @@ class RemoveUnusedWorkflowDispatchInputsTest implements RewriteTest {
         );
     }
 
+    @Test
+    void keepInputsReferencedByIndex() {
+        rewriteRun(
+          //language=yaml
+          yaml(
+            """
+              on:
+                workflow_dispatch:
+                  inputs:
+                    dry-run:
+                      type: boolean
+                    verbose:
+                      type: boolean
+                    unused:
+                      type: string
+
+              jobs:
+                test:
+                  runs-on: ubuntu-latest
+                  steps:
+                    - run: ./release.sh ${{ inputs['dry-run'] }} ${{ github.event.inputs.verbose }}
+              """,
+            """
+              on:
+                workflow_dispatch:
+                  inputs:
+                    dry-run:
+                      type: boolean
+                    verbose:
+                      type: boolean
+
+              jobs:
+                test:
+                  runs-on: ubuntu-latest
+                  steps:
+                    - run: ./release.sh ${{ inputs['dry-run'] }} ${{ github.event.inputs.verbose }}
+              """,
+            spec -> spec.path(".github/workflows/release.yml")
+          )
+        );
+    }
+
+    @Test
+    void keepInputsReadFromTheEventPayload() {
+        rewriteRun(
+          //language=yaml
+          yaml(
+            """
+              on:
+                workflow_dispatch:
+                  inputs:
+                    environment:
+                      type: string
+                    version:
+                      type: string
+                    unused:
+                      type: string
+
+              jobs:
+                deploy:
+                  runs-on: ubuntu-latest
+                  steps:
+                    - uses: actions/github-script@v7
+                      with:
+                        script: |
+                          core.info(context.payload.inputs.environment)
+                    - run: jq -r .inputs.version "$GITHUB_EVENT_PATH"
+              """,
+            """
+              on:
+                workflow_dispatch:
+                  inputs:
+                    environment:
+                      type: string
+                    version:
+                      type: string
+
+              jobs:
+                deploy:
+                  runs-on: ubuntu-latest
+                  steps:
+                    - uses: actions/github-script@v7
+                      with:
+                        script: |
+                          core.info(context.payload.inputs.environment)
+                    - run: jq -r .inputs.version "$GITHUB_EVENT_PATH"
+              """,
+            spec -> spec.path(".github/workflows/deploy.yml")
+          )
+        );
+    }
+
+    @Test
+    void removeInputsOnlyMentionedInPlainText() {
+        rewriteRun(
+          //language=yaml
+          yaml(
+            """
+              on:
+                workflow_dispatch:
+                  inputs:
+                    version:
+                      type: string
+                    unused:
+                      type: string
+
+              jobs:
+                build:
+                  runs-on: ubuntu-latest
+                  steps:
+                    - run: echo "Set inputs.unused to skip the upload" && ./build.sh ${{ inputs.version }}
+                    - uses: some-org/script-action@v1
+                      with:
+                        script: console.log(context.payload.inputs.unused)
+              """,
+            """
+              on:
+                workflow_dispatch:
+                  inputs:
+                    version:
+                      type: string
+
+              jobs:
+                build:
+                  runs-on: ubuntu-latest
+                  steps:
+                    - run: echo "Set inputs.unused to skip the upload" && ./build.sh ${{ inputs.version }}
+                    - uses: some-org/script-action@v1
+                      with:
+                        script: console.log(context.payload.inputs.unused)
+              """,
+            spec -> spec.path(".github/workflows/build.yml")
+          )
+        );
+    }
+
+    @Test
+    void keepAllInputsWhenAnExpressionIsMalformed() {
+        rewriteRun(
+          //language=yaml
+          yaml(
+            """
+              on:
+                workflow_dispatch:
+                  inputs:
+                    target:
+                      type: string
+                    other:
+                      type: string
+
+              jobs:
+                build:
+                  runs-on: ubuntu-latest
+                  steps:
+                    - run: ./build.sh ${{ fromJSON(inputs[ }}
+              """,
+            spec -> spec.path(".github/workflows/build.yml")
+          )
+        );
+    }
+
     @Test
     void handleNoInputs() {
         rewriteRun(
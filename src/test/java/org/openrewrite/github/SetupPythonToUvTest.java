@@ -657,4 +657,50 @@ class SetupPythonToUvTest implements RewriteTest {
         );
     }
 
+
+    @Test
+    void transformCommandsByTheirWords() {
+        rewriteRun(
+          spec -> spec.recipe(new SetupPythonToUv(null, null, null, null)),
+          //language=yaml
+          yaml(
+            """
+              name: Test
+
+              on: [push]
+
+              jobs:
+                test:
+                  runs-on: ubuntu-latest
+                  steps:
+                    - uses: actions/setup-python@v5
+                      with:
+                        python-version: '3.11'
+                    - run: |
+                        # Upgrade pip first
+                        python -m pip install --upgrade pip
+                    - run: pip install -r "requirements.txt"
+                    - run: python -m pytest -k "not slow"
+                    - run: pip install -r requirements.txt && pip install tox
+              """,
+            """
+              name: Test
+
+              on: [push]
+
+              jobs:
+                test:
+                  runs-on: ubuntu-latest
+                  steps:
+                    - uses: astral-sh/setup-uv@v6
+                      with:
+                        python-version: '3.11'
+                    - run: uv sync
+                    - run: uv run pytest -k "not slow"
+                    - run: pip install -r requirements.txt && pip install tox
+              """,
+            source -> source.path(".github/workflows/test.yml")
+          )
+        );
+    }
 }
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2026 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.github;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.params.provider.Arguments.arguments;
+import static org.openrewrite.github.ShellScript.Expansion.Kind.COMMAND;
+import static org.openrewrite.github.ShellScript.Expansion.Kind.VARIABLE;
+
+class ShellScriptTest {
+
+    @Test
+    void splitsCommandsAtSeparatorsAndNewlines() {
+        ShellScript script = ShellScript.parse("""
+          npm ci && npm test || exit 1; echo done
+          cat report.txt | tee -a out.txt
+          """);
+
+        assertThat(script.getCommands()).extracting(ShellScript.Command::getWords).containsExactly(
+          List.of("npm", "ci"),
+          List.of("npm", "test"),
+          List.of("exit", "1"),
+          List.of("echo", "done"),
+          List.of("cat", "report.txt"),
+          List.of("tee", "-a", "out.txt"));
+    }
+
+    @Test
+    void removesQuotesAndEscapes() {
+        ShellScript script = ShellScript.parse("echo 'a \"b\"' \"c \\\"d\\\" $E\" f\\ g '' \\\n  h");
+
+        assertThat(script.getCommands().get(0).getWords()).containsExactly("echo", "a \"b\"", "c \"d\" $E", "f g", "", "h");
+    }
+
+    @Test
+    void keepsExpressionsAndSubstitutionsWhole() {
+        ShellScript script = ShellScript.parse("echo ${{ github.event.issue.title }} $(date -d '(now)') \"$((1 + 2))\" `id -u`");
+
+        assertThat(script.getCommands().get(0).getWords())
+          .containsExactly("echo", "${{ github.event.issue.title }}", "$(date -d '(now)')", "$((1 + 2))", "`id -u`");
+    }
+
+    @Test
+    void findsRedirections() {
+        ShellScript script = ShellScript.parse("""
+          echo "A=1" >> "$GITHUB_ENV"
+          make 2>&1 >/dev/null &>> build.log
+          echo "B=2">>%GITHUB_ENV%
+          """);
+
+        assertThat(script.getCommands()).extracting(ShellScript.Command::getRedirections).containsExactly(
+          List.of(new ShellScript.Redirection(">>", "$GITHUB_ENV")),
+          List.of(new ShellScript.Redirection(">&", "1"), new ShellScript.Redirection(">", "/dev/null"),
+            new ShellScript.Redirection("&>>", "build.log")),
+          List.of(new ShellScript.Redirection(">>", "%GITHUB_ENV%")));
+        assertThat(script.getCommands().get(1).getWords()).containsExactly("make");
+    }
+
+    @Test
+    void skipsCommentsAndHereDocuments() {
+        ShellScript script = ShellScript.parse("""
+          # npm publish
+          cat <<-'EOF' >> $GITHUB_ENV
+            npm publish
+          EOF
+          Add-Content -Path $env:GITHUB_ENV `
+            -Value "A=1"
+          """);
+
+        assertThat(script.getCommands()).extracting(ShellScript.Command::getName).containsExactly("cat", "Add-Content");
+        assertThat(script.getCommands().get(1).getWords()).containsExactly("Add-Content", "-Path", "$env:GITHUB_ENV", "-Value", "A=1");
+    }
+
+    @Test
+    void findsExpansionsOutsideSingleQuotes() {
+        ShellScript.Command command = ShellScript.parse(
+          "echo \"A=$HOME ${X:-y}\" '$NOT' ${{ github.sha }} `id -u` $(date) >> $env:GITHUB_ENV").getCommands().get(0);
+
+        assertThat(command.getExpansions()).containsExactly(
+          new ShellScript.Expansion(VARIABLE, "$HOME", "HOME"),
+          new ShellScript.Expansion(VARIABLE, "${X:-y}", "X"),
+          new ShellScript.Expansion(COMMAND, "`id -u`", null),
+          new ShellScript.Expansion(COMMAND, "$(date)", null),
+          new ShellScript.Expansion(VARIABLE, "$env:GITHUB_ENV", "GITHUB_ENV"));
+    }
+
+    @Test
+    void keepsEachCommandAsWritten() {
+        ShellScript script = ShellScript.parse("  python -m pytest -k \"a and b\" > out.txt  # fast tests\nx=1;y");
+
+        assertThat(script.getCommands()).extracting(ShellScript.Command::getSource)
+          .containsExactly("python -m pytest -k \"a and b\" > out.txt", "x=1", "y");
+    }
+
+    @Test
+    void parsesEachScriptOnce() {
+        assertThat(ShellScript.parse("npm test")).isSameAs(ShellScript.parse("npm test"));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("pathologicalScripts")
+    void parsesPathologicalScriptsInLinearTime(String name, String script) {
+        assertTimeoutPreemptively(Duration.ofSeconds(1), () -> ShellScript.parse(script));
+    }
+
+    /**
+     * Scripts of about 200 KB that would each take a backtracking matcher, or a tokenizer that rescans
+     * what it has read, quadratic time or worse.
+     */
+    static Stream<Arguments> pathologicalScripts() {
+        return Stream.of(
+          arguments("repeated tool names", "twine a ".repeat(25_000)),
+          arguments("unterminated single quotes", "'".repeat(200_000)),
+          arguments("unterminated double quotes", "\"".repeat(200_000)),
+          arguments("unbalanced substitutions", "$(".repeat(100_000)),
+          arguments("nested substitutions", "$(".repeat(50_000) + ")".repeat(50_000)),
+          arguments("unterminated expressions", "${{".repeat(70_000)),
+          arguments("backticks", "`".repeat(200_000)),
+          arguments("here-documents", "<<EOF\n".repeat(30_000)),
+          arguments("comments", "#\n".repeat(100_000)),
+          arguments("backslashes", "\\".repeat(200_000)),
+          arguments("redirections", "a 2>".repeat(40_000)),
+          arguments("environment file writes", "Out-File ".repeat(20_000) + "$env:GITHUB_ENV\n")
+        );
+    }
+}
@@ -41,6 +41,7 @@ class UpgradeOfficialGitHubActionsTest implements RewriteTest {
     private static final String LATEST_FULL = VERSIONS.upgrade("actions/checkout", "v1.0.0");
     private static final String OLD_SHA = PROPS.get("actions/checkout@v1.0.0");
     private static final String LATEST_MAJOR_SHA = PROPS.get("actions/checkout@" + LATEST_MAJOR);
+    private static final String LATEST_CODECOV_MAJOR = VERSIONS.upgrade("codecov/codecov-action", "v1", true);
 
     private static Map<String, String> loadProperties() {
         var props = new Properties();
@@ -112,6 +113,35 @@ class UpgradeOfficialGitHubActionsTest implements RewriteTest {
         );
     }
 
+    @Test
+    void upgradesThirdPartyActionsWhenIncluded() {
+        rewriteRun(
+          spec -> spec.recipe(new UpgradeOfficialGitHubActions(true)),
+          //language=yaml
+          yaml(
+            """
+              jobs:
+                build:
+                  runs-on: ubuntu-latest
+                  steps:
+                    - uses: actions/checkout@v1
+                    - uses: codecov/codecov-action@v1
+                    - uses: some-org/not-a-real-action@v1
+              """,
+            """
+              jobs:
+                build:
+                  runs-on: ubuntu-latest
+                  steps:
+                    - uses: actions/checkout@%s
+                    - uses: codecov/codecov-action@%s
+                    - uses: some-org/not-a-real-action@v1
+              """.formatted(LATEST_MAJOR, LATEST_CODECOV_MAJOR),
+            source -> source.path(".github/workflows/ci.yml")
+          )
+        );
+    }
+
     @Test
     void leavesUnknownAndAlreadyLatestActionsUntouched() {
         rewriteRun(
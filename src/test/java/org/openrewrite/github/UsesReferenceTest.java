@@ -0,0 +1,87 @@
+/*
+ * Copyright 2026 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.github;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UsesReferenceTest {
+
+    @Test
+    void parsesRepositoryReference() {
+        UsesReference uses = UsesReference.parse("github/codeql-action/init@v3");
+
+        assertThat(uses.getKind()).isEqualTo(UsesReference.Kind.REPOSITORY);
+        assertThat(uses.getActionPath()).isEqualTo("github/codeql-action/init");
+        assertThat(uses.getOwnerRepo()).isEqualTo("github/codeql-action");
+        assertThat(uses.getOwner()).isEqualTo("github");
+        assertThat(uses.getRepo()).isEqualTo("codeql-action");
+        assertThat(uses.getSubpath()).isEqualTo("init");
+        assertThat(uses.getRef()).isEqualTo("v3");
+        assertThat(uses.isSha()).isFalse();
+        assertThat(uses.isWellFormed()).isTrue();
+    }
+
+    @Test
+    void parsesShaPin() {
+        UsesReference uses = UsesReference.parse("actions/checkout@8ade135a41bc03ea155e62e844d188df1ea18608");
+
+        assertThat(uses.getOwnerRepo()).isEqualTo("actions/checkout");
+        assertThat(uses.getSubpath()).isNull();
+        assertThat(uses.isSha()).isTrue();
+        assertThat(UsesReference.parse("actions/checkout@8ADE135A41BC03EA155E62E844D188DF1EA18608").isSha()).isFalse();
+        assertThat(UsesReference.parse("actions/checkout@8ade135").isSha()).isFalse();
+    }
+
+    @Test
+    void parsesLocalAndDockerReferences() {
+        UsesReference local = UsesReference.parse("./.github/actions/build");
+        assertThat(local.isLocal()).isTrue();
+        assertThat(local.getOwner()).isNull();
+        assertThat(local.getRef()).isNull();
+
+        UsesReference docker = UsesReference.parse("docker://alpine:3.8");
+        assertThat(docker.isDocker()).isTrue();
+        assertThat(docker.getActionPath()).isNull();
+    }
+
+    @Test
+    void keepsMalformedRepositoryReferencesAsWritten() {
+        UsesReference doubleSlash = UsesReference.parse("owner//repo@v1");
+        assertThat(doubleSlash.isRepository()).isTrue();
+        assertThat(doubleSlash.getRepo()).isEmpty();
+        assertThat(doubleSlash.getSubpath()).isEqualTo("repo");
+        assertThat(doubleSlash.isWellFormed()).isFalse();
+
+        UsesReference ownerOnly = UsesReference.parse("owner@v1");
+        assertThat(ownerOnly.getOwner()).isEqualTo("owner");
+        assertThat(ownerOnly.getRepo()).isNull();
+        assertThat(ownerOnly.isWellFormed()).isFalse();
+
+        UsesReference unversioned = UsesReference.parse("owner/repo");
+        assertThat(unversioned.getRef()).isNull();
+        assertThat(unversioned.isWellFormed()).isTrue();
+    }
+
+    @Test
+    void sharesParsedReferencesAndInternsOwners() {
+        String value = "some-org/some-action@v1";
+        assertThat(UsesReference.parse(value)).isSameAs(UsesReference.parse(new String(value.toCharArray())));
+        assertThat(UsesReference.parse("some-org/other-action@v1").getOwner())
+          .isSameAs(UsesReference.parse("some-org/third-action@v2").getOwner());
+    }
+}
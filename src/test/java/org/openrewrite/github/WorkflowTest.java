@@ -0,0 +1,210 @@
+/*
+ * Copyright 2026 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.github;
+
+import org.junit.jupiter.api.Test;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.marker.SearchResult;
+import org.openrewrite.yaml.YamlIsoVisitor;
+import org.openrewrite.yaml.YamlParser;
+import org.openrewrite.yaml.tree.Yaml;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+class WorkflowTest {
+
+    private static final String WORKFLOW = """
+      on:
+        push:
+          branches: [main, release/*]
+          tags: v*
+        pull_request_target:
+      permissions: read-all
+      env:
+        CI: true
+      jobs:
+        build:
+          name: Build
+          runs-on: [self-hosted, linux]
+          timeout-minutes: 30
+          strategy:
+            matrix:
+              node: [18, 20]
+              include:
+                - node: 22
+          permissions:
+            contents: write
+            id-token: write
+          container:
+            image: node:18
+            credentials:
+              username: user
+              password: ${{ secrets.PASSWORD }}
+          services:
+            db: postgres:16
+          steps:
+            - id: checkout
+              uses: actions/checkout@v4
+              timeout-minutes: 5
+              with:
+                persist-credentials: false
+            - name: Test
+              run: npm test
+              env:
+                NODE_ENV: test
+        call:
+          uses: org/repo/.github/workflows/reusable.yml@main
+          secrets: inherit
+      """;
+
+    @Test
+    void readsWhatTheWorkflowDeclares() {
+        Workflow workflow = Workflow.of(parse(WORKFLOW));
+
+        assertThat(workflow.getTriggers()).extracting(Workflow.Trigger::getEvent)
+          .containsExactly("push", "pull_request_target");
+        assertThat(workflow.getTriggers().get(0).getFilters()).containsExactly(
+          entry("branches", List.of("main", "release/*")),
+          entry("tags", singletonList("v*")));
+        assertThat(workflow.hasTrigger("pull_request_target")).isTrue();
+        assertThat(workflow.getPermissions()).isEqualTo(new Workflow.Permissions("read-all", emptyMap()));
+        assertThat(workflow.getEnv()).containsExactly(entry("CI", "true"));
+
+        Workflow.Job build = workflow.getJob("build");
+        assertThat(build).isNotNull();
+        assertThat(build.getName()).isEqualTo("Build");
+        assertThat(build.getRunsOn()).containsExactly("self-hosted", "linux");
+        assertThat(build.getTimeoutMinutes()).isEqualTo("30");
+        assertThat(build.getMatrix()).containsExactly(entry("node", List.of("18", "20")));
+        assertThat(build.getSecrets()).isNull();
+        assertThat(build.getPermissions().getScopes()).containsExactly(entry("contents", "write"), entry("id-token", "write"));
+        assertThat(build.getContainer().getImage()).isEqualTo("node:18");
+        assertThat(build.getContainer().getCredentials()).containsEntry("password", "${{ secrets.PASSWORD }}");
+        assertThat(build.getServices().get("db").getImage()).isEqualTo("postgres:16");
+        assertThat(build.getSteps()).hasSize(2);
+        assertThat(build.getSteps().get(0).getUses()).isEqualTo("actions/checkout@v4");
+        assertThat(build.getSteps().get(0).getWith()).containsExactly(entry("persist-credentials", "false"));
+        assertThat(build.getSteps().get(0).getTimeoutMinutes()).isEqualTo("5");
+        assertThat(build.getSteps().get(1).getTimeoutMinutes()).isNull();
+        assertThat(build.getSteps().get(1).getRun()).isEqualTo("npm test");
+        assertThat(build.getSteps().get(1).getEnv()).containsExactly(entry("NODE_ENV", "test"));
+
+        assertThat(workflow.getJob("call").getUses()).isEqualTo("org/repo/.github/workflows/reusable.yml@main");
+        assertThat(workflow.getJob("call").getSteps()).isEmpty();
+        assertThat(workflow.getJob("call").getSecrets()).isEqualTo("inherit");
+        assertThat(workflow.getJob("call").getRunsOn()).isEmpty();
+        assertThat(workflow.getJob("call").getName()).isNull();
+    }
+
+    @Test
+    void readsTriggersInEveryForm() {
+        assertThat(Workflow.of(parse("on: push")).getTriggers())
+          .containsExactly(new Workflow.Trigger("push", emptyMap()));
+        assertThat(Workflow.of(parse("on: [push, workflow_run]")).getTriggers())
+          .extracting(Workflow.Trigger::getEvent).containsExactly("push", "workflow_run");
+        assertThat(Workflow.of(parse("name: no triggers")).getTriggers()).isEmpty();
+    }
+
+    @Test
+    void locatesJobsAndPermissionsFromACursor() {
+        Yaml.Document document = parse(WORKFLOW);
+        ExecutionContext ctx = new InMemoryExecutionContext();
+        List<String> found = new ArrayList<>();
+        new YamlIsoVisitor<ExecutionContext>() {
+            @Override
+            public Yaml.Mapping.Entry visitMappingEntry(Yaml.Mapping.Entry entry, ExecutionContext ctx) {
+                Workflow workflow = Workflow.of(getCursor(), ctx);
+                if ("permissions".equals(entry.getKey().getValue())) {
+                    Workflow.Job job = workflow.jobAt(getCursor());
+                    found.add((job == null ? "workflow" : job.getId()) + " " + workflow.permissionsAt(getCursor()));
+                } else if ("persist-credentials".equals(entry.getKey().getValue())) {
+                    found.add(workflow.jobAt(getCursor()).getId() + " " + workflow.permissionsAt(getCursor()));
+                }
+                return super.visitMappingEntry(entry, ctx);
+            }
+        }.visit(document, ctx);
+
+        assertThat(found).containsExactly(
+          "workflow Workflow.Permissions(all=read-all, scopes={})",
+          "build Workflow.Permissions(all=null, scopes={contents=write, id-token=write})",
+          "build null");
+    }
+
+    @Test
+    void locatesTheJobOrContainerDeclaringAnEntry() {
+        Yaml.Document document = parse(WORKFLOW);
+        ExecutionContext ctx = new InMemoryExecutionContext();
+        List<String> found = new ArrayList<>();
+        new YamlIsoVisitor<ExecutionContext>() {
+            @Override
+            public Yaml.Mapping.Entry visitMappingEntry(Yaml.Mapping.Entry entry, ExecutionContext ctx) {
+                Workflow workflow = Workflow.of(getCursor(), ctx);
+                String key = entry.getKey().getValue();
+                Workflow.Job defined = workflow.jobDefinedAt(getCursor());
+                if (defined != null) {
+                    found.add("job " + defined.getId());
+                }
+                if ("runs-on".equals(key) || "secrets".equals(key) || "node".equals(key)) {
+                    Workflow.Job job = workflow.jobDeclaring(getCursor());
+                    found.add(key + " " + (job == null ? null : job.getId()));
+                } else if ("image".equals(key) || "credentials".equals(key) || "password".equals(key)) {
+                    Workflow.Container container = workflow.containerDeclaring(getCursor());
+                    found.add(key + " " + (container == null ? null : container.getImage()));
+                }
+                return super.visitMappingEntry(entry, ctx);
+            }
+        }.visit(document, ctx);
+
+        assertThat(found).containsExactly(
+          "job build",
+          "runs-on build",
+          "node null",
+          "node null",
+          "image node:18",
+          "credentials node:18",
+          "password null",
+          "job call",
+          "secrets call");
+    }
+
+    @Test
+    void buildsEachDocumentOnce() {
+        Yaml.Document document = parse(WORKFLOW);
+        ExecutionContext ctx = new InMemoryExecutionContext();
+
+        Workflow workflow = Workflow.of(document, ctx);
+        assertThat(Workflow.of(document, ctx)).isSameAs(workflow);
+
+        // A document changed by an earlier recipe is looked at afresh
+        Yaml.Document changed = SearchResult.found(document);
+        assertThat(Workflow.of(changed, ctx)).isNotSameAs(workflow).isEqualTo(workflow);
+    }
+
+    private static Yaml.Document parse(String yaml) {
+        return ((Yaml.Documents) YamlParser.builder().build()
+          .parse(new InMemoryExecutionContext(), yaml)
+          .findFirst()
+          .orElseThrow())
+          .getDocuments().get(0);
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2026 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.github.security;
+
+import org.junit.jupiter.api.Test;
+import org.openrewrite.github.UsesReference;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ActionAllowListTest {
+
+    @Test
+    void matchesEachPatternShape() {
+        ActionAllowList allowList = new ActionAllowList(null,
+          Arrays.asList(" codecov/codecov-action ", "my-org/*", "github/codeql-action/init", "", null));
+
+        assertThat(allowList.isAllowListed()).isTrue();
+        assertThat(allowList.allows(UsesReference.parse("codecov/codecov-action"))).isTrue();
+        assertThat(allowList.allows(UsesReference.parse("codecov/codecov-action/subpath"))).isTrue();
+        assertThat(allowList.allows(UsesReference.parse("codecov/other-action"))).isFalse();
+        assertThat(allowList.allows(UsesReference.parse("my-org/anything"))).isTrue();
+        assertThat(allowList.allows(UsesReference.parse("my-org/anything/subpath"))).isTrue();
+        assertThat(allowList.allows(UsesReference.parse("github/codeql-action/init"))).isTrue();
+        assertThat(allowList.allows(UsesReference.parse("github/codeql-action/analyze"))).isFalse();
+        assertThat(allowList.allows(UsesReference.parse("github/codeql-action"))).isFalse();
+    }
+
+    @Test
+    void emptyAllowListPinsEverything() {
+        assertThat(new ActionAllowList(null, null).isAllowListed()).isFalse();
+        assertThat(new ActionAllowList(null, emptyList()).isAllowListed()).isFalse();
+        assertThat(new ActionAllowList(null, singletonList(" ")).isAllowListed()).isTrue();
+    }
+
+    @Test
+    void trustedOwnersMatchExactly() {
+        ActionAllowList allowList = new ActionAllowList(Arrays.asList("my-org", null), null);
+        assertThat(allowList.isTrustedOwner("my-org")).isTrue();
+        assertThat(allowList.isTrustedOwner("my-org-fork")).isFalse();
+    }
+
+    @Test
+    void matchesLargeAllowLists() {
+        List<String> owners = new ArrayList<>();
+        List<String> patterns = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            owners.add("trusted-" + i);
+            patterns.add(i % 3 == 0 ? "org-" + i + "/*" : i % 3 == 1 ? "org-" + i + "/repo" : "org-" + i + "/repo/subpath");
+        }
+        ActionAllowList allowList = new ActionAllowList(owners, patterns);
+
+        assertThat(allowList.isTrustedOwner("trusted-9999")).isTrue();
+        assertThat(allowList.isTrustedOwner("trusted-10000")).isFalse();
+        assertThat(allowList.allows(UsesReference.parse("org-9999/anything"))).isTrue();
+        assertThat(allowList.allows(UsesReference.parse("org-9997/repo/other"))).isTrue();
+        assertThat(allowList.allows(UsesReference.parse("org-9998/repo/subpath"))).isTrue();
+        assertThat(allowList.allows(UsesReference.parse("org-9998/repo"))).isFalse();
+        assertThat(allowList.allows(UsesReference.parse("org-10000/repo"))).isFalse();
+    }
+}
@@ -295,6 +295,35 @@ class BotConditionsTest implements RewriteTest {
         );
     }
 
+    @Test
+    void shouldFlagBotNameComparedEitherWayAround() {
+        rewriteRun(
+          yaml(
+            """
+              name: Test Workflow
+              on: pull_request
+              jobs:
+                test:
+                  runs-on: ubuntu-latest
+                  if: ${{ 'Dependabot[bot]' == github.actor }}
+                  steps:
+                    - uses: actions/checkout@v4
+              """,
+            """
+              name: Test Workflow
+              on: pull_request
+              jobs:
+                test:
+                  runs-on: ubuntu-latest
+                  ~~(Bot actor name check is spoofable. Consider using actor_id instead for more secure bot validation.)~~>if: ${{ 'Dependabot[bot]' == github.actor }}
+                  steps:
+                    - uses: actions/checkout@v4
+              """,
+            sourceSpecs -> sourceSpecs.path(".github/workflows/test.yml")
+          )
+        );
+    }
+
     @Test
     void shouldIgnoreNonWorkflowFiles() {
         rewriteRun(
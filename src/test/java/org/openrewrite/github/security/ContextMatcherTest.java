@@ -0,0 +1,90 @@
+/*
+ * Copyright 2026 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.github.security;
+
+import org.junit.jupiter.api.Test;
+import org.openrewrite.github.Expression;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ContextMatcherTest {
+
+    private final ContextMatcher matcher = new ContextMatcher(List.of(
+      "github.head_ref",
+      "github.event['issue'].title",
+      "github.event.commits[0].message",
+      "github.event.pages.*.page_name",
+      "github.event.client_payload",
+      "not a context"
+    ));
+
+    @Test
+    void matchesPathsWhateverWayTheyAreWritten() {
+        assertThat(matches("github.head_ref")).isTrue();
+        assertThat(matches("GitHub.Head_Ref")).isTrue();
+        assertThat(matches("github['event'].issue['title']")).isTrue();
+        assertThat(matches("github.event.commits[0].message")).isTrue();
+        assertThat(matches("github.event.commits[1].message")).isFalse();
+        assertThat(matches("github.head")).isFalse();
+        assertThat(matches("github")).isFalse();
+    }
+
+    @Test
+    void matchesFieldsBeneathAPath() {
+        assertThat(matches("github.event.client_payload")).isTrue();
+        assertThat(matches("github.event.client_payload.pull_request.title")).isTrue();
+        assertThat(matches("github.event.client_payload_version")).isFalse();
+    }
+
+    @Test
+    void matchesWildcardsEitherSide() {
+        assertThat(matches("github.event.pages[3].page_name")).isTrue();
+        assertThat(matches("github.event.pages.*.page_name")).isTrue();
+        assertThat(matches("github.event.commits.*.message")).isTrue();
+        assertThat(matches("github.event.commits.*.author")).isFalse();
+    }
+
+    @Test
+    void findsPathsInMalformedExpressions() {
+        assertThat(matcher.findIn("format('{0}', github.event.issue.title")).isEqualTo(context("github.event.issue.title"));
+        assertThat(matcher.findIn("github.event . commits[0].message ==")).isEqualTo(context("github.event.commits[0].message"));
+        assertThat(matcher.findIn("safe.github.head_ref )")).isNull();
+        assertThat(matcher.findIn("github.event.issue.body )")).isNull();
+    }
+
+    @Test
+    void matchesAgainstManyPaths() {
+        List<String> paths = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            paths.add("github.event.field" + i + ".value");
+        }
+        ContextMatcher large = new ContextMatcher(paths);
+
+        assertThat(large.matches(context("github.event.field99999.value.nested"))).isTrue();
+        assertThat(large.matches(context("github.event.field100000.value"))).isFalse();
+    }
+
+    private boolean matches(String path) {
+        return matcher.matches(context(path));
+    }
+
+    private static Expression.Context context(String path) {
+        return (Expression.Context) Expression.parse(path);
+    }
+}
@@ -355,4 +355,36 @@ class ForbiddenUsesTest implements RewriteTest {
           )
         );
     }
+
+    @Test
+    void shouldPreferLongestSuspiciousPatternIgnoringCase() {
+        rewriteRun(
+          spec -> spec.recipe(new ForbiddenUses(
+            null,
+            List.of("Crypto", "Crypto-Miner")
+          )),
+          //language=yaml
+          yaml(
+            """
+              name: Test Workflow
+              on: push
+              jobs:
+                test:
+                  runs-on: ubuntu-latest
+                  steps:
+                    - uses: some-org/CRYPTO-MINER-tool@v1
+              """,
+            """
+              name: Test Workflow
+              on: push
+              jobs:
+                test:
+                  runs-on: ubuntu-latest
+                  steps:
+                    - ~~(Action 'some-org/CRYPTO-MINER-tool@v1' contains suspicious pattern 'Crypto-Miner'. Review this action carefully for potential security risks.)~~>uses: some-org/CRYPTO-MINER-tool@v1
+              """,
+            sourceSpecs -> sourceSpecs.path(".github/workflows/test.yml")
+          )
+        );
+    }
 }
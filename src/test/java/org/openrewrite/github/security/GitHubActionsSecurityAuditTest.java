@@ -0,0 +1,221 @@
+/*
+ * Copyright 2026 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.github.security;
+
+import org.junit.jupiter.api.Test;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.Recipe;
+import org.openrewrite.Result;
+import org.openrewrite.SourceFile;
+import org.openrewrite.config.Environment;
+import org.openrewrite.config.RecipeDescriptor;
+import org.openrewrite.internal.InMemoryLargeSourceSet;
+import org.openrewrite.test.RecipeSpec;
+import org.openrewrite.test.RewriteTest;
+import org.openrewrite.yaml.YamlParser;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.openrewrite.yaml.Assertions.yaml;
+
+class GitHubActionsSecurityAuditTest implements RewriteTest {
+
+    private static final String INSECURE_WORKFLOW = """
+      on:
+        pull_request_target:
+        push:
+          tags: ['v*']
+      permissions: write-all
+      jobs:
+        build:
+          runs-on: self-hosted
+          container:
+            image: node:18
+            credentials:
+              username: user
+              password: hunter2
+          env:
+            ACTIONS_ALLOW_UNSECURE_COMMANDS: true
+          steps:
+            - uses: actions/checkout@v2
+            - uses: actions/setup-node@v4
+              with:
+                registry-url: https://registry.npmjs.org
+                always-auth: true
+            - uses: actions/upload-artifact@v4
+              with:
+                path: ~/.ssh
+            - uses: actions/github-script@v7
+              with:
+                script: console.log("${{ github.event.pull_request.title }}")
+            - uses: owner/./repo@v1
+            - uses: a/action@v1
+            - uses: docker://alpine:3.8
+            - uses: actions/checkout@8ade135a41bc03ea155e62e844d188df1ea18608 # v3.0.0
+            - run: |
+                echo "${{ github.event.issue.title }}" >> $GITHUB_ENV
+                npm publish
+            - uses: pypa/gh-action-pypi-publish@release/v1
+              with:
+                password: ${{ secrets.PYPI }}
+                repository-url: https://upload.pypi.org/legacy/
+            - uses: actions/cache@v4
+        call:
+          if: github.actor == 'dependabot[bot]'
+          uses: org/repo/.github/workflows/reusable.yml@main
+          secrets: inherit
+      """;
+
+    private static final String ORDINARY_WORKFLOW = """
+      on: push
+      permissions:
+        contents: read
+      jobs:
+        test:
+          runs-on: ubuntu-latest
+          steps:
+            - uses: actions/checkout@v4
+            - uses: actions/cache@v4
+            - run: echo "${{ github.head_ref }}" >> $GITHUB_ENV
+      """;
+
+    @Override
+    public void defaults(RecipeSpec spec) {
+        spec.recipe(new GitHubActionsSecurityAudit());
+    }
+
+    @Test
+    void findsIssuesInOnePass() {
+        rewriteRun(
+          //language=yaml
+          yaml(
+            """
+              on: pull_request_target
+              jobs:
+                build:
+                  runs-on: ubuntu-latest
+                  steps:
+                    - run: echo "${{ github.event.pull_request.title }}"
+              """,
+            """
+              ~~(The 'pull_request_target' trigger is almost always used insecurely. It runs with write permissions in the context of the target repository, potentially allowing code injection from pull requests. Consider using 'pull_request' instead, or implement proper isolation.)~~>on: pull_request_target
+              jobs:
+                build:
+                  runs-on: ubuntu-latest
+                  steps:
+                    - ~~(Potential template injection vulnerability. User-controlled input 'github.event.pull_request.title' used in run command without proper escaping.)~~>run: echo "${{ github.event.pull_request.title }}"
+              """,
+            spec -> spec.path(".github/workflows/ci.yml")
+          )
+        );
+    }
+
+    @Test
+    void findsTheSameIssuesAsTheComposite() {
+        List<SourceFile> workflows = parse(1);
+
+        Map<Path, String> composite = run(compositeRecipe(), workflows);
+        Map<Path, String> fused = run(new GitHubActionsSecurityAudit(), workflows);
+
+        assertThat(composite).containsOnlyKeys(Path.of(".github/workflows/insecure-0.yml"), Path.of(".github/workflows/ordinary-0.yml"));
+        assertThat(fused).isEqualTo(composite);
+    }
+
+    @Test
+    void runsEveryAuditOfTheComposite() {
+        RecipeDescriptor composite = Environment.builder()
+          .scanRuntimeClasspath()
+          .build()
+          .listRecipeDescriptors()
+          .stream()
+          .filter(descriptor -> "org.openrewrite.github.security.GitHubActionsSecurity".equals(descriptor.getName()))
+          .findFirst()
+          .orElseThrow();
+
+        assertThat(new GitHubActionsSecurityAudit().securityChecks().keySet())
+          .extracting(Class::getName)
+          .containsExactlyElementsOf(composite.getRecipeList().stream().map(RecipeDescriptor::getName).toList());
+    }
+
+    @Test
+    void passesOptionsThroughToTheAudits() {
+        rewriteRun(
+          spec -> spec.recipe(new GitHubActionsSecurityAudit(
+            List.of("github.event.client_payload"), null, List.of("crypto-miner"))),
+          //language=yaml
+          yaml(
+            """
+              on: repository_dispatch
+              jobs:
+                build:
+                  runs-on: ubuntu-latest
+                  steps:
+                    - uses: some-org/crypto-miner-action@8ade135a41bc03ea155e62e844d188df1ea18608
+                    - run: echo "${{ github.event.client_payload.branch }}"
+              """,
+            """
+              on: repository_dispatch
+              jobs:
+                build:
+                  runs-on: ubuntu-latest
+                  steps:
+                    - ~~(Action 'some-org/crypto-miner-action@8ade135a41bc03ea155e62e844d188df1ea18608' contains suspicious pattern 'crypto-miner'. Review this action carefully for potential security risks.)~~>uses: some-org/crypto-miner-action@8ade135a41bc03ea155e62e844d188df1ea18608
+                    - ~~(Potential template injection vulnerability. User-controlled input 'github.event.client_payload.branch' used in run command without proper escaping.)~~>run: echo "${{ github.event.client_payload.branch }}"
+              """,
+            spec -> spec.path(".github/workflows/ci.yml")
+          )
+        );
+    }
+
+    private static Recipe compositeRecipe() {
+        return Environment.builder()
+          .scanRuntimeClasspath()
+          .build()
+          .activateRecipes("org.openrewrite.github.security.GitHubActionsSecurity");
+    }
+
+    private static List<SourceFile> parse(int copies) {
+        InMemoryExecutionContext ctx = new InMemoryExecutionContext();
+        List<SourceFile> workflows = new ArrayList<>();
+        for (int i = 0; i < copies; i++) {
+            workflows.add(YamlParser.builder().build().parse(ctx, INSECURE_WORKFLOW.replace("build:", "build-" + i + ":"))
+              .findFirst().orElseThrow().withSourcePath(Path.of(".github/workflows/insecure-" + i + ".yml")));
+            workflows.add(YamlParser.builder().build().parse(ctx, ORDINARY_WORKFLOW.replace("test:", "test-" + i + ":"))
+              .findFirst().orElseThrow().withSourcePath(Path.of(".github/workflows/ordinary-" + i + ".yml")));
+        }
+        // Not a workflow, so neither recipe looks at it
+        workflows.add(YamlParser.builder().build().parse(ctx, INSECURE_WORKFLOW)
+          .findFirst().orElseThrow().withSourcePath(Path.of("config/insecure.yml")));
+        return workflows;
+    }
+
+    private static Map<Path, String> run(Recipe recipe, List<SourceFile> workflows) {
+        Map<Path, String> printed = new TreeMap<>();
+        for (Result result : recipe.run(new InMemoryLargeSourceSet(workflows), new InMemoryExecutionContext())
+          .getChangeset().getAllResults()) {
+            SourceFile after = result.getAfter();
+            if (after != null) {
+                printed.put(after.getSourcePath(), after.printAll());
+            }
+        }
+        return printed;
+    }
+}
@@ -16,10 +16,16 @@
 package org.openrewrite.github.security;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
 import org.openrewrite.DocumentExample;
 import org.openrewrite.test.RecipeSpec;
 import org.openrewrite.test.RewriteTest;
 
+import java.time.Duration;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
 import static org.openrewrite.yaml.Assertions.yaml;
 
 class GitHubEnvTest implements RewriteTest {
@@ -112,7 +118,7 @@ class GitHubEnvTest implements RewriteTest {
                   steps:
                     - name: Add to PATH
                       run: |
-                        echo "/custom/bin" >> $GITHUB_PATH
+                        echo "$HOME/.local/bin" >> $GITHUB_PATH
                         echo "PATH updated"
               """,
             """
@@ -123,7 +129,7 @@ class GitHubEnvTest implements RewriteTest {
                   steps:
                     - name: Add to PATH
                       ~~(Write to GITHUB_PATH may allow code execution in a workflow with dangerous triggers. This can lead to code injection when the written content includes user-controlled data. Ensure any dynamic content is properly sanitized or avoid writing to environment files in workflows triggered by untrusted events.)~~>run: |
-                        echo "/custom/bin" >> $GITHUB_PATH
+                        echo "$HOME/.local/bin" >> $GITHUB_PATH
                         echo "PATH updated"
               """,
             sourceSpecs -> sourceSpecs.path(".github/workflows/test.yml")
@@ -142,13 +148,13 @@ class GitHubEnvTest implements RewriteTest {
                   runs-on: ubuntu-latest
                   steps:
                     - name: Bash syntax
-                      run: echo "VAR=value" >> $GITHUB_ENV
+                      run: echo "VAR=$VALUE" >> $GITHUB_ENV
                     - name: Quoted bash syntax
-                      run: echo "VAR=value" >> "$GITHUB_ENV"
+                      run: echo "VAR=$VALUE" >> "$GITHUB_ENV"
                     - name: Brace expansion
-                      run: echo "VAR=value" >> ${GITHUB_ENV}
+                      run: echo "VAR=$VALUE" >> ${GITHUB_ENV}
                     - name: Pipe to tee
-                      run: echo "VAR=value" | tee $GITHUB_ENV
+                      run: echo "VAR=$VALUE" | tee $GITHUB_ENV
               """,
             """
               on: pull_request_target
@@ -157,13 +163,13 @@ class GitHubEnvTest implements RewriteTest {
                   runs-on: ubuntu-latest
                   steps:
                     - name: Bash syntax
-                      ~~(Write to GITHUB_ENV may allow code execution in a workflow with dangerous triggers. This can lead to code injection when the written content includes user-controlled data. Ensure any dynamic content is properly sanitized or avoid writing to environment files in workflows triggered by untrusted events.)~~>run: echo "VAR=value" >> $GITHUB_ENV
+                      ~~(Write to GITHUB_ENV may allow code execution in a workflow with dangerous triggers. This can lead to code injection when the written content includes user-controlled data. Ensure any dynamic content is properly sanitized or avoid writing to environment files in workflows triggered by untrusted events.)~~>run: echo "VAR=$VALUE" >> $GITHUB_ENV
                     - name: Quoted bash syntax
-                      ~~(Write to GITHUB_ENV may allow code execution in a workflow with dangerous triggers. This can lead to code injection when the written content includes user-controlled data. Ensure any dynamic content is properly sanitized or avoid writing to environment files in workflows triggered by untrusted events.)~~>run: echo "VAR=value" >> "$GITHUB_ENV"
+                      ~~(Write to GITHUB_ENV may allow code execution in a workflow with dangerous triggers. This can lead to code injection when the written content includes user-controlled data. Ensure any dynamic content is properly sanitized or avoid writing to environment files in workflows triggered by untrusted events.)~~>run: echo "VAR=$VALUE" >> "$GITHUB_ENV"
                     - name: Brace expansion
-                      ~~(Write to GITHUB_ENV may allow code execution in a workflow with dangerous triggers. This can lead to code injection when the written content includes user-controlled data. Ensure any dynamic content is properly sanitized or avoid writing to environment files in workflows triggered by untrusted events.)~~>run: echo "VAR=value" >> ${GITHUB_ENV}
+                      ~~(Write to GITHUB_ENV may allow code execution in a workflow with dangerous triggers. This can lead to code injection when the written content includes user-controlled data. Ensure any dynamic content is properly sanitized or avoid writing to environment files in workflows triggered by untrusted events.)~~>run: echo "VAR=$VALUE" >> ${GITHUB_ENV}
                     - name: Pipe to tee
-                      ~~(Write to GITHUB_ENV may allow code execution in a workflow with dangerous triggers. This can lead to code injection when the written content includes user-controlled data. Ensure any dynamic content is properly sanitized or avoid writing to environment files in workflows triggered by untrusted events.)~~>run: echo "VAR=value" | tee $GITHUB_ENV
+                      ~~(Write to GITHUB_ENV may allow code execution in a workflow with dangerous triggers. This can lead to code injection when the written content includes user-controlled data. Ensure any dynamic content is properly sanitized or avoid writing to environment files in workflows triggered by untrusted events.)~~>run: echo "VAR=$VALUE" | tee $GITHUB_ENV
               """,
             sourceSpecs -> sourceSpecs.path(".github/workflows/test.yml")
           )
@@ -181,11 +187,11 @@ class GitHubEnvTest implements RewriteTest {
                   runs-on: windows-latest
                   steps:
                     - name: PowerShell redirect
-                      run: echo "VAR=value" >> $env:GITHUB_ENV
+                      run: echo "VAR=$VALUE" >> $env:GITHUB_ENV
                     - name: PowerShell Out-File
-                      run: echo "VAR=value" | Out-File -FilePath $env:GITHUB_ENV -Append
+                      run: echo "VAR=$VALUE" | Out-File -FilePath $env:GITHUB_ENV -Append
                     - name: PowerShell Add-Content
-                      run: Add-Content -Path $env:GITHUB_ENV -Value "VAR=value"
+                      run: Add-Content -Path $env:GITHUB_ENV -Value "VAR=$VALUE"
               """,
             """
               on: pull_request_target
@@ -194,11 +200,11 @@ class GitHubEnvTest implements RewriteTest {
                   runs-on: windows-latest
                   steps:
                     - name: PowerShell redirect
-                      ~~(Write to GITHUB_ENV may allow code execution in a workflow with dangerous triggers. This can lead to code injection when the written content includes user-controlled data. Ensure any dynamic content is properly sanitized or avoid writing to environment files in workflows triggered by untrusted events.)~~>run: echo "VAR=value" >> $env:GITHUB_ENV
+                      ~~(Write to GITHUB_ENV may allow code execution in a workflow with dangerous triggers. This can lead to code injection when the written content includes user-controlled data. Ensure any dynamic content is properly sanitized or avoid writing to environment files in workflows triggered by untrusted events.)~~>run: echo "VAR=$VALUE" >> $env:GITHUB_ENV
                     - name: PowerShell Out-File
-                      ~~(Write to GITHUB_ENV may allow code execution in a workflow with dangerous triggers. This can lead to code injection when the written content includes user-controlled data. Ensure any dynamic content is properly sanitized or avoid writing to environment files in workflows triggered by untrusted events.)~~>run: echo "VAR=value" | Out-File -FilePath $env:GITHUB_ENV -Append
+                      ~~(Write to GITHUB_ENV may allow code execution in a workflow with dangerous triggers. This can lead to code injection when the written content includes user-controlled data. Ensure any dynamic content is properly sanitized or avoid writing to environment files in workflows triggered by untrusted events.)~~>run: echo "VAR=$VALUE" | Out-File -FilePath $env:GITHUB_ENV -Append
                     - name: PowerShell Add-Content
-                      ~~(Write to GITHUB_ENV may allow code execution in a workflow with dangerous triggers. This can lead to code injection when the written content includes user-controlled data. Ensure any dynamic content is properly sanitized or avoid writing to environment files in workflows triggered by untrusted events.)~~>run: Add-Content -Path $env:GITHUB_ENV -Value "VAR=value"
+                      ~~(Write to GITHUB_ENV may allow code execution in a workflow with dangerous triggers. This can lead to code injection when the written content includes user-controlled data. Ensure any dynamic content is properly sanitized or avoid writing to environment files in workflows triggered by untrusted events.)~~>run: Add-Content -Path $env:GITHUB_ENV -Value "VAR=$VALUE"
               """,
             sourceSpecs -> sourceSpecs.path(".github/workflows/test.yml")
           )
@@ -263,7 +269,7 @@ class GitHubEnvTest implements RewriteTest {
                   runs-on: ubuntu-latest
                   steps:
                     - name: Set environment
-                      run: echo "TRIGGER=mixed" >> $GITHUB_ENV
+                      run: echo "TRIGGER=$TRIGGER" >> $GITHUB_ENV
               """,
             """
               on:
@@ -276,7 +282,7 @@ class GitHubEnvTest implements RewriteTest {
                   runs-on: ubuntu-latest
                   steps:
                     - name: Set environment
-                      ~~(Write to GITHUB_ENV may allow code execution in a workflow with dangerous triggers. This can lead to code injection when the written content includes user-controlled data. Ensure any dynamic content is properly sanitized or avoid writing to environment files in workflows triggered by untrusted events.)~~>run: echo "TRIGGER=mixed" >> $GITHUB_ENV
+                      ~~(Write to GITHUB_ENV may allow code execution in a workflow with dangerous triggers. This can lead to code injection when the written content includes user-controlled data. Ensure any dynamic content is properly sanitized or avoid writing to environment files in workflows triggered by untrusted events.)~~>run: echo "TRIGGER=$TRIGGER" >> $GITHUB_ENV
               """,
             sourceSpecs -> sourceSpecs.path(".github/workflows/test.yml")
           )
@@ -333,4 +339,161 @@ class GitHubEnvTest implements RewriteTest {
           )
         );
     }
+
+    @Test
+    void shouldDetectWritesWithOptionsAndContinuations() {
+        rewriteRun(
+          //language=yaml
+          yaml(
+            """
+              on: pull_request_target
+              jobs:
+                test:
+                  runs-on: ubuntu-latest
+                  steps:
+                    - name: Tee with options
+                      run: echo "VAR=value" | tee -a "${GITHUB_ENV}" > /dev/null
+                    - name: PowerShell continuation
+                      run: |
+                        Add-Content `
+                          -Path $env:GITHUB_PATH `
+                          -Value "C:\\tools"
+              """,
+            """
+              on: pull_request_target
+              jobs:
+                test:
+                  runs-on: ubuntu-latest
+                  steps:
+                    - name: Tee with options
+                      ~~(Write to GITHUB_ENV may allow code execution in a workflow with dangerous triggers. This can lead to code injection when the written content includes user-controlled data. Ensure any dynamic content is properly sanitized or avoid writing to environment files in workflows triggered by untrusted events.)~~>run: echo "VAR=value" | tee -a "${GITHUB_ENV}" > /dev/null
+                    - name: PowerShell continuation
+                      ~~(Write to GITHUB_PATH may allow code execution in a workflow with dangerous triggers. This can lead to code injection when the written content includes user-controlled data. Ensure any dynamic content is properly sanitized or avoid writing to environment files in workflows triggered by untrusted events.)~~>run: |
+                        Add-Content `
+                          -Path $env:GITHUB_PATH `
+                          -Value "C:\\tools"
+              """,
+            sourceSpecs -> sourceSpecs.path(".github/workflows/test.yml")
+          )
+        );
+    }
+
+    @Test
+    void shouldNotFlagReadsOfEnvironmentFiles() {
+        rewriteRun(
+          //language=yaml
+          yaml(
+            """
+              on: pull_request_target
+              jobs:
+                test:
+                  runs-on: ubuntu-latest
+                  steps:
+                    - run: |
+                        cat "$GITHUB_ENV"
+                        echo "Path file is $GITHUB_PATH"
+                        # echo "X=1" >> $GITHUB_ENV
+              """,
+            sourceSpecs -> sourceSpecs.path(".github/workflows/test.yml")
+          )
+        );
+    }
+
+    @Test
+    void shouldNotFlagStaticEchoWrites() {
+        rewriteRun(
+          //language=yaml
+          yaml(
+            """
+              on: pull_request_target
+              jobs:
+                test:
+                  runs-on: windows-latest
+                  steps:
+                    - shell: cmd
+                      run: |
+                        rem Prices are quoted in 'USD$'
+                        echo CURRENCY=USD>>%GITHUB_ENV%
+              """,
+            sourceSpecs -> sourceSpecs.path(".github/workflows/test.yml")
+          )
+        );
+    }
+
+    @Test
+    void shouldNotFlagStaticEchoToTheEnvironmentFile() {
+        rewriteRun(
+          //language=yaml
+          yaml(
+            """
+              on: pull_request_target
+              jobs:
+                test:
+                  runs-on: ubuntu-latest
+                  steps:
+                    - run: echo "FOO=bar" >> "$GITHUB_ENV"
+                    - run: echo "/opt/tool/bin" >> ${GITHUB_PATH}
+              """,
+            sourceSpecs -> sourceSpecs.path(".github/workflows/test.yml")
+          )
+        );
+    }
+
+    @Test
+    void shouldFlagEchoOfExpandedContentToTheEnvironmentFile() {
+        rewriteRun(
+          //language=yaml
+          yaml(
+            """
+              on: pull_request_target
+              jobs:
+                test:
+                  runs-on: ubuntu-latest
+                  steps:
+                    - run: echo "FOO=$X" >> "$GITHUB_ENV"
+              """,
+            """
+              on: pull_request_target
+              jobs:
+                test:
+                  runs-on: ubuntu-latest
+                  steps:
+                    - ~~(Write to GITHUB_ENV may allow code execution in a workflow with dangerous triggers. This can lead to code injection when the written content includes user-controlled data. Ensure any dynamic content is properly sanitized or avoid writing to environment files in workflows triggered by untrusted events.)~~>run: echo "FOO=$X" >> "$GITHUB_ENV"
+              """,
+            sourceSpecs -> sourceSpecs.path(".github/workflows/test.yml")
+          )
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("pathologicalScripts")
+    void shouldScanPathologicalScriptsInLinearTime(String script) {
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> rewriteRun(
+          //language=yaml
+          yaml(
+            """
+              on: pull_request_target
+              jobs:
+                test:
+                  runs-on: ubuntu-latest
+                  steps:
+                    - run: |
+                        %s
+              """.formatted(script),
+            sourceSpecs -> sourceSpecs.path(".github/workflows/test.yml")
+          )
+        ));
+    }
+
+    /**
+     * Scripts that the pattern once used here, with its {@code Out-File.*\$env:GITHUB_ENV} style
+     * alternatives, took quadratic time or worse to scan.
+     */
+    static Stream<String> pathologicalScripts() {
+        return Stream.of(
+          "Out-File Add-Content Set-Content Tee-Object ".repeat(5_000),
+          ">> ".repeat(50_000) + "x",
+          "echo " + "'".repeat(100_000)
+        );
+    }
 }
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2026 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.github.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KeywordMatcherTest {
+
+    @Test
+    void findsLongestKeywordIgnoringCase() {
+        KeywordMatcher matcher = new KeywordMatcher(List.of("run", "download-and-run", "Malicious-Org/", ""));
+
+        assertThat(matcher.longestIn("some-org/Download-And-Run@v1")).isEqualTo("download-and-run");
+        assertThat(matcher.longestIn("malicious-org/tool@v1")).isEqualTo("Malicious-Org/");
+        assertThat(matcher.longestIn("org/rerun@v1")).isEqualTo("run");
+        assertThat(matcher.longestIn("actions/checkout@v4")).isNull();
+    }
+
+    @Test
+    void findsKeywordsThatOverlapOrNest() {
+        KeywordMatcher matcher = new KeywordMatcher(List.of("abcd", "bcx", "c", "cdef"));
+
+        // Falling back from "abc" to "bc" must still find "bcx", and "c" must be found inside "abcd"
+        assertThat(matcher.longestIn("abcx")).isEqualTo("bcx");
+        assertThat(matcher.longestIn("abc")).isEqualTo("c");
+        assertThat(matcher.longestIn("abcdef")).isEqualTo("abcd");
+        assertThat(matcher.longestIn("xcdefx")).isEqualTo("cdef");
+    }
+
+    @Test
+    void agreesWithCheckingEachKeyword() {
+        Random random = new Random(1);
+        String alphabet = "abAB-/@";
+        for (int i = 0; i < 10_000; i++) {
+            List<String> keywords = new ArrayList<>();
+            for (int k = random.nextInt(8); k > 0; k--) {
+                keywords.add(randomString(random, alphabet, 1 + random.nextInt(4)));
+            }
+            String value = randomString(random, alphabet, random.nextInt(15));
+
+            int expected = -1;
+            for (String keyword : keywords) {
+                if (value.toLowerCase().contains(keyword.toLowerCase())) {
+                    expected = Math.max(expected, keyword.length());
+                }
+            }
+            String longest = new KeywordMatcher(keywords).longestIn(value);
+
+            assertThat(longest == null ? -1 : longest.length()).as("%s in %s", keywords, value).isEqualTo(expected);
+        }
+    }
+
+    private static String randomString(Random random, String alphabet, int length) {
+        StringBuilder s = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            s.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return s.toString();
+    }
+}
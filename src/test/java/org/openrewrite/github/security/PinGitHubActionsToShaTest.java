@@ -15,16 +15,41 @@
  */
 package org.openrewrite.github.security;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.openrewrite.DocumentExample;
+import org.openrewrite.HttpSenderExecutionContextView;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.SourceFile;
+import org.openrewrite.github.table.RateLimitedGitHubApiLookups;
+import org.openrewrite.ipc.http.HttpSender;
 import org.openrewrite.test.RecipeSpec;
 import org.openrewrite.test.RewriteTest;
+import org.openrewrite.yaml.YamlParser;
 
+import java.io.ByteArrayInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneOffset;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.DeflaterOutputStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
 import static org.openrewrite.yaml.Assertions.yaml;
 
 class PinGitHubActionsToShaTest implements RewriteTest {
@@ -883,4 +908,681 @@ class PinGitHubActionsToShaTest implements RewriteTest {
           )
         );
     }
+
+    @Test
+    void resolvesEachUnknownRefOnceAcrossWorkflows() {
+        AtomicInteger requests = new AtomicInteger();
+        InMemoryExecutionContext ctx = new InMemoryExecutionContext();
+        HttpSenderExecutionContextView.view(ctx).setHttpSender(request -> {
+            requests.incrementAndGet();
+            byte[] body = "0123456789abcdef0123456789abcdef01234567".getBytes(StandardCharsets.UTF_8);
+            return new HttpSender.Response(200, new ByteArrayInputStream(body), () -> {
+            });
+        });
+
+        rewriteRun(
+          spec -> spec.executionContext(ctx)
+            .afterRecipe(run -> assertThat(requests.get()).isEqualTo(1)),
+          //language=yaml
+          yaml(
+            """
+              on: push
+              jobs:
+                build:
+                  runs-on: ubuntu-latest
+                  steps:
+                    - uses: some-org/unknown-action@v1.0.0
+              """,
+            """
+              on: push
+              jobs:
+                build:
+                  runs-on: ubuntu-latest
+                  steps:
+                    - uses: some-org/unknown-action@0123456789abcdef0123456789abcdef01234567 # v1.0.0
+              """,
+            sourceSpecs -> sourceSpecs.path(".github/workflows/ci.yml")
+          ),
+          //language=yaml
+          yaml(
+            """
+              on: push
+              jobs:
+                release:
+                  runs-on: ubuntu-latest
+                  steps:
+                    - uses: some-org/unknown-action/sub@v1.0.0
+                    - uses: some-org/unknown-action@v1.0.0
+              """,
+            """
+              on: push
+              jobs:
+                release:
+                  runs-on: ubuntu-latest
+                  steps:
+                    - uses: some-org/unknown-action/sub@0123456789abcdef0123456789abcdef01234567 # v1.0.0
+                    - uses: some-org/unknown-action@0123456789abcdef0123456789abcdef01234567 # v1.0.0
+              """,
+            sourceSpecs -> sourceSpecs.path(".github/workflows/release.yml")
+          )
+        );
+    }
+
+    @Test
+    void remembersRefsThatCouldNotBeResolved() {
+        AtomicInteger requests = new AtomicInteger();
+        InMemoryExecutionContext ctx = new InMemoryExecutionContext();
+        HttpSenderExecutionContextView.view(ctx).setHttpSender(request -> {
+            requests.incrementAndGet();
+            return new HttpSender.Response(404, null, () -> {
+            });
+        });
+
+        rewriteRun(
+          spec -> spec.executionContext(ctx)
+            .afterRecipe(run -> assertThat(requests.get()).isEqualTo(1)),
+          //language=yaml
+          yaml(
+            """
+              on: push
+              jobs:
+                build:
+                  runs-on: ubuntu-latest
+                  steps:
+                    - uses: some-org/missing-action@v2.0.0
+                    - uses: some-org/missing-action@v2.0.0
+              """,
+            sourceSpecs -> sourceSpecs.path(".github/workflows/ci.yml")
+          ),
+          //language=yaml
+          yaml(
+            """
+              on: push
+              jobs:
+                release:
+                  runs-on: ubuntu-latest
+                  steps:
+                    - uses: some-org/missing-action@v2.0.0
+              """,
+            sourceSpecs -> sourceSpecs.path(".github/workflows/release.yml")
+          )
+        );
+    }
+
+    @Test
+    void reusesResolutionsCachedOnDiskByEarlierRuns(@TempDir Path cacheDir) {
+        AtomicInteger requests = new AtomicInteger();
+        HttpSender sender = request -> {
+            requests.incrementAndGet();
+            byte[] body = "0123456789abcdef0123456789abcdef01234567".getBytes(StandardCharsets.UTF_8);
+            return new HttpSender.Response(200, new ByteArrayInputStream(body), () -> {
+            });
+        };
+        //language=yaml
+        String before = """
+          on: push
+          jobs:
+            build:
+              runs-on: ubuntu-latest
+              steps:
+                - uses: some-org/unknown-action@v1.0.0
+          """;
+        //language=yaml
+        String after = """
+          on: push
+          jobs:
+            build:
+              runs-on: ubuntu-latest
+              steps:
+                - uses: some-org/unknown-action@0123456789abcdef0123456789abcdef01234567 # v1.0.0
+          """;
+
+        for (int run = 0; run < 2; run++) {
+            InMemoryExecutionContext ctx = new InMemoryExecutionContext();
+            HttpSenderExecutionContextView.view(ctx).setHttpSender(sender);
+            rewriteRun(
+              spec -> spec.executionContext(ctx)
+                .recipe(new PinGitHubActionsToSha(false, null, null, null, cacheDir.toString(), null, null, null, null, null)),
+              yaml(before, after, sourceSpecs -> sourceSpecs.path(".github/workflows/ci.yml"))
+            );
+        }
+        assertThat(requests.get()).isEqualTo(1);
+    }
+
+    @Test
+    void branchRefsExpireFromDiskCacheSooner(@TempDir Path cacheDir) throws Exception {
+        ActionRefDiskCache cache = new ActionRefDiskCache(cacheDir, Duration.ofDays(30));
+        cache.put("some-org/unknown-action", "v1.0.0", "0123456789abcdef0123456789abcdef01234567");
+        cache.put("some-org/unknown-action", "main", "89abcdef0123456789abcdef0123456789abcdef");
+        FileTime twoHoursAgo = FileTime.from(Instant.now().minus(Duration.ofHours(2)));
+        try (var entries = Files.list(cacheDir)) {
+            for (Path entry : entries.toList()) {
+                Files.setLastModifiedTime(entry, twoHoursAgo);
+            }
+        }
+
+        assertThat(cache.get("some-org/unknown-action", "v1.0.0", true))
+          .isEqualTo("0123456789abcdef0123456789abcdef01234567");
+        assertThat(cache.get("some-org/unknown-action", "main", false)).isNull();
+        assertThat(cache.get("some-org/other-action", "v1.0.0", true)).isNull();
+    }
+
+    @Test
+    void prefetchesUnknownRefsConcurrentlyBeforeEditing() {
+        CountDownLatch allInFlight = new CountDownLatch(3);
+        AtomicInteger overlapping = new AtomicInteger();
+        InMemoryExecutionContext ctx = new InMemoryExecutionContext();
+        HttpSenderExecutionContextView.view(ctx).setHttpSender(request -> {
+            allInFlight.countDown();
+            try {
+                if (allInFlight.await(10, TimeUnit.SECONDS)) {
+                    overlapping.incrementAndGet();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = "0123456789abcdef0123456789abcdef01234567".getBytes(StandardCharsets.UTF_8);
+            return new HttpSender.Response(200, new ByteArrayInputStream(body), () -> {
+            });
+        });
+
+        rewriteRun(
+          spec -> spec.executionContext(ctx)
+            .recipe(new PinGitHubActionsToSha(false, null, null, null, null, null, 3, null, null, null))
+            .afterRecipe(run -> assertThat(overlapping.get()).isEqualTo(3)),
+          //language=yaml
+          yaml(
+            """
+              on: push
+              jobs:
+                build:
+                  runs-on: ubuntu-latest
+                  steps:
+                    - uses: some-org/first-action@v1.0.0
+                    - uses: some-org/second-action@v1.0.0
+                    - uses: some-org/third-action@v1.0.0
+              """,
+            """
+              on: push
+              jobs:
+                build:
+                  runs-on: ubuntu-latest
+                  steps:
+                    - uses: some-org/first-action@0123456789abcdef0123456789abcdef01234567 # v1.0.0
+                    - uses: some-org/second-action@0123456789abcdef0123456789abcdef01234567 # v1.0.0
+                    - uses: some-org/third-action@0123456789abcdef0123456789abcdef01234567 # v1.0.0
+              """,
+            sourceSpecs -> sourceSpecs.path(".github/workflows/ci.yml")
+          )
+        );
+    }
+
+    @Test
+    void keepsPrefetchingWhenOneLookupFails() {
+        CountDownLatch failed = new CountDownLatch(1);
+        InMemoryExecutionContext ctx = new InMemoryExecutionContext();
+        HttpSenderExecutionContextView.view(ctx).setHttpSender(request -> {
+            if (request.getUrl().getPath().contains("/failing-action/")) {
+                failed.countDown();
+                throw new AssertionError("lookup failed");
+            }
+            try {
+                // Still in flight when the failure is noticed
+                assertThat(failed.await(10, TimeUnit.SECONDS)).isTrue();
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return new HttpSender.Response(500, null, () -> {
+                });
+            }
+            byte[] body = "0123456789abcdef0123456789abcdef01234567".getBytes(StandardCharsets.UTF_8);
+            return new HttpSender.Response(200, new ByteArrayInputStream(body), () -> {
+            });
+        });
+
+        rewriteRun(
+          spec -> spec.executionContext(ctx)
+            .recipe(new PinGitHubActionsToSha(false, null, null, null, null, null, 3, null, null, null)),
+          //language=yaml
+          yaml(
+            """
+              on: push
+              jobs:
+                build:
+                  runs-on: ubuntu-latest
+                  steps:
+                    - uses: some-org/failing-action@v1.0.0
+                    - uses: some-org/second-action@v1.0.0
+                    - uses: some-org/third-action@v1.0.0
+              """,
+            """
+              on: push
+              jobs:
+                build:
+                  runs-on: ubuntu-latest
+                  steps:
+                    - uses: some-org/failing-action@v1.0.0
+                    - uses: some-org/second-action@0123456789abcdef0123456789abcdef01234567 # v1.0.0
+                    - uses: some-org/third-action@0123456789abcdef0123456789abcdef01234567 # v1.0.0
+              """,
+            sourceSpecs -> sourceSpecs.path(".github/workflows/ci.yml")
+          )
+        );
+    }
+
+    @Test
+    void resolvesUnknownRefsInOneGraphQlQueryWithRestFallback() {
+        List<String> requests = new CopyOnWriteArrayList<>();
+        InMemoryExecutionContext ctx = new InMemoryExecutionContext();
+        HttpSenderExecutionContextView.view(ctx).setHttpSender(request -> {
+            requests.add(request.getUrl().getPath());
+            String body;
+            if ("/graphql".equals(request.getUrl().getPath())) {
+                assertThat(new String(request.getBody(), StandardCharsets.UTF_8))
+                  .contains("r0: repository(owner: \\\"some-org\\\", name: \\\"first-action\\\")")
+                  .contains("r2: repository(owner: \\\"some-org\\\", name: \\\"third-action\\\")");
+                // The second ref is an annotated tag; the third is not visible to GraphQL
+                body = """
+                  {"data":{"r0":{"object":{"oid":"0123456789abcdef0123456789abcdef01234567"}},\
+                  "r1":{"object":{"target":{"oid":"89abcdef0123456789abcdef0123456789abcdef"}}},\
+                  "r2":{"object":null}}}""";
+            } else {
+                body = "fedcba9876543210fedcba9876543210fedcba98";
+            }
+            return new HttpSender.Response(200, new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), () -> {
+            });
+        });
+
+        rewriteRun(
+          spec -> spec.executionContext(ctx)
+            .recipe(new PinGitHubActionsToSha(false, "token", null, null, null, null, null, true, null, null))
+            .afterRecipe(run -> assertThat(requests).containsExactly(
+              "/graphql", "/repos/some-org/third-action/commits/v1.0.0")),
+          //language=yaml
+          yaml(
+            """
+              on: push
+              jobs:
+                build:
+                  runs-on: ubuntu-latest
+                  steps:
+                    - uses: some-org/first-action@v1.0.0
+                    - uses: some-org/second-action@v1.0.0
+                    - uses: some-org/third-action@v1.0.0
+              """,
+            """
+              on: push
+              jobs:
+                build:
+                  runs-on: ubuntu-latest
+                  steps:
+                    - uses: some-org/first-action@0123456789abcdef0123456789abcdef01234567 # v1.0.0
+                    - uses: some-org/second-action@89abcdef0123456789abcdef0123456789abcdef # v1.0.0
+                    - uses: some-org/third-action@fedcba9876543210fedcba9876543210fedcba98 # v1.0.0
+              """,
+            sourceSpecs -> sourceSpecs.path(".github/workflows/ci.yml")
+          )
+        );
+    }
+
+    @Test
+    void retriesRateLimitedLookupsWithinTheTimeBudget() {
+        AtomicInteger commitRequests = new AtomicInteger();
+        InMemoryExecutionContext ctx = new InMemoryExecutionContext();
+        HttpSenderExecutionContextView.view(ctx).setHttpSender(request -> {
+            String body;
+            int code = 200;
+            if ("/rate_limit".equals(request.getUrl().getPath())) {
+                // Requests remain, so this was a secondary rate limit and the scheduler backs off
+                body = "{\"resources\":{\"core\":{\"limit\":5000,\"used\":1,\"remaining\":4999,\"reset\":1700000000}}}";
+            } else if (commitRequests.incrementAndGet() == 1) {
+                code = 429;
+                body = "{\"message\": \"You have exceeded a secondary rate limit.\"}";
+            } else {
+                body = "0123456789abcdef0123456789abcdef01234567";
+            }
+            return new HttpSender.Response(code, new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), () -> {
+            });
+        });
+
+        rewriteRun(
+          spec -> spec.executionContext(ctx)
+            .dataTable(RateLimitedGitHubApiLookups.Row.class, rows -> assertThat(rows).containsExactly(
+              new RateLimitedGitHubApiLookups.Row("some-org/unknown-action@v1.0.0", 1, "Deferred"))),
+          //language=yaml
+          yaml(
+            """
+              on: push
+              jobs:
+                build:
+                  runs-on: ubuntu-latest
+                  steps:
+                    - uses: some-org/unknown-action@v1.0.0
+              """,
+            """
+              on: push
+              jobs:
+                build:
+                  runs-on: ubuntu-latest
+                  steps:
+                    - uses: some-org/unknown-action@0123456789abcdef0123456789abcdef01234567 # v1.0.0
+              """,
+            sourceSpecs -> sourceSpecs.path(".github/workflows/ci.yml")
+          )
+        );
+        assertThat(commitRequests.get()).isEqualTo(2);
+    }
+
+    @Test
+    void schedulesEachTokenAndBudgetSeparately() {
+        InMemoryExecutionContext ctx = new InMemoryExecutionContext();
+        HttpSender httpSender = request -> {
+            throw new AssertionError("Unexpected request to " + request.getUrl());
+        };
+        GitHubApiScheduler scheduler = GitHubApiScheduler.get(ctx, httpSender, "token-a", Duration.ofSeconds(60));
+
+        assertThat(GitHubApiScheduler.get(ctx, httpSender, "token-a", Duration.ofSeconds(60))).isSameAs(scheduler);
+        assertThat(GitHubApiScheduler.get(ctx, httpSender, "token-b", Duration.ofSeconds(60))).isNotSameAs(scheduler);
+        assertThat(GitHubApiScheduler.get(ctx, httpSender, null, Duration.ofSeconds(60))).isNotSameAs(scheduler);
+        assertThat(GitHubApiScheduler.get(ctx, httpSender, "token-a", Duration.ofSeconds(5))).isNotSameAs(scheduler);
+        assertThat(GitHubApiScheduler.get(ctx, request -> {
+            throw new AssertionError("Unexpected request to " + request.getUrl());
+        }, "token-a", Duration.ofSeconds(60))).isNotSameAs(scheduler);
+    }
+
+    @Test
+    void countsRateLimitLookupsAgainstTheTimeBudget() {
+        AtomicInteger rateLimitRequests = new AtomicInteger();
+        AtomicInteger commitRequests = new AtomicInteger();
+        HttpSender httpSender = request -> {
+            if ("/rate_limit".equals(request.getUrl().getPath())) {
+                rateLimitRequests.incrementAndGet();
+                return new HttpSender.Response(500, null, () -> {
+                });
+            }
+            int code = commitRequests.incrementAndGet() < 10 ? 200 : 429;
+            byte[] body = "0123456789abcdef0123456789abcdef01234567".getBytes(StandardCharsets.UTF_8);
+            return new HttpSender.Response(code, new ByteArrayInputStream(body), () -> {
+            });
+        };
+        GitHubApiScheduler scheduler = GitHubApiScheduler.get(new InMemoryExecutionContext(), httpSender, null, Duration.ZERO);
+
+        // Nine requests leave a single permit of the initial burst for the tenth
+        for (int i = 0; i < 9; i++) {
+            assertThat(scheduler.send(httpSender.get("https://api.github.com/repos/some-org/action-" + i + "/commits/v1").build(),
+              "some-org/action-" + i + "@v1", "core")).isNotNull();
+        }
+        assertThat(scheduler.send(httpSender.get("https://api.github.com/repos/some-org/action-9/commits/v1").build(),
+          "some-org/action-9@v1", "core")).isNull();
+
+        assertThat(rateLimitRequests.get()).isZero();
+        assertThat(scheduler.drainRateLimited()).containsExactly(
+          new GitHubApiScheduler.RateLimitedLookup("some-org/action-9@v1", 1, true));
+    }
+
+    @Test
+    void dropsRateLimitedLookupsOnceTheTimeBudgetRunsOut() {
+        AtomicInteger commitRequests = new AtomicInteger();
+        InMemoryExecutionContext ctx = new InMemoryExecutionContext();
+        HttpSenderExecutionContextView.view(ctx).setHttpSender(request -> {
+            if ("/rate_limit".equals(request.getUrl().getPath())) {
+                return new HttpSender.Response(500, null, () -> {
+                });
+            }
+            commitRequests.incrementAndGet();
+            byte[] body = "{\"message\": \"API rate limit exceeded for 10.0.0.1.\"}".getBytes(StandardCharsets.UTF_8);
+            return new HttpSender.Response(403, new ByteArrayInputStream(body), () -> {
+            });
+        });
+
+        rewriteRun(
+          spec -> spec.executionContext(ctx)
+            .recipe(new PinGitHubActionsToSha(false, null, null, null, null, null, null, null, 0, null))
+            .dataTable(RateLimitedGitHubApiLookups.Row.class, rows -> assertThat(rows).containsExactly(
+              new RateLimitedGitHubApiLookups.Row("some-org/unknown-action@v1.0.0", 1, "Dropped"))),
+          //language=yaml
+          yaml(
+            """
+              on: push
+              jobs:
+                build:
+                  runs-on: ubuntu-latest
+                  steps:
+                    - uses: some-org/unknown-action@v1.0.0
+              """,
+            sourceSpecs -> sourceSpecs.path(".github/workflows/ci.yml")
+          )
+        );
+        assertThat(commitRequests.get()).isEqualTo(1);
+    }
+
+    @Test
+    void revalidatesExpiredBranchRefsWithConditionalRequests(@TempDir Path cacheDir) throws Exception {
+        String cachedSha = "89abcdef0123456789abcdef0123456789abcdef";
+        ActionRefDiskCache cache = new ActionRefDiskCache(cacheDir, Duration.ofDays(30));
+        cache.put("some-org/unknown-action", "main", cachedSha);
+        try (var entries = Files.list(cacheDir)) {
+            for (Path entry : entries.toList()) {
+                Files.setLastModifiedTime(entry, FileTime.from(Instant.now().minus(Duration.ofHours(2))));
+            }
+        }
+
+        List<HttpSender.Request> requests = new CopyOnWriteArrayList<>();
+        InMemoryExecutionContext ctx = new InMemoryExecutionContext();
+        HttpSenderExecutionContextView.view(ctx).setHttpSender(request -> {
+            requests.add(request);
+            return new HttpSender.Response(304, new ByteArrayInputStream(new byte[0]), () -> {
+            });
+        });
+
+        rewriteRun(
+          spec -> spec.executionContext(ctx)
+            .recipe(new PinGitHubActionsToSha(false, null, null, null, cacheDir.toString(), null, null, null, null, null)),
+          //language=yaml
+          yaml(
+            """
+              on: push
+              jobs:
+                build:
+                  runs-on: ubuntu-latest
+                  steps:
+                    - uses: some-org/unknown-action@main
+              """,
+            """
+              on: push
+              jobs:
+                build:
+                  runs-on: ubuntu-latest
+                  steps:
+                    - uses: some-org/unknown-action@%s # main @ %s
+              """.formatted(cachedSha, LocalDate.now(ZoneOffset.UTC)),
+            sourceSpecs -> sourceSpecs.path(".github/workflows/ci.yml")
+          )
+        );
+
+        assertThat(requests).singleElement().satisfies(request -> assertThat(request.getRequestHeaders())
+          .containsEntry("Accept", "application/vnd.github.sha")
+          .containsEntry("If-None-Match", "\"" + cachedSha + "\""));
+        // The revalidated entry is fresh again
+        assertThat(cache.get("some-org/unknown-action", "main", false)).isEqualTo(cachedSha);
+    }
+
+    @Test
+    void resolvesRefsFromLocalGitMirrorsWithoutTheNetwork(@TempDir Path mirrors) throws Exception {
+        Path packed = Files.createDirectories(mirrors.resolve("some-org/packed-action.git"));
+        Files.writeString(packed.resolve("packed-refs"), """
+          # pack-refs with: peeled fully-peeled sorted
+          0123456789abcdef0123456789abcdef01234567 refs/heads/main
+          0123456789abcdef0123456789abcdef01234567 refs/tags/v1.0.0
+          fedcba9876543210fedcba9876543210fedcba98 refs/tags/v2.0.0
+          ^89abcdef0123456789abcdef0123456789abcdef
+          """);
+        Path loose = Files.createDirectories(mirrors.resolve("some-org/loose-action/refs/tags/release"));
+        Files.writeString(loose.resolve("v3"), "76543210fedcba9876543210fedcba9876543210\n");
+        writeLooseObject(mirrors.resolve("some-org/loose-action"), "76543210fedcba9876543210fedcba9876543210", "commit");
+
+        InMemoryExecutionContext ctx = new InMemoryExecutionContext();
+        HttpSenderExecutionContextView.view(ctx).setHttpSender(request -> {
+            throw new AssertionError("Unexpected request to " + request.getUrl());
+        });
+
+        rewriteRun(
+          spec -> spec.executionContext(ctx)
+            .recipe(new PinGitHubActionsToSha(false, null, null, null, null, null, null, null, null, mirrors.toString())),
+          //language=yaml
+          yaml(
+            """
+              on: push
+              jobs:
+                build:
+                  runs-on: ubuntu-latest
+                  steps:
+                    - uses: some-org/packed-action@v1.0.0
+                    - uses: some-org/packed-action/sub@v2.0.0
+                    - uses: some-org/loose-action@release/v3
+                    - uses: some-org/unmirrored-action@v1.0.0
+              """,
+            """
+              on: push
+              jobs:
+                build:
+                  runs-on: ubuntu-latest
+                  steps:
+                    - uses: some-org/packed-action@0123456789abcdef0123456789abcdef01234567 # v1.0.0
+                    - uses: some-org/packed-action/sub@89abcdef0123456789abcdef0123456789abcdef # v2.0.0
+                    - uses: some-org/loose-action@76543210fedcba9876543210fedcba9876543210 # release/v3 @ %s
+                    - uses: some-org/unmirrored-action@v1.0.0
+              """.formatted(LocalDate.now(ZoneOffset.UTC)),
+            sourceSpecs -> sourceSpecs.path(".github/workflows/ci.yml")
+          )
+        );
+    }
+
+    @Test
+    void peelsPackedAnnotatedTagsWithoutPeeledLines(@TempDir Path mirrors) throws Exception {
+        Path mirror = Files.createDirectories(mirrors.resolve("some-org/tagged-action.git"));
+        String tag = "1111111111111111111111111111111111111111";
+        Files.writeString(mirror.resolve("packed-refs"), """
+          %s refs/tags/v1.0.0
+          2222222222222222222222222222222222222222 refs/tags/v2.0.0
+          """.formatted(tag));
+        writePackedTag(mirror, tag, """
+          object 89abcdef0123456789abcdef0123456789abcdef
+          type commit
+          tag v1.0.0
+          tagger Someone <someone@example.com> 1700000000 +0000
+
+          Release v1.0.0
+          """);
+
+        InMemoryExecutionContext ctx = new InMemoryExecutionContext();
+        HttpSenderExecutionContextView.view(ctx).setHttpSender(request -> {
+            throw new AssertionError("Unexpected request to " + request.getUrl());
+        });
+
+        // The object of v2.0.0 is nowhere in the mirror, so it may be a tag object and is left unpinned
+        rewriteRun(
+          spec -> spec.executionContext(ctx)
+            .recipe(new PinGitHubActionsToSha(false, null, null, null, null, null, null, null, null, mirrors.toString())),
+          //language=yaml
+          yaml(
+            """
+              on: push
+              jobs:
+                build:
+                  runs-on: ubuntu-latest
+                  steps:
+                    - uses: some-org/tagged-action@v1.0.0
+                    - uses: some-org/tagged-action@v2.0.0
+              """,
+            """
+              on: push
+              jobs:
+                build:
+                  runs-on: ubuntu-latest
+                  steps:
+                    - uses: some-org/tagged-action@89abcdef0123456789abcdef0123456789abcdef # v1.0.0
+                    - uses: some-org/tagged-action@v2.0.0
+              """,
+            sourceSpecs -> sourceSpecs.path(".github/workflows/ci.yml")
+          )
+        );
+    }
+
+    @Test
+    void accumulatorHoldsOnlyWhatTheScanDiscovered(@TempDir Path mirrors) throws Exception {
+        Path mirror = Files.createDirectories(mirrors.resolve("some-org/mirrored-action.git"));
+        Files.writeString(mirror.resolve("packed-refs"), """
+          # pack-refs with: peeled fully-peeled sorted
+          0123456789abcdef0123456789abcdef01234567 refs/tags/v1.0.0
+          """);
+        PinGitHubActionsToSha recipe = new PinGitHubActionsToSha(true, null, null, null, null, null, null, null, null, mirrors.toString());
+        InMemoryExecutionContext ctx = new InMemoryExecutionContext();
+
+        PinGitHubActionsToSha.Accumulator acc = recipe.getInitialValue(ctx);
+        SourceFile workflow = YamlParser.builder().build()
+          .parse(ctx, """
+            on: push
+            jobs:
+              build:
+                runs-on: ubuntu-latest
+                steps:
+                  - uses: actions/checkout@v4.3.1
+                  - uses: codecov/codecov-action@v4.6.0
+                  - uses: some-org/mirrored-action@v1.0.0
+                  - uses: some-org/mirrored-action/sub@v1.0.0
+                  - uses: some-org/unmirrored-action@v1.0.0
+            """)
+          .findFirst()
+          .orElseThrow()
+          .withSourcePath(Path.of(".github/workflows/ci.yml"));
+        recipe.getScanner(acc).visit(workflow, ctx);
+        recipe.generate(acc, ctx);
+
+        assertThat(acc.getUnresolved()).containsExactly(
+          new PinGitHubActionsToSha.ActionRef("some-org/mirrored-action", "v1.0.0"),
+          new PinGitHubActionsToSha.ActionRef("some-org/unmirrored-action", "v1.0.0"));
+        assertThat(acc.getResolved())
+          .containsExactly(entry("some-org/mirrored-action@v1.0.0", "0123456789abcdef0123456789abcdef01234567"));
+        // The known SHA table is shared rather than carried by each accumulator
+        assertThat(new ObjectMapper().writeValueAsBytes(acc)).hasSizeLessThan(1024);
+    }
+
+    private static void writeLooseObject(Path gitDir, String sha, String type) throws IOException {
+        Path object = Files.createDirectories(gitDir.resolve("objects").resolve(sha.substring(0, 2))).resolve(sha.substring(2));
+        try (OutputStream out = new DeflaterOutputStream(Files.newOutputStream(object))) {
+            out.write((type + " 0\0").getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * A pack holding just an annotated tag, with a version 2 index that has no checksums.
+     */
+    private static void writePackedTag(Path gitDir, String sha, String body) throws IOException {
+        Path packs = Files.createDirectories(gitDir.resolve("objects/pack"));
+        byte[] content = body.getBytes(StandardCharsets.UTF_8);
+        try (DataOutputStream pack = new DataOutputStream(Files.newOutputStream(packs.resolve("pack-test.pack")))) {
+            pack.writeBytes("PACK");
+            pack.writeInt(2);
+            pack.writeInt(1);
+            // A tag, and its size split into 4 and then 7 bits
+            pack.write(0x80 | 4 << 4 | content.length & 0x0f);
+            pack.write(content.length >> 4);
+            DeflaterOutputStream deflated = new DeflaterOutputStream(pack);
+            deflated.write(content);
+            deflated.finish();
+        }
+        try (DataOutputStream idx = new DataOutputStream(Files.newOutputStream(packs.resolve("pack-test.idx")))) {
+            idx.writeInt(0xff744f63);
+            idx.writeInt(2);
+            int first = Integer.parseInt(sha.substring(0, 2), 16);
+            for (int i = 0; i < 256; i++) {
+                idx.writeInt(i < first ? 0 : 1);
+            }
+            idx.write(HexFormat.of().parseHex(sha));
+            idx.writeInt(0);
+            // Just past the pack header
+            idx.writeInt(12);
+        }
+    }
 }
@@ -52,7 +52,7 @@ class RefVersionMismatchTest implements RewriteTest {
                   runs-on: ubuntu-latest
                   steps:
                     # tag=v3
-                    - ~~(Action is pinned to a commit SHA but has a version comment that may not match. Verify the comment reflects the actual pinned version.)~~>uses: actions/checkout@8ade135a41bc03ea155e62e844d188df1ea18608
+                    - ~~(Version comment `v3` does not match the pinned commit, which is tagged v4.1.0.)~~>uses: actions/checkout@8ade135a41bc03ea155e62e844d188df1ea18608
               """,
             sourceSpecs -> sourceSpecs.path(".github/workflows/test.yml")
           )
@@ -81,7 +81,7 @@ class RefVersionMismatchTest implements RewriteTest {
                   runs-on: ubuntu-latest
                   steps:
                     # version: v2.8.0
-                    - ~~(Action is pinned to a commit SHA but has a version comment that may not match. Verify the comment reflects the actual pinned version.)~~>uses: actions/setup-node@b39b52d1213e96004bfcb1c61a8a6fa8ab84f3e8
+                    - ~~(Version comment `v2.8.0` does not match the pinned commit, which is tagged v4.0.1.)~~>uses: actions/setup-node@b39b52d1213e96004bfcb1c61a8a6fa8ab84f3e8
               """,
             sourceSpecs -> sourceSpecs.path(".github/workflows/test.yml")
           )
@@ -110,7 +110,114 @@ class RefVersionMismatchTest implements RewriteTest {
                   runs-on: ubuntu-latest
                   steps:
                     # v4.2.1
-                    - ~~(Action is pinned to a commit SHA but has a version comment that may not match. Verify the comment reflects the actual pinned version.)~~>uses: actions/upload-artifact@26f96dfa697d77e81fd5907df203aa23a56210a8
+                    - ~~(Version comment `v4.2.1` does not match the pinned commit, which is tagged v4.3.0.)~~>uses: actions/upload-artifact@26f96dfa697d77e81fd5907df203aa23a56210a8
+              """,
+            sourceSpecs -> sourceSpecs.path(".github/workflows/test.yml")
+          )
+        );
+    }
+
+    @Test
+    void shouldNotFlagMatchingVersionComments() {
+        rewriteRun(
+          yaml(
+            """
+              name: Test Workflow
+              on: push
+              jobs:
+                test:
+                  runs-on: ubuntu-latest
+                  steps:
+                    # tag=v4.1.0
+                    - uses: actions/checkout@8ade135a41bc03ea155e62e844d188df1ea18608
+                    - name: Setup Node
+                      # v4
+                      uses: actions/setup-node@b39b52d1213e96004bfcb1c61a8a6fa8ab84f3e8
+              """,
+            sourceSpecs -> sourceSpecs.path(".github/workflows/test.yml")
+          )
+        );
+    }
+
+    @Test
+    void shouldReadInlineCommentsOfConsecutivePins() {
+        rewriteRun(
+          yaml(
+            """
+              name: Test Workflow
+              on: push
+              jobs:
+                test:
+                  runs-on: ubuntu-latest
+                  steps:
+                    - uses: actions/checkout@8ade135a41bc03ea155e62e844d188df1ea18608 # v3
+                    - uses: actions/setup-node@b39b52d1213e96004bfcb1c61a8a6fa8ab84f3e8 # v4
+                    - name: Upload
+                      uses: actions/upload-artifact@26f96dfa697d77e81fd5907df203aa23a56210a8 # v4.3.0
+                      with:
+                        name: report
+              """,
+            """
+              name: Test Workflow
+              on: push
+              jobs:
+                test:
+                  runs-on: ubuntu-latest
+                  steps:
+                    - ~~(Version comment `v3` does not match the pinned commit, which is tagged v4.1.0.)~~>uses: actions/checkout@8ade135a41bc03ea155e62e844d188df1ea18608 # v3
+                    - uses: actions/setup-node@b39b52d1213e96004bfcb1c61a8a6fa8ab84f3e8 # v4
+                    - name: Upload
+                      uses: actions/upload-artifact@26f96dfa697d77e81fd5907df203aa23a56210a8 # v4.3.0
+                      with:
+                        name: report
+              """,
+            sourceSpecs -> sourceSpecs.path(".github/workflows/test.yml")
+          )
+        );
+    }
+
+    @Test
+    void shouldReadInlineCommentOfLastPin() {
+        rewriteRun(
+          yaml(
+            """
+              name: Test Workflow
+              on: push
+              jobs:
+                test:
+                  runs-on: ubuntu-latest
+                  steps:
+                    - uses: actions/checkout@8ade135a41bc03ea155e62e844d188df1ea18608 # v4.1.0
+                    - uses: actions/setup-node@b39b52d1213e96004bfcb1c61a8a6fa8ab84f3e8 # v3
+              """,
+            """
+              name: Test Workflow
+              on: push
+              jobs:
+                test:
+                  runs-on: ubuntu-latest
+                  steps:
+                    - uses: actions/checkout@8ade135a41bc03ea155e62e844d188df1ea18608 # v4.1.0
+                    - ~~(Version comment `v3` does not match the pinned commit, which is tagged v4.0.1.)~~>uses: actions/setup-node@b39b52d1213e96004bfcb1c61a8a6fa8ab84f3e8 # v3
+              """,
+            sourceSpecs -> sourceSpecs.path(".github/workflows/test.yml")
+          )
+        );
+    }
+
+    @Test
+    void shouldNotFlagUnknownCommits() {
+        rewriteRun(
+          yaml(
+            """
+              name: Test Workflow
+              on: push
+              jobs:
+                test:
+                  runs-on: ubuntu-latest
+                  steps:
+                    # tag=v3
+                    - uses: actions/checkout@0123456789abcdef0123456789abcdef01234567
               """,
             sourceSpecs -> sourceSpecs.path(".github/workflows/test.yml")
           )
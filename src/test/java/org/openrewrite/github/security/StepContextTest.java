@@ -0,0 +1,135 @@
+/*
+ * Copyright 2026 the original author or authors.
+ * <p>
+ * Licensed under the Moderne Source Available License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://docs.moderne.io/licensing/moderne-source-available-license
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.github.security;
+
+import org.junit.jupiter.api.Test;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.yaml.JsonPathMatcher;
+import org.openrewrite.yaml.YamlIsoVisitor;
+import org.openrewrite.yaml.YamlParser;
+import org.openrewrite.yaml.tree.Yaml;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StepContextTest {
+
+    private static final JsonPathMatcher STEP_RUN_MATCHER = new JsonPathMatcher("$..steps[*].run");
+    private static final JsonPathMatcher STEP_USES_MATCHER = new JsonPathMatcher("$..steps[*].uses");
+    private static final JsonPathMatcher STEP_SCRIPT_MATCHER = new JsonPathMatcher("$..steps[*].with.script");
+
+    @Test
+    void findsStepKeysAndInputs() {
+        Yaml.Documents workflow = parse("""
+          on: push
+          jobs:
+            build:
+              uses: org/repo/.github/workflows/reusable.yml@main
+              with:
+                script: not a step
+              steps:
+                - uses: actions/github-script@v7
+                  with:
+                    script: console.log("hello")
+                    run: not a step key
+                    matrix:
+                      - run: not a step either
+                - run: echo hello
+                  env:
+                    run: not a step key
+          """);
+
+        assertThat(stepContextFinds(workflow)).containsExactly(
+          "uses: actions/github-script@v7",
+          "script: console.log(\"hello\")",
+          "run: echo hello");
+    }
+
+    @Test
+    void findsWhatTheMatchersFind() {
+        Yaml.Documents workflow = parse(workflowWithSteps(50));
+        assertThat(stepContextFinds(workflow)).hasSize(198).isEqualTo(matchersFind(workflow));
+    }
+
+    private static List<String> stepContextFinds(Yaml.Documents workflow) {
+        List<String> found = new ArrayList<>();
+        new SecurityCheck("run", "uses", "script") {
+            @Override
+            Yaml.Mapping.Entry checkEntry(Yaml.Mapping.Entry entry, ExecutionContext ctx) {
+                String key = entry.getKey().getValue();
+                if ("script".equals(key) ? getSteps().isStepInput(getCursor()) : getSteps().isStepKey(getCursor())) {
+                    found.add(entry.printTrimmed(getCursor().getParentOrThrow()));
+                }
+                return entry;
+            }
+        }.visit(workflow, new InMemoryExecutionContext());
+        return found;
+    }
+
+    private static List<String> matchersFind(Yaml.Documents workflow) {
+        List<String> found = new ArrayList<>();
+        new YamlIsoVisitor<ExecutionContext>() {
+            @Override
+            public Yaml.Mapping.Entry visitMappingEntry(Yaml.Mapping.Entry entry, ExecutionContext ctx) {
+                Yaml.Mapping.Entry e = super.visitMappingEntry(entry, ctx);
+                if (STEP_RUN_MATCHER.matches(getCursor()) ||
+                    STEP_USES_MATCHER.matches(getCursor()) ||
+                    STEP_SCRIPT_MATCHER.matches(getCursor())) {
+                    found.add(e.printTrimmed(getCursor().getParentOrThrow()));
+                }
+                return e;
+            }
+        }.visit(workflow, new InMemoryExecutionContext());
+        return found;
+    }
+
+    /**
+     * Three jobs of the given number of steps each, every step with a handful of inputs.
+     */
+    private static String workflowWithSteps(int steps) {
+        StringBuilder yaml = new StringBuilder("on: push\njobs:\n");
+        for (int job = 0; job < 3; job++) {
+            yaml.append("  job-").append(job).append(":\n")
+              .append("    runs-on: ubuntu-latest\n")
+              .append("    steps:\n");
+            for (int step = 0; step < steps; step++) {
+                switch (step % 3) {
+                    case 0 -> yaml.append("      - run: echo ").append(step).append('\n')
+                      .append("        env:\n")
+                      .append("          STEP: ").append(step).append('\n');
+                    case 1 -> yaml.append("      - uses: actions/setup-node@v4\n")
+                      .append("        with:\n")
+                      .append("          node-version: 20\n")
+                      .append("          cache: npm\n");
+                    default -> yaml.append("      - uses: actions/github-script@v7\n")
+                      .append("        with:\n")
+                      .append("          script: console.log(").append(step).append(")\n");
+                }
+            }
+        }
+        return yaml.toString();
+    }
+
+    private static Yaml.Documents parse(String yaml) {
+        return (Yaml.Documents) YamlParser.builder().build()
+          .parse(new InMemoryExecutionContext(), yaml)
+          .findFirst()
+          .orElseThrow();
+    }
+}
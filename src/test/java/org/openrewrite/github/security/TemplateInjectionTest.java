@@ -20,6 +20,8 @@ import org.openrewrite.DocumentExample;
 import org.openrewrite.test.RecipeSpec;
 import org.openrewrite.test.RewriteTest;
 
+import java.util.List;
+
 import static org.openrewrite.yaml.Assertions.yaml;
 
 class TemplateInjectionTest implements RewriteTest {
@@ -296,6 +298,50 @@ class TemplateInjectionTest implements RewriteTest {
         );
     }
 
+    @Test
+    void shouldNotFlagContextNamesInStringLiterals() {
+        rewriteRun(
+          yaml(
+            """
+              on: issues
+              jobs:
+                test:
+                  runs-on: ubuntu-latest
+                  steps:
+                    - run: 'echo "${{ github.event_name == ''issues'' && ''see github.event.issue.title'' || ''none'' }}"'
+              """,
+            sourceSpecs -> sourceSpecs.path(".github/workflows/test.yml")
+          )
+        );
+    }
+
+    @Test
+    void shouldFlagDangerousContextsInMalformedExpressions() {
+        rewriteRun(
+          yaml(
+            """
+              name: Test Workflow
+              on: issues
+              jobs:
+                test:
+                  runs-on: ubuntu-latest
+                  steps:
+                    - run: echo "${{ format('{0}', github.event.issue.title }}"
+              """,
+            """
+              name: Test Workflow
+              on: issues
+              jobs:
+                test:
+                  runs-on: ubuntu-latest
+                  steps:
+                    - ~~(Potential template injection vulnerability. User-controlled input 'github.event.issue.title' used in run command without proper escaping.)~~>run: echo "${{ format('{0}', github.event.issue.title }}"
+              """,
+            sourceSpecs -> sourceSpecs.path(".github/workflows/test.yml")
+          )
+        );
+    }
+
     @Test
     void shouldIgnoreNonWorkflowFiles() {
         rewriteRun(
@@ -310,4 +356,36 @@ class TemplateInjectionTest implements RewriteTest {
           )
         );
     }
+
+    @Test
+    void shouldFlagAdditionalContextsAndTheirFields() {
+        rewriteRun(
+          spec -> spec.recipe(new TemplateInjection(List.of("github.event.client_payload", "github.event.commits.*.message"))),
+          yaml(
+            """
+              name: Test Workflow
+              on: repository_dispatch
+              jobs:
+                test:
+                  runs-on: ubuntu-latest
+                  steps:
+                    - run: echo "${{ github.event.client_payload.ref }}"
+                    - run: echo "${{ github.event.commits[1].message }}"
+                    - run: echo "${{ github.event.client_payload_version }}"
+              """,
+            """
+              name: Test Workflow
+              on: repository_dispatch
+              jobs:
+                test:
+                  runs-on: ubuntu-latest
+                  steps:
+                    - ~~(Potential template injection vulnerability. User-controlled input 'github.event.client_payload.ref' used in run command without proper escaping.)~~>run: echo "${{ github.event.client_payload.ref }}"
+                    - ~~(Potential template injection vulnerability. User-controlled input 'github.event.commits[1].message' used in run command without proper escaping.)~~>run: echo "${{ github.event.commits[1].message }}"
+                    - run: echo "${{ github.event.client_payload_version }}"
+              """,
+            sourceSpecs -> sourceSpecs.path(".github/workflows/test.yml")
+          )
+        );
+    }
 }
@@ -16,10 +16,16 @@
 package org.openrewrite.github.security;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
 import org.openrewrite.DocumentExample;
 import org.openrewrite.test.RecipeSpec;
 import org.openrewrite.test.RewriteTest;
 
+import java.time.Duration;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
 import static org.openrewrite.yaml.Assertions.yaml;
 
 class TrustedPublishingTest implements RewriteTest {
@@ -250,6 +256,51 @@ class TrustedPublishingTest implements RewriteTest {
         );
     }
 
+    @Test
+    void shouldJudgeEachStepOnItsOwnInputs() {
+        rewriteRun(
+          yaml(
+            """
+              name: Release
+              on: push
+              jobs:
+                release:
+                  runs-on: ubuntu-latest
+                  steps:
+                    - uses: actions/setup-node@v4
+                      with:
+                        registry-url: https://registry.npmjs.org
+                    - uses: actions/setup-node@v4
+                      with:
+                        always-auth: true
+                    - uses: pypa/gh-action-pypi-publish@release/v1
+                      with:
+                        password: ${{ secrets.PRIVATE_INDEX }}
+                        repository-url: https://pypi.example.com/
+              """,
+            """
+              name: Release
+              on: push
+              jobs:
+                release:
+                  runs-on: ubuntu-latest
+                  steps:
+                    - uses: actions/setup-node@v4
+                      with:
+                        registry-url: https://registry.npmjs.org
+                    - uses: actions/setup-node@v4
+                      with:
+                        ~~(Manual credential used here)~~>always-auth: true
+                    - uses: pypa/gh-action-pypi-publish@release/v1
+                      with:
+                        ~~(Manual credential used here)~~>password: ${{ secrets.PRIVATE_INDEX }}
+                        repository-url: https://pypi.example.com/
+              """,
+            sourceSpecs -> sourceSpecs.path(".github/workflows/release.yml")
+          )
+        );
+    }
+
     @Test
     void shouldIgnoreNonWorkflowFiles() {
         rewriteRun(
@@ -265,4 +316,93 @@ class TrustedPublishingTest implements RewriteTest {
           )
         );
     }
+
+    @Test
+    void shouldFlagPublishCommandsHoweverInvoked() {
+        rewriteRun(
+          //language=yaml
+          yaml(
+            """
+              name: Manual Publish
+              on: push
+              jobs:
+                publish:
+                  runs-on: ubuntu-latest
+                  steps:
+                    - run: |
+                        python -m twine \\
+                          upload --skip-existing dist/*
+              """,
+            """
+              name: Manual Publish
+              on: push
+              jobs:
+                publish:
+                  runs-on: ubuntu-latest
+                  steps:
+                    - ~~(Manual publishing command detected. Consider using trusted publishing actions instead.)~~>run: |
+                        python -m twine \\
+                          upload --skip-existing dist/*
+              """,
+            sourceSpecs -> sourceSpecs.path(".github/workflows/publish.yml")
+          )
+        );
+    }
+
+    @Test
+    void shouldNotFlagPublishWordsInOtherCommands() {
+        rewriteRun(
+          //language=yaml
+          yaml(
+            """
+              name: Build
+              on: push
+              jobs:
+                build:
+                  runs-on: ubuntu-latest
+                  steps:
+                    - run: |
+                        npm ci
+                        echo "Run the publish workflow to release"
+                        # twine upload happens in release.yml
+                        pip install twine && python -m build
+                        ./scripts/upload-coverage.sh
+              """,
+            sourceSpecs -> sourceSpecs.path(".github/workflows/build.yml")
+          )
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("pathologicalScripts")
+    void shouldScanPathologicalScriptsInLinearTime(String script) {
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> rewriteRun(
+          //language=yaml
+          yaml(
+            """
+              name: Build
+              on: push
+              jobs:
+                build:
+                  runs-on: ubuntu-latest
+                  steps:
+                    - run: |
+                        %s
+              """.formatted(script),
+            sourceSpecs -> sourceSpecs.path(".github/workflows/build.yml")
+          )
+        ));
+    }
+
+    /**
+     * Scripts that the patterns once used here, such as {@code twine\s+(.+\s+)?upload}, took
+     * quadratic time or worse to scan.
+     */
+    static Stream<String> pathologicalScripts() {
+        return Stream.of(
+          "twine a ".repeat(25_000),
+          "yarn npm ".repeat(25_000),
+          "gem " + "\t ".repeat(50_000) + "pull"
+        );
+    }
 }